@@ -144,7 +144,11 @@ final class SynchronousRequestResponseHandler {
 
         @Override
         public void write(ByteBuffer byteBuffer, CompletionHandler completionHandler) {
-            responseBuffers.add(byteBuffer);
+            // copy, as handlers may reuse the buffer once the write is completed
+            ByteBuffer copy = ByteBuffer.allocate(byteBuffer.remaining());
+            copy.put(byteBuffer);
+            copy.flip();
+            responseBuffers.add(copy);
             completionHandler.completed();
         }
 
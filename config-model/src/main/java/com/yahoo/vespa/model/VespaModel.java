@@ -144,16 +144,23 @@ public final class VespaModel extends AbstractConfigProducerRoot implements Seri
         VespaModelBuilder builder = new VespaDomBuilder();
         root = builder.getRoot(VespaModel.ROOT_CONFIGID, deployState, this);
         if (complete) { // create a a completed, frozen model
+            BuildPhaseTimer timer = new BuildPhaseTimer();
             configModelRepo.readConfigModels(deployState, builder, root, configModelRegistry);
             addServiceClusters(deployState.getApplicationPackage(), builder);
+            timer.completed("build");
             this.allocatedHosts = AllocatedHosts.withHosts(root.getHostSystem().getHostSpecs()); // must happen after the two lines above
             setupRouting();
+            timer.completed("routing");
             this.fileDistributor = root.getFileDistributionConfigProducer().getFileDistributor();
             getAdmin().addPerHostServices(getHostSystem().getHosts(), deployState.getProperties());
             freezeModelTopology();
+            timer.completed("freeze");
             root.prepare(configModelRepo);
             configModelRepo.prepareConfigModels();
+            timer.completed("prepare");
             validateWrapExceptions();
+            timer.completed("validate");
+            log.log(LogLevel.DEBUG, () -> "Built model of " + deployState.getProperties().applicationId() + ": " + timer);
             this.deployState = null;
         }
         else { // create a model with no services instantiated and the given file distributor
@@ -177,6 +184,26 @@ public final class VespaModel extends AbstractConfigProducerRoot implements Seri
         }
     }
 
+    /** Records the time spent in each phase of building a model, for logging */
+    private static class BuildPhaseTimer {
+
+        private final StringBuilder phases = new StringBuilder();
+        private final long startTime = System.currentTimeMillis();
+        private long phaseStartTime = startTime;
+
+        void completed(String phase) {
+            long now = System.currentTimeMillis();
+            phases.append(phase).append(": ").append(now - phaseStartTime).append(" ms, ");
+            phaseStartTime = now;
+        }
+
+        @Override
+        public String toString() {
+            return phases + "total: " + (phaseStartTime - startTime) + " ms";
+        }
+
+    }
+
     /** Adds generic application specific clusters of services */
     private void addServiceClusters(ApplicationPackage app, VespaModelBuilder builder) {
         for (ServiceCluster sc : builder.getClusters(app, this))
@@ -49,6 +49,9 @@ public class VespaMetricSet {
         metrics.add(new Metric("configserver.latency.average", "configserver.latency"));
         metrics.add(new Metric("configserver.cacheConfigElems.last", "configserver.cacheConfigElems"));
         metrics.add(new Metric("configserver.cacheChecksumElems.last", "configserver.cacheChecksumElems"));
+        metrics.add(new Metric("configserver.cacheConfigBytes.last", "configserver.cacheConfigBytes"));
+        metrics.add(new Metric("configserver.cacheHits.count", "configserver.cacheHits"));
+        metrics.add(new Metric("configserver.cacheMisses.count", "configserver.cacheMisses"));
         metrics.add(new Metric("configserver.hosts.last", "configserver.hosts"));
         metrics.add(new Metric("configserver.delayedResponses.count", "configserver.delayedResponses"));
         metrics.add(new Metric("configserver.sessionChangeErrors.count", "configserver.sessionChangeErrors"));
@@ -131,6 +134,10 @@ public class VespaMetricSet {
         metrics.add(new Metric("peak_qps.max", "peak_qps"));
         metrics.add(new Metric("search_connections.average", "search_connections"));
         metrics.add(new Metric("active_queries.average", "active_queries"));
+        metrics.add(new Metric("async_search_active_threads.average", "async_search_active_threads"));
+        metrics.add(new Metric("async_search_queued_executions.average", "async_search_queued_executions"));
+        metrics.add(new Metric("async_search_queued_executions.max"));
+        metrics.add(new Metric("async_search_rejected_executions.count", "async_search_rejected_executions"));
         metrics.add(new Metric("feed.latency.average"));
         metrics.add(new Metric("queries.rate", "queries"));
         metrics.add(new Metric("query_latency.average", "mean_query_latency"));
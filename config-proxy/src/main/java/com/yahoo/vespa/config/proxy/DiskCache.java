@@ -0,0 +1,159 @@
+// Copyright 2017 Yahoo Holdings. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.vespa.config.proxy;
+
+import com.yahoo.log.LogLevel;
+import com.yahoo.text.Utf8Array;
+import com.yahoo.vespa.config.ConfigKey;
+import com.yahoo.vespa.config.RawConfig;
+import com.yahoo.vespa.config.protocol.CompressionInfo;
+import com.yahoo.vespa.config.protocol.CompressionType;
+import com.yahoo.vespa.config.protocol.Payload;
+import com.yahoo.vespa.config.protocol.VespaVersion;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * A file holding the content of a {@link MemoryCache}, such that the proxy can serve config right
+ * after being restarted, before it has been able to fetch it from a config source.
+ *
+ * The file is binary and consists of a header (magic number, format version, CRC32 checksum of the content and
+ * the length of the content) followed by the content, which is the list of configs. A file which is
+ * truncated, corrupted or written in another format is ignored.
+ *
+ * @author agent
+ */
+class DiskCache {
+
+    private final static Logger log = Logger.getLogger(DiskCache.class.getName());
+
+    private static final int magic = 0x76636663; // "vcfc"
+    private static final int formatVersion = 1;
+    private static final int headerSize = 20;
+
+    private final Path file;
+
+    DiskCache(Path file) {
+        this.file = file;
+    }
+
+    /** Writes the given configs to this file, replacing any previous content atomically */
+    void write(Collection<RawConfig> configs) {
+        try {
+            byte[] content = serialize(configs);
+            CRC32 checksum = new CRC32();
+            checksum.update(content);
+            ByteBuffer header = ByteBuffer.allocate(headerSize);
+            header.putInt(magic).putInt(formatVersion).putLong(checksum.getValue()).putInt(content.length);
+
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            Path temporaryFile = file.resolveSibling(file.getFileName() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(temporaryFile))) {
+                out.write(header.array());
+                out.write(content);
+            }
+            Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.log(LogLevel.DEBUG, "Wrote " + configs.size() + " configs to '" + file + "'");
+        } catch (IOException e) {
+            log.log(LogLevel.WARNING, "Could not write config cache to '" + file + "': " + e.getMessage());
+        }
+    }
+
+    /** Returns the configs in this file, or an empty list if it does not exist or is not a valid config cache */
+    List<RawConfig> read() {
+        if ( ! Files.exists(file)) return Collections.emptyList();
+
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+            if (buffer.remaining() < headerSize || buffer.getInt() != magic || buffer.getInt() != formatVersion)
+                return invalid("unknown format");
+            long expectedChecksum = buffer.getLong();
+            int length = buffer.getInt();
+            if (length != buffer.remaining())
+                return invalid("expected " + length + " bytes of content but got " + buffer.remaining());
+            CRC32 checksum = new CRC32();
+            checksum.update(buffer.array(), headerSize, length);
+            if (checksum.getValue() != expectedChecksum)
+                return invalid("checksum mismatch");
+            return deserialize(new DataInputStream(new ByteArrayInputStream(buffer.array(), headerSize, length)));
+        } catch (IOException | RuntimeException e) {
+            return invalid(e.getMessage());
+        }
+    }
+
+    private List<RawConfig> invalid(String reason) {
+        log.log(LogLevel.WARNING, "Ignoring invalid config cache '" + file + "': " + reason);
+        return Collections.emptyList();
+    }
+
+    private static byte[] serialize(Collection<RawConfig> configs) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        List<RawConfig> validConfigs = new ArrayList<>(configs);
+        validConfigs.removeIf(config -> config.isError() || config.getPayload() == null);
+        out.writeInt(validConfigs.size());
+        for (RawConfig config : validConfigs) {
+            ConfigKey<?> key = config.getKey();
+            out.writeUTF(key.getName());
+            out.writeUTF(key.getConfigId());
+            out.writeUTF(key.getNamespace());
+            out.writeUTF(config.getDefMd5());
+            out.writeUTF(config.getConfigMd5());
+            out.writeLong(config.getGeneration());
+            out.writeUTF(config.getVespaVersion().map(VespaVersion::toString).orElse(""));
+            out.writeInt(config.getDefContent().size());
+            for (String line : config.getDefContent())
+                out.writeUTF(line);
+
+            Payload payload = config.getPayload();
+            out.writeUTF(payload.getCompressionInfo().getCompressionType().name());
+            out.writeInt(payload.getCompressionInfo().getUncompressedSize());
+            byte[] data = payload.getData().getBytes();
+            out.writeInt(data.length);
+            out.write(data);
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static List<RawConfig> deserialize(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        List<RawConfig> configs = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ConfigKey<?> key = new ConfigKey<>(in.readUTF(), in.readUTF(), in.readUTF());
+            String defMd5 = in.readUTF();
+            String configMd5 = in.readUTF();
+            long generation = in.readLong();
+            String vespaVersion = in.readUTF();
+            int defLines = in.readInt();
+            List<String> defContent = new ArrayList<>(defLines);
+            for (int line = 0; line < defLines; line++)
+                defContent.add(in.readUTF());
+
+            CompressionType compressionType = CompressionType.parse(in.readUTF());
+            int uncompressedSize = in.readInt();
+            byte[] data = new byte[in.readInt()];
+            in.readFully(data);
+            Payload payload = Payload.from(new Utf8Array(data), CompressionInfo.create(compressionType, uncompressedSize));
+
+            configs.add(new RawConfig(key, defMd5, payload, configMd5, generation, defContent,
+                                      vespaVersion.isEmpty() ? Optional.empty() : Optional.of(VespaVersion.fromString(vespaVersion))));
+        }
+        return configs;
+    }
+
+}
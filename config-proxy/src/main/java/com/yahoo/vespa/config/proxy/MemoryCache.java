@@ -14,7 +14,9 @@ import java.io.File;
 import java.io.IOException;
 import java.io.Writer;
 import java.util.Collection;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Logger;
 
 /**
@@ -30,6 +32,12 @@ public class MemoryCache {
 
     private final ConcurrentHashMap<ConfigCacheKey, RawConfig> cache = new ConcurrentHashMap<>(500, 0.75f);
 
+    /** Keys of configs which are loaded from a disk cache and not yet received from a config source */
+    private final Set<ConfigCacheKey> unverified = ConcurrentHashMap.newKeySet();
+
+    /** The number of changes made to this, used to determine whether it needs to be written to disk again */
+    private final AtomicLong changes = new AtomicLong();
+
     public RawConfig get(ConfigCacheKey key) {
         return cache.get(key);
     }
@@ -44,7 +52,37 @@ public class MemoryCache {
         if (log.isLoggable(LogLevel.DEBUG)) {
             log.log(LogLevel.DEBUG, "Putting '" + config + "' into memory cache");
         }
-        cache.put(new ConfigCacheKey(config.getKey(), config.getDefMd5()), config);
+        ConfigCacheKey key = new ConfigCacheKey(config.getKey(), config.getDefMd5());
+        cache.put(key, config);
+        unverified.remove(key);
+        changes.incrementAndGet();
+    }
+
+    /**
+     * Loads the configs in the given disk cache into this. These are served as usual, but are marked as unverified
+     * until they are replaced by config received from a config source.
+     *
+     * @return the number of configs loaded
+     */
+    int load(DiskCache diskCache) {
+        int loaded = 0;
+        for (RawConfig config : diskCache.read()) {
+            ConfigCacheKey key = new ConfigCacheKey(config.getKey(), config.getDefMd5());
+            if (cache.putIfAbsent(key, config) != null) continue;
+            unverified.add(key);
+            loaded++;
+        }
+        return loaded;
+    }
+
+    /** Returns whether the config with this key is loaded from disk and must be verified against a config source */
+    boolean isUnverified(ConfigCacheKey key) {
+        return unverified.contains(key);
+    }
+
+    /** Returns the number of changes made to this so far */
+    long changes() {
+        return changes.get();
     }
 
     boolean containsKey(ConfigCacheKey key) {
@@ -61,6 +99,7 @@ public class MemoryCache {
 
     public void clear() {
         cache.clear();
+        unverified.clear();
     }
 
     @Override
@@ -12,8 +12,11 @@ import com.yahoo.log.event.Event;
 import com.yahoo.system.CatchSigTerm;
 import com.yahoo.vespa.config.*;
 import com.yahoo.vespa.config.protocol.JRTServerConfigRequest;
+import com.yahoo.vespa.defaults.Defaults;
 
+import java.nio.file.Paths;
 import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
@@ -34,6 +37,8 @@ public class ProxyServer implements Runnable {
 
     private static final int DEFAULT_RPC_PORT = 19090;
     static final String DEFAULT_PROXY_CONFIG_SOURCES = "tcp/localhost:19070";
+    private static final String DEFAULT_DISK_CACHE_FILE = Defaults.getDefaults().underVespaHome("var/vespa/cache/config/proxy-cache");
+    private static final long diskCacheWriteInterval = 60; // seconds
 
     final static Logger log = Logger.getLogger(ProxyServer.class.getName());
     private final AtomicBoolean signalCaught = new AtomicBoolean(false);
@@ -42,6 +47,7 @@ public class ProxyServer implements Runnable {
     private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1, new DaemonThreadFactory());
     private final ClientUpdater clientUpdater;
     private ScheduledFuture<?> delayedResponseScheduler;
+    private ScheduledFuture<?> diskCacheWriter;
 
     private final ConfigProxyRpcServer rpcServer;
     final DelayedResponses delayedResponses;
@@ -52,6 +58,8 @@ public class ProxyServer implements Runnable {
     private final ConfigProxyStatistics statistics;
     private final TimingValues timingValues;
     private final MemoryCache memoryCache;
+    private final Optional<DiskCache> diskCache;
+    private long diskCacheChanges = 0; // The number of memory cache changes last written to disk
     private static final double timingValuesRatio = 0.8;
     private final static TimingValues defaultTimingValues;
     private final boolean delayedResponseHandling;
@@ -71,7 +79,7 @@ public class ProxyServer implements Runnable {
     private ProxyServer(Spec spec, DelayedResponses delayedResponses, ConfigSource source,
                         ConfigProxyStatistics statistics, TimingValues timingValues,
                         boolean delayedResponseHandling, MemoryCache memoryCache,
-                        ConfigSourceClient configClient) {
+                        Optional<DiskCache> diskCache, ConfigSourceClient configClient) {
         this.delayedResponses = delayedResponses;
         this.configSource = source;
         log.log(LogLevel.DEBUG, "Using config source '" + source);
@@ -79,6 +87,7 @@ public class ProxyServer implements Runnable {
         this.timingValues = timingValues;
         this.delayedResponseHandling = delayedResponseHandling;
         this.memoryCache = memoryCache;
+        this.diskCache = diskCache;
         this.rpcServer = createRpcServer(spec);
         clientUpdater = new ClientUpdater(rpcServer, statistics, delayedResponses);
         this.configClient = createClient(clientUpdater, delayedResponses, source, timingValues, memoryCache, configClient);
@@ -96,7 +105,7 @@ public class ProxyServer implements Runnable {
         final boolean delayedResponseHandling = false;
         return new ProxyServer(null, new DelayedResponses(statistics),
                                source, statistics, defaultTimingValues(), delayedResponseHandling,
-                               memoryCache, configSourceClient);
+                               memoryCache, Optional.empty(), configSourceClient);
     }
 
     public void run() {
@@ -114,6 +123,19 @@ public class ProxyServer implements Runnable {
         } else {
             log.log(LogLevel.INFO, "Running without delayed response handling");
         }
+        if (diskCache.isPresent()) {
+            diskCacheWriter = scheduler.scheduleAtFixedRate(this::writeDiskCache,
+                                                            diskCacheWriteInterval, diskCacheWriteInterval, SECONDS);
+        }
+    }
+
+    /** Writes the memory cache to the disk cache, if it has changed since it was last written */
+    private synchronized void writeDiskCache() {
+        if ( ! diskCache.isPresent()) return;
+        long changes = memoryCache.changes();
+        if (changes == diskCacheChanges) return;
+        diskCache.get().write(memoryCache.values());
+        diskCacheChanges = changes;
     }
 
     RawConfig resolveConfig(JRTServerConfigRequest req) {
@@ -206,8 +228,12 @@ public class ProxyServer implements Runnable {
 
         ConfigSourceSet configSources = new ConfigSourceSet(properties.configSources);
         DelayedResponses delayedResponses = new DelayedResponses(statistics);
+        MemoryCache memoryCache = new MemoryCache();
+        DiskCache diskCache = new DiskCache(Paths.get(properties.diskCacheFile));
+        // Serve configs from the previous run while they are fetched again from the config sources
+        log.log(LogLevel.INFO, "Loaded " + memoryCache.load(diskCache) + " configs from " + properties.diskCacheFile);
         ProxyServer proxyServer = new ProxyServer(new Spec(null, port), delayedResponses, configSources, statistics,
-                                                  defaultTimingValues(), true, new MemoryCache(), null);
+                                                  defaultTimingValues(), true, memoryCache, Optional.of(diskCache), null);
         // catch termination signal
         proxyServer.setupSigTermHandler();
         Thread proxyserverThread = new Thread(proxyServer);
@@ -220,16 +246,19 @@ public class ProxyServer implements Runnable {
         // Read system properties
         long eventInterval = Long.getLong("eventinterval", ConfigProxyStatistics.defaultEventInterval);
         final String[] inputConfigSources = System.getProperty("proxyconfigsources", DEFAULT_PROXY_CONFIG_SOURCES).split(",");
-        return new Properties(eventInterval, inputConfigSources);
+        String diskCacheFile = System.getProperty("proxycachefile", DEFAULT_DISK_CACHE_FILE);
+        return new Properties(eventInterval, inputConfigSources, diskCacheFile);
     }
 
     static class Properties {
         final long eventInterval;
         final String[] configSources;
+        final String diskCacheFile;
 
-        Properties(long eventInterval, String[] configSources) {
+        Properties(long eventInterval, String[] configSources, String diskCacheFile) {
             this.eventInterval = eventInterval;
             this.configSources = configSources;
+            this.diskCacheFile = diskCacheFile;
         }
     }
 
@@ -256,6 +285,8 @@ public class ProxyServer implements Runnable {
         Event.stopping("configproxy", "shutdown");
         if (rpcServer != null) rpcServer.shutdown();
         if (delayedResponseScheduler != null) delayedResponseScheduler.cancel(true);
+        if (diskCacheWriter != null) diskCacheWriter.cancel(false);
+        writeDiskCache();
         flush();
         if (statistics != null) {
             statistics.stop();
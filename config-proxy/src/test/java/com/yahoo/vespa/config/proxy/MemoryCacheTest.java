@@ -8,9 +8,15 @@ import com.yahoo.vespa.config.ConfigPayload;
 import com.yahoo.vespa.config.RawConfig;
 import com.yahoo.vespa.config.protocol.Payload;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Optional;
 
 import static org.hamcrest.CoreMatchers.is;
@@ -21,6 +27,10 @@ import static org.junit.Assert.*;
  * @since 5.1.9
  */
 public class MemoryCacheTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     private String defName = "foo";
     private String configId = "id";
     private String namespace = "bar";
@@ -121,4 +131,42 @@ public class MemoryCacheTest {
         cache.clear();
         assertThat(cache.size(), is(0));
     }
+
+    @Test
+    public void testDiskCache() throws IOException {
+        DiskCache diskCache = new DiskCache(temporaryFolder.getRoot().toPath().resolve("cache"));
+        assertTrue(diskCache.read().isEmpty());
+        diskCache.write(Arrays.asList(config, config2));
+
+        MemoryCache cache = new MemoryCache();
+        assertThat(cache.load(diskCache), is(2));
+        assertThat(cache.size(), is(2));
+        assertTrue(cache.isUnverified(cacheKey));
+        assertTrue(cache.isUnverified(cacheKey2));
+
+        RawConfig response = cache.get(cacheKey2);
+        assertThat(response, is(config2));
+        assertThat(response.getPayload().getData(), is(payload2.getData()));
+        assertThat(response.getDefContent(), is(config2.getDefContent()));
+
+        // Receiving config from a config source verifies it
+        cache.put(config);
+        assertFalse(cache.isUnverified(cacheKey));
+        assertTrue(cache.isUnverified(cacheKey2));
+    }
+
+    @Test
+    public void testCorruptDiskCacheIsIgnored() throws IOException {
+        Path file = temporaryFolder.getRoot().toPath().resolve("cache");
+        DiskCache diskCache = new DiskCache(file);
+        diskCache.write(Arrays.asList(config, config2));
+        byte[] content = Files.readAllBytes(file);
+        content[content.length - 1]++;
+        Files.write(file, content);
+
+        assertTrue(diskCache.read().isEmpty());
+        Files.write(file, Arrays.copyOf(content, content.length / 2));
+        assertTrue(diskCache.read().isEmpty());
+    }
+
 }
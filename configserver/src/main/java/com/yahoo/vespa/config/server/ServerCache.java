@@ -6,36 +6,111 @@ import com.yahoo.vespa.config.ConfigDefinitionKey;
 import com.yahoo.vespa.config.buildergen.ConfigDefinition;
 import com.yahoo.vespa.config.protocol.ConfigResponse;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Cache that holds configs and config definitions. It has separate maps for the separate
  * "types", for clarity.
  *
+ * The configs held are bounded by the total size of their payloads. When this is exceeded the least recently
+ * used configs are evicted. There is one cache per application model version, and the bound is per cache,
+ * so the heap used by all caches grows with the number of applications.
+ *
  * @author vegardh
  */
 public class ServerCache {
 
+    /** When evicting, we evict down to this fraction of the max size to avoid evicting on every put */
+    private static final double evictionTargetFraction = 0.9;
+
     private final Map<ConfigDefinitionKey, ConfigDefinition> defs = new ConcurrentHashMap<>();
 
     // NOTE: The reason we do a double mapping here is to dedup configs that have the same md5.
     private final Map<ConfigCacheKey, String> md5Sums = new ConcurrentHashMap<>();
-    private final Map<String, ConfigResponse> md5ToConfig = new ConcurrentHashMap<>();
+    private final Map<String, CachedConfig> md5ToConfig = new ConcurrentHashMap<>();
+
+    /** The max total number of payload bytes of the configs held by this */
+    private final long maxConfigBytes;
+
+    /** The total number of payload bytes of the configs held by this */
+    private final AtomicLong configBytes = new AtomicLong();
+
+    /** Creates a cache which never evicts configs */
+    public ServerCache() {
+        this(Long.MAX_VALUE);
+    }
+
+    /** Creates a cache holding at most the given number of config payload bytes */
+    public ServerCache(long maxConfigBytes) {
+        this.maxConfigBytes = maxConfigBytes;
+    }
 
     public void addDef(ConfigDefinitionKey key, ConfigDefinition def) {
         defs.put(key, def);
     }
 
-    public void put(ConfigCacheKey key, ConfigResponse config, String configMd5) {
-        md5Sums.put(key, configMd5);
-        md5ToConfig.put(configMd5, config);
+    public synchronized void put(ConfigCacheKey key, ConfigResponse config, String configMd5) {
+        String previousMd5 = md5Sums.put(key, configMd5);
+        if (configMd5.equals(previousMd5)) return;
+
+        CachedConfig cached = md5ToConfig.computeIfAbsent(configMd5, md5 -> new CachedConfig(config));
+        if (cached.keys.isEmpty())
+            configBytes.addAndGet(cached.bytes);
+        cached.keys.add(key);
+        cached.lastUsed = System.nanoTime();
+        if (previousMd5 != null)
+            removeKeyFrom(previousMd5, key);
+
+        if (configBytes.get() > maxConfigBytes)
+            evict();
     }
 
     public ConfigResponse get(ConfigCacheKey key) {
         String md5 = md5Sums.get(key);
-        if (md5 == null) return null;
-        return md5ToConfig.get(md5);
+        CachedConfig cached = md5 == null ? null : md5ToConfig.get(md5);
+        if (cached == null) return null;
+        cached.lastUsed = System.nanoTime();
+        return cached.config;
+    }
+
+    /** Removes all configs from this. This is done when the application generation owning this becomes obsolete. */
+    public synchronized void clearConfigs() {
+        md5Sums.clear();
+        md5ToConfig.clear();
+        configBytes.set(0);
+    }
+
+    /** Evicts the least recently used configs until we are below the eviction target */
+    private void evict() {
+        // Sort a copy of the use times, as get() keeps changing them, which would break the contract of the comparator
+        List<EvictionCandidate> candidates = new ArrayList<>(md5ToConfig.size());
+        for (Map.Entry<String, CachedConfig> entry : md5ToConfig.entrySet())
+            candidates.add(new EvictionCandidate(entry.getKey(), entry.getValue()));
+        candidates.sort(Comparator.comparingLong(candidate -> candidate.lastUsed));
+        long targetBytes = (long)(maxConfigBytes * evictionTargetFraction);
+        for (EvictionCandidate candidate : candidates) {
+            if (configBytes.get() <= targetBytes) break;
+            for (ConfigCacheKey key : candidate.config.keys)
+                md5Sums.remove(key);
+            md5ToConfig.remove(candidate.md5);
+            configBytes.addAndGet(-candidate.bytes);
+        }
+    }
+
+    private void removeKeyFrom(String md5, ConfigCacheKey key) {
+        CachedConfig cached = md5ToConfig.get(md5);
+        if (cached == null) return;
+        cached.keys.remove(key);
+        if ( ! cached.keys.isEmpty()) return;
+        md5ToConfig.remove(md5);
+        configBytes.addAndGet(-cached.bytes);
     }
 
     @Override
@@ -45,6 +120,7 @@ public class ServerCache {
         sb.append("defs:        ").append(defs.size()).append("\n");
         sb.append("md5sums:     ").append(md5Sums.size()).append("\n");
         sb.append("md5ToConfig: ").append(md5ToConfig.size()).append("\n");
+        sb.append("bytes:       ").append(configBytes.get()).append("\n");
 
         return sb.toString();
     }
@@ -52,7 +128,7 @@ public class ServerCache {
     public ConfigDefinition getDef(ConfigDefinitionKey defKey) {
         return defs.get(defKey);
     }
-    
+
     /**
      * The number of different {@link ConfigResponse} elements
      * @return elems
@@ -60,7 +136,7 @@ public class ServerCache {
     public int configElems() {
         return md5ToConfig.size();
     }
-    
+
     /**
      * The number of different key→checksum mappings
      * @return elems
@@ -69,4 +145,45 @@ public class ServerCache {
         return md5Sums.size();
     }
 
+    /** Returns the total number of payload bytes of the configs in this */
+    public long configBytes() {
+        return configBytes.get();
+    }
+
+    /** A cached config with the time it was last used when eviction started */
+    private static class EvictionCandidate {
+
+        private final String md5;
+        private final CachedConfig config;
+        private final long lastUsed;
+        private final long bytes;
+
+        EvictionCandidate(String md5, CachedConfig config) {
+            this.md5 = md5;
+            this.config = config;
+            this.lastUsed = config.lastUsed;
+            this.bytes = config.bytes;
+        }
+
+    }
+
+    /** A config response together with its size and the keys mapping to it */
+    private static class CachedConfig {
+
+        private final ConfigResponse config;
+        private final long bytes;
+
+        /** The keys mapping to this. Only accessed while holding the cache lock */
+        private final Set<ConfigCacheKey> keys = new HashSet<>(1);
+
+        /** The nano time of the last lookup of this */
+        private volatile long lastUsed;
+
+        CachedConfig(ConfigResponse config) {
+            this.config = config;
+            this.bytes = config.getPayload().getByteLength();
+        }
+
+    }
+
 }
@@ -113,9 +113,11 @@ public class Application implements ModelResult {
                 if (logDebug()) {
                     debug("Found config " + cacheKey + " in cache");
                 }
+                metricUpdater.incCacheHits();
                 metricUpdater.incrementProcTime(System.currentTimeMillis() - start);
                 return config;
             }
+            metricUpdater.incCacheMisses();
         }
 
         ConfigDefinition def = getTargetDef(req);
@@ -138,6 +140,7 @@ public class Application implements ModelResult {
             cache.put(cacheKey, configResponse, configResponse.getConfigMd5());
             metricUpdater.setCacheConfigElems(cache.configElems());
             metricUpdater.setCacheChecksumElems(cache.checkSumElems());
+            metricUpdater.setCacheConfigBytes(cache.configBytes());
         }
         return configResponse;
     }
@@ -31,17 +31,22 @@ public final class ApplicationMapper {
     }
 
     /**
-     * Register a Application to an application id and specific vespa version
+     * Register a Application to an application id and specific vespa version.
+     * The configs cached by any previous, older generation of the application are dropped.
      */
     public void register(ApplicationId applicationId, ApplicationSet applicationSet) {
-        requestHandlers.put(applicationId, applicationSet);
+        ApplicationSet previous = requestHandlers.put(applicationId, applicationSet);
+        if (previous != null && previous.getApplicationGeneration() < applicationSet.getApplicationGeneration())
+            previous.clearConfigCaches();
     }
 
     /**
      * Remove all applications associated with this application id
      */
     public void remove(ApplicationId applicationId) {
-        requestHandlers.remove(applicationId);
+        ApplicationSet removed = requestHandlers.remove(applicationId);
+        if (removed != null)
+            removed.clearConfigCaches();
     }
 
     /**
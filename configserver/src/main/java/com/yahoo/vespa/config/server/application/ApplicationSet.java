@@ -78,4 +78,12 @@ public final class ApplicationSet {
     public long getApplicationGeneration() {
         return generation;
     }
+
+    /** Drops the configs cached by the applications in this, which is done when they are no longer in use */
+    public void clearConfigCaches() {
+        for (Application application : applications.values()) {
+            if (application.getCache() != null)
+                application.getCache().clearConfigs();
+        }
+    }
 }
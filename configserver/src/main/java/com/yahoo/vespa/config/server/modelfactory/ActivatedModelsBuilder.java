@@ -76,7 +76,7 @@ public class ActivatedModelsBuilder extends ModelsBuilder<Application> {
                                             Instant now) {
         log.log(LogLevel.DEBUG, String.format("Loading model version %s for session %s application %s",
                                               modelFactory.getVersion(), appGeneration, applicationId));
-        ServerCache cache = zkClient.loadServerCache();
+        ServerCache cache = zkClient.loadServerCache(configserverConfig.maxConfigCacheBytes());
         ModelContext modelContext = new ModelContextImpl(
                 applicationPackage,
                 Optional.empty(),
@@ -94,6 +94,16 @@ public class ActivatedModelsBuilder extends ModelsBuilder<Application> {
                                applicationMetricUpdater, applicationId);
     }
 
+    /**
+     * Activated models are built from the hosts allocated in the application package, never from those
+     * allocated by building other versions, so older versions may be built in parallel. Each version has its own
+     * model factory, and the state shared by the builds is either read only after construction
+     * (the application package, the allocated hosts of the static provisioner, config definitions)
+     * or synchronized (metrics).
+     */
+    @Override
+    protected boolean buildsVersionsIndependently() { return true; }
+
     private static <T> Optional<T> getForVersionOrLatest(Map<Version, T> map, Version version) {
         if (map.isEmpty()) {
             return Optional.empty();
@@ -2,6 +2,7 @@
 package com.yahoo.vespa.config.server.modelfactory;
 
 import com.yahoo.cloud.config.ConfigserverConfig;
+import com.yahoo.concurrent.DaemonThreadFactory;
 import com.yahoo.config.application.api.ApplicationPackage;
 import com.yahoo.config.model.api.HostProvisioner;
 import com.yahoo.config.model.api.ModelContext;
@@ -13,6 +14,7 @@ import com.yahoo.config.provision.Rotation;
 import com.yahoo.config.provision.Version;
 import com.yahoo.config.provision.Zone;
 import com.yahoo.lang.SettableOptional;
+import com.yahoo.log.LogLevel;
 import com.yahoo.vespa.config.server.ConfigServerSpec;
 import com.yahoo.vespa.config.server.deploy.ModelContextImpl;
 import com.yahoo.vespa.config.server.http.UnknownVespaVersionException;
@@ -25,6 +27,10 @@ import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
@@ -39,6 +45,9 @@ public abstract class ModelsBuilder<MODELRESULT extends ModelResult> {
 
     private static final Logger log = Logger.getLogger(ModelsBuilder.class.getName());
 
+    /** The max number of model versions built in parallel */
+    private static final int maxParallelModelBuilds = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
     private final ModelFactoryRegistry modelFactoryRegistry;
 
     /** True if we are running in hosted mode */
@@ -111,12 +120,12 @@ public abstract class ModelsBuilder<MODELRESULT extends ModelResult> {
                                                 Instant now) {
         Version latest = findLatest(versions);
         // load latest application version
-        MODELRESULT latestModelVersion = buildModelVersion(modelFactoryRegistry.getFactory(latest), 
-                                                           applicationPackage, 
-                                                           applicationId, 
-                                                           wantedNodeVespaVersion, 
-                                                           allocatedHosts.asOptional(),
-                                                           now);
+        MODELRESULT latestModelVersion = timedBuildModelVersion(modelFactoryRegistry.getFactory(latest),
+                                                                applicationPackage,
+                                                                applicationId,
+                                                                wantedNodeVespaVersion,
+                                                                allocatedHosts.asOptional(),
+                                                                now);
         allocatedHosts.set(latestModelVersion.getModel().allocatedHosts()); // Update with additional clusters allocated
         
         if (latestModelVersion.getModel().skipOldConfigModels(now))
@@ -131,21 +140,99 @@ public abstract class ModelsBuilder<MODELRESULT extends ModelResult> {
         // does not. In that case we really want to extend the set of allocated hosts to include those of that
         // cluster as well. To do that, create a new provisioner which uses static provisioning for known
         // clusters and the node repository provisioner as fallback.
-        for (Version version : versions) {
-            if (version.equals(latest)) continue; // already loaded
-
-            MODELRESULT modelVersion = buildModelVersion(modelFactoryRegistry.getFactory(version),
-                                                         applicationPackage,
-                                                         applicationId,
-                                                         wantedNodeVespaVersion,
-                                                         allocatedHosts.asOptional(),
-                                                         now);
-            allocatedHosts.set(modelVersion.getModel().allocatedHosts()); // Update with additional clusters allocated
-            allApplicationVersions.add(modelVersion);
-        }
+        List<Version> olderVersions = versions.stream()
+                                              .filter(version -> ! version.equals(latest))
+                                              .collect(Collectors.toList());
+        if (olderVersions.size() > 1 && buildsVersionsIndependently())
+            allApplicationVersions.addAll(buildInParallel(olderVersions, applicationId, wantedNodeVespaVersion,
+                                                          applicationPackage, allocatedHosts, now));
+        else
+            for (Version version : olderVersions) {
+                MODELRESULT modelVersion = timedBuildModelVersion(modelFactoryRegistry.getFactory(version),
+                                                                  applicationPackage,
+                                                                  applicationId,
+                                                                  wantedNodeVespaVersion,
+                                                                  allocatedHosts.asOptional(),
+                                                                  now);
+                allocatedHosts.set(modelVersion.getModel().allocatedHosts()); // Update with additional clusters allocated
+                allApplicationVersions.add(modelVersion);
+            }
         return allApplicationVersions;
     }
 
+    /**
+     * Builds the given versions in parallel. This must only be used when {@link #buildsVersionsIndependently()},
+     * as each version is given the hosts allocated before any of them is built, and the allocated hosts are
+     * then updated in the order of the given versions, just as if they had been built one after another.
+     */
+    private List<MODELRESULT> buildInParallel(List<Version> versions, ApplicationId applicationId,
+                                              com.yahoo.component.Version wantedNodeVespaVersion,
+                                              ApplicationPackage applicationPackage,
+                                              SettableOptional<AllocatedHosts> allocatedHosts,
+                                              Instant now) {
+        Optional<AllocatedHosts> initialAllocatedHosts = allocatedHosts.asOptional();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(versions.size(), maxParallelModelBuilds),
+                                                                new DaemonThreadFactory("model-builder-"));
+        try {
+            List<Future<MODELRESULT>> futureModelVersions = new ArrayList<>();
+            for (Version version : versions)
+                futureModelVersions.add(executor.submit(() -> timedBuildModelVersion(modelFactoryRegistry.getFactory(version),
+                                                                                     applicationPackage,
+                                                                                     applicationId,
+                                                                                     wantedNodeVespaVersion,
+                                                                                     initialAllocatedHosts,
+                                                                                     now)));
+            List<MODELRESULT> modelVersions = new ArrayList<>();
+            for (Future<MODELRESULT> futureModelVersion : futureModelVersions) {
+                MODELRESULT modelVersion = waitFor(futureModelVersion);
+                allocatedHosts.set(modelVersion.getModel().allocatedHosts());
+                modelVersions.add(modelVersion);
+            }
+            return modelVersions;
+        }
+        finally {
+            executor.shutdownNow(); // interrupts the remaining builds if one failed
+        }
+    }
+
+    /**
+     * Returns whether building a model version only depends on the allocated hosts passed to
+     * {@link #buildModelVersion(ModelFactory, ApplicationPackage, ApplicationId, com.yahoo.component.Version, Optional, Instant)}
+     * through a static provisioner, and never allocates more hosts, and whether the builds of different versions
+     * only share state which is safe to use concurrently. If so, older versions are built in parallel,
+     * as building one of them can not change what the next one sees. This returns false by default.
+     */
+    protected boolean buildsVersionsIndependently() { return false; }
+
+    private MODELRESULT timedBuildModelVersion(ModelFactory modelFactory, ApplicationPackage applicationPackage,
+                                               ApplicationId applicationId,
+                                               com.yahoo.component.Version wantedNodeVespaVersion,
+                                               Optional<AllocatedHosts> allocatedHosts,
+                                               Instant now) {
+        long startTime = System.currentTimeMillis();
+        MODELRESULT result = buildModelVersion(modelFactory, applicationPackage, applicationId, wantedNodeVespaVersion,
+                                               allocatedHosts, now);
+        log.log(LogLevel.DEBUG, () -> applicationId + ": Built model version " + modelFactory.getVersion() + " in " +
+                                      (System.currentTimeMillis() - startTime) + " ms");
+        return result;
+    }
+
+    /** Returns the result of a model build, throwing any runtime exception thrown while building it unwrapped */
+    private MODELRESULT waitFor(Future<MODELRESULT> modelVersion) {
+        try {
+            return modelVersion.get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for models to build", e);
+        }
+        catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException)e.getCause();
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
     private Set<Version> filterByMajorVersion(int majorVersion, Set<Version> versions) {
         Set<Version> filteredVersions = versions.stream().filter(v -> v.getMajor() == majorVersion).collect(Collectors.toSet());
         if (filteredVersions.isEmpty())
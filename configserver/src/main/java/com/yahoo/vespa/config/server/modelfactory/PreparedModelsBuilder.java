@@ -114,6 +114,16 @@ public class PreparedModelsBuilder extends ModelsBuilder<PreparedModelsBuilder.P
         return new PreparedModelsBuilder.PreparedModelResult(modelVersion, result.getModel(), fileDistributionProvider, result.getConfigChangeActions());
     }
 
+    /**
+     * Prepared models are not built independently: an older version may request hosts for a cluster the newer
+     * versions do not have, and the static provisioner then falls back to the node repository, which allocates
+     * and reserves new nodes. Those hosts must be seen by the versions built after it, and two versions building
+     * concurrently could each reserve nodes for the same cluster while only one of their host allocations is kept.
+     * Older versions are therefore built one after another when preparing.
+     */
+    @Override
+    protected boolean buildsVersionsIndependently() { return false; }
+
     // This method is an excellent demonstration of what happens when one is too liberal with Optional   
     // -bratseth, who had to write the below  :-\
     private Optional<HostProvisioner> createHostProvisioner(Optional<AllocatedHosts> allocatedHosts) {
@@ -31,6 +31,9 @@ public class MetricUpdater {
     private static final String METRIC_APPLICATIONS = getMetricName("applications");
     private static final String METRIC_CACHE_CONFIG_ELEMENTS = getMetricName("cacheConfigElems");
     private static final String METRIC_CACHE_CONFIG_CHECKSUMS = getMetricName("cacheChecksumElems");
+    private static final String METRIC_CACHE_CONFIG_BYTES = getMetricName("cacheConfigBytes");
+    private static final String METRIC_CACHE_HITS = getMetricName("cacheHits");
+    private static final String METRIC_CACHE_MISSES = getMetricName("cacheMisses");
     private static final String METRIC_DELAYED_RESPONSES = getMetricName("delayedResponses");
     private static final String METRIC_RPCSERVER_WORK_QUEUE_SIZE = getMetricName("rpcServerWorkQueueSize");
 
@@ -76,6 +79,29 @@ public class MetricUpdater {
         staticMetrics.put(METRIC_CACHE_CONFIG_CHECKSUMS, elems);
     }
 
+    /**
+     * Sets the total size of the config payloads in the {@link ServerCache}
+     *
+     * @param bytes number of bytes
+     */
+    public void setCacheConfigBytes(long bytes) {
+        staticMetrics.put(METRIC_CACHE_CONFIG_BYTES, bytes);
+    }
+
+    /**
+     * Increment the number of config requests served from the {@link ServerCache}.
+     */
+    public void incCacheHits() {
+        metrics.increment(METRIC_CACHE_HITS, metricContext);
+    }
+
+    /**
+     * Increment the number of config requests which were not found in the {@link ServerCache}.
+     */
+    public void incCacheMisses() {
+        metrics.increment(METRIC_CACHE_MISSES, metricContext);
+    }
+
     /**
      * Sets the number of outstanding responses (unchanged config in long poll)
      *
@@ -20,6 +20,8 @@ import java.util.logging.Logger;
  * Takes care of <i>delayed responses</i> in the config server.
  * A delayed response is a response sent at request (server) timeout
  * for a config which has not changed since the request was initiated.
+ * Such responses, and those sent to delayed requests when only the generation changes,
+ * have an empty payload, as the client already has the config (see GetConfigProcessor).
  *
  * @author hmusum
  */
@@ -28,6 +28,7 @@ class GetConfigProcessor implements Runnable {
 
     private static final Logger log = Logger.getLogger(GetConfigProcessor.class.getName());
     private static final String localHostName = HostName.getLocalhost();
+    private static final Payload emptyPayload = Payload.from(ConfigPayload.empty());
 
     private final JRTServerConfigRequest request;
     /* True only when this request has expired its server timeout and we need to respond to the client */
@@ -121,7 +122,7 @@ class GetConfigProcessor implements Runnable {
         // config == null is not an error, but indicates that the config will be returned later.
         if ((config != null) && (!config.hasEqualConfig(request) || config.hasNewerGeneration(request) || forceResponse)) {
             // debugLog(trace, "config response before encoding:" + config.toString());
-            request.addOkResponse(request.payloadFromResponse(config), config.getGeneration(), config.getConfigMd5());
+            request.addOkResponse(responsePayload(config), config.getGeneration(), config.getConfigMd5());
             if (logDebug(trace)) {
                 debugLog(trace, "return response: " + request.getShortDescription());
             }
@@ -134,6 +135,17 @@ class GetConfigProcessor implements Runnable {
         }
     }
 
+    /**
+     * Returns the payload to respond with. When the config has the md5 the client already has, only the generation
+     * (or the server timeout) is news to it, and clients keep their config without reading the payload in that case.
+     * An empty payload is then sent instead of the config, which makes the responses sent to all delayed requests
+     * when an application is reloaded small for the configs which did not change.
+     */
+    private Payload responsePayload(ConfigResponse config) {
+        if (config.hasEqualConfig(request)) return emptyPayload;
+        return request.payloadFromResponse(config);
+    }
+
     private boolean isSentinelConfigRequest(JRTServerConfigRequest request) {
         return request.getConfigKey().getName().equals(SentinelConfig.getDefName()) &&
                request.getConfigKey().getNamespace().equals(SentinelConfig.getDefNamespace());
@@ -32,18 +32,23 @@ public class ServerCacheLoader {
         this.repo = repo;
     }
 
-    public ServerCache loadCache() {
-        return loadConfigDefinitions();
+    /**
+     * Returns a new cache containing the config definitions
+     *
+     * @param maxConfigBytes the max total payload size of the configs the returned cache will hold
+     */
+    public ServerCache loadCache(long maxConfigBytes) {
+        return loadConfigDefinitions(new ServerCache(maxConfigBytes));
     }
 
     /**
      * Reads config definitions from zookeeper, parses them and puts both ConfigDefinition instances
      * and payload (raw config definition) into cache.
      *
+     * @param cache       the cache to populate.
      * @return            the populated cache.
      */
-    public ServerCache loadConfigDefinitions() {
-        ServerCache cache = new ServerCache();
+    public ServerCache loadConfigDefinitions(ServerCache cache) {
         try {
             log.log(LogLevel.DEBUG, "Getting config definitions");
             loadGlobalConfigDefinitions(cache);
@@ -146,8 +146,8 @@ public class SessionZooKeeperClient {
         return new ZKApplicationPackage(configCurator, sessionPath, nodeFlavors);
     }
 
-    public ServerCache loadServerCache() {
-        return cacheLoader.loadCache();
+    public ServerCache loadServerCache(long maxConfigBytes) {
+        return cacheLoader.loadCache(maxConfigBytes);
     }
 
     private String applicationIdPath() {
@@ -11,8 +11,14 @@ import com.yahoo.vespa.config.protocol.SlimeConfigResponse;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 
@@ -77,4 +83,79 @@ public class ServerCacheTest {
     public void testThatCacheWorksWithDifferentKeySameMd5() {
         assertTrue(cache.get(fooBarCacheKey) == cache.get(bazQuuxCacheKey));
     }
+
+    @Test
+    public void testThatPayloadSizeIsAccountedOncePerMd5() {
+        ConfigResponse response = cache.get(fooBarCacheKey);
+        ConfigResponse response2 = cache.get(fooBarCacheKeyDifferentMd5);
+        assertThat(cache.configBytes(), is((long)(response.getPayload().getByteLength() + response2.getPayload().getByteLength())));
+
+        cache.put(fooBarCacheKey, response2, configMd5_2);
+        cache.put(bazQuuxCacheKey, response2, configMd5_2);
+        assertThat(cache.configElems(), is(1));
+        assertThat(cache.configBytes(), is((long)response2.getPayload().getByteLength()));
+
+        cache.clearConfigs();
+        assertNull(cache.get(fooBarCacheKey));
+        assertThat(cache.configBytes(), is(0L));
+        assertNotNull(cache.getDef(fooBarDefKey));
+    }
+
+    @Test
+    public void testThatLeastRecentlyUsedConfigsAreEvicted() {
+        ConfigResponse response = SlimeConfigResponse.fromConfigPayload(ConfigPayload.empty(), payload.getCNode(), 2, configMd5);
+        ConfigResponse response2 = SlimeConfigResponse.fromConfigPayload(ConfigPayload.empty(), payload_2.getCNode(), 2, configMd5_2);
+        ServerCache boundedCache = new ServerCache(response.getPayload().getByteLength() + response2.getPayload().getByteLength());
+
+        boundedCache.put(fooBarCacheKey, response, configMd5);
+        boundedCache.put(fooBarCacheKeyDifferentMd5, response2, configMd5_2);
+        assertThat(boundedCache.configElems(), is(2));
+
+        boundedCache.get(fooBarCacheKey);
+        boundedCache.put(bazQuuxCacheKey, SlimeConfigResponse.fromConfigPayload(ConfigPayload.empty(), payload.getCNode(), 2, "md5_3"), "md5_3");
+        assertNull("Least recently used is evicted", boundedCache.get(fooBarCacheKeyDifferentMd5));
+        assertNotNull(boundedCache.get(bazQuuxCacheKey));
+        assertTrue(boundedCache.configBytes() <= response.getPayload().getByteLength() + response2.getPayload().getByteLength());
+    }
+
+    @Test
+    public void testThatConfigsCanBeEvictedWhileTheyAreRead() throws InterruptedException {
+        List<ConfigCacheKey> keys = new ArrayList<>();
+        List<ConfigResponse> responses = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            keys.add(new ConfigCacheKey(new ConfigKey<>("foo", "id" + i, "bar"), defMd5));
+            responses.add(SlimeConfigResponse.fromConfigPayload(ConfigPayload.empty(), payload.getCNode(), 2, "md5_" + i));
+        }
+        ServerCache boundedCache = new ServerCache(50 * responses.get(0).getPayload().getByteLength());
+
+        AtomicBoolean done = new AtomicBoolean(false);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Thread> readers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread reader = new Thread(() -> {
+                try {
+                    while ( ! done.get())
+                        for (ConfigCacheKey key : keys)
+                            boundedCache.get(key);
+                }
+                catch (Throwable e) {
+                    failure.set(e);
+                }
+            });
+            reader.start();
+            readers.add(reader);
+        }
+        try {
+            for (int round = 0; round < 20; round++)
+                for (int i = 0; i < keys.size(); i++)
+                    boundedCache.put(keys.get(i), responses.get(i), "md5_" + i + "_" + round);
+        }
+        finally {
+            done.set(true);
+            for (Thread reader : readers)
+                reader.join();
+        }
+        assertNull(failure.get());
+        assertTrue(boundedCache.configBytes() <= 50 * responses.get(0).getPayload().getByteLength());
+    }
 }
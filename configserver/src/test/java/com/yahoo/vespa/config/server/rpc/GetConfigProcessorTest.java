@@ -7,18 +7,22 @@ import com.yahoo.text.Utf8;
 import com.yahoo.text.Utf8Array;
 import com.yahoo.text.Utf8String;
 import com.yahoo.vespa.config.ConfigKey;
+import com.yahoo.vespa.config.ConfigPayload;
 
 import com.yahoo.vespa.config.protocol.CompressionInfo;
 import com.yahoo.vespa.config.protocol.CompressionType;
 import com.yahoo.vespa.config.protocol.ConfigResponse;
 import com.yahoo.vespa.config.protocol.DefContent;
+import com.yahoo.vespa.config.protocol.JRTClientConfigRequest;
 import com.yahoo.vespa.config.protocol.JRTClientConfigRequestV3;
 import com.yahoo.vespa.config.protocol.JRTServerConfigRequest;
 import com.yahoo.vespa.config.protocol.JRTServerConfigRequestV3;
+import com.yahoo.vespa.config.protocol.SlimeConfigResponse;
 import com.yahoo.vespa.config.protocol.Trace;
 import com.yahoo.vespa.config.server.rpc.GetConfigProcessor;
 import com.yahoo.vespa.config.server.rpc.MockRpc;
 import com.yahoo.vespa.config.server.tenant.MockTenantProvider;
+import com.yahoo.vespa.config.util.ConfigUtils;
 import org.junit.Test;
 import static org.junit.Assert.assertFalse;
 
@@ -73,12 +77,48 @@ public class GetConfigProcessorTest {
         }
     }
 
+    @Test
+    public void testThatUnchangedConfigIsReturnedWithoutPayload() {
+        MockRpc rpc = new MockRpc(13337, false);
+        ConfigPayload payload = ConfigPayload.fromString("{\"foo\":\"bar\"}");
+        String md5 = ConfigUtils.getMd5(payload);
+        rpc.response = SlimeConfigResponse.fromConfigPayload(payload, null, 2, md5);
+
+        TenantName testTenant = TenantName.from("test");
+        rpc.onTenantCreate(testTenant, new MockTenantProvider(true));
+        rpc.hostsUpdated(testTenant, Collections.singleton("host1"));
+
+        {   // a client without the config gets all of it
+            JRTClientConfigRequest clientReq = createV3SentinelClientRequest("host1", "", 0);
+            new GetConfigProcessor(rpc, JRTServerConfigRequestV3.createFromRequest(clientReq.getRequest()), false).run();
+            assertTrue(clientReq.validateResponse());
+            assertTrue(clientReq.hasUpdatedConfig());
+            assertThat(clientReq.getNewPayload().getData().toString(), is(payload.toString(true)));
+        }
+
+        rpc.resetChecks();
+        {   // a client with this config only gets the new generation
+            JRTClientConfigRequest clientReq = createV3SentinelClientRequest("host1", md5, 1);
+            new GetConfigProcessor(rpc, JRTServerConfigRequestV3.createFromRequest(clientReq.getRequest()), false).run();
+            assertTrue(clientReq.validateResponse());
+            assertTrue(clientReq.hasUpdatedGeneration());
+            assertFalse(clientReq.hasUpdatedConfig());
+            assertThat(clientReq.getNewGeneration(), is(2L));
+            assertThat(clientReq.getNewConfigMd5(), is(md5));
+            assertThat(clientReq.getNewPayload().getData().toString(), is(ConfigPayload.empty().toString(true)));
+        }
+    }
+
     private static JRTServerConfigRequest createV3SentinelRequest(String fromHost) {
+        return JRTServerConfigRequestV3.createFromRequest(createV3SentinelClientRequest(fromHost, "", 0).getRequest());
+    }
+
+    private static JRTClientConfigRequest createV3SentinelClientRequest(String fromHost, String configMd5, long generation) {
         final ConfigKey<?> configKey = new ConfigKey<>(SentinelConfig.CONFIG_DEF_NAME, "myid", SentinelConfig.CONFIG_DEF_NAMESPACE);
-        return JRTServerConfigRequestV3.createFromRequest(JRTClientConfigRequestV3.
+        return JRTClientConfigRequestV3.
                 createWithParams(configKey, DefContent.fromList(Arrays.asList(SentinelConfig.CONFIG_DEF_SCHEMA)),
-                                 fromHost, "", 0, 100, Trace.createDummy(), CompressionType.UNCOMPRESSED,
-                                 Optional.empty()).getRequest());
+                                 fromHost, configMd5, generation, 100, Trace.createDummy(), CompressionType.UNCOMPRESSED,
+                                 Optional.empty());
     }
 
     private class MockConfigResponse implements ConfigResponse {
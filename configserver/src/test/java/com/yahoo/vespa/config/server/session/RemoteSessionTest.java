@@ -117,6 +117,39 @@ public class RemoteSessionTest {
         session.loadPrepared();
     }
 
+    @Test
+    public void require_that_all_older_versions_are_loaded() {
+        List<MockModelFactory> factories = new ArrayList<>();
+        for (int minor = 0; minor < 4; minor++) {
+            MockModelFactory factory = new MockModelFactory();
+            factory.vespaVersion = Version.fromIntValues(1, minor, 0);
+            factories.add(factory);
+        }
+
+        RemoteSession session = createSession(3, new ArrayList<>(factories), factories.get(0).clock());
+        session.loadPrepared();
+        ApplicationSet applicationSet = session.ensureApplicationLoaded();
+        for (MockModelFactory factory : factories) {
+            assertNotNull("Version " + factory.vespaVersion + " is loaded", factory.modelContext);
+            assertThat(applicationSet.getForVersionOrLatest(Optional.of(factory.vespaVersion), factory.clock().instant()).getVespaVersion(),
+                       is(factory.vespaVersion));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void require_that_invalid_older_version_throws_exception() {
+        List<ModelFactory> factories = new ArrayList<>();
+        for (int minor = 0; minor < 4; minor++) {
+            MockModelFactory factory = new MockModelFactory();
+            factory.vespaVersion = Version.fromIntValues(1, minor, 0);
+            factory.throwOnLoad = minor == 1;
+            factories.add(factory);
+        }
+
+        RemoteSession session = createSession(3, factories, Clock.systemUTC());
+        session.loadPrepared();
+    }
+
     @Test
     public void require_that_old_invalid_application_does_not_throw_exception_if_skipped() throws IOException, SAXException {
         MockModelFactory failingFactory = new MockModelFactory();
@@ -4,6 +4,7 @@ package com.yahoo.container.jdisc;
 import com.yahoo.io.BufferChain;
 import com.yahoo.io.WritableByteTransmitter;
 import com.yahoo.jdisc.handler.CompletionHandler;
+import com.yahoo.jdisc.handler.ContentBufferPool;
 import com.yahoo.jdisc.handler.ContentChannel;
 import com.yahoo.log.LogLevel;
 import com.yahoo.yolean.Exceptions;
@@ -12,6 +13,7 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
 import java.util.Arrays;
+import java.util.Objects;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -25,12 +27,27 @@ public class ContentChannelOutputStream extends OutputStream implements Writable
     private static final Logger log = Logger.getLogger(ContentChannelOutputStream.class.getName());
     private final BufferChain buffer;
     private final ContentChannel endpoint;
+    private final ContentBufferPool pool;
+    private ContentBufferPool.PooledBuffer pooled = null;
     private long byteBufferData = 0L;
+    private long pooledData = 0L;
     private boolean failed = false;
     private final Object failLock = new Object();
 
     public ContentChannelOutputStream(final ContentChannel endpoint) {
         this.endpoint = endpoint;
+        this.pool = null;
+        buffer = new BufferChain(this);
+    }
+
+    /**
+     * Creates a stream which copies the bytes written to it into buffers
+     * taken from the given pool. The endpoint must be done with a buffer once
+     * it completes the write of it, see {@link ContentBufferPool}.
+     */
+    public ContentChannelOutputStream(final ContentChannel endpoint, final ContentBufferPool pool) {
+        this.endpoint = endpoint;
+        this.pool = Objects.requireNonNull(pool, "pool");
         buffer = new BufferChain(this);
     }
 
@@ -40,7 +57,11 @@ public class ContentChannelOutputStream extends OutputStream implements Writable
     @Override
     public void write(final int b) throws IOException {
         try {
-            buffer.append((byte) b);
+            if (pool != null) {
+                pooledBuffer().put((byte) b);
+            } else {
+                buffer.append((byte) b);
+            }
         } catch (RuntimeException e) {
             throw new IOException(Exceptions.toMessageString(e), e);
         }
@@ -54,6 +75,7 @@ public class ContentChannelOutputStream extends OutputStream implements Writable
         // the endpoint is closed in a finally{} block inside AbstractHttpRequestHandler
         // this class should be possible to close willynilly as it is exposed to plug-ins
         try {
+            flushPooled();
             buffer.flush();
         } catch (RuntimeException e) {
             throw new IOException(Exceptions.toMessageString(e), e);
@@ -66,6 +88,7 @@ public class ContentChannelOutputStream extends OutputStream implements Writable
     @Override
     public void flush() throws IOException {
         try {
+            flushPooled();
             buffer.flush();
         } catch (RuntimeException e) {
             throw new IOException(Exceptions.toMessageString(e), e);
@@ -78,9 +101,23 @@ public class ContentChannelOutputStream extends OutputStream implements Writable
      * It is in other words safe to recycle the array {@code b}.
      */
     @Override
-    public void write(final byte[] b, final int off, final int len)
+    public void write(final byte[] b, int off, int len)
             throws IOException {
-        nonCopyingWrite(Arrays.copyOfRange(b, off, off + len));
+        if (pool == null) {
+            nonCopyingWrite(Arrays.copyOfRange(b, off, off + len));
+            return;
+        }
+        try {
+            while (len > 0) {
+                final ByteBuffer buf = pooledBuffer();
+                final int part = Math.min(len, buf.remaining());
+                buf.put(b, off, part);
+                off += part;
+                len -= part;
+            }
+        } catch (RuntimeException e) {
+            throw new IOException(Exceptions.toMessageString(e), e);
+        }
     }
 
     /**
@@ -90,7 +127,11 @@ public class ContentChannelOutputStream extends OutputStream implements Writable
      */
     @Override
     public void write(final byte[] b) throws IOException {
+        if (pool == null) {
             nonCopyingWrite(Arrays.copyOf(b, b.length));
+        } else {
+            write(b, 0, b.length);
+        }
     }
 
     /**
@@ -101,6 +142,7 @@ public class ContentChannelOutputStream extends OutputStream implements Writable
     public void nonCopyingWrite(final byte[] b, final int off, final int len)
             throws IOException {
         try {
+            flushPooled();
             buffer.append(b, off, len);
         } catch (RuntimeException e) {
             throw new IOException(Exceptions.toMessageString(e), e);
@@ -114,6 +156,7 @@ public class ContentChannelOutputStream extends OutputStream implements Writable
      */
     public void nonCopyingWrite(final byte[] b) throws IOException {
         try {
+            flushPooled();
             buffer.append(b);
         } catch (RuntimeException e) {
             throw new IOException(Exceptions.toMessageString(e), e);
@@ -133,6 +176,7 @@ public class ContentChannelOutputStream extends OutputStream implements Writable
         // Don't do a buffer.flush() from here, this method is used by the
         // buffer itself
         try {
+            flushPooled();
             byteBufferData += (long) src.remaining();
             endpoint.write(src, new LoggingCompletionHandler());
         } catch (RuntimeException e) {
@@ -146,7 +190,42 @@ public class ContentChannelOutputStream extends OutputStream implements Writable
      * @return the number of bytes written to this stream
      */
     public long written() {
-        return buffer.appended() + byteBufferData;
+        return buffer.appended() + byteBufferData + pooledData
+               + (pooled != null ? pooled.buffer().position() : 0);
+    }
+
+    /**
+     * Returns the pooled buffer to copy written bytes into. Only one of the
+     * pooled buffer and the buffer chain holds unsent data at any time, so
+     * the chain is flushed before the first pooled buffer is taken.
+     */
+    private ByteBuffer pooledBuffer() throws IOException {
+        if (pooled == null) {
+            buffer.flush();
+        } else if (pooled.buffer().hasRemaining()) {
+            return pooled.buffer();
+        } else {
+            flushPooled();
+        }
+        pooled = pool.acquire();
+        return pooled.buffer();
+    }
+
+    private void flushPooled() {
+        if (pooled == null) {
+            return;
+        }
+        final ContentBufferPool.PooledBuffer buf = pooled;
+        pooled = null;
+        try {
+            buf.buffer().flip();
+            if (buf.buffer().hasRemaining()) {
+                pooledData += (long) buf.buffer().remaining();
+                buf.writeTo(endpoint, new LoggingCompletionHandler());
+            }
+        } finally {
+            buf.release();
+        }
     }
 
     class LoggingCompletionHandler implements CompletionHandler {
@@ -6,6 +6,7 @@ import com.yahoo.jdisc.Request;
 import com.yahoo.jdisc.Response;
 import com.yahoo.jdisc.application.ContainerBuilder;
 import com.yahoo.jdisc.handler.BufferedContentChannel;
+import com.yahoo.jdisc.handler.CompletionHandler;
 import com.yahoo.jdisc.handler.ContentChannel;
 import com.yahoo.jdisc.handler.ReadableContentChannel;
 import com.yahoo.jdisc.handler.RequestHandler;
@@ -145,7 +146,7 @@ public class RequestHandlerTestDriver implements AutoCloseable {
             latch.countDown();
 
             buffer.connectTo(this.content);
-            return buffer;
+            return new CopyingContentChannel(buffer);
         }
 
         public void clientClose() {
@@ -161,4 +162,31 @@ public class RequestHandlerTestDriver implements AutoCloseable {
 
     }
 
+    /**
+     * Copies the buffers written to it before they are read, as a network connection would,
+     * since handlers may reuse a buffer once its write completes.
+     */
+    private static class CopyingContentChannel implements ContentChannel {
+
+        private final ContentChannel delegate;
+
+        CopyingContentChannel(ContentChannel delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void write(ByteBuffer buf, CompletionHandler handler) {
+            ByteBuffer copy = ByteBuffer.allocate(buf.remaining());
+            copy.put(buf);
+            copy.flip();
+            delegate.write(copy, handler);
+        }
+
+        @Override
+        public void close(CompletionHandler handler) {
+            delegate.close(handler);
+        }
+
+    }
+
 }
@@ -6,6 +6,7 @@ import com.yahoo.jdisc.Metric;
 import com.yahoo.jdisc.Request;
 import com.yahoo.jdisc.handler.BufferedContentChannel;
 import com.yahoo.jdisc.handler.CompletionHandler;
+import com.yahoo.jdisc.handler.ContentBufferPool;
 import com.yahoo.jdisc.handler.ContentChannel;
 import com.yahoo.jdisc.handler.UnsafeContentInputStream;
 import com.yahoo.jdisc.handler.ResponseHandler;
@@ -33,6 +34,13 @@ public abstract class ThreadedHttpRequestHandler extends ThreadedRequestHandler
     public static final String CONTENT_TYPE = "Content-Type";
     public static final String DATE = "Date"; // TODO: Remove on Vespa 7
     private static final String RENDERING_ERRORS = "rendering_errors";
+    private static final String RESPONSE_BUFFERS_ACQUIRED = "response_buffers_acquired";
+    private static final String RESPONSE_BUFFERS_ALLOCATED = "response_buffers_allocated";
+    private static final String RESPONSE_BUFFERS_POOLED = "response_buffers_pooled";
+    private static final String RESPONSE_BUFFERS_IN_USE = "response_buffers_in_use";
+
+    /** Buffers for the rendered responses of handlers which {@link #reuseResponseBuffers() reuse} them */
+    private static final ContentBufferPool responseBuffers = new ContentBufferPool(4096, 1024);
 
     /** Logger for subclasses */
     protected final Logger log;
@@ -67,6 +75,19 @@ public abstract class ThreadedHttpRequestHandler extends ThreadedRequestHandler
         return handle(request);
     }
 
+    /**
+     * Override this to return true to have the response buffers of this returned to a shared pool when their
+     * writes complete, and reused for other responses. This is only safe if whoever consumes the response
+     * is done with a buffer once it completes the write of it. The JDisc HTTP server only does so after the
+     * servlet output stream reports that it is ready for the next write, which is once the bytes are written
+     * to the connection. Handlers which may respond to requests from within the container, where the response
+     * is read through e.g. a ReadableContentChannel, which completes writes as buffers are read, must not do this.
+     * This default implementation returns false.
+     */
+    protected boolean reuseResponseBuffers() {
+        return false;
+    }
+
     @Override
     public final void handleRequest(Request request, BufferedContentChannel requestContent, ResponseHandler responseHandler) {
         if (log.isLoggable(LogLevel.DEBUG)) {
@@ -99,7 +120,8 @@ public abstract class ThreadedHttpRequestHandler extends ThreadedRequestHandler
         LoggingCompletionHandler logOnCompletion = null;
         ContentChannelOutputStream output = null;
         try {
-            output = new ContentChannelOutputStream(channel);
+            output = reuseResponseBuffers() ? new ContentChannelOutputStream(channel, responseBuffers)
+                                            : new ContentChannelOutputStream(channel);
             logOnCompletion = createLoggingCompletionHandler(startTime, System.currentTimeMillis(),
                                                              httpResponse, request, output);
 
@@ -126,9 +148,19 @@ public abstract class ThreadedHttpRequestHandler extends ThreadedRequestHandler
             if (channel != null && !(httpResponse instanceof AsyncHttpResponse)) {
                 channel.close(logOnCompletion);
             }
+            if (reuseResponseBuffers()) {
+                reportResponseBufferMetrics();
+            }
         }
     }
 
+    private void reportResponseBufferMetrics() {
+        metric.set(RESPONSE_BUFFERS_ACQUIRED, responseBuffers.acquiredCount(), null);
+        metric.set(RESPONSE_BUFFERS_ALLOCATED, responseBuffers.allocatedCount(), null);
+        metric.set(RESPONSE_BUFFERS_POOLED, responseBuffers.pooledCount(), null);
+        metric.set(RESPONSE_BUFFERS_IN_USE, responseBuffers.inUseCount(), null);
+    }
+
     /**
      * A content channel which will return the header and create the proper channel the first time content data needs
      * to be written to it.
@@ -201,7 +233,10 @@ public abstract class ThreadedHttpRequestHandler extends ThreadedRequestHandler
         private static class DevNullChannel implements ContentChannel {
 
             @Override
-            public void write(ByteBuffer byteBuffer, CompletionHandler completionHandler) { }
+            public void write(ByteBuffer byteBuffer, CompletionHandler completionHandler) {
+                if (completionHandler != null)
+                    completionHandler.completed(); // lets a reused buffer return to its pool
+            }
 
             @Override
             public void close(CompletionHandler completionHandler) { }
@@ -0,0 +1,97 @@
+// Copyright 2017 Yahoo Holdings. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.container.jdisc;
+
+import com.yahoo.jdisc.handler.CompletionHandler;
+import com.yahoo.jdisc.handler.ContentBufferPool;
+import com.yahoo.jdisc.handler.ContentChannel;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author agent
+ */
+public class ContentChannelOutputStreamTestCase {
+
+    @Test
+    public void requireThatPooledWritesKeepTheirOrder() throws IOException {
+        ContentBufferPool pool = new ContentBufferPool(16, 4);
+        CollectingContentChannel channel = new CollectingContentChannel();
+        ContentChannelOutputStream stream = new ContentChannelOutputStream(channel, pool);
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+
+        for (int i = 0; i < 40; ++i) {
+            stream.write(i);
+            expected.write(i);
+        }
+        byte[] large = new byte[2000];
+        for (int i = 0; i < large.length; ++i) {
+            large[i] = (byte)(i * 7);
+        }
+        stream.nonCopyingWrite(large);
+        expected.write(large);
+        stream.write(new byte[] { 1, 2, 3, 4, 5 }, 1, 3);
+        expected.write(new byte[] { 1, 2, 3, 4, 5 }, 1, 3);
+        stream.flush();
+
+        assertArrayEquals(expected.toByteArray(), channel.content.toByteArray());
+    }
+
+    @Test
+    public void requireThatPooledBuffersAreReleasedWhenTheirWritesComplete() throws IOException {
+        ContentBufferPool pool = new ContentBufferPool(16, 4);
+        CollectingContentChannel channel = new CollectingContentChannel();
+        channel.completeWrites = false;
+        ContentChannelOutputStream stream = new ContentChannelOutputStream(channel, pool);
+
+        stream.write(new byte[40]);
+        assertEquals(40, stream.written());
+        stream.flush();
+        assertEquals(40, stream.written());
+        assertEquals(3, channel.handlers.size());
+        assertEquals(3, pool.inUseCount());
+
+        for (CompletionHandler handler : channel.handlers) {
+            handler.completed();
+        }
+        assertEquals(0, pool.inUseCount());
+        assertEquals(3, pool.pooledCount());
+
+        stream.write(new byte[40]);
+        stream.flush();
+        assertEquals(3, pool.allocatedCount());
+        assertEquals(6, pool.acquiredCount());
+    }
+
+    private static class CollectingContentChannel implements ContentChannel {
+
+        final ByteArrayOutputStream content = new ByteArrayOutputStream();
+        final List<CompletionHandler> handlers = new ArrayList<>();
+        boolean completeWrites = true;
+
+        @Override
+        public void write(ByteBuffer buf, CompletionHandler handler) {
+            while (buf.hasRemaining()) {
+                content.write(buf.get());
+            }
+            if (completeWrites) {
+                handler.completed();
+            } else {
+                handlers.add(handler);
+            }
+        }
+
+        @Override
+        public void close(CompletionHandler handler) {
+            handler.completed();
+        }
+    }
+
+}
@@ -1,10 +1,13 @@
 // Copyright 2017 Yahoo Holdings. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
 package com.yahoo.container.di
 
+import java.util.concurrent.{ExecutorService, Executors}
 import java.util.logging.{Level, Logger}
 import java.util.{IdentityHashMap, Random}
 
 import com.google.inject.{Guice, Injector}
+import com.yahoo.component.ComponentId
+import com.yahoo.concurrent.ThreadFactoryFactory
 import com.yahoo.config._
 import com.yahoo.config.subscription.ConfigInterruptedException
 import com.yahoo.container.bundle.BundleInstantiationSpecification
@@ -42,6 +45,14 @@ class Container(
   var previousConfigGeneration = -1L
   var leastGeneration = -1L
 
+  /** Constructs the components of new graphs, in parallel where they do not depend on each other */
+  private val constructionExecutor: ExecutorService =
+    Executors.newFixedThreadPool(max(1, Runtime.getRuntime.availableProcessors),
+                                 ThreadFactoryFactory.getDaemonThreadFactory("component-construction"))
+
+  /** The time in milliseconds spent constructing each component created for the last graph */
+  @volatile var componentConstructionTimes = Map[ComponentId, Long]()
+
   @throws(classOf[InterruptedException])
   def runOnce(
                oldGraph: ComponentGraph = new ComponentGraph,
@@ -54,10 +65,22 @@ class Container(
       oldComponents.keySet.asScala foreach (componentDeconstructor.deconstruct(_))
     }
 
+    def deconstructNewComponents(oldGraph: ComponentGraph, newGraph: ComponentGraph) {
+      val oldComponents = new IdentityHashMap[AnyRef, AnyRef]()
+      oldGraph.allComponentsAndProviders foreach (oldComponents.put(_, null))
+      newGraph.nodes flatMap (_.instance) filterNot (oldComponents.containsKey(_)) foreach (componentDeconstructor.deconstruct(_))
+    }
+
     try {
       val newGraph = createNewGraph(oldGraph, fallbackInjector)
       newGraph.reuseNodes(oldGraph)
-      constructComponents(newGraph)
+      try {
+        constructComponents(newGraph)
+      } catch {
+        case e: Throwable =>
+          deconstructNewComponents(oldGraph, newGraph)
+          throw e
+      }
       deconstructObsoleteComponents(oldGraph, newGraph)
       newGraph
     } catch {
@@ -209,7 +232,11 @@ class Container(
   }
 
   private def constructComponents(graph: ComponentGraph) {
-    graph.nodes foreach (_.newOrCachedInstance())
+    componentConstructionTimes = graph.constructInstances(constructionExecutor)
+    if (log.isLoggable(Level.FINE)) {
+      for ((id, millis) <- componentConstructionTimes.toSeq.sortBy(- _._2))
+        log.fine(s"Constructed component '$id' in $millis ms")
+    }
   }
 
   def shutdown(graph: ComponentGraph, deconstructor: ComponentDeconstructor) {
@@ -220,6 +247,7 @@ class Container(
 
   def shutdownConfigurer() {
     configurer.shutdown()
+    constructionExecutor.shutdown()
   }
 
   // Reload config manually, when subscribing to non-configserver sources
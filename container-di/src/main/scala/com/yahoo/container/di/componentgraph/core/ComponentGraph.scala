@@ -1,6 +1,8 @@
 // Copyright 2017 Yahoo Holdings. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
 package com.yahoo.container.di.componentgraph.core
 
+import java.util.concurrent.atomic.AtomicBoolean
+import java.util.concurrent.{CompletableFuture, CompletionException, ConcurrentHashMap, ExecutionException, Executor}
 import java.util.logging.Logger
 
 import com.yahoo.component.provider.ComponentRegistry
@@ -11,6 +13,7 @@ import java.lang.IllegalStateException
 import com.yahoo.log.LogLevel
 
 import collection.mutable
+import scala.collection.JavaConverters._
 import annotation.tailrec
 
 import com.yahoo.container.di.{ConfigKeyT, GuiceInjector}
@@ -133,6 +136,72 @@ class ComponentGraph(val generation: Long = 0) {
 
   def allComponentsAndProviders = nodes map {_.instance.get}
 
+  /**
+   * Creates the instances of all nodes which do not have one, in tasks run by the given executor.
+   * The task of a node is started when the components it uses are created, so nodes which do not depend
+   * on each other are created concurrently. If any node fails, or the calling thread is interrupted, no more
+   * nodes are created, and the exception of the first failed node in dependency order, or the
+   * InterruptedException, is thrown once the nodes being created are done. The caller must then
+   * deconstruct the instances which were created.
+   *
+   * @return the time in milliseconds spent creating each new instance
+   */
+  @throws(classOf[InterruptedException])
+  def constructInstances(executor: Executor): Map[ComponentId, Long] = {
+    val contextClassLoader = Thread.currentThread().getContextClassLoader
+    val times = new ConcurrentHashMap[ComponentId, java.lang.Long]()
+    val aborted = new AtomicBoolean(false)
+
+    def construct(node: Node) {
+      if (aborted.get) return
+
+      val thread = Thread.currentThread()
+      val previousClassLoader = thread.getContextClassLoader
+      thread.setContextClassLoader(contextClassLoader)
+      try {
+        val isNew = node.instance.isEmpty
+        val startTime = System.nanoTime()
+        node.newOrCachedInstance()
+        if (isNew)
+          times.put(node.componentId, (System.nanoTime() - startTime) / 1000000)
+      } catch {
+        case e: Throwable =>
+          aborted.set(true)
+          throw e
+      } finally {
+        thread.setContextClassLoader(previousClassLoader)
+      }
+    }
+
+    val sorted = topologicalSort(nodesById.values.toList)
+    val tasks = mutable.Map[ComponentId, CompletableFuture[Void]]()
+    for (node <- sorted) {
+      val usedComponentsCreated = CompletableFuture.allOf(node.usedComponents.map(used => tasks(used.componentId)): _*)
+      tasks(node.componentId) = usedComponentsCreated.thenRunAsync(new Runnable { def run() { construct(node) } }, executor)
+    }
+
+    val allDone = CompletableFuture.allOf(tasks.values.toSeq: _*)
+    try {
+      allDone.get()
+    } catch {
+      case e: InterruptedException =>
+        // Wait for the nodes being created, which are not interruptible, such that no instance is created after this
+        aborted.set(true)
+        try { allDone.join() } catch { case _: CompletionException => }
+        throw e
+      case _: ExecutionException =>
+        // The nodes using a failed node fail with the same exception, so the first failed node is the cause
+        val firstFailed = sorted.map(node => tasks(node.componentId)).find(_.isCompletedExceptionally).get
+        try {
+          firstFailed.get()
+        } catch {
+          case e: ExecutionException => throw e.getCause
+        }
+    }
+
+    times.asScala.map { case (id, time) => id -> time.longValue }.toMap
+  }
+
   private def completeComponentRegistryNode(registry: ComponentRegistryNode) {
     registry.injectAll(osgiComponentsOfClass(registry.componentClass))
   }
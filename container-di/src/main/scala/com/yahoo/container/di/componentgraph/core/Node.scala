@@ -35,8 +35,9 @@ abstract class Node(val componentId: ComponentId) {
       })
   }
 
+  // Providers are called by each component using them, which may be constructed concurrently
   private def component(instance: AnyRef) = instance match {
-    case provider: Provider[_] => provider.get().asInstanceOf[AnyRef]
+    case provider: Provider[_] => provider.synchronized { provider.get().asInstanceOf[AnyRef] }
     case other                 => other
   }
 
@@ -163,6 +163,28 @@ class ContainerTest {
     assertNotNull(currentGraph.getInstance(classOf[ComponentTakingConfig]))
   }
 
+  @Test
+  def components_constructed_for_a_graph_which_fails_are_deconstructed() {
+    writeBootstrapConfigs(Array(ComponentEntry("simpleComponent", classOf[SimpleComponent])))
+    val container = newContainer(dirConfigSource)
+    val currentGraph = container.runOnce()
+
+    TrackedDestructableComponent.instances.clear()
+    writeBootstrapConfigs(Array(ComponentEntry("destructable", classOf[TrackedDestructableComponent]),
+                                ComponentEntry("thrower", classOf[ComponentThrowingExceptionAfterDestructable])))
+    container.reloadConfig(2)
+    try {
+      container.runOnce(currentGraph)
+      fail("Expected exception")
+    } catch {
+      case _: ComponentConstructorException => // Expected, do nothing
+    }
+    assertEquals(1, TrackedDestructableComponent.instances.size)
+    assertTrue(TrackedDestructableComponent.instances.get(0).deconstructed)
+
+    container.shutdownConfigurer()
+  }
+
   @Test
   def previous_graph_is_retained_when_new_graph_throws_exception_for_missing_config() {
     val simpleComponentEntry = ComponentEntry("simpleComponent", classOf[SimpleComponent])
@@ -375,6 +397,18 @@ object ContainerTest {
     }
   }
 
+  class TrackedDestructableComponent extends DestructableComponent {
+    TrackedDestructableComponent.instances.add(this)
+  }
+
+  object TrackedDestructableComponent {
+    val instances = new java.util.concurrent.CopyOnWriteArrayList[TrackedDestructableComponent]()
+  }
+
+  class ComponentThrowingExceptionAfterDestructable(destructable: TrackedDestructableComponent) {
+    throw new RuntimeException("This component fails upon construction.")
+  }
+
   class TestDeconstructor extends ComponentDeconstructor {
     def deconstruct(component: AnyRef) {
       component match {
@@ -1,7 +1,7 @@
 // Copyright 2017 Yahoo Holdings. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
 package com.yahoo.container.di.componentgraph.core
 
-import java.util.concurrent.{Executor, Executors}
+import java.util.concurrent.{CountDownLatch, Executor, Executors, TimeUnit}
 
 import com.google.inject.name.{Named, Names}
 import com.google.inject.{AbstractModule, Guice, Inject, Key, Provider => GuiceProvider}
@@ -12,6 +12,7 @@ import com.yahoo.config.subscription.ConfigGetter
 import com.yahoo.config.test.{Test2Config, TestConfig}
 import com.yahoo.container.di._
 import com.yahoo.container.di.componentgraph.Provider
+import com.yahoo.container.di.componentgraph.core.ComponentNode.ComponentConstructorException
 import com.yahoo.container.di.config.{JerseyBundlesConfig, JerseyInjectionConfig, RestApiContext}
 import com.yahoo.vespa.config.ConfigKey
 import org.hamcrest.CoreMatchers.{containsString, equalTo, is, not, sameInstance}
@@ -126,6 +127,79 @@ class ComponentGraphTest {
     assertThat(instance1, sameInstance(instance2))
   }
 
+  @Test
+  def independent_components_are_constructed_concurrently() {
+    val componentGraph = new ComponentGraph
+    componentGraph.add(mockComponentNode(classOf[LatchedComponent]))
+    componentGraph.add(mockComponentNode(classOf[LatchedComponent2]))
+    componentGraph.add(mockComponentNode(classOf[ComponentTakingLatchedComponent]))
+    componentGraph.complete()
+
+    val executor = Executors.newFixedThreadPool(2)
+    try {
+      latch = new CountDownLatch(2)
+      val times = componentGraph.constructInstances(executor)
+      assertThat(times.size, is(3))
+    } finally {
+      executor.shutdown()
+    }
+
+    val instance = componentGraph.getInstance(classOf[ComponentTakingLatchedComponent])
+    assertThat(instance.injectedComponent, sameInstance(componentGraph.getInstance(classOf[LatchedComponent])))
+  }
+
+  @Test
+  def exception_from_first_failing_component_is_thrown_by_concurrent_construction() {
+    val componentGraph = new ComponentGraph
+    componentGraph.add(mockComponentNode(classOf[ComponentThrowingInConstructor]))
+    componentGraph.add(mockComponentNode(classOf[ComponentTakingThrowingComponent]))
+    componentGraph.complete()
+
+    val executor = Executors.newSingleThreadExecutor()
+    try {
+      componentGraph.constructInstances(executor)
+      fail("Expected exception")
+    } catch {
+      case e: ComponentConstructorException =>
+        assertThat(e.getMessage, containsString(classOf[ComponentThrowingInConstructor].getName))
+        assertThat(e.getCause.getMessage, is("Constructor failed"))
+    } finally {
+      executor.shutdown()
+    }
+  }
+
+  @Test
+  def no_components_are_constructed_after_the_caller_is_interrupted() {
+    val componentGraph = new ComponentGraph
+    componentGraph.add(mockComponentNode(classOf[SimpleComponent]))
+    componentGraph.add(mockComponentNode(classOf[ComponentTakingComponent]))
+    componentGraph.complete()
+
+    // Holds back all construction until the caller has been interrupted
+    val gate = new CountDownLatch(1)
+    val pool = Executors.newSingleThreadExecutor()
+    val executor = new Executor {
+      def execute(task: Runnable) {
+        pool.execute(new Runnable { def run() { gate.await(); task.run() } })
+      }
+    }
+    val opener = new Thread(new Runnable { def run() { Thread.sleep(100); gate.countDown() } })
+    try {
+      opener.start()
+      Thread.currentThread().interrupt()
+      componentGraph.constructInstances(executor)
+      fail("Expected exception")
+    } catch {
+      case _: InterruptedException =>
+        assertThat(gate.getCount, is(0L)) // returned only after the tasks were done
+        componentGraph.nodes.foreach(node => assertThat(node.instance, is(None: Option[AnyRef])))
+    } finally {
+      Thread.interrupted()
+      opener.join()
+      pool.shutdown()
+    }
+  }
+
   @Test
   def singleton_components_can_be_injected() {
     val componentGraph = new ComponentGraph
@@ -432,6 +506,23 @@ object ComponentGraphTest {
   class SimpleComponent2 extends AbstractComponent
   class SimpleDerivedComponent extends SimpleComponent
 
+  @volatile var latch = new CountDownLatch(0)
+
+  /** Does not complete construction until another LatchedComponent is being constructed */
+  class LatchedComponent extends AbstractComponent {
+    latch.countDown()
+    require(latch.await(60, TimeUnit.SECONDS), "Components were not constructed concurrently")
+  }
+  class LatchedComponent2 extends LatchedComponent
+
+  class ComponentTakingLatchedComponent(val injectedComponent: LatchedComponent) extends AbstractComponent
+
+  class ComponentThrowingInConstructor extends AbstractComponent {
+    throw new IllegalStateException("Constructor failed")
+  }
+
+  class ComponentTakingThrowingComponent(val injectedComponent: ComponentThrowingInConstructor) extends AbstractComponent
+
   class ComponentTakingConfig(val config: TestConfig) extends SimpleComponent {
     require(config != null)
   }
@@ -21,8 +21,10 @@ import com.yahoo.messagebus.shared.SharedIntermediateSession;
 import com.yahoo.messagebus.shared.SharedMessageBus;
 import com.yahoo.messagebus.shared.SharedSourceSession;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Logger;
 
 /**
@@ -46,18 +48,19 @@ public final class SessionCache extends AbstractComponent {
 
     // initialized in start()
     private ConfigAgent configAgent;
-    private SharedMessageBus messageBus;
+    private volatile SharedMessageBus messageBus;
 
+    // Sessions are looked up without locking, the locks are only held when a session must be created
     private final Object intermediateLock = new Object();
-    private final Map<String, SharedIntermediateSession> intermediates = new HashMap<>();
+    private final Map<String, SharedIntermediateSession> intermediates = new ConcurrentHashMap<>();
     private final IntermediateSessionCreator intermediatesCreator = new IntermediateSessionCreator();
 
     private final Object destinationLock = new Object();
-    private final Map<String, SharedDestinationSession> destinations = new HashMap<>();
+    private final Map<String, SharedDestinationSession> destinations = new ConcurrentHashMap<>();
     private final DestinationSessionCreator destinationsCreator = new DestinationSessionCreator();
 
     private final Object sourceLock = new Object();
-    private final Map<SourceSessionKey, SharedSourceSession> sources = new HashMap<>();
+    private final Map<SourceSessionKey, SharedSourceSession> sources = new ConcurrentHashMap<>();
     private final SourceSessionCreator sourcesCreator = new SourceSessionCreator();
 
     public SessionCache(final String messagebusConfigId, final String slobrokConfigId, final String identity,
@@ -84,10 +87,22 @@ public final class SessionCache extends AbstractComponent {
         }
         LoadTypeSet loadTypeSet = new LoadTypeSet(loadTypeConfigId);
         DocumentProtocol protocol = new DocumentProtocol(documentTypeManager, identity, loadTypeSet);
-        messageBus = createSharedMessageBus(mbusConfig, slobrokConfigId, identity, protocol);
+        SharedMessageBus messageBus = createSharedMessageBus(mbusConfig, slobrokConfigId, identity, protocol);
         // TODO: stop doing subscriptions to config when that is to be solved in slobrok as well
         configAgent = new ConfigAgent(messagebusConfigId, messageBus.messageBus());
         configAgent.subscribe();
+        this.messageBus = messageBus; // publish when fully started
+    }
+
+    private void ensureStarted() {
+        if (isStarted()) {
+            return;
+        }
+        synchronized (this) {
+            if (!isStarted()) {
+                start();
+            }
+        }
     }
 
     private boolean isStarted() {
@@ -130,30 +145,75 @@ public final class SessionCache extends AbstractComponent {
     }
 
     public ReferencedResource<SharedIntermediateSession> retainIntermediate(final IntermediateSessionParams p) {
-        synchronized (this) {
-            if (!isStarted()) {
-                start();
-            }
-        }
+        ensureStarted();
         return intermediatesCreator.retain(intermediateLock, intermediates, p);
     }
 
     public ReferencedResource<SharedDestinationSession> retainDestination(final DestinationSessionParams p) {
-        synchronized (this) {
-            if (!isStarted()) {
-                start();
-            }
-        }
+        ensureStarted();
         return destinationsCreator.retain(destinationLock, destinations, p);
     }
 
     public ReferencedResource<SharedSourceSession> retainSource(final SourceSessionParams p) {
-        synchronized (this) {
-            if (!isStarted()) {
-                start();
+        ensureStarted();
+        return sourcesCreator.retain(sourceLock, sources, p);
+    }
+
+    /**
+     * Returns a snapshot of the in-flight messages and throttle window of each cached source session.
+     * This is cheap, and may be called for every metric snapshot. The values are read without synchronizing
+     * with the sessions, so they may be slightly stale, and must only be used for monitoring.
+     */
+    public List<SourceSessionMetrics> sourceSessionMetrics() {
+        final List<SourceSessionMetrics> metrics = new ArrayList<>(sources.size());
+        for (final Map.Entry<SourceSessionKey, SharedSourceSession> entry : sources.entrySet()) {
+            metrics.add(new SourceSessionMetrics(entry.getKey().timeout, entry.getValue()));
+        }
+        return metrics;
+    }
+
+    /**
+     * The in-flight messages and throttle window of a source session at some point in time.
+     */
+    public static final class SourceSessionMetrics {
+        private final double timeout;
+        private final int retainCount;
+        private final int pendingCount;
+        private final long pendingSize;
+        private final int maxPendingCount;
+
+        SourceSessionMetrics(final double timeout, final SharedSourceSession session) {
+            this.timeout = timeout;
+            this.retainCount = session.retainCount();
+            this.pendingCount = session.session().getPendingCount();
+            final ThrottlePolicy policy = session.session().getThrottlePolicy();
+            if (policy instanceof StaticThrottlePolicy) {
+                final StaticThrottlePolicy staticPolicy = (StaticThrottlePolicy) policy;
+                this.pendingSize = staticPolicy.getPendingSize();
+                this.maxPendingCount = staticPolicy.getMaxPendingCount();
+            } else {
+                this.pendingSize = 0;
+                this.maxPendingCount = 0;
             }
         }
-        return sourcesCreator.retain(sourceLock, sources, p);
+
+        /** Returns the timeout in seconds of the messages sent through the session */
+        public double timeout() { return timeout; }
+
+        /** Returns the number of references to the session, i.e., the number of current users of it */
+        public int retainCount() { return retainCount; }
+
+        /** Returns the number of messages sent through the session that have not yet been replied to */
+        public int pendingCount() { return pendingCount; }
+
+        /** Returns the total size of the pending messages, or 0 if the session's throttle policy does not track it */
+        public long pendingSize() { return pendingSize; }
+
+        /**
+         * Returns the maximum number of pending messages allowed by the throttle policy, or 0 if unlimited.
+         * This is the current window size of a dynamic policy, which adjusts it continuously.
+         */
+        public int maxPendingCount() { return maxPendingCount; }
     }
 
     private abstract class SessionCreator<PARAMS, KEY, SESSION extends SharedResource> {
@@ -164,33 +224,39 @@ public final class SessionCache extends AbstractComponent {
         abstract void logReuse(SESSION session);
 
         ReferencedResource<SESSION> retain(final Object lock, final Map<KEY, SESSION> registry, final PARAMS p) {
-            SESSION session;
-            ResourceReference sessionReference;
             final KEY key = buildKey(p);
-            // this lock is held for a horribly long time, but I see no way of
-            // making it slimmer
+            ReferencedResource<SESSION> retained = tryRetain(registry.get(key));
+            if (retained != null) {
+                return retained;
+            }
+            // this lock is held for a horribly long time when creating a session,
+            // but is only taken when there is no live session to reuse
             synchronized (lock) {
-                session = registry.get(key);
-                if (session == null) {
-                    session = createAndStore(registry, p, key);
-                    sessionReference = References.fromResource(session);
-                } else {
-                    try {
-                        sessionReference = session.refer();
-                        logReuse(session);
-                    } catch (final IllegalStateException e) {
-                        session = createAndStore(registry, p, key);
-                        sessionReference = References.fromResource(session);
-                    }
+                retained = tryRetain(registry.get(key));
+                if (retained != null) {
+                    return retained;
                 }
+                SESSION session = create(p);
+                registry.put(key, session);
+                return new ReferencedResource<>(session, References.fromResource(session));
             }
-            return new ReferencedResource<>(session, sessionReference);
         }
 
-        SESSION createAndStore(final Map<KEY, SESSION> registry, final PARAMS p, final KEY key) {
-            SESSION session = create(p);
-            registry.put(key, session);
-            return session;
+        /** Returns a new reference to the given session, or null if it is null or already destroyed */
+        private ReferencedResource<SESSION> tryRetain(final SESSION session) {
+            if (session == null) {
+                return null;
+            }
+            final ResourceReference sessionReference;
+            try {
+                sessionReference = session.refer();
+            } catch (final IllegalStateException e) {
+                return null;
+            }
+            if (log.isLoggable(LogLevel.DEBUG)) {
+                logReuse(session);
+            }
+            return new ReferencedResource<>(session, sessionReference);
         }
 
     }
@@ -0,0 +1,46 @@
+// Copyright 2017 Yahoo Holdings. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.container.jdisc.messagebus;
+
+import com.yahoo.jdisc.ReferencedResource;
+import com.yahoo.messagebus.SourceSessionParams;
+import com.yahoo.messagebus.shared.SharedSourceSession;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+/**
+ * @author agent
+ */
+public class SessionCacheTest {
+
+    @Test
+    public void source_sessions_are_reused_until_destroyed() {
+        SessionCache cache = new SessionCache("dir:src/test/resources/config/clientprovider");
+        SourceSessionParams params = new SourceSessionParams().setTimeout(69);
+
+        ReferencedResource<SharedSourceSession> first = cache.retainSource(params);
+        ReferencedResource<SharedSourceSession> second = cache.retainSource(new SourceSessionParams(params));
+        assertSame(first.getResource(), second.getResource());
+
+        List<SessionCache.SourceSessionMetrics> metrics = cache.sourceSessionMetrics();
+        assertEquals(1, metrics.size());
+        assertEquals(69.0, metrics.get(0).timeout(), 0.0);
+        assertEquals(2, metrics.get(0).retainCount());
+        assertEquals(0, metrics.get(0).pendingCount());
+        assertEquals(0, metrics.get(0).maxPendingCount());
+
+        first.close();
+        second.close();
+        assertEquals(0, cache.sourceSessionMetrics().get(0).retainCount());
+
+        try (ReferencedResource<SharedSourceSession> third = cache.retainSource(params)) {
+            assertNotSame(first.getResource(), third.getResource());
+            assertEquals(1, cache.sourceSessionMetrics().get(0).retainCount());
+        }
+    }
+
+}
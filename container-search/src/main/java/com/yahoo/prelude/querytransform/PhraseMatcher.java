@@ -53,7 +53,7 @@ public class PhraseMatcher {
      */
     public PhraseMatcher(String phraseAutomatonFile,boolean ignorePluralForm) {
         this.ignorePluralForm=ignorePluralForm;
-        phraseFSA=new FSA(phraseAutomatonFile);
+        phraseFSA=FSA.loadShared(phraseAutomatonFile);
     }
 
     /**
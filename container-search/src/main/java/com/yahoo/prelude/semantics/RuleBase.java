@@ -117,6 +117,7 @@ public class RuleBase {
      * for that rule base.</p>
      */
     public void include(RuleBase include) {
+        analyzer.invalidate();
         productionRules.add(new IncludeDirective(include));
         includedNames.addAll(include.includedNames);
         includedNames.add(include.getName());
@@ -164,6 +165,7 @@ public class RuleBase {
 
     /** Adds a named condition which can be referenced by rules */
     public void addCondition(NamedCondition namedCondition) {
+        analyzer.invalidate();
         namedConditions.put(namedCondition.getName(),namedCondition);
 
         Condition condition=namedCondition.getCondition();
@@ -286,6 +288,7 @@ public class RuleBase {
 
     // Note that included rules are added though a list iterator, not this */
     public void addRule(ProductionRule productionRule) {
+        analyzer.invalidate();
         productionRules.add(productionRule);
     }
 
@@ -302,6 +305,7 @@ public class RuleBase {
     public void initialize() {
         inlineIncluded();
         makeReferences();
+        analyzer.initialize();
     }
 
     /**
@@ -7,7 +7,7 @@ import com.yahoo.prelude.semantics.RuleBase;
 import com.yahoo.prelude.semantics.RuleBaseException;
 import com.yahoo.prelude.semantics.rule.ProductionRule;
 
-import java.util.ListIterator;
+import java.util.BitSet;
 
 /**
  * Evaluates the rules of a rule base. This method is thread safe on analyze calls, but
@@ -19,10 +19,23 @@ public class RuleEngine {
 
     private RuleBase rules;
 
+    /** The index of the rules of the rule base, or null if it is not built for the current rules */
+    private volatile RuleIndex index=null;
+
     public RuleEngine(RuleBase rules) {
         this.rules=rules;
     }
 
+    /** Builds the index of the rules of the rule base. Call this when the rule base is initialized. */
+    public void initialize() {
+        index=new RuleIndex(rules);
+    }
+
+    /** Call this when the rules of the rule base are changed */
+    public void invalidate() {
+        index=null;
+    }
+
     /**
      * Evaluates a rule base over a query
      *
@@ -32,19 +45,26 @@ public class RuleEngine {
      *         If there is an error, this query is destroyed (unusable)
      */
     public String evaluate(Query query,int traceLevel) {
-        // TODO: This is O(query size*rule base size). We'll eventually need to create indices
-        //       on rules to look up rule candidates per term to make it O(query size) instead
-        //       Probably create indices on the first term like Prolog implementations use to
+        RuleIndex index=this.index;
+        if (index==null)
+            this.index=index=new RuleIndex(rules);
 
         boolean matchedAnything=false;
         Evaluation evaluation=new Evaluation(query,traceLevel);
         evaluation.setStemming(rules.getStemming());
         evaluation.trace(2,"Evaluating query '" + evaluation.getQuery().getModel().getQueryTree().getRoot() + "':");
-        for (ListIterator<ProductionRule> i=rules.ruleIterator(); i.hasNext(); ) {
+        // Only evaluate the rules which may match the terms of the query, in rule order.
+        // The candidates are found again each time a rule has changed the query.
+        BitSet candidates=index.candidates(evaluation);
+        for (int i=candidates.nextSetBit(0); i>=0; i=candidates.nextSetBit(i+1)) {
             evaluation.reset();
-            ProductionRule rule=i.next();
+            ProductionRule rule=index.rule(i);
             boolean matched=matchRuleAtAllStartPoints(evaluation,rule);
             matchedAnything|=matched;
+            if (matched) {
+                evaluation.reset();
+                candidates=index.candidates(evaluation);
+            }
         }
 
         if (!matchedAnything) return null;
@@ -0,0 +1,144 @@
+// Copyright 2017 Yahoo Holdings. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.prelude.semantics.engine;
+
+import com.yahoo.prelude.semantics.RuleBase;
+import com.yahoo.prelude.semantics.rule.AndCondition;
+import com.yahoo.prelude.semantics.rule.ChoiceCondition;
+import com.yahoo.prelude.semantics.rule.CompositeCondition;
+import com.yahoo.prelude.semantics.rule.Condition;
+import com.yahoo.prelude.semantics.rule.ConditionReference;
+import com.yahoo.prelude.semantics.rule.NamedCondition;
+import com.yahoo.prelude.semantics.rule.ProductionRule;
+import com.yahoo.prelude.semantics.rule.SequenceCondition;
+import com.yahoo.prelude.semantics.rule.SuperCondition;
+import com.yahoo.prelude.semantics.rule.TermCondition;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An index of the production rules of a rule base by the query terms they require, used to avoid evaluating
+ * rules which cannot match a query.
+ *
+ * For each rule we find a set of terms of which at least one must be present in the query for the
+ * condition of the rule to match, if there is such a set. A rule is a candidate for a query if one of
+ * its terms is present in the query, or if no such set of terms is known for it. The sets are found
+ * conservatively, such that a rule which can match a query is always a candidate for it.
+ *
+ * Terms are indexed by a key which equals for terms which are considered matching with stemming,
+ * so stemmed matches are candidates whether stemming is turned on or not.
+ *
+ * This is immutable and thread safe.
+ *
+ * @author agent
+ */
+class RuleIndex {
+
+    private final List<ProductionRule> rules;
+
+    /** The rules for which no required terms are known */
+    private final BitSet alwaysCandidates;
+
+    /** The indexes of the rules which may match when a term with this key is present */
+    private final Map<String, int[]> rulesByTermKey;
+
+    RuleIndex(RuleBase ruleBase) {
+        rules = new ArrayList<>(ruleBase.rules());
+        alwaysCandidates = new BitSet(rules.size());
+        Map<String, List<Integer>> rulesByKey = new HashMap<>();
+        for (int i = 0; i < rules.size(); i++) {
+            Set<String> keys = requiredTermKeys(rules.get(i).getCondition(), ruleBase, new HashSet<>());
+            if (keys == null) {
+                alwaysCandidates.set(i);
+                continue;
+            }
+            for (String key : keys)
+                rulesByKey.computeIfAbsent(key, k -> new ArrayList<>()).add(i);
+        }
+
+        rulesByTermKey = new HashMap<>(rulesByKey.size() * 2);
+        for (Map.Entry<String, List<Integer>> entry : rulesByKey.entrySet())
+            rulesByTermKey.put(entry.getKey(), entry.getValue().stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    /** Returns the rule at the given index */
+    ProductionRule rule(int index) { return rules.get(index); }
+
+    /** Returns the indexes of the rules which may match the current query of the given evaluation */
+    BitSet candidates(Evaluation evaluation) {
+        BitSet candidates = (BitSet)alwaysCandidates.clone();
+        for (FlattenedItem item : evaluation.items()) {
+            int[] ruleIndexes = rulesByTermKey.get(key(item.getItem().stringValue()));
+            if (ruleIndexes == null) continue;
+            for (int ruleIndex : ruleIndexes)
+                candidates.set(ruleIndex);
+        }
+        return candidates;
+    }
+
+    /**
+     * Returns the keys of a set of terms of which at least one must be present in the query for
+     * the given condition to match, or null if there is no such set of terms or it is not known.
+     */
+    private static Set<String> requiredTermKeys(Condition condition, RuleBase ruleBase, Set<String> visitedConditions) {
+        if (condition == null) return null;
+        if (condition.getNameSpace() != null) return null; // matches something else than the query terms
+
+        if (condition instanceof TermCondition) {
+            String term = ((TermCondition)condition).getTerm();
+            return term == null ? null : Collections.singleton(key(term));
+        }
+        if (condition instanceof ConditionReference) {
+            String name = ((ConditionReference)condition).getConditionName();
+            NamedCondition namedCondition = ruleBase.getCondition(name);
+            if (namedCondition == null) return null; // an automata reference
+            if ( ! visitedConditions.add(name)) return null; // recursive
+            Set<String> keys = requiredTermKeys(namedCondition.getCondition(), ruleBase, visitedConditions);
+            visitedConditions.remove(name);
+            return keys;
+        }
+        if (condition instanceof SuperCondition) {
+            return requiredTermKeys(((SuperCondition)condition).getCondition(), ruleBase, visitedConditions);
+        }
+        if (condition instanceof SequenceCondition || condition instanceof AndCondition) {
+            // All must match: Any required set of a subcondition will do - use the smallest
+            Set<String> smallest = null;
+            for (Iterator<Condition> i = ((CompositeCondition)condition).conditionIterator(); i.hasNext(); ) {
+                Set<String> keys = requiredTermKeys(i.next(), ruleBase, visitedConditions);
+                if (keys != null && (smallest == null || keys.size() < smallest.size()))
+                    smallest = keys;
+            }
+            return smallest;
+        }
+        if (condition instanceof ChoiceCondition) {
+            // One must match: We need the union of the required sets of all subconditions
+            Set<String> union = new HashSet<>();
+            for (Iterator<Condition> i = ((CompositeCondition)condition).conditionIterator(); i.hasNext(); ) {
+                Set<String> keys = requiredTermKeys(i.next(), ruleBase, visitedConditions);
+                if (keys == null) return null;
+                union.addAll(keys);
+            }
+            return union.isEmpty() ? null : union;
+        }
+        return null; // negations, ellipses, literals, comparisons etc. do not require any particular term
+    }
+
+    /**
+     * Returns the same key for terms which may match each other with stemming, see TermCondition.
+     * Such terms differ by one trailing "s", so we remove all trailing s'es.
+     */
+    private static String key(String term) {
+        int end = term.length();
+        while (end > 0 && term.charAt(end - 1) == 's')
+            end--;
+        return term.substring(0, end);
+    }
+
+}
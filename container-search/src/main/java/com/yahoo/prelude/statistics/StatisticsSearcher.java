@@ -7,22 +7,29 @@ import com.yahoo.container.Server;
 import com.yahoo.container.protect.Error;
 import com.yahoo.jdisc.Metric;
 import com.yahoo.log.LogLevel;
+import com.yahoo.metrics.simple.Gauge;
 import com.yahoo.metrics.simple.MetricSettings;
 import com.yahoo.metrics.simple.MetricReceiver;
+import com.yahoo.processing.request.CompoundName;
 import com.yahoo.search.Result;
 import com.yahoo.search.Searcher;
 import com.yahoo.search.result.ErrorHit;
 import com.yahoo.search.result.ErrorMessage;
+import com.yahoo.search.searchchain.AsyncExecution;
 import com.yahoo.search.searchchain.Execution;
 import com.yahoo.search.searchchain.PhaseNames;
+import com.yahoo.search.statistics.ElapsedTime;
+import com.yahoo.search.statistics.TimeTracker.Activity;
 import com.yahoo.statistics.Callback;
 import com.yahoo.statistics.Counter;
 import com.yahoo.statistics.Handle;
 import com.yahoo.statistics.Value;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.logging.Level;
 
 import static com.yahoo.container.protect.Error.*;
@@ -34,6 +41,10 @@ import static com.yahoo.container.protect.Error.*;
  * Searcher ID.  The statistics accumulated by all StatisticsSearchers are stored
  * in the singleton StatisticsManager object. </p>
  * <p>
+ * The time spent searching and filling in each following searcher is measured for the fraction
+ * of queries given by the query property trace.timingDetailsSampleRate, and for queries setting
+ * trace.timingDetails, and added to the searcher_search_latency and searcher_fill_latency histograms.</p>
+ * <p>
  * TODO: Fix events to handle more than one of these searchers properly.
  *
  * @author Gene Meyers
@@ -53,6 +64,14 @@ public class StatisticsSearcher extends Searcher {
     private static final String QUERIES_METRIC = "queries";
     private static final String ACTIVE_QUERIES_METRIC = "active_queries";
     private static final String PEAK_QPS_METRIC = "peak_qps";
+    private static final String ASYNC_ACTIVE_THREADS_METRIC = "async_search_active_threads";
+    private static final String ASYNC_QUEUED_EXECUTIONS_METRIC = "async_search_queued_executions";
+    private static final String ASYNC_REJECTED_EXECUTIONS_METRIC = "async_search_rejected_executions";
+    private static final String SEARCHER_SEARCH_LATENCY_METRIC = "searcher_search_latency";
+    private static final String SEARCHER_FILL_LATENCY_METRIC = "searcher_fill_latency";
+
+    /** The fraction of queries, between 0 and 1, for which the time spent in each searcher is measured */
+    private static final CompoundName TIMING_DETAILS_SAMPLE_RATE = new CompoundName("trace.timingDetailsSampleRate");
 
     private Counter queries; // basic counter
     private Counter failedQueries; // basic counter
@@ -69,6 +88,8 @@ public class StatisticsSearcher extends Searcher {
     private long prevMaxQPSTime; // previous measurement time of QPS
     private double queriesForQPS = 0.0;
     private final Object peakQpsLock = new Object();
+    private Gauge searcherSearchLatency; // time in search per searcher, for sampled queries
+    private Gauge searcherFillLatency; // time in fill per searcher, for sampled queries
 
     private Metric metric;
     private Map<String, Metric.Context> chainContexts = new CopyOnWriteHashMap<>();
@@ -93,19 +114,32 @@ public class StatisticsSearcher extends Searcher {
                 new Value.Parameters().setLogRaw(false).setLogMean(true).setNameExtension(false));
         emptyResults = new Counter(EMPTY_RESULTS_METRIC, manager, false);
         metricReceiver.declareGauge(QUERY_LATENCY_METRIC, Optional.empty(), new MetricSettings.Builder().histogram(true).build());
+        searcherSearchLatency = metricReceiver.declareGauge(SEARCHER_SEARCH_LATENCY_METRIC, Optional.empty(),
+                                                            new MetricSettings.Builder().histogram(true).build());
+        searcherFillLatency = metricReceiver.declareGauge(SEARCHER_FILL_LATENCY_METRIC, Optional.empty(),
+                                                          new MetricSettings.Builder().histogram(true).build());
     }
 
-    // Callback to measure queries in flight every five minutes
+    // Callback to measure queries in flight and async search executor usage every five minutes
     private class ActivitySampler implements Callback {
+        private long previousRejectedExecutions = 0;
+
         public void run(Handle h, boolean firstRun) {
             if (firstRun) {
                 metric.set(ACTIVE_QUERIES_METRIC, 0, null);
+                previousRejectedExecutions = AsyncExecution.rejectedExecutions();
                 return;
             }
             // TODO Server.get() is to be removed
             int searchQueriesInFlight = Server.get().searchQueriesInFlight();
             ((Value) h).put(searchQueriesInFlight);
             metric.set(ACTIVE_QUERIES_METRIC, searchQueriesInFlight, null);
+
+            metric.set(ASYNC_ACTIVE_THREADS_METRIC, AsyncExecution.activeThreads(), null);
+            metric.set(ASYNC_QUEUED_EXECUTIONS_METRIC, AsyncExecution.queuedExecutions(), null);
+            long rejectedExecutions = AsyncExecution.rejectedExecutions();
+            metric.add(ASYNC_REJECTED_EXECUTIONS_METRIC, rejectedExecutions - previousRejectedExecutions, null);
+            previousRejectedExecutions = rejectedExecutions;
         }
     }
 
@@ -163,6 +197,7 @@ public class StatisticsSearcher extends Searcher {
 
         incrQueryCount(metricContext);
         logQuery(query);
+        sampleTimingDetails(query, execution);
         long start = System.currentTimeMillis(); // Start time, in millisecs.
         qps(start, metricContext);
         Result result;
@@ -184,6 +219,9 @@ public class StatisticsSearcher extends Searcher {
                             "Apparently negative latency measure, start: " + start
                             + ", end: " + end + ", for query: " + query.toString());
         }
+        if (execution.context().getDetailedDiagnostics())
+            addSearcherLatencies(searcherSearchLatency, timePerSearcher(Activity.SEARCH, result, execution),
+                                 Collections.emptyMap(), execution);
         if (result.hits().getError() != null) {
             incrErrorCount(result, metricContext);
             incrementStatePageOnlyErrors(result, execution);
@@ -203,6 +241,50 @@ public class StatisticsSearcher extends Searcher {
         return result;
     }
 
+    @Override
+    public void fill(Result result, String summaryClass, Execution execution) {
+        if ( ! execution.context().getDetailedDiagnostics()) {
+            execution.fill(result, summaryClass);
+            return;
+        }
+
+        // Fill may be called multiple times for a result, so we only add the time spent in this call
+        Map<String, Long> before = timePerSearcher(Activity.FILL, result, execution);
+        execution.fill(result, summaryClass);
+        addSearcherLatencies(searcherFillLatency, timePerSearcher(Activity.FILL, result, execution), before, execution);
+    }
+
+    /** Turns on measuring of the time spent in each searcher for the configured fraction of queries */
+    private void sampleTimingDetails(com.yahoo.search.Query query, Execution execution) {
+        if (execution.context().getDetailedDiagnostics()) return;
+
+        double sampleRate = query.properties().getDouble(TIMING_DETAILS_SAMPLE_RATE, 0.0);
+        if (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate)
+            execution.context().setDetailedDiagnostics(true);
+    }
+
+    /**
+     * Returns the time spent in each searcher on the given activity. The time tracked by the given execution is
+     * added to the result only when it returns from its first searcher, so we must include it explicitly.
+     */
+    private Map<String, Long> timePerSearcher(Activity activity, Result result, Execution execution) {
+        ElapsedTime elapsedTime = new ElapsedTime();
+        elapsedTime.add(execution.timer());
+        if (result != null)
+            elapsedTime.merge(result.getElapsedTime());
+        return elapsedTime.timePerSearcher(activity);
+    }
+
+    private void addSearcherLatencies(Gauge gauge, Map<String, Long> times, Map<String, Long> previousTimes,
+                                      Execution execution) {
+        String chainName = execution.chain().getId().stringValue();
+        for (Map.Entry<String, Long> time : times.entrySet()) {
+            long latency = time.getValue() - previousTimes.getOrDefault(time.getKey(), 0L);
+            if (latency <= 0) continue;
+            gauge.sample(latency, gauge.builder().set("chain", chainName).set("searcher", time.getKey()).build());
+        }
+    }
+
     private void logQuery(com.yahoo.search.Query query) {
         // Don't parse the query if it's not necessary for the logging Query.toString triggers parsing
         if (getLogger().isLoggable(Level.FINER)) {
@@ -25,6 +25,8 @@ import com.yahoo.processing.rendering.Renderer;
 import com.yahoo.search.Query;
 import com.yahoo.search.Result;
 import com.yahoo.search.query.context.QueryContext;
+import com.yahoo.search.statistics.ElapsedTime;
+import com.yahoo.search.statistics.TimeTracker.Activity;
 
 /**
  * Wrap the result of a query as an HTTP response.
@@ -110,6 +112,27 @@ public class HttpSearchResponse extends ExtendedResponse {
     public void populateAccessLogEntry(final AccessLogEntry accessLogEntry) {
         super.populateAccessLogEntry(accessLogEntry);
         populateAccessLogEntry(accessLogEntry, getHitCounts());
+        populateAccessLogEntry(accessLogEntry, result.getElapsedTime());
+    }
+
+    /** Adds the time spent in each searcher, if it was measured for this query */
+    static void populateAccessLogEntry(AccessLogEntry accessLogEntry, ElapsedTime elapsedTime) {
+        if ( ! elapsedTime.hasDetailedData()) return;
+
+        addSearcherTimes(accessLogEntry, "searcher_search_time", elapsedTime.timePerSearcher(Activity.SEARCH));
+        addSearcherTimes(accessLogEntry, "searcher_fill_time", elapsedTime.timePerSearcher(Activity.FILL));
+    }
+
+    private static void addSearcherTimes(AccessLogEntry accessLogEntry, String key, Map<String, Long> times) {
+        if (times.isEmpty()) return;
+
+        StringBuilder value = new StringBuilder();
+        for (Map.Entry<String, Long> time : times.entrySet()) {
+            if (value.length() > 0)
+                value.append(',');
+            value.append(time.getKey()).append('=').append(time.getValue());
+        }
+        accessLogEntry.addKeyValue(key, value.toString());
     }
 
     /* package-private */
@@ -214,6 +214,11 @@ public class SearchHandler extends LoggingRequestHandler {
         rendererRegistry.deconstruct();
     }
 
+    @Override
+    protected boolean reuseResponseBuffers() {
+        return true;
+    }
+
     private void setupSearchChainRegistry(ComponentRegistry<Searcher> searchers, ChainsConfig chainsConfig) {
         ChainsModel chainsModel = ChainsModelBuilder.buildFromConfig(chainsConfig);
         ChainsConfigurer.prepareChainRegistry(searchChainRegistry, chainsModel, searchers);
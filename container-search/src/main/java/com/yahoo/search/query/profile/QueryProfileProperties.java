@@ -34,6 +34,11 @@ public class QueryProfileProperties extends Properties {
     /** Query profile references which has been overridden at runtime, or null if none. Earlier values has precedence */
     private List<Pair<CompoundName, CompiledQueryProfile>> references = null;
 
+    /** The number of cloneable values in values, which must be deep copied when this is cloned */
+    private int cloneableValues = 0;
+    /** Whether values and references are shared with a clone of this and must be copied before being modified */
+    private boolean shared = false;
+
     /** Creates an instance from a profile, throws an exception if the given profile is null */
     public QueryProfileProperties(CompiledQueryProfile profile) {
         Validator.ensureNotNull("The profile wrapped by this cannot be null", profile);
@@ -115,6 +120,8 @@ public class QueryProfileProperties extends Properties {
                     throw new IllegalArgumentException("Query profile '" + queryProfileId + "' is not found");
             }
 
+            if (shared)
+                unshare();
             if (value instanceof CompiledQueryProfile) { // this will be due to one of the two clauses above
                 if (references == null)
                     references = new ArrayList<>();
@@ -123,7 +130,9 @@ public class QueryProfileProperties extends Properties {
             else {
                 if (values == null)
                     values = new HashMap<>();
-                values.put(name, value);
+                Object previous = values.put(name, value);
+                if (value instanceof Cloneable) cloneableValues++;
+                if (previous instanceof Cloneable) cloneableValues--;
             }
         }
         catch (IllegalArgumentException e) {
@@ -250,9 +259,26 @@ public class QueryProfileProperties extends Properties {
     @Override
     public QueryProfileProperties clone() {
         QueryProfileProperties clone = (QueryProfileProperties)super.clone();
-        if (this.values != null)
+        if (this.values != null && cloneableValues > 0) {
             clone.values = PropertyMap.cloneMap(this.values);
+            clone.shared = false;
+            if (this.references != null)
+                clone.references = new ArrayList<>(this.references);
+        }
+        else if (this.values != null || this.references != null) { // values are immutable: Copy when modified
+            this.shared = true;
+            clone.shared = true;
+        }
         return clone;
     }
 
+    /** Replaces the values and references shared with clones of this by private copies */
+    private void unshare() {
+        if (values != null)
+            values = new HashMap<>(values);
+        if (references != null)
+            references = new ArrayList<>(references);
+        shared = false;
+    }
+
 }
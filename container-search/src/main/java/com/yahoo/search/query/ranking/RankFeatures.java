@@ -14,12 +14,16 @@ import java.util.Optional;
 
 /**
  * Contains the rank features of a query.
+ * The features are shared with clones of this until either of them is modified.
  *
  * @author bratseth
  */
 public class RankFeatures implements Cloneable {
 
-    private final Map<String, Object> features;
+    private Map<String, Object> features;
+
+    /** Whether the features of this are shared with a clone of this and must be copied before being modified */
+    private boolean shared = false;
 
     public RankFeatures() {
         this(new LinkedHashMap<>());
@@ -31,11 +35,13 @@ public class RankFeatures implements Cloneable {
 
     /** Sets a rank feature by full name to a value */
     public void put(String name, String value) {
+        unshare();
         features.put(name, value);
     }
 
     /** Sets a tensor rank feature */
     public void put(String name, Tensor value) {
+        unshare();
         features.put(name, value);
     }
 
@@ -67,7 +73,10 @@ public class RankFeatures implements Cloneable {
      * Returns the map holding the features of this.
      * This map may be modified to change the rank features of the query.
      */
-    public Map<String, Object> asMap() { return features; }
+    public Map<String, Object> asMap() {
+        unshare();
+        return features;
+    }
 
     public boolean isEmpty() {
         return features.isEmpty();
@@ -95,6 +104,7 @@ public class RankFeatures implements Cloneable {
                 propertiesToInsert.add(key.substring(1));
             }
         }
+        if ( ! featuresToRemove.isEmpty()) unshare();
         for (int i = 0; i < featuresToRemove.size(); ++i) {
             rankProperties.put(propertiesToInsert.get(i), features.remove(featuresToRemove.get(i)));
         }
@@ -119,7 +129,17 @@ public class RankFeatures implements Cloneable {
 
     @Override
     public RankFeatures clone() {
-        return new RankFeatures(new LinkedHashMap<>(features));
+        RankFeatures clone = new RankFeatures(features);
+        this.shared = true;
+        clone.shared = true;
+        return clone;
+    }
+
+    /** Copies the features of this if they are shared with a clone, such that they can be modified */
+    private void unshare() {
+        if ( ! shared) return;
+        features = new LinkedHashMap<>(features);
+        shared = false;
     }
 
     @Override
@@ -15,6 +15,8 @@ import java.util.Map;
 /**
  * Contains the properties properties of a query.
  * This is a multimap: Multiple properties may be set for the same key.
+ * <p>
+ * The properties are shared with clones of this until either of them is modified.
  *
  * @author bratseth
  */
@@ -22,6 +24,9 @@ public class RankProperties implements Cloneable {
 
     private Map<String, List<Object>> properties = new LinkedHashMap<>();
 
+    /** Whether the properties of this are shared with a clone of this and must be copied before being modified */
+    private boolean shared = false;
+
     public RankProperties() {
         this(new LinkedHashMap<>());
     }
@@ -36,6 +41,7 @@ public class RankProperties implements Cloneable {
 
     /** Adds a property by full name to a value */
     public void put(String name, Object value) {
+        unshare();
         List<Object> list = properties.get(name);
         if (list == null) {
             list = new ArrayList<>();
@@ -63,6 +69,7 @@ public class RankProperties implements Cloneable {
 
     /** Removes all properties properties for a given name */
     public void remove(String name) {
+        unshare();
         properties.remove(name);
     }
 
@@ -71,7 +78,10 @@ public class RankProperties implements Cloneable {
     }
 
     /** Returns a modifiable map of the properties of this */
-    public Map<String, List<Object>> asMap() { return properties; }
+    public Map<String, List<Object>> asMap() {
+        unshare();
+        return properties;
+    }
 
     /** Encodes this in a binary internal representation and returns the number of property maps encoded (0 or 1) */
     public int encode(ByteBuffer buffer, boolean encodeQueryData) {
@@ -100,10 +110,20 @@ public class RankProperties implements Cloneable {
 
     @Override
     public RankProperties clone() {
-        Map<String, List<Object>> clone = new LinkedHashMap<>();
+        RankProperties clone = new RankProperties(properties);
+        this.shared = true;
+        clone.shared = true;
+        return clone;
+    }
+
+    /** Copies the properties of this if they are shared with a clone, such that they can be modified */
+    private void unshare() {
+        if ( ! shared) return;
+        Map<String, List<Object>> copy = new LinkedHashMap<>();
         for (Map.Entry<String, List<Object>> entry : properties.entrySet())
-            clone.put(entry.getKey(), new ArrayList<>(entry.getValue()));
-        return new RankProperties(clone);
+            copy.put(entry.getKey(), new ArrayList<>(entry.getValue()));
+        properties = copy;
+        shared = false;
     }
 
     @Override
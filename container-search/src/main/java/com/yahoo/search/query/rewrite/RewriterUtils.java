@@ -68,7 +68,7 @@ public class RewriterUtils {
 
         FSA fsa;
         try {
-            fsa = new FSA(filename);
+            fsa = FSA.loadShared(filename);
         } catch (RuntimeException e) {
             error(utilsLogger, query, "Invalid FSA file");
             throw new IOException("Invalid FSA file");
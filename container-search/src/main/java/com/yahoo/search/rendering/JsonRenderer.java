@@ -655,7 +655,8 @@ public class JsonRenderer extends AsynchronousSectionedRenderer<Result> {
             generator.writeRawValue(intermediate.toString());
         } else if (field instanceof StringFieldValue) {
             // This needs special casing as JsonWriter hides empty strings now
-            generator.writeString(((StringFieldValue)field).getString());
+            byte[] utf8 = ((StringFieldValue)field).getUtf8();
+            generator.writeUTF8String(utf8, 0, utf8.length);
         } else if (field instanceof TensorFieldValue) {
             renderTensor(((TensorFieldValue)field).getTensor());
         } else if (field instanceof FieldValue) {
@@ -11,6 +11,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Provides asynchronous execution of searchchains.
@@ -39,6 +40,13 @@ import java.util.concurrent.*;
  * created for each AsyncExecution instance.
  * </p>
  *
+ * <p>
+ * Executions are run by a shared, bounded thread pool unless another executor is given.
+ * When all threads of the shared pool are busy, executions are queued, and when the queue is full as well,
+ * or the executor rejects an execution for any other reason, the execution is not run, and its
+ * FutureResult completes immediately with an error result.
+ * </p>
+ *
  * @see com.yahoo.search.searchchain.Execution
  * @author Arne Bergene Fossaa
  */
@@ -46,21 +54,32 @@ public class AsyncExecution {
 
     private static final ThreadFactory threadFactory = ThreadFactoryFactory.getThreadFactory("search");
 
-    private static final Executor executorMain = createExecutor();
+    /** The max number of threads of the shared executor, which may be overridden by a system property */
+    private static final int maxThreads = Integer.getInteger("vespa.search.async.maxthreads", 1000);
+
+    /** The max number of executions waiting for a thread of the shared executor, which may be overridden by a system property */
+    private static final int maxQueuedExecutions = Integer.getInteger("vespa.search.async.maxqueued", 1000);
+
+    /** The number of executions which failed because their executor rejected them */
+    private static final AtomicLong rejectedExecutions = new AtomicLong();
 
-    private static Executor createExecutor() {
-        ThreadPoolExecutor executor = new ThreadPoolExecutor(100, Integer.MAX_VALUE, 1L, TimeUnit.SECONDS,
-                                                            new SynchronousQueue<>(false), threadFactory);
-        // Prestart needed, if not all threads will be created by the fist N tasks and hence they might also
-        // get the dreaded thread locals initialized even if they will never run.
-        // That counters what we we want to achieve with the Q that will prefer thread locality.
-        executor.prestartAllCoreThreads();
+    private static final ThreadPoolExecutor executorMain = createExecutor();
+
+    private static ThreadPoolExecutor createExecutor() {
+        // Threads are created up to the max before executions are queued, and executions are rejected
+        // when the queue is full as well. Rejected executions complete with an error result.
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(maxThreads, maxThreads, 60L, TimeUnit.SECONDS,
+                                                             new LinkedBlockingQueue<>(maxQueuedExecutions), threadFactory);
+        executor.allowCoreThreadTimeOut(true);
         return executor;
     }
 
     /** The execution this executes */
     private final Execution execution;
 
+    /** The executor running the executions of this */
+    private final Executor executor;
+
     /**
      * Creates an async execution.
      *
@@ -71,6 +90,17 @@ public class AsyncExecution {
         this(execution.context(), chain);
     }
 
+    /**
+     * Creates an async execution which runs executions in the given executor.
+     *
+     * @param chain the chain to execute
+     * @param execution the execution holding the context of this
+     * @param executor the executor running the executions of this
+     */
+    public AsyncExecution(Chain<? extends Searcher> chain, Execution execution, Executor executor) {
+        this(new Execution(chain, execution.context()), executor);
+    }
+
     /**
      * Creates an async execution.
      *
@@ -102,11 +132,24 @@ public class AsyncExecution {
      * @see #AsyncExecution(Chain, Execution)
      */
     public AsyncExecution(Execution execution) {
+        this(execution, executorMain);
+    }
+
+    /**
+     * Creates an async execution from an existing execution, which runs executions in the given executor.
+     *
+     * @param execution the execution from which the state of this is created
+     * @param executor the executor running the executions of this
+     * @see #AsyncExecution(Execution)
+     */
+    public AsyncExecution(Execution execution, Executor executor) {
         this.execution = new Execution(execution);
+        this.executor = executor;
     }
 
     private AsyncExecution(Execution.Context context, Chain<? extends Searcher> chain) {
         this.execution = new Execution(chain, context);
+        this.executor = executorMain;
     }
 
     /**
@@ -129,10 +172,6 @@ public class AsyncExecution {
         }, query);
     }
 
-    private static Executor getExecutor() {
-        return executorMain;
-    }
-
     /**
      * The future of this functions returns the original Result
      *
@@ -146,23 +185,31 @@ public class AsyncExecution {
 
     }
 
-    private static <T> Future<T> getFuture(Callable<T> callable) {
-        final FutureTask<T> future = new FutureTask<>(callable);
-        getExecutor().execute(future);
+    private FutureResult getFutureResult(Callable<Result> callable, Query query) {
+        FutureResult future = new FutureResult(callable, execution, query);
+        try {
+            executor.execute(future);
+        }
+        catch (RejectedExecutionException e) {
+            rejectedExecutions.incrementAndGet();
+            future.reject(e);
+        }
         return future;
     }
 
-    private static Future<Void> runTask(Runnable runnable) {
-        return getFuture(() -> {
-            runnable.run();
-            return null;
-        });
+    /** Returns the number of threads of the shared executor which are currently running executions */
+    public static int activeThreads() {
+        return executorMain.getActiveCount();
     }
 
-    private FutureResult getFutureResult(Callable<Result> callable, Query query) {
-        FutureResult future = new FutureResult(callable, execution, query);
-        getExecutor().execute(future);
-        return future;
+    /** Returns the number of executions currently waiting for a thread of the shared executor */
+    public static int queuedExecutions() {
+        return executorMain.getQueue().size();
+    }
+
+    /** Returns the total number of executions which failed because their executor rejected them */
+    public static long rejectedExecutions() {
+        return rejectedExecutions.get();
     }
 
     /*
@@ -176,13 +223,12 @@ public class AsyncExecution {
     public static List<Result> waitForAll(Collection<FutureResult> tasks, long timeoutMs) {
         // Copy the list in case it is modified while we are waiting
         List<FutureResult> workingTasks = new ArrayList<>(tasks);
-        try {
-            runTask(() -> {
-                for (FutureResult task : workingTasks)
-                    task.get();
-            }).get(timeoutMs, TimeUnit.MILLISECONDS);
-        }catch (TimeoutException | InterruptedException | ExecutionException e) {
-            // Handle timeouts below
+        // Wait in this thread, towards a common deadline
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        for (FutureResult task : workingTasks) {
+            long timeLeft = deadline - System.currentTimeMillis();
+            if (timeLeft <= 0) break;
+            task.getIfAvailable(timeLeft, TimeUnit.MILLISECONDS);
         }
 
         List<Result> results = new ArrayList<>(tasks.size());
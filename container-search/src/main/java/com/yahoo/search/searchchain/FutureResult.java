@@ -10,6 +10,7 @@ import java.util.Optional;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.logging.Level;
@@ -85,6 +86,12 @@ public class FutureResult extends FutureTask<Result> {
         }
     }
 
+    /** Completes this with an error result, as its execution was rejected by the executor which should run it */
+    void reject(RejectedExecutionException e) {
+        set(new Result(getQuery(), ErrorMessage.createUnspecifiedError("'" + execution + "' was not executed: " +
+                                                                       Exceptions.toMessageString(e))));
+    }
+
     /** Returns the query used in this execution, never null */
     public Query getQuery() {
         return query;
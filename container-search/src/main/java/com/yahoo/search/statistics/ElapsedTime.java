@@ -201,11 +201,23 @@ public class ElapsedTime {
         return false;
     }
 
-    public String detailedReport() {
-        Map<String, TimeTracker.SearcherTimer> raw = new LinkedHashMap<>();
-        StringBuilder report = new StringBuilder();
-        int preLen;
-        report.append("Time use per searcher: ");
+    /**
+     * Returns the total time in milliseconds spent in each searcher while doing the given activity,
+     * by searcher id in chain order. This is empty unless time use per searcher is available.
+     */
+    public Map<String, Long> timePerSearcher(Activity activity) {
+        Map<String, Long> times = new LinkedHashMap<>();
+        for (SearcherTimer timer : timersPerSearcher().values()) {
+            long time = timer.getTime(activity);
+            if (time > 0)
+                times.put(timer.getName(), time);
+        }
+        return times;
+    }
+
+    /** Returns the time spent in each searcher, with the time of each searcher in all tracks merged */
+    private Map<String, SearcherTimer> timersPerSearcher() {
+        Map<String, SearcherTimer> raw = new LinkedHashMap<>();
         for (TimeTracker t : tracks) {
             if (t.searcherTracking() == null) {
                 continue;
@@ -222,8 +234,15 @@ public class ElapsedTime {
                 sum.merge(s);
             }
         }
+        return raw;
+    }
+
+    public String detailedReport() {
+        StringBuilder report = new StringBuilder();
+        int preLen;
+        report.append("Time use per searcher: ");
         preLen = report.length();
-        for (TimeTracker.SearcherTimer value : raw.values()) {
+        for (TimeTracker.SearcherTimer value : timersPerSearcher().values()) {
             if (report.length() > preLen) {
                 report.append(",\n    ");
             }
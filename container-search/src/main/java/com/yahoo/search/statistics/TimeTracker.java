@@ -74,6 +74,11 @@ public final class TimeTracker {
             return returning.get(activity);
         }
 
+        /** Returns the total time spent in this searcher doing the given activity, both invoking and returning */
+        long getTime(Activity activity) {
+            return getTime(invoking.get(activity)) + getTime(returning.get(activity));
+        }
+
         private long getTime(Long storedTillNow) {
             long tillNow;
             if (storedTillNow == null) {
@@ -15,6 +15,7 @@ import java.util.Map;
 import java.util.TreeMap;
 import java.util.logging.Logger;
 
+import static com.yahoo.vespa.streamingvisitors.VdsStreamingSearcher.STREAMING_MERGE_TIME;
 import static com.yahoo.vespa.streamingvisitors.VdsStreamingSearcher.STREAMING_STATISTICS;
 
 /**
@@ -34,6 +35,7 @@ public class MetricsSearcher extends Searcher {
         int failed = 0;
         long dataStreamed = 0;
         long documentsStreamed = 0;
+        long mergeTimeNanos = 0;
     }
 
     Map<String, Stats> statMap = new TreeMap<>();
@@ -81,6 +83,9 @@ public class MetricsSearcher extends Searcher {
             final QueryContext queryContext = query.getContext(false);
             if (queryContext != null) {
                 visitorstats = (VisitorStatistics)queryContext.getProperty(STREAMING_STATISTICS);
+                Long mergeTime = (Long)queryContext.getProperty(STREAMING_MERGE_TIME);
+                if (mergeTime != null)
+                    stats.mergeTimeNanos += mergeTime;
             }
             if (visitorstats != null) {
                 stats.dataStreamed += visitorstats.getBytesVisited();
@@ -97,8 +102,10 @@ public class MetricsSearcher extends Searcher {
                     Event.value(entry.getKey() + "_failed", stats.failed);
                     Event.value(entry.getKey() + "_bytesstreamed", stats.dataStreamed);
                     Event.value(entry.getKey() + "_documentsstreamed", stats.documentsStreamed);
+                    Event.value(entry.getKey() + "_mergetime", stats.count > 0 ? (double)stats.mergeTimeNanos / stats.count / 1000000.0 : 0);
 
                     stats.latency = 0;
+                    stats.mergeTimeNanos = 0;
                     stats.count = 0;
                 }
 
@@ -49,6 +49,8 @@ public class VdsStreamingSearcher extends VespaBackEndSearcher {
     private static final CompoundName streamingSelection=new CompoundName("streaming.selection");
 
     public static final String STREAMING_STATISTICS = "streaming.statistics";
+    /** The query context property holding the time in nanoseconds spent merging the results of the visitor */
+    public static final String STREAMING_MERGE_TIME = "streaming.mergetime";
     private VisitorFactory visitorFactory;
     private static final Logger log = Logger.getLogger(VdsStreamingSearcher.class.getName());
     private Route route;
@@ -187,6 +189,8 @@ public class VdsStreamingSearcher extends VespaBackEndSearcher {
 
         List<Grouping> groupingList = visitor.getGroupings();
         lazyTrace(query, 8, "Grouping list=", groupingList);
+        lazyTrace(query, 4, "Spent ", visitor.getMergeTimeNanos() / 1000, " microseconds merging results");
+        query.getContext(true).setProperty(STREAMING_MERGE_TIME, visitor.getMergeTimeNanos());
         if ( ! groupingList.isEmpty() ) {
             GroupingListHit groupHit = new GroupingListHit(groupingList, getDocsumDefinitionSet(query));
             result.hits().add(groupHit);
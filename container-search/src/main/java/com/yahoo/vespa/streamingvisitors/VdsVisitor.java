@@ -1,6 +1,7 @@
 // Copyright 2017 Yahoo Holdings. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
 package com.yahoo.vespa.streamingvisitors;
 
+import com.yahoo.collections.Pair;
 import com.yahoo.document.select.OrderingSpecification;
 import com.yahoo.document.select.parser.ParseException;
 import com.yahoo.documentapi.AckToken;
@@ -37,10 +38,17 @@ import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Logger;
 
 /**
@@ -65,13 +73,29 @@ class VdsVisitor extends VisitorDataHandler implements Visitor {
     private static final CompoundName streamingOrdering=new CompoundName("streaming.ordering");
     private static final CompoundName streamingMaxbucketspervisitor=new CompoundName("streaming.maxbucketspervisitor");
 
+    /** The max number of received groupings to hold before they are merged by a reply thread */
+    private static final int maxPendingGroupings = 64;
+
     private static final Logger log = Logger.getLogger(VdsVisitor.class.getName());
     private final VisitorParameters params = new VisitorParameters("");
-    private List<SearchResult.Hit> hits = new ArrayList<>();
+
+    /** The best hits received so far, bounded to offset + hits, with the worst hit at the head */
+    private final PriorityQueue<SearchResult.Hit> hits = new PriorityQueue<>(Collections.reverseOrder());
+    private final int maxHits;
+    /** The hits sorted best first, or null if not sorted since the last hits were received */
+    private List<SearchResult.Hit> sortedHits = null;
     private int totalHitCount = 0;
 
     private final Map<String, DocumentSummary.Summary> summaryMap = new HashMap<>();
     private final Map<Integer, Grouping> groupingMap = new ConcurrentHashMap<>();
+    /** Received groupings not yet merged into groupingMap */
+    private final Queue<Pair<Integer, Grouping>> pendingGroupings = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingGroupingCount = new AtomicInteger();
+    /** Held while merging pending groupings into groupingMap */
+    private final ReentrantLock groupingMergeLock = new ReentrantLock();
+
+    /** The total time spent merging results into this */
+    private final AtomicLong mergeNanos = new AtomicLong();
     private Query query = null;
     private VisitorSessionFactory visitorSessionFactory;
 
@@ -107,12 +131,14 @@ class VdsVisitor extends VisitorDataHandler implements Visitor {
 
     public VdsVisitor(Query query, String searchCluster, Route route) {
         this.query = query;
+        this.maxHits = query.getOffset() + query.getHits();
         visitorSessionFactory = new MessageBusVisitorSessionFactory();
         setVisitorParameters(searchCluster, route);
     }
 
     public VdsVisitor(Query query, String searchCluster, Route route, VisitorSessionFactory visitorSessionFactory) {
         this.query = query;
+        this.maxHits = query.getOffset() + query.getHits();
         this.visitorSessionFactory = visitorSessionFactory;
         setVisitorParameters(searchCluster, route);
     }
@@ -364,18 +390,30 @@ class VdsVisitor extends VisitorDataHandler implements Visitor {
             log.log(LogLevel.DEBUG, "Got SearchResult with " + hitCountTotal + " in total and " + hitCount + " hits in real for query with selection " + params.getDocumentSelection());
         }
 
-        List<SearchResult.Hit> newHits = new ArrayList<>(hitCount);
-        for (int i = 0; i < hitCount; i++) {
-            SearchResult.Hit hit = sr.getHit(i);
-            newHits.add(hit);
-        }
+        long startTime = System.nanoTime();
         synchronized (this) {
             totalHitCount += hitCountTotal;
-            hits = ListMerger.mergeIntoArrayList(hits, newHits, query.getOffset() + query.getHits());
+            for (int i = 0; i < hitCount; i++) {
+                if ( ! addHit(sr.getHit(i))) break; // the hits of a result are sorted, so no later hit will be added
+            }
+            sortedHits = null;
         }
 
         Map<Integer, byte []> newGroupingMap = sr.getGroupingList();
         mergeGroupingMaps(newGroupingMap);
+        mergeNanos.addAndGet(System.nanoTime() - startTime);
+    }
+
+    /** Adds this hit if it is among the best hits received so far. Returns whether it was added. */
+    private boolean addHit(SearchResult.Hit hit) {
+        if (hits.size() < maxHits) {
+            hits.add(hit);
+            return true;
+        }
+        if (maxHits == 0 || hit.compareTo(hits.peek()) >= 0) return false;
+        hits.poll();
+        hits.add(hit);
+        return true;
     }
 
     private void mergeGroupingMaps(Map<Integer, byte []> newGroupingMap) {
@@ -395,17 +433,35 @@ class VdsVisitor extends VisitorDataHandler implements Visitor {
                 throw new IllegalArgumentException("Failed deserializing grouping. There are still data left. Position = " + buf.position() + ", limit = " + buf.getBuf().limit());
             }
 
-            synchronized (groupingMap) {
-                if (groupingMap.containsKey(key)) {
-                    Grouping grouping = groupingMap.get(key);
-                    grouping.merge(newGrouping);
-                } else {
-                    groupingMap.put(key, newGrouping);
-                }
+            pendingGroupings.add(new Pair<>(key, newGrouping));
+            pendingGroupingCount.incrementAndGet();
+        }
+        // Merging is left to the searcher thread unless many groupings are pending,
+        // in which case this thread merges them to bound the size of the pending queue
+        if (pendingGroupingCount.get() > maxPendingGroupings) {
+            groupingMergeLock.lock();
+            try {
+                if (pendingGroupingCount.get() > maxPendingGroupings) // another thread may just have merged them
+                    mergePendingGroupings();
+            } finally {
+                groupingMergeLock.unlock();
             }
         }
     }
 
+    /** Merges all pending groupings into the grouping map. This must be called while holding groupingMergeLock. */
+    private void mergePendingGroupings() {
+        Pair<Integer, Grouping> pending;
+        while ((pending = pendingGroupings.poll()) != null) {
+            pendingGroupingCount.decrementAndGet();
+            Grouping grouping = groupingMap.get(pending.getFirst());
+            if (grouping != null)
+                grouping.merge(pending.getSecond());
+            else
+                groupingMap.put(pending.getFirst(), pending.getSecond());
+        }
+    }
+
     public void onDocumentSummary(DocumentSummary ds) {
         if (log.isLoggable(LogLevel.SPAM)) {
             log.log(LogLevel.SPAM, "Got DocumentSummary for query with selection " + params.getDocumentSelection());
@@ -427,10 +483,16 @@ class VdsVisitor extends VisitorDataHandler implements Visitor {
     }
 
     @Override
-    final public List<SearchResult.Hit> getHits() {
-        int fromIndex = Math.min(hits.size(), query.getOffset());
-        int toIndex = Math.min(hits.size(), query.getOffset() + query.getHits());
-        return hits.subList(fromIndex, toIndex);
+    final public synchronized List<SearchResult.Hit> getHits() {
+        if (sortedHits == null) {
+            long startTime = System.nanoTime();
+            sortedHits = new ArrayList<>(hits);
+            Collections.sort(sortedHits);
+            mergeNanos.addAndGet(System.nanoTime() - startTime);
+        }
+        int fromIndex = Math.min(sortedHits.size(), query.getOffset());
+        int toIndex = Math.min(sortedHits.size(), query.getOffset() + query.getHits());
+        return sortedHits.subList(fromIndex, toIndex);
     }
 
     @Override
@@ -441,6 +503,14 @@ class VdsVisitor extends VisitorDataHandler implements Visitor {
 
     @Override
     final public List<Grouping> getGroupings() {
+        long startTime = System.nanoTime();
+        groupingMergeLock.lock();
+        try {
+            mergePendingGroupings();
+        } finally {
+            groupingMergeLock.unlock();
+        }
+        mergeNanos.addAndGet(System.nanoTime() - startTime);
         Collection<Grouping> groupings = groupingMap.values();
         for (Grouping g : groupings) {
             g.postMerge();
@@ -449,4 +519,7 @@ class VdsVisitor extends VisitorDataHandler implements Visitor {
         return Arrays.asList(array);
     }
 
+    @Override
+    public long getMergeTimeNanos() { return mergeNanos.get(); }
+
 }
@@ -29,4 +29,8 @@ interface Visitor {
     int getTotalHitCount();
 
     List<Grouping> getGroupings();
+
+    /** Returns the total time spent merging the results received so far */
+    long getMergeTimeNanos();
+
 }
@@ -0,0 +1,28 @@
+// Copyright 2017 Yahoo Holdings. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.prelude.semantics.test;
+
+/**
+ * Tests that rules which only become candidates after the query is rewritten by other rules are evaluated
+ *
+ * @author agent
+ */
+public class RuleIndexTestCase extends RuleBaseAbstractTestCase {
+
+    public RuleIndexTestCase(String name) {
+        super(name,"ruleindex.sr");
+    }
+
+    public void testRulesBecomeCandidatesThroughProducedTerms() {
+        assertSemantics("AND lord of jewelry gold","lotr");
+        assertSemantics("AND lord of jewelry gold","hobbit");
+    }
+
+    public void testRulesBecomeCandidatesThroughStemmedTerms() {
+        assertSemantics("AND jewelry gold","rings");
+    }
+
+    public void testNoCandidates() {
+        assertSemantics("AND foo bar","foo bar");
+    }
+
+}
@@ -68,6 +68,29 @@ public class RankingTestCase extends junit.framework.TestCase {
         assertEquals("bar1", query.getRanking().getProperties().asMap().get("foo").get(0));
     }
 
+    /** Tests that rank features and properties shared with a clone are copied by whichever is modified */
+    public void testModifyingRankingAfterCloning() {
+        Query query = new Query("?query=test&ranking.features.query(name)=0.1&ranking.properties.foo=bar1");
+        Query clone = query.clone();
+
+        query.getRanking().getFeatures().put("query(name)", "0.2");
+        query.getRanking().getProperties().put("foo", "bar2");
+        assertEquals("0.2", query.getRanking().getFeatures().get("query(name)"));
+        assertEquals("0.1", clone.getRanking().getFeatures().get("query(name)"));
+        assertEquals("[bar1, bar2]", query.getRanking().getProperties().get("foo").toString());
+        assertEquals("[bar1]", clone.getRanking().getProperties().get("foo").toString());
+
+        clone.getRanking().getFeatures().prepare(clone.getRanking().getProperties());
+        assertTrue(clone.getRanking().getFeatures().isEmpty());
+        assertEquals("[0.1]", clone.getRanking().getProperties().get("name").toString());
+        assertEquals("0.2", query.getRanking().getFeatures().get("query(name)"));
+        assertNull(query.getRanking().getProperties().get("name"));
+
+        clone.getRanking().getProperties().asMap().remove("foo");
+        assertNull(clone.getRanking().getProperties().get("foo"));
+        assertEquals("[bar1, bar2]", query.getRanking().getProperties().get("foo").toString());
+    }
+
     /** Test setting sorting to null does not cause an exception. */
     public void testResetSorting() {
         Query q=new Query();
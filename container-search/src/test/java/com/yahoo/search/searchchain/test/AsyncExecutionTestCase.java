@@ -14,6 +14,8 @@ import com.yahoo.search.searchchain.FutureResult;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -121,6 +123,34 @@ public class AsyncExecutionTestCase extends junit.framework.TestCase {
         assertEquals("hello",result.hits().get(0).getField("test"));
     }
 
+    public void testAsyncInGivenExecutor() {
+        Query query=new Query("?query=test");
+        Searcher searcher=new ResultProducingSearcher();
+        List<Runnable> executed = new ArrayList<>();
+        Executor executor = task -> { executed.add(task); task.run(); };
+        FutureResult futureResult=new AsyncExecution(new Execution(searcher, Execution.Context.createContextStub()), executor).search(query);
+
+        assertEquals(1, executed.size());
+        assertTrue(futureResult.isDone());
+        assertEquals("hello",futureResult.get().hits().get(0).getField("test"));
+    }
+
+    public void testRejectedExecutionCompletesWithError() {
+        Query query=new Query("?query=test");
+        Searcher searcher=new ResultProducingSearcher();
+        Executor executor = task -> { throw new RejectedExecutionException("full"); };
+        long rejectedBefore = AsyncExecution.rejectedExecutions();
+        FutureResult futureResult=new AsyncExecution(new Execution(searcher, Execution.Context.createContextStub()), executor).search(query);
+
+        assertTrue(futureResult.isDone());
+        Result result = futureResult.get();
+        assertNotNull(result.hits().getErrorHit());
+        assertEquals(rejectedBefore + 1, AsyncExecution.rejectedExecutions());
+
+        List<Result> results = AsyncExecution.waitForAll(Arrays.asList(futureResult), 1000);
+        assertNotNull(results.get(0).hits().getErrorHit());
+    }
+
     private static class ResultProducingSearcher extends Searcher {
 
         @Override
@@ -427,6 +427,21 @@ public class ElapsedTimeTestCase extends TestCase {
                 elapsed.detailedReport());
     }
 
+    public void testTimePerSearcher() {
+        ElapsedTime elapsed = new ElapsedTime();
+        assertTrue(elapsed.timePerSearcher(Activity.SEARCH).isEmpty());
+        for (int i = 0; i < 2; i++) {
+            TimeTracker t = new TimeTracker(new Chain<Searcher>(
+                    new UselessSearcher("first"), new UselessSearcher("second"),
+                    new UselessSearcher("third")));
+            runSomeTraffic(t);
+            elapsed.add(t);
+        }
+        assertEquals("{first=6, second=8, third=4}", elapsed.timePerSearcher(Activity.SEARCH).toString());
+        assertEquals("{first=4, second=8, third=4}", elapsed.timePerSearcher(Activity.FILL).toString());
+        assertTrue(elapsed.timePerSearcher(Activity.PING).isEmpty());
+    }
+
     public static void doInjectTimeSource(TimeTracker t, TimeTracker.TimeSource s) {
         t.injectTimeSource(s);
     }
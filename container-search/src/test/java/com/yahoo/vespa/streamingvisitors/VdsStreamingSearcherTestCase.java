@@ -120,6 +120,9 @@ public class VdsStreamingSearcherTestCase {
         public List<Grouping> getGroupings() {
             return groupings;
         }
+
+        @Override
+        public long getMergeTimeNanos() { return 0; }
     }
 
     private static class MockVisitorFactory implements VisitorFactory {
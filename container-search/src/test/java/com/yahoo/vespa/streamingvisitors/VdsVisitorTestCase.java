@@ -16,7 +16,10 @@ import com.yahoo.messagebus.routing.Route;
 import com.yahoo.prelude.fastsearch.TimeoutException;
 import com.yahoo.search.Query;
 import com.yahoo.search.grouping.vespa.GroupingExecutor;
+import com.yahoo.searchlib.aggregation.CountAggregationResult;
+import com.yahoo.searchlib.aggregation.Group;
 import com.yahoo.searchlib.aggregation.Grouping;
+import com.yahoo.text.Utf8;
 import com.yahoo.text.Utf8String;
 import com.yahoo.vdslib.DocumentSummary;
 import com.yahoo.vdslib.SearchResult;
@@ -25,7 +28,11 @@ import org.junit.Test;
 
 import java.net.URLEncoder;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 import static org.junit.Assert.*;
 
@@ -53,6 +60,53 @@ public class VdsVisitorTestCase {
         return new SearchResult(serializer);
     }
 
+    /** Creates a search result containing the given hits, which must be sorted best first, and groupings */
+    private SearchResult createSR(List<SearchResult.Hit> hits, Map<Integer, Grouping> groupings) {
+        BufferSerializer serializer = new BufferSerializer();
+        serializer.putInt(null, hits.size()); // total hits
+        serializer.putInt(null, hits.size()); // hit count
+        if ( ! hits.isEmpty()) {
+            BufferSerializer docIds = new BufferSerializer();
+            for (SearchResult.Hit hit : hits) {
+                docIds.put(null, Utf8.toBytes(hit.getDocId()));
+                docIds.putByte(null, (byte)0);
+            }
+            docIds.getBuf().flip();
+            serializer.putInt(null, docIds.getBuf().limit()); // doc id buffer length
+            serializer.put(null, docIds.getBuf().getByteBuffer());
+            for (SearchResult.Hit hit : hits) {
+                serializer.putDouble(null, hit.getRank());
+            }
+        }
+        serializer.putInt(null, 0); // sort blob count
+        serializer.putInt(null, 0); // aggregator count
+        serializer.putInt(null, groupings.size()); // grouping count
+        for (Map.Entry<Integer, Grouping> entry : groupings.entrySet()) {
+            BufferSerializer grouping = new BufferSerializer();
+            entry.getValue().serialize(grouping);
+            grouping.getBuf().flip();
+            serializer.putInt(null, entry.getKey());
+            serializer.putInt(null, grouping.getBuf().limit());
+            serializer.put(null, grouping.getBuf().getByteBuffer());
+        }
+        serializer.getBuf().flip();
+        return new SearchResult(serializer);
+    }
+
+    private SearchResultMessage createSRM(List<SearchResult.Hit> hits, Map<Integer, Grouping> groupings) {
+        SearchResultMessage srm = new SearchResultMessage();
+        srm.setSearchResult(createSR(hits, groupings));
+        return srm;
+    }
+
+    private SearchResultMessage createSRM(SearchResult.Hit ... hits) {
+        return createSRM(Arrays.asList(hits), Collections.emptyMap());
+    }
+
+    private Grouping createCountGrouping(int id, long count) {
+        return new Grouping(id).setRoot(new Group().setTag(1).addAggregationResult(new CountAggregationResult(count).setTag(2)));
+    }
+
     private DocumentSummary createDS(String docId) {
         BufferSerializer serializer = new BufferSerializer();
         serializer.putInt(null, 0); // old seq id
@@ -406,6 +460,79 @@ public class VdsVisitorTestCase {
         verifyVisitorFails(factory, qa, route, searchCluster);
     }
 
+    @Test
+    public void testHitsAreMergedInRankOrderWithOffsetAndHits() throws Exception {
+        QueryArguments qa = new QueryArguments();
+        qa.offset = 1;
+        qa.hits = 2;
+        VdsVisitor visitor = new VdsVisitor(buildQuery(qa), "searchClusterConfigId", Route.parse("storageClusterRouteSpec"),
+                                            new MockVisitorSessionFactory(loadTypeSet));
+        AckToken ackToken = null;
+        visitor.onMessage(createSRM(new SearchResult.Hit("doc:0", 0.3)), ackToken);
+        visitor.onMessage(createSRM(new SearchResult.Hit("doc:1", 1.0)), ackToken);
+        visitor.onMessage(createSRM(new SearchResult.Hit("doc:2", 0.5)), ackToken);
+        visitor.onMessage(createSRM(new SearchResult.Hit("doc:3", 0.8)), ackToken);
+        visitor.onMessage(createSRM(new SearchResult.Hit("doc:4", 0.1)), ackToken);
+
+        assertEquals(5, visitor.getTotalHitCount());
+        assertHits(visitor.getHits(), "doc:3", "doc:2");
+
+        // A better hit received after the hits were returned moves the window
+        visitor.onMessage(createSRM(new SearchResult.Hit("doc:5", 0.9)), ackToken);
+        assertHits(visitor.getHits(), "doc:5", "doc:3");
+    }
+
+    @Test
+    public void testOnlyTheBestHitsOfEachResultAreKept() throws Exception {
+        QueryArguments qa = new QueryArguments();
+        qa.hits = 2;
+        VdsVisitor visitor = new VdsVisitor(buildQuery(qa), "searchClusterConfigId", Route.parse("storageClusterRouteSpec"),
+                                            new MockVisitorSessionFactory(loadTypeSet));
+        AckToken ackToken = null;
+        visitor.onMessage(createSRM(new SearchResult.Hit("doc:a", 0.9),
+                                    new SearchResult.Hit("doc:b", 0.8),
+                                    new SearchResult.Hit("doc:c", 0.2)), ackToken);
+        visitor.onMessage(createSRM(new SearchResult.Hit("doc:d", 0.95),
+                                    new SearchResult.Hit("doc:e", 0.7),
+                                    new SearchResult.Hit("doc:f", 0.6)), ackToken);
+        visitor.onMessage(createSRM(new SearchResult.Hit("doc:g", 0.1)), ackToken);
+
+        assertEquals(7, visitor.getTotalHitCount());
+        assertHits(visitor.getHits(), "doc:d", "doc:a");
+    }
+
+    @Test
+    public void testGroupingsAreMerged() throws Exception {
+        VdsVisitor visitor = new VdsVisitor(buildQuery(new QueryArguments()), "searchClusterConfigId",
+                                            Route.parse("storageClusterRouteSpec"), new MockVisitorSessionFactory(loadTypeSet));
+        AckToken ackToken = null;
+        int resultCount = 200; // more than are left pending before the reply threads merge them
+        for (int i = 0; i < resultCount; i++) {
+            Map<Integer, Grouping> groupings = new TreeMap<>();
+            groupings.put(0, createCountGrouping(0, 1));
+            if (i % 2 == 0)
+                groupings.put(1, createCountGrouping(1, 3));
+            visitor.onMessage(createSRM(Collections.emptyList(), groupings), ackToken);
+        }
+
+        List<Grouping> groupings = new ArrayList<>(visitor.getGroupings());
+        groupings.sort((a, b) -> Integer.compare(a.getId(), b.getId()));
+        assertEquals(2, groupings.size());
+        assertEquals(resultCount, countOf(groupings.get(0)));
+        assertEquals(3 * resultCount / 2, countOf(groupings.get(1)));
+    }
+
+    private static long countOf(Grouping grouping) {
+        return ((CountAggregationResult)grouping.getRoot().getAggregationResults().get(0)).getCount();
+    }
+
+    private static void assertHits(List<SearchResult.Hit> hits, String ... expectedDocIds) {
+        List<String> docIds = new ArrayList<>();
+        for (SearchResult.Hit hit : hits)
+            docIds.add(hit.getDocId());
+        assertEquals(Arrays.asList(expectedDocIds), docIds);
+    }
+
     private void verifyVisitorOk(MockVisitorSessionFactory factory, QueryArguments qa, Route route, String searchCluster) throws Exception {
         VdsVisitor visitor = new VdsVisitor(buildQuery(qa), searchCluster, route, factory);
         visitor.doSearch();
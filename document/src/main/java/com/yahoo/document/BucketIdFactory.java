@@ -87,6 +87,10 @@ public class BucketIdFactory {
      * @return The bucket id.
      */
     public BucketId getBucketId(DocumentId doc) {
+        BucketId cached = doc.getCachedBucketId(this);
+        if (cached != null) {
+            return cached;
+        }
         long location = doc.getScheme().getLocation();
         byte[] gid = doc.getGlobalId();
 
@@ -98,7 +102,9 @@ public class BucketIdFactory {
             gidContribution |= (gm.value << getLocationBitCount());
         }
 
-        return new BucketId(64 - BucketId.COUNT_BITS, initialCount | (gidMask & gidContribution) | (locationMask & location));
+        BucketId bucketId = new BucketId(64 - BucketId.COUNT_BITS, initialCount | (gidMask & gidContribution) | (locationMask & location));
+        doc.setCachedBucketId(this, bucketId);
+        return bucketId;
     }
 
 }
@@ -16,6 +16,7 @@ public class DocumentId extends Identifiable implements Serializable {
 
     private IdString id;
     private GlobalId globalId;
+    private transient CachedBucketId bucketId; // the bucket id computed by the last factory used
 
     /**
      * Constructor used for deserialization.
@@ -51,6 +52,8 @@ public class DocumentId extends Identifiable implements Serializable {
 
     public void setId(IdString id) {
         this.id = id;
+        globalId = null;
+        bucketId = null;
     }
 
     public IdString getScheme() {
@@ -64,6 +67,16 @@ public class DocumentId extends Identifiable implements Serializable {
         return globalId.getRawId();
     }
 
+    /** Returns the bucket id computed for this by the given factory, if it is the last factory computing one */
+    BucketId getCachedBucketId(BucketIdFactory factory) {
+        CachedBucketId cached = bucketId;
+        return cached != null && cached.factory == factory ? cached.bucketId : null;
+    }
+
+    void setCachedBucketId(BucketIdFactory factory, BucketId bucketId) {
+        this.bucketId = new CachedBucketId(factory, bucketId);
+    }
+
     public int compareTo(Object o) {
         DocumentId cmp = (DocumentId)o;
         return id.toString().compareTo(cmp.id.toString());
@@ -97,6 +110,8 @@ public class DocumentId extends Identifiable implements Serializable {
         } else {
             id = IdString.createIdString(data.getString(null));
         }
+        globalId = null;
+        bucketId = null;
     }
 
     public boolean hasDocType() {
@@ -106,4 +121,14 @@ public class DocumentId extends Identifiable implements Serializable {
     public String getDocType() {
         return id.getDocType();
     }
+
+    private static class CachedBucketId {
+        final BucketIdFactory factory;
+        final BucketId bucketId;
+
+        CachedBucketId(BucketIdFactory factory, BucketId bucketId) {
+            this.factory = factory;
+            this.bucketId = bucketId;
+        }
+    }
 }
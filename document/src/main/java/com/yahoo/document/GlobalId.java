@@ -41,14 +41,15 @@ public class GlobalId implements Comparable {
      * @param id The document id to derive from.
      */
     public GlobalId(IdString id) {
-        byte [] raw = MD5.md5.get().digest(id.toUtf8().wrap().array());
+        byte [] utf8 = id.toUtf8().getBytes();
+        long md5 = MD5.digestLong(utf8, 0, utf8.length, 4); // byte 4 to 11 of the digest
         long location = id.getLocation();
         this.raw = new byte [LENGTH];
         for (int i = 0; i < 4; ++i) {
             this.raw[i] = (byte)((location >> (8 * i)) & 0xFF);
         }
         for (int i=4; i < LENGTH; i++) {
-            this.raw[i] = raw[i];
+            this.raw[i] = (byte)(md5 >>> (8 * (i - 4)));
         }
     }
 
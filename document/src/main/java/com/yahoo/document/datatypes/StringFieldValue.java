@@ -12,8 +12,11 @@ import com.yahoo.document.serialization.FieldWriter;
 import com.yahoo.document.serialization.XmlSerializationHelper;
 import com.yahoo.document.serialization.XmlStream;
 import com.yahoo.text.Text;
+import com.yahoo.text.Utf8;
+import com.yahoo.text.Utf8Array;
 import com.yahoo.vespa.objects.Ids;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
@@ -24,6 +27,9 @@ import java.util.Map;
  * 
  * String fields can only contain text characters, as defined by {@link Text#isTextCharacter(int)}
  *
+ * A deserialized value holds the UTF-8 bytes it was read from, and is only converted to a String when
+ * the String is requested, such that values which are just passed on are never decoded and encoded again.
+ *
  * @author Einar M R Rosenvinge
  */
 public class StringFieldValue extends FieldValue {
@@ -35,7 +41,13 @@ public class StringFieldValue extends FieldValue {
     }
     public static PrimitiveDataType.Factory getFactory() { return new Factory(); }
     public static final int classId = registerClass(Ids.document + 15, StringFieldValue.class);
+
+    /** The value as a String, or null if it is not decoded from utf8 yet */
     private String value;
+
+    /** The value as UTF-8, or null if this is not created from UTF-8. Never modified. */
+    private Utf8Array utf8 = null;
+
     private Map<String, SpanTree> spanTrees = null;
 
     /** Creates a new StringFieldValue holding an empty String. */
@@ -69,6 +81,7 @@ public class StringFieldValue extends FieldValue {
                                                    Integer.toHexString(codePoint).toUpperCase());
         }
         this.value = value;
+        this.utf8 = null;
     }
 
     /**
@@ -103,6 +116,7 @@ public class StringFieldValue extends FieldValue {
     @Override
     public void clear() {
         value = "";
+        utf8 = null;
         if (spanTrees != null) {
             spanTrees.clear();
             spanTrees = null;
@@ -214,9 +228,20 @@ public class StringFieldValue extends FieldValue {
      * @return the String value wrapped by this StringFieldValue.
      */
     public String getString() {
+        if (value == null)
+            value = Utf8.toString(utf8.getBytes());
         return value;
     }
 
+    /**
+     * Returns the value wrapped by this as UTF-8. This does not encode the value if this was created from UTF-8.
+     * The returned array must not be modified.
+     */
+    public byte[] getUtf8() {
+        if (utf8 != null) return utf8.getBytes();
+        return Utf8.toBytes(value);
+    }
+
     /**
      * Returns the String value wrapped by this StringFieldValue.
      *
@@ -224,7 +249,7 @@ public class StringFieldValue extends FieldValue {
      */
     @Override
     public Object getWrappedValue() {
-        return value;
+        return getString();
     }
 
     /**
@@ -245,7 +270,7 @@ public class StringFieldValue extends FieldValue {
      */
     @Override
     public String toString() {
-        return value;
+        return getString();
     }
 
     @Override
@@ -255,13 +280,13 @@ public class StringFieldValue extends FieldValue {
         if (!super.equals(o)) return false;
         StringFieldValue that = (StringFieldValue) o;
         if ((spanTrees != null) ? !spanTrees.equals(that.spanTrees) : that.spanTrees != null) return false;
-        if ((value != null) ? !value.equals(that.value) : that.value != null) return false;
-        return true;
+        if (utf8 != null && that.utf8 != null) return Arrays.equals(utf8.getBytes(), that.utf8.getBytes());
+        return getString().equals(that.getString());
     }
 
     @Override
     public int hashCode() {
-        return (value != null) ? value.hashCode() : super.hashCode();
+        return getString().hashCode();
     }
 
     @Override
@@ -284,7 +309,7 @@ public class StringFieldValue extends FieldValue {
 
         //types are equal, this must be of this type
         StringFieldValue otherValue = (StringFieldValue) fieldValue;
-        comp = value.compareTo(otherValue.value);
+        comp = getString().compareTo(otherValue.getString());
 
         if (comp != 0) {
             return comp;
@@ -311,6 +336,16 @@ public class StringFieldValue extends FieldValue {
      */
     public void setUnChecked(String s) {
         value = s;
+        utf8 = null;
+    }
+
+    /**
+     * Only for use by deserializer to avoid the cost of verifying and decoding input.
+     * The given array must not be modified after this is called.
+     */
+    public void setUnChecked(Utf8Array utf8) {
+        this.value = null;
+        this.utf8 = utf8;
     }
 
 }
@@ -5,6 +5,7 @@ import com.yahoo.collections.Hashlet;
 import com.yahoo.document.*;
 import com.yahoo.document.serialization.FieldReader;
 import com.yahoo.document.serialization.FieldWriter;
+import com.yahoo.document.serialization.LazyFieldValues;
 import com.yahoo.document.serialization.XmlSerializationHelper;
 import com.yahoo.document.serialization.XmlStream;
 import com.yahoo.vespa.objects.Ids;
@@ -22,6 +23,15 @@ public class Struct extends StructuredFieldValue {
     private Hashlet<Integer, FieldValue> values = new Hashlet<>();
     private int [] order = null;
 
+    /**
+     * Field values which are not deserialized yet, or null if none.
+     * Lazy values are deserialized into values while holding the monitor of this, so a struct with lazy values
+     * may be read by multiple threads concurrently as long as none of them modifies it.
+     * This is set to null after the last lazy value is deserialized, so threads reading null here
+     * see all the deserialized values without locking.
+     */
+    private volatile LazyFieldValues lazyValues = null;
+
     private int version;
 
     private int [] getInOrder() {
@@ -81,10 +91,14 @@ public class Struct extends StructuredFieldValue {
     @Override
     public Struct clone() {
         Struct struct = (Struct) super.clone();
-        struct.values = new Hashlet<>();
-        struct.values.reserve(values.size());
-        for (int i = 0; i < values.size(); i++) {
-            struct.values.put(values.key(i), values.value(i).clone());
+        synchronized (this) {
+            if (lazyValues != null)
+                struct.lazyValues = lazyValues.copy();
+            struct.values = new Hashlet<>();
+            struct.values.reserve(values.size());
+            for (int i = 0; i < values.size(); i++) {
+                struct.values.put(values.key(i), values.value(i).clone());
+            }
         }
         return struct;
     }
@@ -92,15 +106,61 @@ public class Struct extends StructuredFieldValue {
     @Override
     public void clear() {
         values = new Hashlet<>();
+        lazyValues = null;
+        invalidateOrder();
+    }
+
+    /**
+     * Sets field values which will be deserialized when they are accessed.
+     * This replaces any previous lazy values, but not any other values of this.
+     */
+    public void setLazyFieldValues(LazyFieldValues lazyValues) {
+        this.lazyValues = lazyValues == null || lazyValues.isEmpty() ? null : lazyValues;
+    }
+
+    /**
+     * Returns the field values of this which are not deserialized yet, or null if none.
+     * Callers which use these together with {@link #getDeserializedFields} must hold the monitor of this struct
+     * while doing so, as other threads may deserialize lazy values concurrently.
+     */
+    public LazyFieldValues getLazyFieldValues() { return lazyValues; }
+
+    /** Deserializes the value of this field if it is lazy. This must be called while holding the monitor of this. */
+    private void deserialize(Field field) {
+        LazyFieldValues lazyValues = this.lazyValues;
+        if (lazyValues == null || ! lazyValues.contains(field)) return;
+        values.put(field.getId(), lazyValues.deserialize(field));
         invalidateOrder();
+        if (lazyValues.isEmpty())
+            this.lazyValues = null;
+    }
+
+    /** Deserializes all the lazy field values of this */
+    private void deserializeAll() {
+        if (lazyValues == null) return;
+        synchronized (this) {
+            if (lazyValues == null) return;
+            List<Field> fields = new ArrayList<>(lazyValues.size());
+            for (LazyFieldValues.SerializedValue value : lazyValues.values())
+                fields.add(value.getField());
+            for (Field field : fields)
+                deserialize(field);
+        }
     }
 
     @Override
     public Iterator<Map.Entry<Field, FieldValue>> iterator() {
+        deserializeAll();
         return new FieldSet().iterator();
     }
 
     public Set<Map.Entry<Field, FieldValue>> getFields() {
+        deserializeAll();
+        return new FieldSet();
+    }
+
+    /** Returns the field values of this which are deserialized, without deserializing any lazy field values */
+    public Set<Map.Entry<Field, FieldValue>> getDeserializedFields() {
         return new FieldSet();
     }
 
@@ -119,6 +179,12 @@ public class Struct extends StructuredFieldValue {
 
     @Override
     public FieldValue getFieldValue(Field field) {
+        if (lazyValues != null) {
+            synchronized (this) {
+                deserialize(field);
+                return values.get(field.getId());
+            }
+        }
         return values.get(field.getId());
     }
 
@@ -130,6 +196,11 @@ public class Struct extends StructuredFieldValue {
 
     @Override
     public int getFieldCount() {
+        if (lazyValues != null) {
+            synchronized (this) {
+                return values.size() + (lazyValues == null ? 0 : lazyValues.size());
+            }
+        }
         return values.size();
     }
 
@@ -156,6 +227,12 @@ public class Struct extends StructuredFieldValue {
                     "Inconsistent field: " + field);
         }
 
+        if (lazyValues != null) {
+            synchronized (this) {
+                if (lazyValues != null)
+                    lazyValues.remove(field);
+            }
+        }
         int index = values.getIndexOfKey(field.getId());
         if (index == -1) {
             values.put(field.getId(), value);
@@ -167,6 +244,11 @@ public class Struct extends StructuredFieldValue {
 
     @Override
     public FieldValue removeFieldValue(Field field) {
+        if (lazyValues != null) {
+            synchronized (this) {
+                deserialize(field);
+            }
+        }
         FieldValue found = values.get(field.getId());
         if (found != null) {
             Hashlet<Integer, FieldValue> copy = new Hashlet<>();
@@ -215,11 +297,14 @@ public class Struct extends StructuredFieldValue {
         if (!super.equals(o)) return false;
 
         Struct struct = (Struct) o;
+        deserializeAll();
+        struct.deserializeAll();
         return values.equals(struct.values);
     }
 
     @Override
     public int hashCode() {
+        deserializeAll();
         int result = super.hashCode();
         result = 31 * result + values.hashCode();
         return result;
@@ -229,6 +314,7 @@ public class Struct extends StructuredFieldValue {
     public String toString() {
         StringBuilder retVal = new StringBuilder();
         retVal.append("Struct (").append(getDataType()).append("): ");
+        deserializeAll();
         int [] increasing = getInOrder();
         for (int i = 0; i < increasing.length; i++) {
             int id = increasing[i];
@@ -249,7 +335,7 @@ public class Struct extends StructuredFieldValue {
             return cmp;
         }
         Struct rhs = (Struct)obj;
-        cmp = values.size() - rhs.values.size();
+        cmp = getFieldCount() - rhs.getFieldCount();
         if (cmp != 0) {
             return cmp;
         }
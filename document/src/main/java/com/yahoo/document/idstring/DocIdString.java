@@ -2,10 +2,6 @@
 package com.yahoo.document.idstring;
 
 import com.yahoo.collections.MD5;
-import com.yahoo.text.Utf8;
-
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
 
 /**
  * Representation of doc scheme in document IDs.
@@ -13,6 +9,9 @@ import java.security.NoSuchAlgorithmException;
  * @author <a href="mailto:einarmr@yahoo-inc.com">Einar M R Rosenvinge</a>
  */
 public class DocIdString extends IdString {
+    private long location;
+    private volatile boolean hasLocation = false;
+
     /**
      * Create a doc scheme object.
      * <code>doc:&lt;namespace&gt;:&lt;namespaceSpecific&gt;</code>
@@ -31,13 +30,12 @@ public class DocIdString extends IdString {
      * @return The 64 bit location.
      */
     public long getLocation() {
-        long result = 0;
-        byte[] md5sum = MD5.md5.get().digest(Utf8.toBytes(toString()));
-        for (int i=0; i<8; ++i) {
-            result |= (md5sum[i] & 0xFFl) << (8*i);
+        if (!hasLocation) {
+            byte[] utf8 = toUtf8().getBytes();
+            location = MD5.digestLong(utf8, 0, utf8.length, 0);
+            hasLocation = true;
         }
-
-        return result;
+        return location;
     }
 
     /** Get the scheme specific part. Which is non-existing for doc scheme. */
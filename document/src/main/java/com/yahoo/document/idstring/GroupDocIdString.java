@@ -4,8 +4,6 @@ package com.yahoo.document.idstring;
 import com.yahoo.collections.MD5;
 import com.yahoo.text.Utf8;
 
-import java.security.MessageDigest;
-
 /**
  * Representation of groupdoc scheme in document IDs.
  *
@@ -34,16 +32,8 @@ public class GroupDocIdString extends IdString {
      * @return The 64 bit location.
      */
     public long getLocation() {
-        long result = 0;
-        try{
-            byte[] md5sum = MD5.md5.get().digest(Utf8.toBytes(group));
-            for (int i=0; i<8; ++i) {
-                result |= (md5sum[i] & 0xFFl) << (8*i);
-            }
-        } catch (Exception e) {
-            e.printStackTrace(); // TODO: FIXME!
-        }
-        return result;
+        byte[] utf8 = Utf8.toBytes(group);
+        return MD5.digestLong(utf8, 0, utf8.length, 0);
     }
 
     /** Get the scheme specific part. Which is for a groupdoc, is the groupdoc and a colon. */
@@ -25,13 +25,8 @@ public class IdIdString extends IdString {
 
 
     private static long makeLocation(String s) {
-        long result = 0;
-        byte[] md5sum = MD5.md5.get().digest(Utf8.toBytes(s));
-        for (int i=0; i<8; ++i) {
-            result |= (md5sum[i] & 0xFFl) << (8*i);
-        }
-
-        return result;
+        byte[] utf8 = Utf8.toBytes(s);
+        return MD5.digestLong(utf8, 0, utf8.length, 0);
     }
 
     /**
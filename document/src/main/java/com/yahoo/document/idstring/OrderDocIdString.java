@@ -39,11 +39,8 @@ public class OrderDocIdString extends IdString {
         try {
             this.location = Long.parseLong(group);
         } catch (Exception foo) {
-            location = 0;
-            byte[] md5sum = MD5.md5.get().digest(Utf8.toBytes(group));
-            for (int i=0; i<8; ++i) {
-                location |= (md5sum[i] & 0xFFl) << (8*i);
-            }
+            byte[] utf8 = Utf8.toBytes(group);
+            location = MD5.digestLong(utf8, 0, utf8.length, 0);
         }
     }
 
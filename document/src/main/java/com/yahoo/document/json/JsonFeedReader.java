@@ -2,6 +2,8 @@
 package com.yahoo.document.json;
 
 import java.io.InputStream;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
 
 import com.fasterxml.jackson.core.JsonFactory;
 import com.yahoo.document.DocumentOperation;
@@ -20,21 +22,33 @@ import com.yahoo.vespaxmlparser.VespaXMLFeedReader.Operation;
  * The feed reader will take ownership of the input stream and close it when the
  * last parseable document has been read.
  *
+ * <p>
+ * If an executor is given, the document operations are created in parallel in its threads,
+ * see {@link ParallelJsonReader}.
+ *
  * @author steinar
  */
 public class JsonFeedReader implements FeedReader {
-    private final JsonReader reader;
+    /** The max number of operations to create in parallel ahead of the one read */
+    private static final int maxPendingOperations = 64;
+
+    private final Supplier<DocumentOperation> reader;
     private InputStream stream;
     private static final JsonFactory jsonFactory = new JsonFactory().disable(JsonFactory.Feature.CANONICALIZE_FIELD_NAMES);
 
     public JsonFeedReader(InputStream stream, DocumentTypeManager docMan) {
-        reader = new JsonReader(docMan, stream, jsonFactory);
+        reader = new JsonReader(docMan, stream, jsonFactory)::next;
+        this.stream = stream;
+    }
+
+    public JsonFeedReader(InputStream stream, DocumentTypeManager docMan, Executor executor) {
+        reader = new ParallelJsonReader(docMan, stream, jsonFactory, executor, maxPendingOperations)::next;
         this.stream = stream;
     }
 
     @Override
     public void read(Operation operation) throws Exception {
-        DocumentOperation documentOperation = reader.next();
+        DocumentOperation documentOperation = reader.get();
 
         if (documentOperation == null) {
             stream.close();
@@ -80,6 +80,18 @@ public class JsonReader {
     }
 
     public DocumentOperation next() {
+        Optional<DocumentParseInfo> documentParseInfo = nextParseInfo();
+        if ( ! documentParseInfo.isPresent()) return null;
+        return createDocumentOperation(documentParseInfo.get());
+    }
+
+    /**
+     * Reads the next operation from the input without creating the document operation from it.
+     * This is the part of reading which must be done sequentially.
+     *
+     * @return the parsed operation, or empty if the end of the feed is reached
+     */
+    Optional<DocumentParseInfo> nextParseInfo() {
         switch (state) {
             case AT_START:
                 JsonToken t = nextToken(parser);
@@ -87,7 +99,7 @@ public class JsonReader {
                 state = ReaderState.READING;
                 break;
             case END_OF_FEED:
-                return null;
+                return Optional.empty();
             case READING:
                 break;
         }
@@ -101,13 +113,20 @@ public class JsonReader {
         }
         if (! documentParseInfo.isPresent()) {
             state = END_OF_FEED;
-            return null;
         }
+        return documentParseInfo;
+    }
+
+    /**
+     * Creates the document operation of an operation returned from {@link #nextParseInfo}.
+     * This does not use the input, so it may be called in any thread.
+     */
+    DocumentOperation createDocumentOperation(DocumentParseInfo documentParseInfo) {
         VespaJsonDocumentReader vespaJsonDocumentReader = new VespaJsonDocumentReader();
         DocumentOperation operation = vespaJsonDocumentReader.createDocumentOperation(
-                getDocumentTypeFromString(documentParseInfo.get().documentId.getDocType(), typeManager),
-                documentParseInfo.get());
-        operation.setCondition(TestAndSetCondition.fromConditionString(documentParseInfo.get().condition));
+                getDocumentTypeFromString(documentParseInfo.documentId.getDocType(), typeManager),
+                documentParseInfo);
+        operation.setCondition(TestAndSetCondition.fromConditionString(documentParseInfo.condition));
         return operation;
     }
 
@@ -0,0 +1,89 @@
+// Copyright 2017 Yahoo Holdings. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.document.json;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.google.common.annotations.Beta;
+import com.yahoo.document.DocumentOperation;
+import com.yahoo.document.DocumentTypeManager;
+import com.yahoo.document.json.readers.DocumentParseInfo;
+
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Reads document operations from a JSON feed like {@link JsonReader}, but creates the document operations
+ * in the threads of an executor.
+ *
+ * The feed is split into operations in the calling thread, which only requires tokenizing the input,
+ * while the document operations, which is most of the work, are created in parallel for a bounded number of
+ * operations ahead of the one returned. Operations are returned in feed order, and failures are thrown
+ * when the failing operation would have been returned, so this behaves like {@link JsonReader} to the caller.
+ *
+ * This class is not thread safe, but the given executor may be shared by any number of readers.
+ * The executor is owned by the caller, which should use one with a bounded number of threads and
+ * shut it down when it is no longer used.
+ *
+ * @author agent
+ */
+@Beta
+public class ParallelJsonReader {
+
+    private final JsonReader reader;
+    private final Executor executor;
+    private final int maxPending;
+
+    /** The operations being created, in feed order */
+    private final Deque<CompletableFuture<DocumentOperation>> pending = new ArrayDeque<>();
+    private boolean endOfFeed = false;
+
+    /**
+     * Creates a parallel JSON reader
+     *
+     * @param executor the executor creating the document operations
+     * @param maxPending the max number of operations to read ahead of the one returned by {@link #next}
+     */
+    public ParallelJsonReader(DocumentTypeManager typeManager, InputStream input, JsonFactory parserFactory,
+                              Executor executor, int maxPending) {
+        if (maxPending < 1) throw new IllegalArgumentException("maxPending must be positive, got " + maxPending);
+        this.reader = new JsonReader(typeManager, input, parserFactory);
+        this.executor = executor;
+        this.maxPending = maxPending;
+    }
+
+    /** Returns the next operation of the feed, or null if there are no more operations */
+    public DocumentOperation next() {
+        while ( ! endOfFeed && pending.size() < maxPending)
+            readAhead();
+        CompletableFuture<DocumentOperation> next = pending.poll();
+        if (next == null) return null;
+        try {
+            return next.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException)e.getCause();
+            if (e.getCause() instanceof Error) throw (Error)e.getCause();
+            throw e;
+        }
+    }
+
+    private void readAhead() {
+        try {
+            Optional<DocumentParseInfo> parseInfo = reader.nextParseInfo();
+            if (parseInfo.isPresent())
+                pending.add(CompletableFuture.supplyAsync(() -> reader.createDocumentOperation(parseInfo.get()), executor));
+            else
+                endOfFeed = true;
+        } catch (RuntimeException e) {
+            // Fail when the caller reaches the failing operation, not before. No operation can be read after this.
+            CompletableFuture<DocumentOperation> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            pending.add(failed);
+            endOfFeed = true;
+        }
+    }
+
+}
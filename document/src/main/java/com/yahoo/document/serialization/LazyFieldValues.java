@@ -0,0 +1,107 @@
+// Copyright 2017 Yahoo Holdings. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.document.serialization;
+
+import com.yahoo.document.DocumentTypeManager;
+import com.yahoo.document.Field;
+import com.yahoo.document.datatypes.FieldValue;
+import com.yahoo.io.GrowableByteBuffer;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The serialized form of the field values of a struct which are not deserialized yet.
+ * Each value is deserialized when it is accessed, and the serialized form of the values which are never
+ * accessed can be written as-is when the struct is serialized again.
+ * The serialized values are slices of a single buffer which is never modified.
+ * This is not thread safe: The owning struct accesses it while holding its own monitor.
+ *
+ * @author agent
+ */
+public class LazyFieldValues {
+
+    private final DocumentTypeManager manager;
+    private final short version;
+    private final byte[] buffer;
+
+    /** The serialized values, by field id */
+    private final Map<Integer, SerializedValue> values;
+
+    LazyFieldValues(DocumentTypeManager manager, short version, byte[] buffer) {
+        this.manager = manager;
+        this.version = version;
+        this.buffer = buffer;
+        this.values = new LinkedHashMap<>();
+    }
+
+    private LazyFieldValues(LazyFieldValues other) {
+        this.manager = other.manager;
+        this.version = other.version;
+        this.buffer = other.buffer;
+        this.values = new LinkedHashMap<>(other.values);
+    }
+
+    void add(Field field, int offset, int length) {
+        values.put(field.getId(), new SerializedValue(field, offset, length));
+    }
+
+    /** Returns the serialization version of the values in this */
+    public short getVersion() { return version; }
+
+    public boolean contains(Field field) { return values.containsKey(field.getId()); }
+
+    public boolean isEmpty() { return values.isEmpty(); }
+
+    public int size() { return values.size(); }
+
+    /** Returns the fields having a serialized value in this */
+    public Collection<SerializedValue> values() { return values.values(); }
+
+    /** Removes the value of this field from this, without deserializing it */
+    public void remove(Field field) { values.remove(field.getId()); }
+
+    /**
+     * Deserializes the value of the given field and removes it from this.
+     *
+     * @return the deserialized value, or null if this has no value for the field
+     */
+    @SuppressWarnings("deprecation")
+    public FieldValue deserialize(Field field) {
+        SerializedValue serialized = values.remove(field.getId());
+        if (serialized == null) return null;
+
+        FieldValue value = serialized.field.getDataType().createFieldValue();
+        GrowableByteBuffer slice = GrowableByteBuffer.wrap(buffer, serialized.offset, serialized.length);
+        value.deserialize(serialized.field, new VespaDocumentDeserializer42(manager, slice, null, version));
+        return value;
+    }
+
+    /** Returns a copy of this which can be modified independently of this */
+    public LazyFieldValues copy() { return new LazyFieldValues(this); }
+
+    /** A serialized field value */
+    public class SerializedValue {
+
+        private final Field field;
+        private final int offset;
+        private final int length;
+
+        private SerializedValue(Field field, int offset, int length) {
+            this.field = field;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        public Field getField() { return field; }
+
+        public int getLength() { return length; }
+
+        /** Writes the serialized form of this value to the given buffer */
+        public void writeTo(GrowableByteBuffer destination) {
+            destination.put(buffer, offset, length);
+        }
+
+    }
+
+}
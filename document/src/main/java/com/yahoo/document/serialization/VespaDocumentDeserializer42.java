@@ -59,7 +59,6 @@ import com.yahoo.document.update.RemoveValueUpdate;
 import com.yahoo.document.update.ValueUpdate;
 import com.yahoo.io.GrowableByteBuffer;
 import com.yahoo.tensor.serialization.TypedBinaryFormat;
-import com.yahoo.text.Utf8;
 import com.yahoo.text.Utf8Array;
 import com.yahoo.text.Utf8String;
 import com.yahoo.vespa.objects.FieldBase;
@@ -90,6 +89,7 @@ public class VespaDocumentDeserializer42 extends VespaDocumentSerializer42 imple
     private List<SpanNode> spanNodes;
     private List<Annotation> annotations;
     private int[] stringPositions;
+    private boolean lazyStructFields = false;
 
     VespaDocumentDeserializer42(DocumentTypeManager manager, GrowableByteBuffer header, GrowableByteBuffer body, short version) {
         super(header);
@@ -108,6 +108,16 @@ public class VespaDocumentDeserializer42 extends VespaDocumentSerializer42 imple
 
     final public DocumentTypeManager getDocumentTypeManager() { return manager; }
 
+    /**
+     * Sets whether the field values of structs read by this should be deserialized only when they are accessed.
+     * The serialized form of values which are never accessed is reused if the struct is serialized again.
+     * This is faster when only a few fields of each document is accessed, but keeps the serialized data in memory.
+     * Structs with lazy values may be read by multiple threads concurrently, but not modified concurrently with
+     * other access, just as other structs.
+     * Default is false.
+     */
+    public void setLazyStructFields(boolean lazyStructFields) { this.lazyStructFields = lazyStructFields; }
+
     public void read(Document document) {
          read(null, document);
     }
@@ -245,7 +255,7 @@ public class VespaDocumentDeserializer42 extends VespaDocumentSerializer42 imple
         byte[] stringArray = new byte[length - 1];
         buf.get(stringArray);
         buf.get();    //move past 0-termination
-        value.setUnChecked(Utf8.toString(stringArray));
+        value.setUnChecked(new Utf8Array(stringArray));
 
         if ((coding & 64) == 64) {
             //we have a span tree!
@@ -358,11 +368,16 @@ public class VespaDocumentDeserializer42 extends VespaDocumentSerializer42 imple
 
         s.clear();
         StructDataType type = s.getDataType();
+        LazyFieldValues lazyValues = lazyStructFields ? new LazyFieldValues(manager, version, destination) : null;
         for (int i=0; i<numberOfFields; ++i) {
             Field structField = type.getField(fieldIdsAndLengths.get(i).first, version);
             if (structField == null) {
                 //ignoring unknown field:
                 position(position() + fieldIdsAndLengths.get(i).second.intValue());
+            } else if (lazyValues != null) {
+                int length = fieldIdsAndLengths.get(i).second.intValue();
+                lazyValues.add(structField, position(), length);
+                position(position() + length);
             } else {
                 int posBefore = position();
                 FieldValue value = structField.getDataType().createFieldValue();
@@ -373,6 +388,9 @@ public class VespaDocumentDeserializer42 extends VespaDocumentSerializer42 imple
             }
         }
 
+        if (lazyValues != null)
+            s.setLazyFieldValues(lazyValues);
+
         // restore the original buffer
         buf = bigBuf;
     }
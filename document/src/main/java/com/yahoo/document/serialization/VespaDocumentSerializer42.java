@@ -224,7 +224,7 @@ public class VespaDocumentSerializer42 extends BufferSerializer implements Docum
      * @param value - field value
      */
     public void write(FieldBase field, StringFieldValue value) {
-        byte[] stringBytes = createUTF8CharArray(value.getString());
+        byte[] stringBytes = value.getUtf8();
 
         byte coding = 0;
         //Use bit 6 of "coding" to say whether span tree is available or not
@@ -310,13 +310,27 @@ public class VespaDocumentSerializer42 extends BufferSerializer implements Docum
         List<Integer> fieldIds = new LinkedList<>();
         List<java.lang.Integer> fieldLengths = new LinkedList<>();
 
-        for (Map.Entry<Field, FieldValue> value : s.getFields()) {
+        // Lazy values may be deserialized by other threads concurrently, which is done holding the monitor of the struct
+        synchronized (s) {
+            LazyFieldValues lazyValues = s.getLazyFieldValues();
+            boolean reuseSerializedValues = lazyValues != null && lazyValues.getVersion() == Document.SERIALIZED_VERSION;
+            if (reuseSerializedValues) {
+                // Write the values which are never deserialized as they were read
+                for (LazyFieldValues.SerializedValue value : lazyValues.values()) {
+                    value.writeTo(buffer);
+                    fieldLengths.add(value.getLength());
+                    fieldIds.add(value.getField().getId(s.getVersion()));
+                }
+            }
+            Set<Map.Entry<Field, FieldValue>> fields = reuseSerializedValues ? s.getDeserializedFields() : s.getFields();
+            for (Map.Entry<Field, FieldValue> value : fields) {
 
-            int startPos = buffer.position();
-            value.getValue().serialize(value.getKey(), this);
+                int startPos = buffer.position();
+                value.getValue().serialize(value.getKey(), this);
 
-            fieldLengths.add(buffer.position() - startPos);
-            fieldIds.add(value.getKey().getId(s.getVersion()));
+                fieldLengths.add(buffer.position() - startPos);
+                fieldIds.add(value.getKey().getId(s.getVersion()));
+            }
         }
 
         // Switch buffers again:
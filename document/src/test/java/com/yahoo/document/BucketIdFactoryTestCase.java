@@ -122,6 +122,23 @@ public class BucketIdFactoryTestCase extends junit.framework.TestCase {
         assert(!bid.contains(docId, factory));
     }
 
+    public void testBucketIdIsCachedPerFactory() {
+        BucketIdFactory factory = new BucketIdFactory(32, 26, 6);
+        DocumentId doc = new DocumentId(new GroupDocIdString("ns", "yahoo.com", "spec"));
+        BucketId bid = factory.getBucketId(doc);
+        assertSame(bid, factory.getBucketId(doc));
+        assertEquals(bid, factory.getBucketId(new DocumentId(new GroupDocIdString("ns", "yahoo.com", "spec"))));
+
+        BucketIdFactory other = new BucketIdFactory(32, 8, 24);
+        BucketId otherBid = other.getBucketId(doc);
+        assertEquals(other.getBucketId(new DocumentId(doc.toString())), otherBid);
+
+        doc.setId(new GroupDocIdString("ns", "yahoo", "spec"));
+        assertEquals(factory.getBucketId(new DocumentId(new GroupDocIdString("ns", "yahoo", "spec"))),
+                     factory.getBucketId(doc));
+        assertFalse(bid.equals(factory.getBucketId(doc)));
+    }
+
     public void testBucketIdSerializationAndCompare() {
         BucketId bid = new BucketId(18, 0x123456789L);
 
@@ -1,8 +1,14 @@
 // Copyright 2017 Yahoo Holdings. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
 package com.yahoo.document.datatypes;
 
+import com.yahoo.text.Utf8;
+import com.yahoo.text.Utf8Array;
 import org.junit.Test;
 
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
 /**
  * @author <a href="mailto:einarmr@yahoo-inc.com">Einar M R Rosenvinge</a>
  * @since 5.1.14
@@ -390,4 +396,21 @@ public class StringFieldValueTestCase {
     public void requireThatControlCharFails10FFFF() {
         new StringFieldValue("\uDBFF\uDFFF");
     }
+
+    @Test
+    public void requireThatUtf8ValueIsDecodedOnDemand() {
+        byte[] utf8 = Utf8.toBytes("bl\u00e5b\u00e6r");
+        StringFieldValue value = new StringFieldValue();
+        value.setUnChecked(new Utf8Array(utf8));
+        assertSame(utf8, value.getUtf8());
+        assertEquals("bl\u00e5b\u00e6r", value.getString());
+        assertEquals(new StringFieldValue("bl\u00e5b\u00e6r"), value);
+        assertEquals(new StringFieldValue("bl\u00e5b\u00e6r").hashCode(), value.hashCode());
+        assertArrayEquals(utf8, new StringFieldValue("bl\u00e5b\u00e6r").getUtf8());
+
+        value.assign("foo");
+        assertEquals("foo", value.getString());
+        assertArrayEquals(Utf8.toBytes("foo"), value.getUtf8());
+    }
+
 }
@@ -69,6 +69,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
 
 import static com.yahoo.document.json.readers.SingleValueReader.*;
 import static com.yahoo.test.json.JsonTestHelper.inputJson;
@@ -823,19 +826,82 @@ public class JsonReaderTestCase {
     }
 
     protected void controlBasicFeed(JsonReader r) {
-        DocumentOperation d = r.next();
+        controlBasicFeed(r::next);
+    }
+
+    private void controlBasicFeed(Supplier<DocumentOperation> r) {
+        DocumentOperation d = r.get();
         Document doc = ((DocumentPut) d).getDocument();
         smokeTestDoc(doc);
 
-        d = r.next();
+        d = r.get();
         DocumentUpdate update = (DocumentUpdate) d;
         checkSimpleArrayAdd(update);
 
-        d = r.next();
+        d = r.get();
         DocumentRemove remove = (DocumentRemove) d;
         assertEquals("smoke", remove.getId().getDocType());
 
-        assertNull(r.next());
+        assertNull(r.get());
+    }
+
+    @Test
+    public final void testCompleteFeedInParallel() {
+        InputStream rawDoc = new ByteArrayInputStream(
+                Utf8.toBytes("[{\"put\": \"id:unittest:smoke::whee\","
+                        + " \"fields\": { \"something\": \"smoketest\","
+                        + " \"nalle\": \"bamse\"}}" + ", "
+                        + "{\"update\": \"id:unittest:testarray::whee\","
+                        + " \"fields\": { " + "\"actualarray\": {"
+                        + " \"add\": [" + " \"person\","
+                        + " \"another person\"]}}}" + ", "
+                        + "{\"remove\": \"id:unittest:smoke::whee\"}]"));
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            controlBasicFeed(new ParallelJsonReader(types, rawDoc, parserFactory, executor, 2)::next);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public final void testParallelReaderPreservesFeedOrder() {
+        StringBuilder feed = new StringBuilder("[");
+        for (int i = 0; i < 100; i++) {
+            if (i > 0) feed.append(", ");
+            feed.append("{\"put\": \"id:unittest:smoke::").append(i).append("\", \"fields\": { \"int1\": ").append(i).append("}}");
+        }
+        feed.append("]");
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            ParallelJsonReader r = new ParallelJsonReader(types, new ByteArrayInputStream(Utf8.toBytes(feed.toString())),
+                                                          parserFactory, executor, 16);
+            for (int i = 0; i < 100; i++) {
+                DocumentPut put = (DocumentPut) r.next();
+                assertEquals("id:unittest:smoke::" + i, put.getId().toString());
+                assertEquals(new IntegerFieldValue(i), put.getDocument().getFieldValue("int1"));
+            }
+            assertNull(r.next());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public final void testParallelReaderThrowsWhenFailingOperationIsReached() {
+        InputStream rawDoc = new ByteArrayInputStream(
+                Utf8.toBytes("[{\"put\": \"id:unittest:smoke::whee\", \"fields\": { \"something\": \"smoketest\"}}, "
+                        + "{\"put\": \"id:unittest:nonexisting::whee\", \"fields\": { \"something\": \"smoketest\"}}]"));
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            ParallelJsonReader r = new ParallelJsonReader(types, rawDoc, parserFactory, executor, 16);
+            assertEquals("id:unittest:smoke::whee", r.next().getId().toString());
+            exception.expect(IllegalArgumentException.class);
+            exception.expectMessage("Document type nonexisting does not exist");
+            r.next();
+        } finally {
+            executor.shutdown();
+        }
     }
 
 
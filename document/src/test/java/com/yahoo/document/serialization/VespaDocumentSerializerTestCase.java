@@ -20,7 +20,17 @@ import com.yahoo.io.GrowableByteBuffer;
 import org.junit.Test;
 import org.mockito.Mockito;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -129,4 +139,86 @@ public class VespaDocumentSerializerTestCase {
         // rounded up to 4096 bytes.
         assertTrue(buf.remaining() < 4096);
     }
+
+    @Test
+    public void lazily_deserialized_struct_fields_are_reserialized_unchanged() {
+        DocumentType docType = new DocumentType("my_type");
+        docType.addField("my_str", DataType.STRING);
+        docType.addField("my_int", DataType.INT);
+        DocumentTypeManager manager = new DocumentTypeManager();
+        manager.registerDocumentType(docType);
+        Document doc = new Document(docType, "id:ns:my_type::foo");
+        doc.setFieldValue("my_str", new StringFieldValue("foo"));
+        doc.setFieldValue("my_int", new IntegerFieldValue(69));
+        byte[] serialized = asBytes(doc);
+
+        Document lazy = deserializeLazily(manager, serialized);
+        assertEquals(2, lazy.getBody().getLazyFieldValues().size());
+        assertArrayEquals(serialized, asBytes(lazy));
+
+        assertEquals(new IntegerFieldValue(69), lazy.getFieldValue("my_int"));
+        assertEquals(1, lazy.getBody().getLazyFieldValues().size());
+        assertEquals(2, lazy.getBody().getFieldCount());
+        assertEquals(doc, manager.createDocument(GrowableByteBuffer.wrap(asBytes(lazy))));
+
+        lazy = deserializeLazily(manager, serialized);
+        lazy.setFieldValue("my_str", new StringFieldValue("bar"));
+        doc.setFieldValue("my_str", new StringFieldValue("bar"));
+        assertEquals(doc, manager.createDocument(GrowableByteBuffer.wrap(asBytes(lazy))));
+        assertEquals(doc, lazy);
+    }
+
+    @Test
+    public void lazily_deserialized_struct_fields_can_be_read_concurrently() throws Exception {
+        DocumentType docType = new DocumentType("my_type");
+        int fieldCount = 100;
+        for (int i = 0; i < fieldCount; i++)
+            docType.addField("my_int_" + i, DataType.INT);
+        DocumentTypeManager manager = new DocumentTypeManager();
+        manager.registerDocumentType(docType);
+        Document doc = new Document(docType, "id:ns:my_type::foo");
+        for (int i = 0; i < fieldCount; i++)
+            doc.setFieldValue("my_int_" + i, new IntegerFieldValue(i));
+        byte[] serialized = asBytes(doc);
+
+        for (int round = 0; round < 20; round++) {
+            Document lazy = deserializeLazily(manager, serialized);
+            int threadCount = 4;
+            CyclicBarrier barrier = new CyclicBarrier(threadCount);
+            ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+            try {
+                List<Future<Document>> results = new ArrayList<>();
+                for (int t = 0; t < threadCount; t++) {
+                    int first = t * fieldCount / threadCount;
+                    results.add(executor.submit(() -> {
+                        barrier.await();
+                        for (int i = 0; i < fieldCount; i++) {
+                            int field = (first + i) % fieldCount;
+                            assertEquals(new IntegerFieldValue(field), lazy.getFieldValue("my_int_" + field));
+                        }
+                        return manager.createDocument(GrowableByteBuffer.wrap(asBytes(lazy)));
+                    }));
+                }
+                for (Future<Document> result : results)
+                    assertEquals(doc, result.get(60, TimeUnit.SECONDS));
+            } finally {
+                executor.shutdownNow();
+            }
+            assertNull(lazy.getBody().getLazyFieldValues());
+            assertEquals(doc, lazy);
+        }
+    }
+
+    private static byte[] asBytes(Document doc) {
+        GrowableByteBuffer buf = CompressionFixture.asSerialized(doc);
+        byte[] bytes = new byte[buf.remaining()];
+        buf.get(bytes);
+        return bytes;
+    }
+
+    private static Document deserializeLazily(DocumentTypeManager manager, byte[] serialized) {
+        VespaDocumentDeserializerHead deserializer = new VespaDocumentDeserializerHead(manager, GrowableByteBuffer.wrap(serialized));
+        deserializer.setLazyStructFields(true);
+        return new Document(deserializer);
+    }
 }
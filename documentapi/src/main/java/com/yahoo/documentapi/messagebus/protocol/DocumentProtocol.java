@@ -386,6 +386,20 @@ public class DocumentProtocol implements Protocol {
         return this;
     }
 
+    /**
+     * Sets whether the struct field values of documents decoded by this protocol should be deserialized only when
+     * they are accessed. Fields which are never accessed are then encoded again from their received form when the
+     * document is passed on. This method is thread-safe, and applies to routables decoded after it returns.
+     * Default is true.
+     *
+     * @param lazyStructFields Whether to deserialize struct field values lazily.
+     * @return This, to allow chaining.
+     */
+    public DocumentProtocol setLazyStructFields(boolean lazyStructFields) {
+        routableRepository.setLazyStructFields(lazyStructFields);
+        return this;
+    }
+
     /**
      * Convenience method to call {@link #putRoutableFactory(int, RoutableFactory, com.yahoo.component.VersionSpecification)}
      * for multiple version specifications.
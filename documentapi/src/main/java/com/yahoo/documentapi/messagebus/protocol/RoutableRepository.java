@@ -29,6 +29,7 @@ final class RoutableRepository {
     private final CopyOnWriteHashMap<Integer, VersionMap> factoryTypes = new CopyOnWriteHashMap<>();
     private final CopyOnWriteHashMap<CacheKey, RoutableFactory> cache = new CopyOnWriteHashMap<>();
     private LoadTypeSet loadTypes;
+    private volatile boolean lazyStructFields = true;
 
     public RoutableRepository(LoadTypeSet set) {
         loadTypes = set;
@@ -52,7 +53,9 @@ final class RoutableRepository {
         DocumentDeserializer in;
 
         if (version.getMajor() >= 5) {
-            in = DocumentDeserializerFactory.createHead(docMan, GrowableByteBuffer.wrap(data));
+            VespaDocumentDeserializerHead head = new VespaDocumentDeserializerHead(docMan, GrowableByteBuffer.wrap(data));
+            head.setLazyStructFields(lazyStructFields);
+            in = head;
         } else {
             in = DocumentDeserializerFactory.create42(docMan, GrowableByteBuffer.wrap(data));
         }
@@ -74,6 +77,14 @@ final class RoutableRepository {
         return ret;
     }
 
+    /**
+     * Sets whether the struct field values of documents decoded by this are deserialized only when accessed.
+     * This only applies to version 5 and later.
+     */
+    void setLazyStructFields(boolean lazyStructFields) {
+        this.lazyStructFields = lazyStructFields;
+    }
+
     /**
      * Encodes a {@link Routable} into a byte array. This dispatches the encode request to the appropriate {@link
      * RoutableFactory} that was previously registered.
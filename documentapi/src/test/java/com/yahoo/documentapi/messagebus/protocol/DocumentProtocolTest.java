@@ -2,13 +2,21 @@
 package com.yahoo.documentapi.messagebus.protocol;
 
 import com.yahoo.component.Version;
+import com.yahoo.document.Document;
 import com.yahoo.document.DocumentId;
+import com.yahoo.document.DocumentPut;
 import com.yahoo.document.DocumentTypeManager;
 import com.yahoo.document.DocumentTypeManagerConfigurer;
+import com.yahoo.document.datatypes.IntegerFieldValue;
+import com.yahoo.document.datatypes.LongFieldValue;
+import com.yahoo.document.datatypes.StringFieldValue;
 import org.junit.Before;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 /**
  * @author <a href="mailto:simon@yahoo-inc.com">Simon Thoresen Hult</a>
@@ -33,4 +41,39 @@ public class DocumentProtocolTest {
         assertEquals(GetDocumentMessage.DEFAULT_FIELD_SET, next.getFieldSet());
     }
 
+    @Test
+    public void requireThatDecodedDocumentsOnlyDeserializeAccessedFields() {
+        DocumentProtocol protocol = new DocumentProtocol(manager);
+        Document doc = new Document(manager.getDocumentType("testdoc"), "doc:scheme:");
+        doc.setFieldValue("stringfield", new StringFieldValue("foo"));
+        doc.setFieldValue("longfield", new LongFieldValue(7));
+        doc.setFieldValue("intfield", new IntegerFieldValue(42));
+        byte[] buf = protocol.encode(new Version(5, 0), new PutDocumentMessage(new DocumentPut(doc)));
+
+        PutDocumentMessage msg = (PutDocumentMessage)protocol.decode(new Version(5, 0), buf);
+        Document decoded = msg.getDocumentPut().getDocument();
+        assertEquals(new StringFieldValue("foo"), decoded.getFieldValue("stringfield"));
+        assertTrue(decoded.getHeader().getLazyFieldValues().contains(decoded.getField("longfield")));
+        assertFalse(decoded.getHeader().getLazyFieldValues().contains(decoded.getField("stringfield")));
+        assertTrue(decoded.getBody().getLazyFieldValues().contains(decoded.getField("intfield")));
+
+        byte[] encodedAgain = protocol.encode(new Version(5, 0), msg);
+        assertEquals(buf.length, encodedAgain.length);
+        assertEquals(doc, ((PutDocumentMessage)protocol.decode(new Version(5, 0), encodedAgain)).getDocumentPut().getDocument());
+        assertEquals(doc, decoded);
+    }
+
+    @Test
+    public void requireThatLazyStructFieldsCanBeTurnedOff() {
+        DocumentProtocol protocol = new DocumentProtocol(manager).setLazyStructFields(false);
+        Document doc = new Document(manager.getDocumentType("testdoc"), "doc:scheme:");
+        doc.setFieldValue("stringfield", new StringFieldValue("foo"));
+        byte[] buf = protocol.encode(new Version(5, 0), new PutDocumentMessage(new DocumentPut(doc)));
+
+        PutDocumentMessage msg = (PutDocumentMessage)protocol.decode(new Version(5, 0), buf);
+        Document decoded = msg.getDocumentPut().getDocument();
+        assertNull(decoded.getHeader().getLazyFieldValues());
+        assertEquals(doc, decoded);
+    }
+
 }
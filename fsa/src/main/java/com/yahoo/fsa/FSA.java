@@ -1,9 +1,13 @@
 // Copyright 2017 Yahoo Holdings. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
 package com.yahoo.fsa;
 
+import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
 import java.net.URL;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
@@ -11,11 +15,16 @@ import java.nio.CharBuffer;
 import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel.MapMode;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
 
 
 /**
  * Finite-State Automaton.
+ * <p>
+ * The automaton is memory mapped from its file rather than read onto the heap, and is immutable,
+ * so a single instance may be used by any number of threads, each traversing it through its own {@link State}.
  *
  * @author  <a href="mailto:boros@yahoo-inc.com">Peter Boros</a>
  */
@@ -62,6 +71,10 @@ public class FSA {
         }
 
         public void delta(char chr){
+            if (fsa.isUtf8 && ! Character.isSurrogate(chr)) {
+                deltaCodePoint(chr);
+                return;
+            }
             CharBuffer chrbuf = CharBuffer.allocate(1);
             chrbuf.put(0,chr);
             ByteBuffer buf = fsa.encode(chrbuf);
@@ -72,12 +85,46 @@ public class FSA {
 
         /** Jumps ahead by string */
         public void delta(String string){
+            if (fsa.isUtf8) {
+                for (int i = 0; state > 0 && i < string.length(); ) {
+                    int codePoint = string.codePointAt(i);
+                    i += Character.charCount(codePoint);
+                    if (codePoint >= Character.MIN_SURROGATE && codePoint <= Character.MAX_SURROGATE)
+                        codePoint = '?'; // unpaired surrogate, replaced as by the charset encoder
+                    deltaCodePoint(codePoint);
+                }
+                return;
+            }
             ByteBuffer buf = fsa.encode(string);
             while(state >0 && buf.position()<buf.limit()){
                 delta(buf.get());
             }
         }
 
+        /** Jumps ahead by the UTF-8 encoding of the given code point, without allocating an encoding buffer */
+        private void deltaCodePoint(int codePoint) {
+            if (codePoint < 0x80) {
+                deltaIfValid(codePoint);
+            } else if (codePoint < 0x800) {
+                deltaIfValid(0xc0 | codePoint >> 6);
+                deltaIfValid(0x80 | codePoint & 0x3f);
+            } else if (codePoint < 0x10000) {
+                deltaIfValid(0xe0 | codePoint >> 12);
+                deltaIfValid(0x80 | codePoint >> 6 & 0x3f);
+                deltaIfValid(0x80 | codePoint & 0x3f);
+            } else {
+                deltaIfValid(0xf0 | codePoint >> 18);
+                deltaIfValid(0x80 | codePoint >> 12 & 0x3f);
+                deltaIfValid(0x80 | codePoint >> 6 & 0x3f);
+                deltaIfValid(0x80 | codePoint & 0x3f);
+            }
+        }
+
+        private void deltaIfValid(int symbol) {
+            if (state > 0)
+                delta((byte)symbol);
+        }
+
         /**
          * Jumps ahead by string if that puts us into a valid state, does nothing otherwise
          *
@@ -319,6 +366,70 @@ public class FSA {
     private MappedByteBuffer _data;
     private MappedByteBuffer _phash;
     private Charset _charset;
+    private boolean isUtf8;
+
+    /**
+     * The automata loaded by {@link #loadShared}, by canonical file path. The automata are weakly referenced,
+     * such that each is unmapped when no component uses it any more.
+     */
+    private static final ConcurrentHashMap<String, SharedFSA> shared = new ConcurrentHashMap<>();
+
+    /** The references of shared automata which are garbage collected, whose entries should be removed */
+    private static final ReferenceQueue<FSA> collectedShared = new ReferenceQueue<>();
+
+    /**
+     * Returns the FSA in the given file using utf-8 encoding, which is loaded the first time it is requested and
+     * shared by all later requests for the same file as long as it is in use, and until the file is modified.
+     * <p>
+     * This allows any number of components using the same automaton to share a single mapping of it.
+     *
+     * @throws IllegalArgumentException if the file is not found
+     */
+    public static FSA loadShared(String filename) {
+        File file = new File(filename);
+        if ( ! file.exists())
+            throw new IllegalArgumentException("Could not find FSA file '" + filename + "'");
+        String key;
+        try {
+            key = file.getCanonicalPath();
+        }
+        catch (IOException e) {
+            throw new IllegalArgumentException("Could not resolve FSA file '" + filename + "'", e);
+        }
+        long lastModified = file.lastModified();
+
+        removeCollectedShared();
+        FSA[] fsa = new FSA[1]; // strongly referenced until returned
+        shared.compute(key, (path, current) -> {
+            if (current != null && current.lastModified == lastModified)
+                fsa[0] = current.get();
+            if (fsa[0] != null) return current;
+
+            fsa[0] = new FSA(path);
+            return new SharedFSA(path, fsa[0], lastModified);
+        });
+        return fsa[0];
+    }
+
+    private static void removeCollectedShared() {
+        for (Reference<? extends FSA> collected; (collected = collectedShared.poll()) != null; ) {
+            SharedFSA entry = (SharedFSA)collected;
+            shared.remove(entry.path, entry);
+        }
+    }
+
+    private static class SharedFSA extends WeakReference<FSA> {
+
+        private final String path;
+        private final long lastModified;
+
+        SharedFSA(String path, FSA fsa, long lastModified) {
+            super(fsa, collectedShared);
+            this.path = path;
+            this.lastModified = lastModified;
+        }
+
+    }
 
     /**
      * Loads an FSA from a resource file name, which is resolved from the class path of the
@@ -371,17 +482,22 @@ public class FSA {
     }
 
     private void init(String filename, String charsetname){
-        try {
-            init(new FileInputStream(filename),charsetname);
+        // The mappings stay valid after the file is closed
+        try (FileInputStream file = new FileInputStream(filename)) {
+            init(file,charsetname);
         }
         catch (FileNotFoundException e) {
             throw new IllegalArgumentException("Could not find FSA file '" + filename + "'",e);
         }
+        catch (IOException e) {
+            throw new RuntimeException("IO error while closing FSA file",e);
+        }
     }
 
     private void init(FileInputStream file, String charsetname) {
         try {
             _charset = Charset.forName(charsetname);
+            isUtf8 = _charset.equals(StandardCharsets.UTF_8);
 
             _header = file.getChannel().map(MapMode.READ_ONLY,0,256);
             _header.order(ByteOrder.LITTLE_ENDIAN);
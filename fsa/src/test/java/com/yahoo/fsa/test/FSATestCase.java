@@ -97,4 +97,23 @@ public class FSATestCase extends junit.framework.TestCase {
 
     }
 
+    public void testSharedLoading() {
+        FSA shared = FSA.loadShared("src/test/fsa/test-fsa.fsa");
+        assertSame(shared, FSA.loadShared("src/test/fsa/../fsa/test-fsa.fsa"));
+        assertNotSame(shared, FSA.loadShared("src/test/fsa/test-data.fsa"));
+        FSA.State sharedState = shared.getState();
+        sharedState.delta("aword");
+        assertTrue(sharedState.isFinal());
+    }
+
+    public void testSharedLoadingOfMissingFile() {
+        try {
+            FSA.loadShared("src/test/fsa/no-such.fsa");
+            fail("Expected exception");
+        }
+        catch (IllegalArgumentException e) {
+            assertEquals("Could not find FSA file 'src/test/fsa/no-such.fsa'", e.getMessage());
+        }
+    }
+
 }
@@ -48,6 +48,18 @@ public class UTF8TestCase extends junit.framework.TestCase {
         assertTrue(state.isFinal());
     }
 
+    public void testStringDeltaInvalidWord() {
+        state.delta(prefix + "\uD800" + suffix); // unpaired surrogate
+        assertFalse(state.isValid());
+        state.start();
+        state.delta(prefix + "\uD83D\uDE00"); // supplementary code point
+        assertFalse(state.isValid());
+        state.start();
+        state.delta(prefix);
+        state.delta(suffix);
+        assertTrue(state.isFinal());
+    }
+
     public void testCharDelta() {
         assertEquals(6, word.length());
         for (int i = 0; i < word.length(); ++i) {
@@ -99,6 +99,13 @@ class ActiveContainerDeactivationWatchdog implements ActiveContainerMetrics, Aut
                 .count();
         metric.set(TOTAL_DEACTIVATED_CONTAINERS, snapshot.size(), null);
         metric.set(DEACTIVATED_CONTAINERS_WITH_RETAINED_REFERENCES, containersWithRetainedRefsCount, null);
+        ActiveContainer container;
+        synchronized (monitor) {
+            container = currentContainer;
+        }
+        if (container != null) {
+            container.timeoutManager().emitMetrics(metric);
+        }
     }
 
     @Override
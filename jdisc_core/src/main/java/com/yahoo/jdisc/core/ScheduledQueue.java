@@ -5,6 +5,12 @@ import java.util.Objects;
 import java.util.Queue;
 
 /**
+ * A timing wheel of {@link #NUM_SLOTS} slots of {@link #MILLIS_PER_SLOT} milliseconds each. Entries which expire
+ * more than one revolution of the wheel ahead are kept in a second wheel with one slot per revolution, and are moved
+ * into the first wheel at the start of the revolution they expire in. This way, draining a slot only visits the
+ * entries which expire in it, regardless of how many long timeouts are scheduled. Both scheduling and unscheduling an
+ * entry are constant time operations.
+ *
  * @author <a href="mailto:havardpe@yahoo-inc.com">Haavard Pettersen</a>
  * @author <a href="mailto:simon@yahoo-inc.com">Simon Thoresen Hult</a>
  */
@@ -16,8 +22,13 @@ class ScheduledQueue {
     public static final int SLOT_MASK = 511; // bitmask to modulo NUM_SLOTS
     public static final int ITER_SHIFT = 9; // number of bits to shift off SLOT_MASK
 
-    private final Entry[] slots = new Entry[NUM_SLOTS + 1];
-    private final int[] counts = new int[NUM_SLOTS + 1];
+    private static final int EXPIRED_SLOT = NUM_SLOTS;
+    private static final int FIRST_ITER_SLOT = NUM_SLOTS + 1;
+
+    // the slots of the wheel, the slot of already expired entries, and the slots of the wheel of revolutions
+    private final Entry[] slots = new Entry[NUM_SLOTS + 1 + NUM_SLOTS];
+    private final int[] counts = new int[NUM_SLOTS + 1 + NUM_SLOTS];
+    private volatile int size = 0;
     private int currIter = 0;
     private int currSlot = 0;
     private long nextTick;
@@ -31,16 +42,22 @@ class ScheduledQueue {
         return new Entry(payload);
     }
 
+    /** Returns the number of entries currently scheduled in this */
+    public int size() {
+        return size;
+    }
+
     public synchronized void drainTo(long currentTimeMillis, Queue<Object> out) {
-        if (slots[NUM_SLOTS] == null && currentTimeMillis < nextTick) {
+        if (slots[EXPIRED_SLOT] == null && currentTimeMillis < nextTick) {
             return;
         }
-        drainTo(NUM_SLOTS, 0, out);
+        drainTo(EXPIRED_SLOT, 0, out);
         for (int i = 0; currentTimeMillis >= nextTick; i++, nextTick += MILLIS_PER_SLOT) {
             if (i < NUM_SLOTS_UNDILATED) {
                 if (++currSlot >= NUM_SLOTS) {
                     currSlot = 0;
                     currIter++;
+                    cascade(currIter);
                 }
                 drainTo(currSlot, currIter, out);
             }
@@ -60,18 +77,37 @@ class ScheduledQueue {
         }
     }
 
+    /** Moves the entries expiring in the given revolution from the wheel of revolutions into the wheel of slots */
+    private void cascade(int iter) {
+        int iterSlot = FIRST_ITER_SLOT + (iter & SLOT_MASK);
+        int cnt = counts[iterSlot];
+        Entry entry = slots[iterSlot];
+        for (int i = 0; i < cnt; i++) {
+            Entry next = entry.next;
+            if (entry.iter == iter) {
+                linkOut(entry);
+                entry.bucket = entry.slot;
+                linkIn(entry);
+            }
+            entry = next;
+        }
+    }
+
     private synchronized void scheduleAt(Entry entry, long expireAtMillis) {
         if (entry.next != null) {
             linkOut(entry);
         }
         long delayMillis = expireAtMillis - nextTick;
         if (delayMillis < 0) {
-            entry.slot = NUM_SLOTS;
+            entry.slot = EXPIRED_SLOT;
             entry.iter = 0;
+            entry.bucket = EXPIRED_SLOT;
         } else {
             long ticks = 1 + (int)((delayMillis + MILLIS_PER_SLOT / 2) / MILLIS_PER_SLOT);
             entry.slot = (int)((ticks + currSlot) & SLOT_MASK);
             entry.iter = currIter + (int)((ticks + currSlot) >> ITER_SHIFT);
+            // the current slot is already drained, so an entry a full revolution ahead is drained at its next visit
+            entry.bucket = ticks <= NUM_SLOTS ? entry.slot : FIRST_ITER_SLOT + (entry.iter & SLOT_MASK);
         }
         linkIn(entry);
     }
@@ -83,34 +119,36 @@ class ScheduledQueue {
     }
 
     private void linkIn(Entry entry) {
-        Entry head = slots[entry.slot];
+        Entry head = slots[entry.bucket];
         if (head == null) {
             entry.next = entry;
             entry.prev = entry;
-            slots[entry.slot] = entry;
+            slots[entry.bucket] = entry;
         } else {
             entry.next = head;
             entry.prev = head.prev;
             head.prev.next = entry;
             head.prev = entry;
         }
-        ++counts[entry.slot];
+        ++counts[entry.bucket];
+        ++size;
     }
 
     private void linkOut(Entry entry) {
-        Entry head = slots[entry.slot];
+        Entry head = slots[entry.bucket];
         if (entry.next == entry) {
-            slots[entry.slot] = null;
+            slots[entry.bucket] = null;
         } else {
             entry.prev.next = entry.next;
             entry.next.prev = entry.prev;
             if (head == entry) {
-                slots[entry.slot] = entry.next;
+                slots[entry.bucket] = entry.next;
             }
         }
         entry.next = null;
         entry.prev = null;
-        --counts[entry.slot];
+        --counts[entry.bucket];
+        --size;
     }
 
     public class Entry {
@@ -118,6 +156,7 @@ class ScheduledQueue {
         private final Object payload;
         private int slot;
         private int iter;
+        private int bucket; // the index in slots of the list this is linked into
         private Entry next;
         private Entry prev;
 
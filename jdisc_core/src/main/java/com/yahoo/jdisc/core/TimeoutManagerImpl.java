@@ -2,6 +2,7 @@
 package com.yahoo.jdisc.core;
 
 import com.google.inject.Inject;
+import com.yahoo.jdisc.Metric;
 import com.yahoo.jdisc.Request;
 import com.yahoo.jdisc.ResourceReference;
 import com.yahoo.jdisc.Response;
@@ -11,6 +12,7 @@ import com.yahoo.jdisc.handler.CompletionHandler;
 import com.yahoo.jdisc.handler.ContentChannel;
 import com.yahoo.jdisc.handler.RequestHandler;
 import com.yahoo.jdisc.handler.ResponseHandler;
+import com.yahoo.jdisc.statistics.ActiveContainerMetrics;
 
 import java.nio.ByteBuffer;
 import java.util.LinkedList;
@@ -30,7 +32,6 @@ public class TimeoutManagerImpl {
     private final ScheduledQueue schedules[] = new ScheduledQueue[Runtime.getRuntime().availableProcessors()];
     private final Thread thread;
     private final Timer timer;
-    private volatile int nextScheduler = 0;
     private volatile int queueSize = 0;
     private volatile boolean done = false;
 
@@ -62,6 +63,29 @@ public class TimeoutManagerImpl {
         return queueSize; // unstable snapshot, only for test purposes
     }
 
+    /**
+     * Reports the number of requests currently waiting to time out, in total and in the deepest timeout queue. A
+     * deepest queue far above the average means that a few threads schedule most of the timeouts.
+     *
+     * @param metric The metric to report to.
+     */
+    void emitMetrics(Metric metric) {
+        int total = 0;
+        int max = 0;
+        for (ScheduledQueue schedule : schedules) {
+            int depth = schedule.size();
+            total += depth;
+            max = Math.max(max, depth);
+        }
+        metric.set(ActiveContainerMetrics.TIMEOUT_QUEUE_DEPTH, total, null);
+        metric.set(ActiveContainerMetrics.TIMEOUT_QUEUE_MAX_DEPTH, max, null);
+    }
+
+    // Each thread schedules into the same queue, so threads rarely contend for the lock of a queue
+    private ScheduledQueue scheduleOfCurrentThread() {
+        return schedules[(int)(Thread.currentThread().getId() % schedules.length)];
+    }
+
     Timer timer() {
         return timer;
     }
@@ -174,7 +198,7 @@ public class TimeoutManagerImpl {
                 return;
             }
             if (timeoutQueueEntry == null) {
-                timeoutQueueEntry = schedules[(++nextScheduler & 0xffff) % schedules.length].newEntry(this);
+                timeoutQueueEntry = scheduleOfCurrentThread().newEntry(this);
             }
             timeoutQueueEntry.scheduleAt(request.creationTime(TimeUnit.MILLISECONDS) + request.getTimeout(TimeUnit.MILLISECONDS));
             ++queueSize;
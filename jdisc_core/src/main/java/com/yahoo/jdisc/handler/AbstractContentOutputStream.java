@@ -11,12 +11,38 @@ import java.util.Objects;
 abstract class AbstractContentOutputStream extends OutputStream {
 
     public static final int BUFFERSIZE = 4096;
+    private final ContentBufferPool pool;
+    private ContentBufferPool.PooledBuffer currentPooled;
     private ByteBuffer current;
 
+    protected AbstractContentOutputStream() {
+        this.pool = null;
+    }
+
+    /**
+     * <p>Creates a stream which takes its buffers from the given pool, and flushes them through {@link
+     * #doFlush(ContentBufferPool.PooledBuffer)}.</p>
+     *
+     * @param pool The pool to take buffers from.
+     */
+    protected AbstractContentOutputStream(ContentBufferPool pool) {
+        Objects.requireNonNull(pool, "pool");
+        this.pool = pool;
+    }
+
+    private void allocate(int minCapacity) {
+        if (pool != null) {
+            currentPooled = pool.acquire();
+            current = currentPooled.buffer();
+        } else {
+            current = ByteBuffer.allocate(minCapacity);
+        }
+    }
+
     @Override
     public final void write(int b) {
         if (current == null) {
-            current = ByteBuffer.allocate(BUFFERSIZE);
+            allocate(BUFFERSIZE);
         }
         current.put((byte)b);
         if (current.remaining() == 0) {
@@ -27,16 +53,20 @@ abstract class AbstractContentOutputStream extends OutputStream {
     @Override
     public final void write(byte[] buf, int offset, int length) {
         Objects.requireNonNull(buf, "buf");
-        if (current == null) {
-            current = ByteBuffer.allocate(BUFFERSIZE + length);
-        }
-        int part = Math.min(length, current.remaining());
-        current.put(buf, offset, part);
-        if (current.remaining() == 0) {
-            flush();
-        }
-        if (part < length) {
-            write(buf, offset + part, length - part);
+        while (true) {
+            if (current == null) {
+                allocate(BUFFERSIZE + length);
+            }
+            int part = Math.min(length, current.remaining());
+            current.put(buf, offset, part);
+            if (current.remaining() == 0) {
+                flush();
+            }
+            if (part == length) {
+                return;
+            }
+            offset += part;
+            length -= part;
         }
     }
 
@@ -53,16 +83,40 @@ abstract class AbstractContentOutputStream extends OutputStream {
         ByteBuffer buf = current;
         current = null;
         buf.flip();
-        doFlush(buf);
+        if (currentPooled == null) {
+            doFlush(buf);
+            return;
+        }
+        ContentBufferPool.PooledBuffer pooled = currentPooled;
+        currentPooled = null;
+        try {
+            doFlush(pooled);
+        } finally {
+            pooled.release();
+        }
     }
 
     @Override
     public final void close() {
         flush();
+        if (currentPooled != null) { // empty, so not flushed
+            currentPooled.release();
+            currentPooled = null;
+            current = null;
+        }
         doClose();
     }
 
     protected abstract void doFlush(ByteBuffer buf);
 
+    /**
+     * <p>Flushes a buffer taken from the pool given to the constructor. The buffer returns to the pool once this
+     * returns, unless this takes a reference to it, e.g., by calling {@link
+     * ContentBufferPool.PooledBuffer#writeTo(ContentChannel, CompletionHandler)}.</p>
+     *
+     * @param buf The buffer to flush.
+     */
+    protected abstract void doFlush(ContentBufferPool.PooledBuffer buf);
+
     protected abstract void doClose();
 }
@@ -0,0 +1,228 @@
+// Copyright 2017 Yahoo Holdings. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.jdisc.handler;
+
+import com.yahoo.jdisc.AbstractResource;
+import com.yahoo.jdisc.ResourceReference;
+
+import java.nio.ByteBuffer;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>This class implements a thread-safe pool of equally sized {@link ByteBuffer}s for writing content to a {@link
+ * ContentChannel}. Each buffer is handed out as a reference counted {@link PooledBuffer}, and returns to this pool once
+ * all of its references are released. A buffer that is written to a ContentChannel using {@link
+ * PooledBuffer#writeTo(ContentChannel, CompletionHandler)} is referenced until the {@link CompletionHandler} of that
+ * write is called.</p>
+ *
+ * <p>Only use pooled buffers with ContentChannels that are done with the buffer once they call the CompletionHandler
+ * of a write, such as the ones of network connections. A {@link ReadableContentChannel}, for instance, completes a
+ * write when the buffer is read, but the reader may still be using it after that.</p>
+ *
+ * @author agent
+ */
+public final class ContentBufferPool {
+
+    private final Queue<ByteBuffer> buffers = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger numPooled = new AtomicInteger();
+    private final AtomicLong numAcquired = new AtomicLong();
+    private final AtomicLong numAllocated = new AtomicLong();
+    private final AtomicLong numRecycled = new AtomicLong();
+    private final AtomicLong numDiscarded = new AtomicLong();
+    private final int bufferSize;
+    private final int maxPooled;
+
+    /**
+     * <p>Creates a new ContentBufferPool.</p>
+     *
+     * @param bufferSize The capacity of the buffers of this pool.
+     * @param maxPooled  The maximum number of unused buffers to keep in this pool.
+     * @throws IllegalArgumentException If <em>bufferSize</em> is not positive, or <em>maxPooled</em> is negative.
+     */
+    public ContentBufferPool(int bufferSize, int maxPooled) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("Expected positive buffer size, got " + bufferSize + ".");
+        }
+        if (maxPooled < 0) {
+            throw new IllegalArgumentException("Expected non-negative pool size, got " + maxPooled + ".");
+        }
+        this.bufferSize = bufferSize;
+        this.maxPooled = maxPooled;
+    }
+
+    /**
+     * <p>Returns an empty buffer from this pool, or a newly allocated one if the pool is empty. The caller holds the
+     * initial reference of the returned buffer, and must {@link PooledBuffer#release() release} it when done.</p>
+     *
+     * @return The acquired buffer.
+     */
+    public PooledBuffer acquire() {
+        numAcquired.incrementAndGet();
+        ByteBuffer buf = buffers.poll();
+        if (buf != null) {
+            numPooled.decrementAndGet();
+        } else {
+            numAllocated.incrementAndGet();
+            buf = ByteBuffer.allocate(bufferSize);
+        }
+        return new PooledBuffer(buf);
+    }
+
+    private void recycle(ByteBuffer buf) {
+        if (numPooled.incrementAndGet() <= maxPooled) {
+            buf.clear();
+            buffers.offer(buf);
+            numRecycled.incrementAndGet();
+        } else {
+            numPooled.decrementAndGet();
+            numDiscarded.incrementAndGet();
+        }
+    }
+
+    /**
+     * <p>Returns the capacity of the buffers of this pool.</p>
+     *
+     * @return The buffer size.
+     */
+    public int bufferSize() {
+        return bufferSize;
+    }
+
+    /**
+     * <p>Returns the number of unused buffers currently in this pool.</p>
+     *
+     * @return The number of pooled buffers.
+     */
+    public int pooledCount() {
+        return numPooled.get();
+    }
+
+    /**
+     * <p>Returns the number of buffers acquired from this pool, whether they were reused or allocated.</p>
+     *
+     * @return The number of acquired buffers.
+     */
+    public long acquiredCount() {
+        return numAcquired.get();
+    }
+
+    /**
+     * <p>Returns the number of buffers this pool has allocated because it was empty. The difference between this and
+     * {@link #acquiredCount()} is the number of allocations saved by this pool.</p>
+     *
+     * @return The number of allocated buffers.
+     */
+    public long allocatedCount() {
+        return numAllocated.get();
+    }
+
+    /**
+     * <p>Returns the number of released buffers that were returned to this pool.</p>
+     *
+     * @return The number of recycled buffers.
+     */
+    public long recycledCount() {
+        return numRecycled.get();
+    }
+
+    /**
+     * <p>Returns the number of released buffers that were left to the garbage collector because this pool was
+     * full.</p>
+     *
+     * @return The number of discarded buffers.
+     */
+    public long discardedCount() {
+        return numDiscarded.get();
+    }
+
+    /**
+     * <p>Returns the number of acquired buffers that are not yet released. This is a snapshot of the counters, and is
+     * only exact when no buffers are acquired or released concurrently.</p>
+     *
+     * @return The number of buffers in use.
+     */
+    public long inUseCount() {
+        return numAcquired.get() - numRecycled.get() - numDiscarded.get();
+    }
+
+    /**
+     * <p>This is a reference counted buffer of a {@link ContentBufferPool}. The buffer returns to its pool once all
+     * references are released, after which it must no longer be used.</p>
+     */
+    public final class PooledBuffer extends AbstractResource {
+
+        private final ByteBuffer buf;
+
+        private PooledBuffer(ByteBuffer buf) {
+            this.buf = buf;
+        }
+
+        /**
+         * <p>Returns the underlying ByteBuffer. This must not be used once all references to this are released.</p>
+         *
+         * @return The ByteBuffer of this.
+         */
+        public ByteBuffer buffer() {
+            return buf;
+        }
+
+        /**
+         * <p>Writes the underlying ByteBuffer to the given {@link ContentChannel}, holding a reference to this until
+         * the given {@link CompletionHandler} is called. The caller must still release its own reference.</p>
+         *
+         * @param out     The ContentChannel to write to.
+         * @param handler The CompletionHandler to call after the write has been executed, or null.
+         */
+        public void writeTo(ContentChannel out, CompletionHandler handler) {
+            Objects.requireNonNull(out, "out");
+            ResourceReference ref = refer();
+            try {
+                out.write(buf, new ReleasingCompletionHandler(ref, handler));
+            } catch (Throwable t) {
+                ref.close();
+                throw t;
+            }
+        }
+
+        @Override
+        protected void destroy() {
+            recycle(buf);
+        }
+    }
+
+    private static class ReleasingCompletionHandler implements CompletionHandler {
+
+        final ResourceReference ref;
+        final CompletionHandler delegate;
+
+        ReleasingCompletionHandler(ResourceReference ref, CompletionHandler delegate) {
+            this.ref = ref;
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void completed() {
+            try {
+                if (delegate != null) {
+                    delegate.completed();
+                }
+            } finally {
+                ref.close();
+            }
+        }
+
+        @Override
+        public void failed(Throwable t) {
+            try {
+                if (delegate != null) {
+                    delegate.failed(t);
+                }
+            } finally {
+                ref.close();
+            }
+        }
+    }
+}
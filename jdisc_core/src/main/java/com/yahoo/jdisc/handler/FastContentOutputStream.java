@@ -33,6 +33,30 @@ public class FastContentOutputStream extends AbstractContentOutputStream impleme
         this(new FastContentWriter(out));
     }
 
+    /**
+     * <p>Constructs a new FastContentOutputStream that writes into the given {@link ContentChannel}, using buffers
+     * from the given {@link ContentBufferPool}. See that class for which ContentChannels this is safe for.</p>
+     *
+     * @param out  The ContentChannel to write the stream into.
+     * @param pool The pool to take buffers from.
+     */
+    public FastContentOutputStream(ContentChannel out, ContentBufferPool pool) {
+        this(new FastContentWriter(out), pool);
+    }
+
+    /**
+     * <p>Constructs a new FastContentOutputStream that writes into the given {@link FastContentWriter}, using buffers
+     * from the given {@link ContentBufferPool}.</p>
+     *
+     * @param out  The ContentWriter to write the stream into.
+     * @param pool The pool to take buffers from.
+     */
+    public FastContentOutputStream(FastContentWriter out, ContentBufferPool pool) {
+        super(pool);
+        Objects.requireNonNull(out, "out");
+        this.out = out;
+    }
+
     /**
      * <p>Constructs a new FastContentOutputStream that writes into the given {@link FastContentWriter}.</p>
      *
@@ -48,6 +72,11 @@ public class FastContentOutputStream extends AbstractContentOutputStream impleme
         out.write(buf);
     }
 
+    @Override
+    protected void doFlush(ContentBufferPool.PooledBuffer buf) {
+        out.write(buf);
+    }
+
     @Override
     protected void doClose() {
         out.close();
@@ -92,6 +92,23 @@ public class FastContentWriter implements ListenableFuture<Boolean>, AutoCloseab
         }
     }
 
+    /**
+     * <p>Writes a pooled buffer to the underlying {@link ContentChannel}, holding a reference to it until the write is
+     * completed. If {@link CompletionHandler#failed(Throwable)} is called, either of the get() methods will rethrow
+     * that Throwable.</p>
+     *
+     * @param buf The pooled buffer to write.
+     */
+    public void write(ContentBufferPool.PooledBuffer buf) {
+        numPendingCompletions.incrementAndGet();
+        try {
+            buf.writeTo(out, completionHandler);
+        } catch (Throwable t) {
+            future.setException(t);
+            throw t;
+        }
+    }
+
     /**
      * <p>Closes the underlying {@link ContentChannel}. If {@link CompletionHandler#failed(Throwable)} is called,
      * either of the get() methods will rethrow that Throwable.</p>
@@ -5,13 +5,15 @@ import com.yahoo.jdisc.Metric;
 import com.yahoo.jdisc.core.ActiveContainer;
 
 /**
- * Tracks statistics on stale {@link ActiveContainer} instances.
+ * Tracks statistics on stale {@link ActiveContainer} instances, and on the timeouts scheduled by the current one.
  *
  * @author bjorncs
  */
 public interface ActiveContainerMetrics {
     String TOTAL_DEACTIVATED_CONTAINERS = "jdisc.deactivated_containers.total";
     String DEACTIVATED_CONTAINERS_WITH_RETAINED_REFERENCES = "jdisc.deactivated_containers.with_retained_refs";
+    String TIMEOUT_QUEUE_DEPTH = "jdisc.timeout_queue.depth";
+    String TIMEOUT_QUEUE_MAX_DEPTH = "jdisc.timeout_queue.max_depth";
 
     void emitMetrics(Metric metric);
 }
@@ -111,6 +111,9 @@ public class ActiveContainerDeactivationWatchdogTest {
                 case ActiveContainerMetrics.DEACTIVATED_CONTAINERS_WITH_RETAINED_REFERENCES:
                     withRetainedReferencesCount = val.intValue();
                     break;
+                case ActiveContainerMetrics.TIMEOUT_QUEUE_DEPTH:
+                case ActiveContainerMetrics.TIMEOUT_QUEUE_MAX_DEPTH:
+                    break;
                 default:
                     throw new UnsupportedOperationException();
             }
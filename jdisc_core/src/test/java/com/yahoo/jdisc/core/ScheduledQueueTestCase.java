@@ -134,6 +134,67 @@ public class ScheduledQueueTestCase {
         assertEquals(1, expired.size());
     }
 
+    @Test
+    public void requireThatEntriesSeveralRevolutionsAheadExpireOnTime() {
+        ScheduledQueue queue = new ScheduledQueue(0);
+        long revolution = NUM_SLOTS * MILLIS_PER_SLOT;
+        Object foo = scheduleAt(queue, 3 * revolution + 200);
+        Object bar = scheduleAt(queue, revolution + 50);
+        Object baz = scheduleAt(queue, 2 * revolution);
+
+        long now = 0;
+        for (; now < revolution; now += MILLIS_PER_SLOT) {
+            assertDrainTo(queue, now);
+        }
+        assertDrainTo(queue, now += MILLIS_PER_SLOT, bar);
+        for (now += MILLIS_PER_SLOT; now < 2 * revolution; now += MILLIS_PER_SLOT) {
+            assertDrainTo(queue, now);
+        }
+        assertDrainTo(queue, now += MILLIS_PER_SLOT, baz);
+        for (now += MILLIS_PER_SLOT; now < 3 * revolution + 200; now += MILLIS_PER_SLOT) {
+            assertDrainTo(queue, now);
+        }
+        assertDrainTo(queue, now += MILLIS_PER_SLOT, foo);
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    public void requireThatEntriesSeveralRevolutionsAheadCanBeRescheduledAndUnscheduled() {
+        ScheduledQueue queue = new ScheduledQueue(0);
+        long revolution = NUM_SLOTS * MILLIS_PER_SLOT;
+        Object foo = new Object();
+        ScheduledQueue.Entry fooEntry = queue.newEntry(foo);
+        fooEntry.scheduleAt(2 * revolution);
+        ScheduledQueue.Entry barEntry = queue.newEntry(new Object());
+        barEntry.scheduleAt(2 * revolution);
+        assertEquals(2, queue.size());
+
+        barEntry.unschedule();
+        fooEntry.scheduleAt(200);
+        assertEquals(1, queue.size());
+
+        assertDrainTo(queue, 250, foo);
+        assertEquals(0, queue.size());
+        for (long now = 300; now < 3 * revolution; now += MILLIS_PER_SLOT) {
+            assertDrainTo(queue, now);
+        }
+    }
+
+    @Test
+    public void requireThatSizeCountsScheduledEntries() {
+        ScheduledQueue queue = new ScheduledQueue(0);
+        assertEquals(0, queue.size());
+        ScheduledQueue.Entry entry = queue.newEntry(new Object());
+        entry.scheduleAt(100);
+        assertEquals(1, queue.size());
+        entry.scheduleAt(200);
+        assertEquals(1, queue.size());
+        entry.unschedule();
+        assertEquals(0, queue.size());
+        entry.unschedule();
+        assertEquals(0, queue.size());
+    }
+
     private static Object scheduleAt(ScheduledQueue queue, long expireAtMillis) {
         Object obj = new Object();
         queue.newEntry(obj).scheduleAt(expireAtMillis);
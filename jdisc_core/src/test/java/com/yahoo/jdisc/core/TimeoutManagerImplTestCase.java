@@ -5,6 +5,7 @@ import com.google.inject.Binder;
 import com.google.inject.Module;
 import com.yahoo.jdisc.AbstractResource;
 import com.yahoo.jdisc.Container;
+import com.yahoo.jdisc.Metric;
 import com.yahoo.jdisc.Request;
 import com.yahoo.jdisc.Response;
 import com.yahoo.jdisc.TimeoutManager;
@@ -17,12 +18,15 @@ import com.yahoo.jdisc.handler.RequestDispatch;
 import com.yahoo.jdisc.handler.RequestHandler;
 import com.yahoo.jdisc.handler.ResponseHandler;
 import com.yahoo.jdisc.service.CurrentContainer;
+import com.yahoo.jdisc.statistics.ActiveContainerMetrics;
 import com.yahoo.jdisc.test.NonWorkingRequest;
 import com.yahoo.jdisc.test.TestDriver;
 import org.junit.Test;
 
 import java.net.URI;
 import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
@@ -260,6 +264,28 @@ public class TimeoutManagerImplTestCase {
         assertTrue(ctx.close());
     }
 
+    @Test
+    public void requireThatScheduledTimeoutsAreReportedAsQueueDepth() {
+        Context ctx = new Context(MyRequestHandler.newInstance());
+        MyMetric metric = new MyMetric();
+        ctx.timeoutManager.emitMetrics(metric);
+        assertEquals(Integer.valueOf(0), metric.values.get(ActiveContainerMetrics.TIMEOUT_QUEUE_DEPTH));
+        assertEquals(Integer.valueOf(0), metric.values.get(ActiveContainerMetrics.TIMEOUT_QUEUE_MAX_DEPTH));
+
+        ctx.dispatchRequest(69L, MyResponseHandler.newInstance());
+        assertTrue(ctx.awaitQueueSize(1, 600, TimeUnit.SECONDS));
+        ctx.timeoutManager.emitMetrics(metric);
+        assertEquals(Integer.valueOf(1), metric.values.get(ActiveContainerMetrics.TIMEOUT_QUEUE_DEPTH));
+        assertEquals(Integer.valueOf(1), metric.values.get(ActiveContainerMetrics.TIMEOUT_QUEUE_MAX_DEPTH));
+
+        ctx.requestHandler.respond();
+        assertTrue(ctx.awaitQueueSize(0, 600, TimeUnit.SECONDS));
+        ctx.timeoutManager.emitMetrics(metric);
+        assertEquals(Integer.valueOf(0), metric.values.get(ActiveContainerMetrics.TIMEOUT_QUEUE_DEPTH));
+        assertEquals(Integer.valueOf(0), metric.values.get(ActiveContainerMetrics.TIMEOUT_QUEUE_MAX_DEPTH));
+        assertTrue(ctx.close());
+    }
+
     @Test
     public void requireThatNoEntryIsMadeIfTimeoutIsNull() {
         Context ctx = new Context(MyRequestHandler.newInstance());
@@ -380,6 +406,26 @@ public class TimeoutManagerImplTestCase {
         }
     }
 
+    private static class MyMetric implements Metric {
+
+        final Map<String, Number> values = new HashMap<>();
+
+        @Override
+        public void set(String key, Number val, Metric.Context ctx) {
+            values.put(key, val);
+        }
+
+        @Override
+        public void add(String key, Number val, Metric.Context ctx) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Metric.Context createContext(Map<String, ?> properties) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
     private static class MyServerProvider {
 
         final Long timeout;
@@ -115,6 +115,11 @@ public class AbstractContentOutputStreamTestCase {
             }
         }
 
+        @Override
+        protected void doFlush(ContentBufferPool.PooledBuffer buf) {
+            doFlush(buf.buffer());
+        }
+
         @Override
         protected void doClose() {
             closed = true;
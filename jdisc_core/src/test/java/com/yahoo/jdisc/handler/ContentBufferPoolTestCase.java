@@ -0,0 +1,191 @@
+// Copyright 2017 Yahoo Holdings. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.jdisc.handler;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author agent
+ */
+public class ContentBufferPoolTestCase {
+
+    @Test
+    public void requireThatIllegalConstructorArgumentsThrow() {
+        try {
+            new ContentBufferPool(0, 1);
+            fail();
+        } catch (IllegalArgumentException e) {
+
+        }
+        try {
+            new ContentBufferPool(1, -1);
+            fail();
+        } catch (IllegalArgumentException e) {
+
+        }
+    }
+
+    @Test
+    public void requireThatReleasedBuffersAreReused() {
+        ContentBufferPool pool = new ContentBufferPool(69, 1);
+        ContentBufferPool.PooledBuffer foo = pool.acquire();
+        assertEquals(69, foo.buffer().capacity());
+        ByteBuffer buf = foo.buffer();
+        buf.put((byte)6);
+        foo.release();
+        assertEquals(1, pool.pooledCount());
+
+        ContentBufferPool.PooledBuffer bar = pool.acquire();
+        assertSame(buf, bar.buffer());
+        assertEquals(0, bar.buffer().position());
+        assertEquals(0, pool.pooledCount());
+        assertEquals(2, pool.acquiredCount());
+        assertEquals(1, pool.allocatedCount());
+        assertEquals(1, pool.inUseCount());
+    }
+
+    @Test
+    public void requireThatBuffersAreDiscardedWhenPoolIsFull() {
+        ContentBufferPool pool = new ContentBufferPool(69, 1);
+        ContentBufferPool.PooledBuffer foo = pool.acquire();
+        ContentBufferPool.PooledBuffer bar = pool.acquire();
+        assertNotSame(foo.buffer(), bar.buffer());
+        foo.release();
+        bar.release();
+        assertEquals(1, pool.pooledCount());
+        assertEquals(1, pool.recycledCount());
+        assertEquals(1, pool.discardedCount());
+        assertEquals(0, pool.inUseCount());
+    }
+
+    @Test
+    public void requireThatWrittenBufferIsReleasedOnCompletion() {
+        ContentBufferPool pool = new ContentBufferPool(69, 1);
+        MyContent content = new MyContent();
+        MyCompletion completion = new MyCompletion();
+        ContentBufferPool.PooledBuffer buf = pool.acquire();
+        buf.writeTo(content, completion);
+        buf.release();
+        assertSame(buf.buffer(), content.writes.get(0));
+        assertEquals(1, pool.inUseCount());
+
+        content.handlers.get(0).completed();
+        assertTrue(completion.completed);
+        assertEquals(0, pool.inUseCount());
+        assertEquals(1, pool.pooledCount());
+    }
+
+    @Test
+    public void requireThatWrittenBufferIsReleasedOnFailure() {
+        ContentBufferPool pool = new ContentBufferPool(69, 1);
+        MyContent content = new MyContent();
+        ContentBufferPool.PooledBuffer buf = pool.acquire();
+        buf.writeTo(content, null);
+        buf.release();
+        assertEquals(1, pool.inUseCount());
+
+        content.handlers.get(0).failed(new Throwable());
+        assertEquals(0, pool.inUseCount());
+    }
+
+    @Test
+    public void requireThatWrittenBufferIsReleasedIfWriteThrows() {
+        ContentBufferPool pool = new ContentBufferPool(69, 1);
+        ContentBufferPool.PooledBuffer buf = pool.acquire();
+        try {
+            buf.writeTo(new ContentChannel() {
+
+                @Override
+                public void write(ByteBuffer buf, CompletionHandler handler) {
+                    throw new IllegalStateException();
+                }
+
+                @Override
+                public void close(CompletionHandler handler) {
+
+                }
+            }, null);
+            fail();
+        } catch (IllegalStateException e) {
+
+        }
+        buf.release();
+        assertEquals(0, pool.inUseCount());
+    }
+
+    @Test
+    public void requireThatStreamWritesPooledBuffers() throws Exception {
+        ContentBufferPool pool = new ContentBufferPool(4, 8);
+        MyContent content = new MyContent();
+        FastContentOutputStream out = new FastContentOutputStream(content, pool);
+        out.write(new byte[] { 1, 2, 3, 4, 5, 6, 7, 8, 9 });
+        out.close();
+
+        assertEquals(3, content.writes.size());
+        assertEquals(4, content.writes.get(0).remaining());
+        assertEquals(4, content.writes.get(1).remaining());
+        assertEquals(1, content.writes.get(2).remaining());
+        assertEquals(9, content.writes.get(2).get(0));
+        assertEquals(3, pool.inUseCount());
+
+        for (CompletionHandler handler : content.handlers) {
+            handler.completed();
+        }
+        assertTrue(out.isDone());
+        assertEquals(0, pool.inUseCount());
+        assertEquals(3, pool.pooledCount());
+    }
+
+    @Test
+    public void requireThatUnusedStreamBufferIsReleasedOnClose() {
+        ContentBufferPool pool = new ContentBufferPool(4, 8);
+        MyContent content = new MyContent();
+        FastContentOutputStream out = new FastContentOutputStream(content, pool);
+        out.write(new byte[] { 1, 2, 3, 4 });
+        out.write(new byte[0]);
+        out.close();
+        content.handlers.get(0).completed();
+        assertEquals(0, pool.inUseCount());
+    }
+
+    private static class MyContent implements ContentChannel {
+
+        final List<ByteBuffer> writes = new ArrayList<>();
+        final List<CompletionHandler> handlers = new ArrayList<>();
+
+        @Override
+        public void write(ByteBuffer buf, CompletionHandler handler) {
+            writes.add(buf);
+            handlers.add(handler);
+        }
+
+        @Override
+        public void close(CompletionHandler handler) {
+            handler.completed();
+        }
+    }
+
+    private static class MyCompletion implements CompletionHandler {
+
+        boolean completed = false;
+
+        @Override
+        public void completed() {
+            completed = true;
+        }
+
+        @Override
+        public void failed(Throwable t) {
+
+        }
+    }
+}
@@ -60,6 +60,11 @@ public class ServletOutputStreamWriter {
     @GuardedBy("monitor")
     private final Deque<ResponseContentPart> responseContentQueue = new ArrayDeque<>();
 
+    // The output stream may keep using the array of the last buffer written until isReady returns true again,
+    // so the completion handler of that buffer is not called before then.
+    @GuardedBy("monitor")
+    private CompletionHandler lastWriteHandler = null;
+
     private final MetricReporter metricReporter;
 
     /**
@@ -135,7 +140,8 @@ public class ServletOutputStreamWriter {
         boolean lastOperationWasFlush = false;
 
         while (true) {
-            ResponseContentPart contentPart;
+            ResponseContentPart contentPart = null;
+            CompletionHandler completedWriteHandler;
 
             synchronized (monitor) {
                 if (state == State.FINISHED_OR_ERROR) {
@@ -148,15 +154,24 @@ public class ServletOutputStreamWriter {
                     return;
                 }
 
-                contentPart = responseContentQueue.pollFirst();
+                completedWriteHandler = lastWriteHandler;
+                lastWriteHandler = null;
+                if (completedWriteHandler == null) {
+                    contentPart = responseContentQueue.pollFirst();
 
-                if (contentPart == null && lastOperationWasFlush) {
-                    state = State.WAITING_FOR_BUFFER;
-                    return;
+                    if (contentPart == null && lastOperationWasFlush) {
+                        state = State.WAITING_FOR_BUFFER;
+                        return;
+                    }
                 }
             }
 
             try {
+                if (completedWriteHandler != null) {
+                    completedWriteHandler.completed(); //Might throw an exception, handling below.
+                    continue;
+                }
+
                 boolean isFlush = contentPart == null;
                 if (isFlush) {
                     outputStream.flush();
@@ -182,7 +197,7 @@ public class ServletOutputStreamWriter {
     private void setFinished(Optional<Throwable> e) {
         synchronized (monitor) {
             state = State.FINISHED_OR_ERROR;
-            if (!responseContentQueue.isEmpty()) {
+            if (lastWriteHandler != null || !responseContentQueue.isEmpty()) {
                 failAllParts_holdingLock(e.orElse(new IllegalStateException("ContentChannel closed.")));
             }
         }
@@ -198,38 +213,51 @@ public class ServletOutputStreamWriter {
     private void failAllParts_holdingLock(Throwable e) {
         assert Thread.holdsLock(monitor);
 
-        ArrayList<ResponseContentPart> failedParts = new ArrayList<>(responseContentQueue);
+        ArrayList<CompletionHandler> failedHandlers = new ArrayList<>();
+        if (lastWriteHandler != null) {
+            failedHandlers.add(lastWriteHandler);
+            lastWriteHandler = null;
+        }
+        responseContentQueue.forEach(responseContentPart -> failedHandlers.add(responseContentPart.handler));
         responseContentQueue.clear();
 
         @SuppressWarnings("ThrowableInstanceNeverThrown")
         RuntimeException failReason = new RuntimeException("Failing due to earlier ServletOutputStream write failure", e);
 
-        Consumer<ResponseContentPart> failCompletionHandler = responseContentPart ->
+        Consumer<CompletionHandler> failCompletionHandler = handler ->
                 runCompletionHandler_logOnExceptions(
-                        () -> responseContentPart.handler.failed(failReason));
+                        () -> handler.failed(failReason));
 
         executor.execute(
-                () -> failedParts.forEach(failCompletionHandler));
+                () -> failedHandlers.forEach(failCompletionHandler));
     }
 
     private void writeBufferToOutputStream(ResponseContentPart contentPart) throws Throwable {
-        callCompletionHandlerWhenDone(contentPart.handler, () -> {
-            ByteBuffer buffer = contentPart.buf;
-            final int bytesToSend = buffer.remaining();
-            try {
-                if (buffer.hasArray()) {
-                    outputStream.write(buffer.array(), buffer.arrayOffset(), buffer.remaining());
-                } else {
-                    final byte[] array = new byte[buffer.remaining()];
-                    buffer.get(array);
-                    outputStream.write(array);
-                }
-                metricReporter.successfulWrite(bytesToSend);
-            } catch (Throwable throwable) {
-                metricReporter.failedWrite();
-                throw throwable;
+        ByteBuffer buffer = contentPart.buf;
+        final int bytesToSend = buffer.remaining();
+        try {
+            if (buffer.hasArray()) {
+                outputStream.write(buffer.array(), buffer.arrayOffset(), buffer.remaining());
+            } else {
+                final byte[] array = new byte[buffer.remaining()];
+                buffer.get(array);
+                outputStream.write(array);
+            }
+            metricReporter.successfulWrite(bytesToSend);
+        } catch (Throwable throwable) {
+            metricReporter.failedWrite();
+            runCompletionHandler_logOnExceptions(() -> contentPart.handler.failed(throwable));
+            throw throwable;
+        }
+
+        synchronized (monitor) {
+            if (state != State.FINISHED_OR_ERROR) {
+                lastWriteHandler = contentPart.handler;
+                return;
             }
-        });
+        }
+        runCompletionHandler_logOnExceptions(
+                () -> contentPart.handler.failed(new IllegalStateException("ContentChannel closed.")));
     }
 
     private static void callCompletionHandlerWhenDone(CompletionHandler handler, IORunnable runnable) throws Exception {
@@ -0,0 +1,113 @@
+// Copyright 2017 Yahoo Holdings. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.jdisc.http.server.jetty;
+
+import com.yahoo.jdisc.Metric;
+import com.yahoo.jdisc.handler.CompletionHandler;
+import org.testng.annotations.Test;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import static org.mockito.Mockito.mock;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * @author agent
+ */
+public class ServletOutputStreamWriterTest {
+
+    @Test
+    public void buffer_is_not_completed_before_the_output_stream_is_done_writing_it() throws IOException {
+        AsyncOutputStream out = new AsyncOutputStream();
+        ServletOutputStreamWriter writer = newWriter(out);
+        MyCompletion completion = new MyCompletion();
+
+        writer.writeBuffer(ByteBuffer.wrap(new byte[] { 1, 2, 3 }), completion);
+        out.writeListener.onWritePossible();
+        assertEquals(out.content.toByteArray(), new byte[] { 1, 2, 3 });
+        assertFalse(completion.completed);
+
+        out.completeWrite();
+        assertTrue(completion.completed);
+        assertNull(completion.failure);
+    }
+
+    @Test
+    public void buffer_is_failed_if_the_output_stream_fails_while_writing_it() throws IOException {
+        AsyncOutputStream out = new AsyncOutputStream();
+        ServletOutputStreamWriter writer = newWriter(out);
+        MyCompletion completion = new MyCompletion();
+
+        writer.writeBuffer(ByteBuffer.wrap(new byte[] { 1, 2, 3 }), completion);
+        out.writeListener.onWritePossible();
+        out.writeListener.onError(new IOException("Connection reset"));
+
+        assertFalse(completion.completed);
+        assertNotNull(completion.failure);
+        assertTrue(writer.finishedFuture.isCompletedExceptionally());
+    }
+
+    private static ServletOutputStreamWriter newWriter(ServletOutputStream out) {
+        return new ServletOutputStreamWriter(out, Runnable::run, new MetricReporter(mock(Metric.class), null, 0));
+    }
+
+    private static class AsyncOutputStream extends ServletOutputStream {
+
+        final ByteArrayOutputStream content = new ByteArrayOutputStream();
+        WriteListener writeListener;
+        boolean writePending = false;
+
+        void completeWrite() throws IOException {
+            writePending = false;
+            writeListener.onWritePossible();
+        }
+
+        @Override
+        public boolean isReady() {
+            return !writePending;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            this.writeListener = writeListener;
+        }
+
+        @Override
+        public void write(int b) {
+            write(new byte[] { (byte)b }, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            if (writePending) {
+                throw new IllegalStateException("Write already pending.");
+            }
+            content.write(b, off, len);
+            writePending = true;
+        }
+    }
+
+    private static class MyCompletion implements CompletionHandler {
+
+        boolean completed = false;
+        Throwable failure = null;
+
+        @Override
+        public void completed() {
+            completed = true;
+        }
+
+        @Override
+        public void failed(Throwable t) {
+            failure = t;
+        }
+    }
+
+}
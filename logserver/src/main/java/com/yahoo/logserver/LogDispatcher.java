@@ -3,6 +3,10 @@ package com.yahoo.logserver;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Logger;
 
 import com.yahoo.io.SelectLoopHook;
@@ -14,18 +18,23 @@ import com.yahoo.logserver.handlers.LogHandler;
 /**
  * This is the central point from which LogMessage objects are
  * propagated throughout the logserver architecture.
+ * <p>
+ * Handling messages does not lock: In batched mode the messages
+ * are collected in a concurrent queue which is drained into a
+ * list when a batch is full or the select loop finishes a round.
  *
  * @author Bjorn Borud
  */
 public class LogDispatcher implements LogHandler, SelectLoopHook {
     private static final Logger log = Logger.getLogger(LogDispatcher.class.getName());
 
-    private final List<LogHandler> handlers = new ArrayList<>();
-    private int messageCount = 0;
+    private final List<LogHandler> handlers = new CopyOnWriteArrayList<>();
+    private final AtomicInteger messageCount = new AtomicInteger(0);
     private boolean hasBeenShutDown = false;
     private boolean batchedMode = false;
     private final int batchSize = 5000;
-    private List<LogMessage> currentBatchList;
+    private final Queue<LogMessage> currentBatch = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger currentBatchSize = new AtomicInteger(0);
     private int roundCount = 0;
     @SuppressWarnings("unused")
     private int lastRoundCount = 0;
@@ -41,7 +50,7 @@ public class LogDispatcher implements LogHandler, SelectLoopHook {
      * @param msg The LogMessage instance we wish to dispatch to the
      *            plugins
      */
-    public synchronized void handle(LogMessage msg) {
+    public void handle(LogMessage msg) {
         if (msg == null) {
             throw new NullPointerException("LogMessage was null");
         }
@@ -53,39 +62,53 @@ public class LogDispatcher implements LogHandler, SelectLoopHook {
                 h.handle(msg);
             }
         }
-        messageCount++;
+        messageCount.incrementAndGet();
     }
 
-    private void addToBatch(LogMessage msg) {
-        if (currentBatchList == null) {
-            currentBatchList = new ArrayList<LogMessage>(batchSize);
-            currentBatchList.add(msg);
-            return;
+    /**
+     * Dispatches a list of messages, in order, to all the LogHandler
+     * instances we've got registered.  The list is passed on to the
+     * handlers and must not be modified by the caller afterwards.
+     *
+     * @param messages The LogMessage instances we wish to dispatch
+     *                 to the plugins
+     */
+    public void handle(List<LogMessage> messages) {
+        if (batchedMode) {
+            for (LogMessage msg : messages) {
+                addToBatch(msg);
+            }
+        } else {
+            for (LogHandler h : handlers) {
+                h.handle(messages);
+            }
         }
+        messageCount.addAndGet(messages.size());
+    }
 
-        currentBatchList.add(msg);
-
-        if (currentBatchList.size() == batchSize) {
+    private void addToBatch(LogMessage msg) {
+        if (msg == null) {
+            throw new NullPointerException("LogMessage was null");
+        }
+        currentBatch.add(msg);
+        if (currentBatchSize.incrementAndGet() >= batchSize) {
             flushBatch();
         }
     }
 
     private void flushBatch() {
-        List<LogMessage> todo;
-        synchronized(this) {
-            todo = currentBatchList;
-            currentBatchList = null;
+        List<LogMessage> todo = new ArrayList<>(Math.min(currentBatchSize.get(), batchSize));
+        LogMessage msg;
+        while ((msg = currentBatch.poll()) != null) {
+            todo.add(msg);
         }
-        if (todo == null) return;
+        if (todo.isEmpty()) return;
+        currentBatchSize.addAndGet(- todo.size());
         for (LogHandler ht : handlers) {
             ht.handle(todo);
         }
     }
 
-    public void handle(List<LogMessage> messages) {
-        throw new IllegalStateException("method not supported");
-    }
-
     /**
      * Set the batched mode.  Note that this should only be set
      * at initialization time because it radically changes the
@@ -124,7 +147,7 @@ public class LogDispatcher implements LogHandler, SelectLoopHook {
         }
         handlers.clear();
 
-        log.log(LogLevel.DEBUG, "Logdispatcher shut down.  Handled " + messageCount + " messages");
+        log.log(LogLevel.DEBUG, "Logdispatcher shut down.  Handled " + messageCount.get() + " messages");
     }
 
     /**
@@ -166,8 +189,8 @@ public class LogDispatcher implements LogHandler, SelectLoopHook {
      *
      * @return Returns the number of messages that we have seen.
      */
-    public synchronized int getMessageCount() {
-        return messageCount;
+    public int getMessageCount() {
+        return messageCount.get();
     }
 
     /**
@@ -178,7 +201,8 @@ public class LogDispatcher implements LogHandler, SelectLoopHook {
             flushBatch();
         }
 
-        lastRoundCount = messageCount - roundCount;
-        roundCount = messageCount;
+        int count = messageCount.get();
+        lastRoundCount = count - roundCount;
+        roundCount = count;
     }
 }
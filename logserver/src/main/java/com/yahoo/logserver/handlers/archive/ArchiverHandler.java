@@ -25,6 +25,12 @@ import com.yahoo.logserver.handlers.AbstractLogHandler;
  * is to make it easy to locate messages in a time interval, while
  * ensuring that no log file exceeds the maximum allowed size.
  * <p>
+ * Optionally, messages are written to compressed block files by
+ * {@link BlockLogWriter}, which can be searched by time, level and
+ * service using {@link BlockLogReader} without decompressing all
+ * of them.
+ * </p>
+ * <p>
  * This class is not thread safe.
  * </p>
  * <p>
@@ -41,10 +47,6 @@ import com.yahoo.logserver.handlers.AbstractLogHandler;
  * "tight" mode disk is running low and compression
  * and cleanup should possibly be more frequent.
  * </li>
- * <li> Add compression task which periodically scans
- * the log directory looking for uncompressed
- * candidate log files.
- * </li>
  * </ul>
  *
  * @author Bjorn Borud
@@ -73,6 +75,11 @@ public class ArchiverHandler extends AbstractLogHandler {
      */
     private int maxFileSize;
 
+    /**
+     * Whether to write compressed block files rather than text files
+     */
+    private boolean compressed = false;
+
     /**
      * Calendar instance for operating on Date objects
      */
@@ -121,24 +128,35 @@ public class ArchiverHandler extends AbstractLogHandler {
      * the given root directory.
      */
     public ArchiverHandler(String rootDir, int maxFileSize) {
+        this(rootDir, maxFileSize, false);
+    }
+
+    /**
+     * Creates an ArchiverHandler which puts files under
+     * the given root directory, as compressed block files
+     * if compressed is true.
+     */
+    public ArchiverHandler(String rootDir, int maxFileSize, boolean compressed) {
         this();
         setRootDir(rootDir);
         this.maxFileSize = maxFileSize;
+        this.compressed = compressed;
     }
 
 
     /**
      * Return the appropriate LogWriter given a log message.
      */
-    private synchronized LogWriter getLogWriter(LogMessage m) throws IOException {
+    private synchronized LogMessageWriter getLogWriter(LogMessage m) throws IOException {
         Integer slot = dateHash(m.getTime());
-        LogWriter logWriter = logWriterLRUCache.get(slot);
+        LogMessageWriter logWriter = logWriterLRUCache.get(slot);
         if (logWriter != null) {
             return logWriter;
         }
 
         // invariant: LogWriter we sought was not in the cache
-        logWriter = new LogWriter(getPrefix(m), maxFileSize);
+        logWriter = compressed ? new BlockLogWriter(getPrefix(m), maxFileSize)
+                               : new LogWriter(getPrefix(m), maxFileSize);
         logWriterLRUCache.put(slot, logWriter);
 
         return logWriter;
@@ -198,8 +216,8 @@ public class ArchiverHandler extends AbstractLogHandler {
 
     public boolean doHandle(LogMessage msg) {
         try {
-            LogWriter logWriter = getLogWriter(msg);
-            logWriter.write(msg.toString());
+            LogMessageWriter logWriter = getLogWriter(msg);
+            logWriter.write(msg);
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
@@ -207,7 +225,7 @@ public class ArchiverHandler extends AbstractLogHandler {
     }
 
     public synchronized void flush() {
-        for (LogWriter l : logWriterLRUCache.values()) {
+        for (LogMessageWriter l : logWriterLRUCache.values()) {
             try {
                 l.flush();
             } catch (IOException e) {
@@ -217,9 +235,9 @@ public class ArchiverHandler extends AbstractLogHandler {
     }
 
     public synchronized void close() {
-        Iterator<LogWriter> it = logWriterLRUCache.values().iterator();
+        Iterator<LogMessageWriter> it = logWriterLRUCache.values().iterator();
         while (it.hasNext()) {
-            LogWriter l = it.next();
+            LogMessageWriter l = it.next();
             try {
                 l.close();
             } catch (IOException e) {
@@ -0,0 +1,204 @@
+// Copyright 2017 Yahoo Holdings. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.logserver.handlers.archive;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.yahoo.compress.CompressionType;
+import com.yahoo.compress.Compressor;
+import com.yahoo.log.InvalidLogFormatException;
+import com.yahoo.log.LogLevel;
+import com.yahoo.log.LogMessage;
+
+/**
+ * Reads the log messages in a time range from files written by
+ * {@link BlockLogWriter}, optionally restricted to some levels and
+ * services.  Blocks are only decompressed if their header shows they
+ * may contain a matching message.  Messages are returned in the order
+ * they were written, which is not strictly ordered by time.
+ * <p>
+ * This class is thread-safe.
+ *
+ * @author agent
+ */
+public class BlockLogReader {
+    private static final Logger log = Logger.getLogger(BlockLogReader.class.getName());
+
+    /** Matches the path of a block file below the archive root, see {@link ArchiverHandler#getPrefix} */
+    private static final Pattern archivePath =
+            Pattern.compile("(\\d{4})/(\\d{2})/(\\d{2})/(\\d{2})-(\\d+)" + Pattern.quote(BlockLogWriter.SUFFIX));
+
+    private static final long hourMillis = 60 * 60 * 1000;
+
+    private final Compressor compressor = new Compressor();
+
+    private final long fromTime;
+    private final long toTime;
+    private final Set<Level> levels;
+    private final Set<String> services;
+    private final int levelMask;
+    private final long serviceMask;
+
+    /**
+     * Creates a reader of the messages with a time in the given range.
+     *
+     * @param fromTime The start of the range, in milliseconds since epoch, inclusive
+     * @param toTime   The end of the range, in milliseconds since epoch, exclusive
+     * @param levels   The levels of the messages to read, or null to read messages of any level
+     * @param services The services of the messages to read, or null to read messages of any service
+     */
+    public BlockLogReader(long fromTime, long toTime, Set<Level> levels, Set<String> services) {
+        this.fromTime = fromTime;
+        this.toTime = toTime;
+        this.levels = levels;
+        this.services = services;
+        this.levelMask = levels == null ? -1 : levels.stream().mapToInt(BlockLogWriter::levelBit).reduce(0, (a, b) -> a | b);
+        this.serviceMask = services == null ? -1 : services.stream().mapToLong(BlockLogWriter::serviceBit).reduce(0, (a, b) -> a | b);
+    }
+
+    /**
+     * Reads the matching messages of all the block files of an archive
+     * written by {@link ArchiverHandler}, in time order of the files.
+     * Only the files of the hours in the time range are opened.
+     *
+     * @param root     The root directory of the archive
+     * @param consumer The receiver of the matching messages
+     */
+    public void readArchive(File root, Consumer<LogMessage> consumer) throws IOException {
+        List<ArchiveFile> files;
+        try (Stream<Path> paths = Files.walk(root.toPath())) {
+            files = paths.map(path -> ArchiveFile.of(root.toPath().relativize(path)))
+                         .filter(file -> file != null && file.hourStart < toTime && file.hourStart + hourMillis > fromTime)
+                         .sorted(Comparator.comparingLong((ArchiveFile file) -> file.hourStart)
+                                           .thenComparingInt(file -> file.generation))
+                         .collect(Collectors.toList());
+        }
+        for (ArchiveFile file : files) {
+            read(root.toPath().resolve(file.path).toFile(), consumer);
+        }
+    }
+
+    /**
+     * Reads the matching messages of a block file.  A truncated last
+     * block, as left by a writer which did not close the file, is ignored.
+     *
+     * @param file     The block file to read
+     * @param consumer The receiver of the matching messages
+     * @throws IOException if the file could not be read or is not a block file
+     */
+    public void read(File file, Consumer<LogMessage> consumer) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            while (true) {
+                int magic;
+                try {
+                    magic = in.readInt();
+                } catch (EOFException e) {
+                    return; // end of file
+                }
+                if (magic != BlockLogWriter.BLOCK_MAGIC) {
+                    throw new IOException("Invalid block in " + file + ": Expected magic number " +
+                                          BlockLogWriter.BLOCK_MAGIC + " but got " + magic);
+                }
+                try {
+                    long minTime = in.readLong();
+                    long maxTime = in.readLong();
+                    int blockLevels = in.readInt();
+                    long blockServices = in.readLong();
+                    in.readInt(); // message count
+                    CompressionType compression = CompressionType.valueOf(in.readByte());
+                    int uncompressedSize = in.readInt();
+                    int storedSize = in.readInt();
+
+                    if (maxTime < fromTime || minTime >= toTime
+                        || (blockLevels & levelMask) == 0 || (blockServices & serviceMask) == 0) {
+                        skipFully(in, storedSize);
+                        continue;
+                    }
+                    byte[] data = new byte[storedSize];
+                    in.readFully(data);
+                    readBlock(compressor.decompress(data, compression, uncompressedSize), consumer);
+                } catch (EOFException e) {
+                    log.log(LogLevel.DEBUG, "Ignoring truncated last block of " + file);
+                    return;
+                }
+            }
+        }
+    }
+
+    private void readBlock(byte[] data, Consumer<LogMessage> consumer) {
+        int start = 0;
+        for (int i = 0; i < data.length; i++) {
+            if (data[i] != '\n') continue;
+            if (i > start) {
+                try {
+                    LogMessage msg = LogMessage.parseNativeFormat(data, start, i - start);
+                    if (matches(msg)) {
+                        consumer.accept(msg);
+                    }
+                } catch (InvalidLogFormatException e) {
+                    log.log(LogLevel.DEBUG, "Invalid log message in block", e);
+                }
+            }
+            start = i + 1;
+        }
+    }
+
+    private boolean matches(LogMessage msg) {
+        if (msg.getTime() < fromTime || msg.getTime() >= toTime) return false;
+        if (levels != null && ! levels.contains(msg.getLevel())) return false;
+        if (services != null && ! services.contains(msg.getService())) return false;
+        return true;
+    }
+
+    private static void skipFully(DataInputStream in, int bytes) throws IOException {
+        while (bytes > 0) {
+            int skipped = in.skipBytes(bytes);
+            if (skipped <= 0) throw new EOFException();
+            bytes -= skipped;
+        }
+    }
+
+    /** A block file in an archive, and the hour it holds messages for */
+    private static class ArchiveFile {
+
+        final Path path;
+        final long hourStart;
+        final int generation;
+
+        private ArchiveFile(Path path, long hourStart, int generation) {
+            this.path = path;
+            this.hourStart = hourStart;
+            this.generation = generation;
+        }
+
+        /** Returns the archive file at this path relative to the archive root, or null if it is not a block file */
+        static ArchiveFile of(Path relativePath) {
+            Matcher m = archivePath.matcher(relativePath.toString().replace(File.separatorChar, '/'));
+            if ( ! m.matches()) return null;
+            long hourStart = LocalDateTime.of(Integer.parseInt(m.group(1)), Integer.parseInt(m.group(2)),
+                                              Integer.parseInt(m.group(3)), Integer.parseInt(m.group(4)), 0)
+                                          .toEpochSecond(ZoneOffset.UTC) * 1000;
+            return new ArchiveFile(relativePath, hourStart, Integer.parseInt(m.group(5)));
+        }
+
+    }
+
+}
@@ -0,0 +1,207 @@
+// Copyright 2017 Yahoo Holdings. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.logserver.handlers.archive;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.yahoo.compress.CompressionType;
+import com.yahoo.compress.Compressor;
+import com.yahoo.log.LogLevel;
+import com.yahoo.log.LogMessage;
+
+/**
+ * A log writer which writes log messages in compressed blocks, each
+ * preceded by a header summarizing the messages in it.  The headers
+ * form a sparse index which {@link BlockLogReader} uses to skip the
+ * blocks which cannot contain the messages searched for, without
+ * decompressing them.
+ * <p>
+ * A block file is a sequence of blocks, each consisting of:
+ * <ul>
+ * <li> int: the magic number {@link #BLOCK_MAGIC}
+ * <li> long: the smallest time of the messages in the block
+ * <li> long: the largest time of the messages in the block
+ * <li> int: a bit mask of the levels of the messages in the block
+ * <li> long: a bit mask of the services of the messages in the block
+ * <li> int: the number of messages in the block
+ * <li> byte: the compression type of the data
+ * <li> int: the uncompressed size of the data
+ * <li> int: the stored size of the data
+ * <li> the data: the messages in the native format, UTF-8 encoded
+ * </ul>
+ * The level and service masks have the bit given by {@link #levelBit}
+ * and {@link #serviceBit} set for each message in the block.
+ * <p>
+ * Files are named like those of {@link LogWriter}, with the suffix
+ * {@link #SUFFIX}.  Existing block files are never appended to.
+ * <p>
+ * This class is not thread-safe.
+ *
+ * @author agent
+ */
+public class BlockLogWriter implements LogMessageWriter {
+    private static final Logger log = Logger.getLogger(BlockLogWriter.class.getName());
+
+    public static final String SUFFIX = ".blocks";
+    static final int BLOCK_MAGIC = 0x4c4f4742; // "LOGB"
+    static final int HEADER_SIZE = 4 + 8 + 8 + 4 + 8 + 4 + 1 + 4 + 4;
+
+    /** The default number of uncompressed bytes in a block */
+    public static final int DEFAULT_BLOCK_SIZE = 64 * 1024;
+
+    private final String prefix;
+    private final int maxSize;
+    private final int blockSize;
+    private final Compressor compressor = new Compressor(CompressionType.LZ4, 9, 0.95, 0);
+
+    private int generation = 0;
+    private long bytesWritten = 0;
+    private File currentFile;
+    private DataOutputStream output;
+
+    private final ByteArrayOutputStream block = new ByteArrayOutputStream();
+    private long minTime;
+    private long maxTime;
+    private int levels;
+    private long services;
+    private int messageCount = 0;
+
+    public BlockLogWriter(String prefix, int maxSize) throws IOException {
+        this(prefix, maxSize, DEFAULT_BLOCK_SIZE);
+    }
+
+    public BlockLogWriter(String prefix, int maxSize, int blockSize) throws IOException {
+        this.prefix = prefix;
+        this.maxSize = maxSize;
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Returns the bit representing this level in the level mask of a block.
+     * Each Vespa log level has its own bit, given by its log control index,
+     * and other levels are mapped to the Vespa level they correspond to.
+     */
+    public static int levelBit(Level level) {
+        switch (LogLevel.getVespaLogLevel(level).intValue()) {
+            case LogLevel.IntValFATAL:   return 1 << LogLevel.LogCtlFATAL;
+            case LogLevel.IntValERROR:   return 1 << LogLevel.LogCtlERROR;
+            case LogLevel.IntValWARNING: return 1 << LogLevel.LogCtlWARNING;
+            case LogLevel.IntValCONFIG:  return 1 << LogLevel.LogCtlCONFIG;
+            case LogLevel.IntValINFO:    return 1 << LogLevel.LogCtlINFO;
+            case LogLevel.IntValEVENT:   return 1 << LogLevel.LogCtlEVENT;
+            case LogLevel.IntValDEBUG:   return 1 << LogLevel.LogCtlDEBUG;
+            case LogLevel.IntValSPAM:    return 1 << LogLevel.LogCtlSPAM;
+            default:                     return 1 << LogLevel.LogCtlNumLevels; // unknown
+        }
+    }
+
+    /** Returns the bit representing this service in the service mask of a block */
+    public static long serviceBit(String service) {
+        return 1L << (service.hashCode() & 63);
+    }
+
+    private DataOutputStream nextOutput() throws IOException {
+        if (output != null) {
+            output.close();
+        }
+
+        int maxAttempts = 1000;
+        while (maxAttempts-- > 0) {
+            File f = new File(prefix + "-" + generation++ + SUFFIX);
+
+            // make sure directory exists
+            File dir = f.getParentFile();
+            if (! dir.exists()) {
+                dir.mkdirs();
+            }
+
+            if (! f.exists()) {
+                log.log(LogLevel.DEBUG, "nextOutput, new file: " + f);
+                currentFile = f;
+                bytesWritten = 0;
+                return new DataOutputStream(new BufferedOutputStream(new FileOutputStream(f)));
+            }
+        }
+
+        throw new RuntimeException("Unable to create next log file");
+    }
+
+    @Override
+    public void write(LogMessage msg) throws IOException {
+        if (messageCount == 0) {
+            minTime = msg.getTime();
+            maxTime = msg.getTime();
+            levels = 0;
+            services = 0;
+        }
+        minTime = Math.min(minTime, msg.getTime());
+        maxTime = Math.max(maxTime, msg.getTime());
+        levels |= levelBit(msg.getLevel());
+        services |= serviceBit(msg.getService());
+        messageCount++;
+
+        block.write(msg.toString().getBytes(StandardCharsets.UTF_8));
+        if (block.size() >= blockSize) {
+            writeBlock();
+        }
+    }
+
+    /** Compresses and writes the messages collected so far as a block, and rotates the file if it is full */
+    private void writeBlock() throws IOException {
+        if (messageCount == 0) return;
+        if (output == null) {
+            output = nextOutput();
+        }
+
+        Compressor.Compression compression = compressor.compress(block.toByteArray());
+        output.writeInt(BLOCK_MAGIC);
+        output.writeLong(minTime);
+        output.writeLong(maxTime);
+        output.writeInt(levels);
+        output.writeLong(services);
+        output.writeInt(messageCount);
+        output.writeByte(compression.type().getCode());
+        output.writeInt(compression.uncompressedSize());
+        output.writeInt(compression.data().length);
+        output.write(compression.data());
+        bytesWritten += HEADER_SIZE + compression.data().length;
+
+        block.reset();
+        messageCount = 0;
+
+        if (bytesWritten >= maxSize) {
+            log.fine("logfile '" + currentFile.getAbsolutePath() + "' full, rotating");
+            output.close();
+            output = null;
+        }
+    }
+
+    /**
+     * Writes the messages collected so far as a block, so they are
+     * on disk when this returns.
+     */
+    @Override
+    public void flush() throws IOException {
+        writeBlock();
+        if (output != null) {
+            output.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        if (output != null) {
+            output.close();
+            output = null;
+        }
+    }
+
+}
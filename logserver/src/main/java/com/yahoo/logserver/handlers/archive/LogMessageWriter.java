@@ -0,0 +1,20 @@
+// Copyright 2017 Yahoo Holdings. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.logserver.handlers.archive;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+
+import com.yahoo.log.LogMessage;
+
+/**
+ * Writes the log messages of one time slot of the archive to files.
+ *
+ * @author agent
+ */
+public interface LogMessageWriter extends Closeable, Flushable {
+
+    /** Writes a log message, rotating to the next file when the current one is full */
+    void write(LogMessage msg) throws IOException;
+
+}
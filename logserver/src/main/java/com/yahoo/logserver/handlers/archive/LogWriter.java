@@ -8,13 +8,14 @@ import java.io.Writer;
 import java.util.logging.Logger;
 
 import com.yahoo.log.LogLevel;
+import com.yahoo.log.LogMessage;
 
 /**
  * This class is not thread-safe.
  *
  * @author Bjorn Borud
  */
-public class LogWriter extends Writer {
+public class LogWriter extends Writer implements LogMessageWriter {
     private static final Logger log = Logger.getLogger(LogWriter.class.getName());
 
     private long bytesWritten = 0;
@@ -26,10 +27,13 @@ public class LogWriter extends Writer {
     private Writer writer;
     private final String prefix;
 
+    /**
+     * Creates a writer of log files with the given prefix.  The first
+     * file is opened when the first message is written.
+     */
     public LogWriter(String prefix, int maxSize) throws IOException {
         this.prefix = prefix;
         this.maxSize = maxSize;
-        writer = nextWriter();
     }
 
     /**
@@ -109,6 +113,14 @@ public class LogWriter extends Writer {
         throw new RuntimeException("This method should not be used");
     }
 
+    /**
+     * Writes a log message in the native format.
+     */
+    @Override
+    public void write(LogMessage msg) throws IOException {
+        write(msg.toString());
+    }
+
     public void write(String str) throws IOException {
         if (writer == null) {
             writer = nextWriter();
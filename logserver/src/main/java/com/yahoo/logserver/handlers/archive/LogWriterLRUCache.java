@@ -11,7 +11,7 @@ import java.util.Map;
  * @author Bjorn Borud
  */
 @SuppressWarnings("serial")
-public class LogWriterLRUCache extends LinkedHashMap<Integer, LogWriter> {
+public class LogWriterLRUCache extends LinkedHashMap<Integer, LogMessageWriter> {
     private static final Logger log = Logger.getLogger(LogWriterLRUCache.class.getName());
 
     final int maxEntries = 100;
@@ -21,9 +21,9 @@ public class LogWriterLRUCache extends LinkedHashMap<Integer, LogWriter> {
     }
 
     // TODO: implement unit test for this
-    protected boolean removeEldestEntry(Map.Entry<Integer, LogWriter> eldest) {
+    protected boolean removeEldestEntry(Map.Entry<Integer, LogMessageWriter> eldest) {
         if (size() > maxEntries) {
-            LogWriter logWriter = eldest.getValue();
+            LogMessageWriter logWriter = eldest.getValue();
             log.fine("Closing oldest LogWriter: " + logWriter);
             try {
                 logWriter.close();
@@ -15,7 +15,9 @@ import com.yahoo.logserver.net.control.Levels;
 import java.io.IOException;
 import java.util.logging.Logger;
 import java.util.logging.Level;
+import java.util.ArrayList;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Set;
 import java.util.HashSet;
 
@@ -48,7 +50,7 @@ public class LogConnection implements Connection {
     private final Listener listener;
     private final LogDispatcher dispatcher;
 
-    private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(READBUFFER_SIZE);
+    private final ByteBuffer readBuffer = ByteBuffer.allocate(READBUFFER_SIZE);
 
     private final LinkedList<ByteBuffer> writeBufferList = new LinkedList<>();
     private ByteBuffer writeBuffer;
@@ -238,16 +240,30 @@ public class LogConnection implements Connection {
 
         readBuffer.flip();
 
-        String s;
-        while ((s = ReadLine.readLine(readBuffer)) != null) {
-            try {
-                LogMessage msg = LogMessage.parseNativeFormat(s);
-                dispatcher.handle(msg);
-            }
-            catch (InvalidLogFormatException e) {
-                log.log(LogLevel.DEBUG, "Invalid log message", e);
+        // split the complete lines in the buffer without decoding them,
+        // and hand all the messages of this read to the dispatcher at once
+        List<LogMessage> messages = new ArrayList<>();
+        byte[] bytes = readBuffer.array();
+        int start = readBuffer.position();
+        for (int i = start; i < readBuffer.limit(); i++) {
+            if (bytes[i] == '\n' || bytes[i] == '\r') {
+                if (i > start) {
+                    try {
+                        messages.add(LogMessage.parseNativeFormat(bytes, start, i - start));
+                    }
+                    catch (InvalidLogFormatException e) {
+                        log.log(LogLevel.DEBUG, "Invalid log message", e);
+                    }
+                }
+                start = i + 1;
             }
         }
+        readBuffer.position(start);
+        readBuffer.compact();
+
+        if ( ! messages.isEmpty()) {
+            dispatcher.handle(messages);
+        }
     }
 
     public void close() throws IOException {
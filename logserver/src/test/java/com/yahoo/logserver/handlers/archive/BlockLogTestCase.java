@@ -0,0 +1,142 @@
+// Copyright 2017 Yahoo Holdings. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.logserver.handlers.archive;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.yahoo.log.InvalidLogFormatException;
+import com.yahoo.log.LogLevel;
+import com.yahoo.log.LogMessage;
+
+import org.junit.*;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author agent
+ */
+public class BlockLogTestCase {
+
+    private static final String[] mStrings = {
+            "1095159244.095\thost\t1/2\tservice1\tcomponent\tinfo\tpayload1",
+            "1095206399.000\thost\t1/2\tservice2\tcomponent\terror\tpayload2",
+            "1095206400.000\thost\t1/2\tservice1\tcomponent\tinfo\tpayload3 \u00e6\u00f8\u00e5",
+            "1095206401.000\thost\t1/2\tservice2\tcomponent\twarning\tpayload4",
+    };
+
+    private static final LogMessage[] msg = new LogMessage[mStrings.length];
+
+    static {
+        try {
+            for (int i = 0; i < mStrings.length; i++) {
+                msg[i] = LogMessage.parseNativeFormat(mStrings[i]);
+            }
+        } catch (InvalidLogFormatException e) {
+            throw new RuntimeException(e);
+        }
+
+        // mute the logging
+        Logger.getLogger(ArchiverHandler.class.getName()).setLevel(Level.WARNING);
+        Logger.getLogger(BlockLogWriter.class.getName()).setLevel(Level.WARNING);
+    }
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testReadingArchive() throws IOException {
+        File root = temporaryFolder.newFolder();
+        ArchiverHandler a = new ArchiverHandler(root.getAbsolutePath(), 1024 * 1024, true);
+        for (LogMessage m : msg) {
+            a.handle(m);
+        }
+        a.close();
+
+        assertTrue(new File(a.getPrefix(msg[0]) + "-0" + BlockLogWriter.SUFFIX).exists());
+        assertFalse(new File(a.getPrefix(msg[0]) + "-0").exists());
+
+        assertEquals(mStrings.length, read(root, 0, Long.MAX_VALUE, null, null).size());
+        assertEquals(Collections.singletonList(mStrings[2]),
+                     read(root, 1095206400000L, 1095206401000L, null, null));
+        assertEquals(Arrays.asList(mStrings[0], mStrings[2]),
+                     read(root, 0, Long.MAX_VALUE, null, Collections.singleton("service1")));
+        assertEquals(Collections.singletonList(mStrings[1]),
+                     read(root, 0, Long.MAX_VALUE, Collections.singleton(LogLevel.ERROR), null));
+        assertEquals(Collections.emptyList(),
+                     read(root, 0, Long.MAX_VALUE, Collections.singleton(LogLevel.ERROR),
+                          Collections.singleton("service1")));
+    }
+
+    @Test
+    public void testBlocksAndRotation() throws IOException {
+        File root = temporaryFolder.newFolder();
+        String prefix = new File(root, "2004/09/14/10").getAbsolutePath();
+        BlockLogWriter writer = new BlockLogWriter(prefix, 200, 1);
+        for (int i = 0; i < 10; i++) {
+            writer.write(msg[0]);
+        }
+        writer.close();
+
+        int files = 0;
+        int messages = 0;
+        for (File f = new File(prefix + "-0" + BlockLogWriter.SUFFIX);
+             f.exists();
+             f = new File(prefix + "-" + ++files + BlockLogWriter.SUFFIX)) {
+            messages += read(f, 0, Long.MAX_VALUE).size();
+        }
+        assertTrue(files > 1);
+        assertEquals(10, messages);
+        assertEquals(10, read(root, 0, Long.MAX_VALUE, null, null).size());
+    }
+
+    @Test
+    public void testTruncatedLastBlockIsIgnored() throws IOException {
+        File root = temporaryFolder.newFolder();
+        String prefix = new File(root, "2004/09/14/10").getAbsolutePath();
+        BlockLogWriter writer = new BlockLogWriter(prefix, 1024 * 1024, 1);
+        writer.write(msg[0]);
+        writer.write(msg[0]);
+        writer.close();
+
+        File f = new File(prefix + "-0" + BlockLogWriter.SUFFIX);
+        try (RandomAccessFile file = new RandomAccessFile(f, "rw")) {
+            file.setLength(file.length() - 3);
+        }
+        assertEquals(Collections.singletonList(mStrings[0]), read(f, 0, Long.MAX_VALUE));
+    }
+
+    @Test
+    public void testEachLevelHasItsOwnBit() {
+        Set<Integer> bits = new HashSet<>();
+        for (Level level : LogLevel.getLevels().values()) {
+            assertTrue("Unique bit for " + level, bits.add(BlockLogWriter.levelBit(level)));
+        }
+        assertTrue(bits.add(BlockLogWriter.levelBit(LogLevel.UNKNOWN)));
+        assertEquals(BlockLogWriter.levelBit(LogLevel.DEBUG), BlockLogWriter.levelBit(Level.FINE));
+        assertEquals(BlockLogWriter.levelBit(LogLevel.ERROR), BlockLogWriter.levelBit(Level.SEVERE));
+    }
+
+    private static List<String> read(File root, long from, long to,
+                                     Set<Level> levels, Set<String> services) throws IOException {
+        List<String> lines = new ArrayList<>();
+        new BlockLogReader(from, to, levels, services).readArchive(root, m -> lines.add(m.toString().trim()));
+        return lines;
+    }
+
+    private static List<String> read(File file, long from, long to) throws IOException {
+        List<String> lines = new ArrayList<>();
+        new BlockLogReader(from, to, null, null).read(file, m -> lines.add(m.toString().trim()));
+        return lines;
+    }
+
+}
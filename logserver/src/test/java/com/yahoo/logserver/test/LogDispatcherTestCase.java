@@ -2,6 +2,7 @@
 package com.yahoo.logserver.test;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import com.yahoo.log.InvalidLogFormatException;
@@ -75,6 +76,32 @@ public class LogDispatcherTestCase {
         assertEquals(2, handler.messages.size());
     }
 
+    @Test
+    public void testLogDispatcherBatchModeWithLists() {
+        MockHandler handler = new MockHandler();
+        LogDispatcher dispatcher = new LogDispatcher();
+        dispatcher.setBatchedMode(true);
+        dispatcher.registerLogHandler(handler);
+        dispatcher.handle(Arrays.asList(sample1, sample2));
+        dispatcher.handle(sample1);
+        assertEquals(3, dispatcher.getMessageCount());
+        assertEquals(0, handler.messages.size());
+        dispatcher.selectLoopHook(false);
+        assertEquals(Arrays.asList(sample1, sample2, sample1), handler.messages);
+        dispatcher.flush();
+        assertEquals(3, handler.messages.size());
+    }
+
+    @Test
+    public void testDispatchingLists() {
+        MockHandler handler = new MockHandler();
+        LogDispatcher dispatcher = new LogDispatcher();
+        dispatcher.registerLogHandler(handler);
+        dispatcher.handle(Arrays.asList(sample1, sample2));
+        assertEquals(2, dispatcher.getMessageCount());
+        assertEquals(Arrays.asList(sample1, sample2), handler.messages);
+    }
+
     @Test
     public void testTestLogHandlerRegistration() {
         MockHandler handler = new MockHandler();
@@ -5,11 +5,13 @@ import java.io.BufferedReader;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.util.zip.GZIPInputStream;
 
 import com.yahoo.log.event.Event;
 import com.yahoo.log.event.MalformedEventException;
 import com.yahoo.log.InvalidLogFormatException;
+import com.yahoo.log.LogLevel;
 import com.yahoo.log.LogMessage;
 
 import org.junit.*;
@@ -60,5 +62,48 @@ public class LogMessageTestCase {
             }
         }
     }
-}
 
+    @Test
+    public void testParsingBytes() throws InvalidLogFormatException {
+        String line = "1096639280.524133\tmalfunction\t26851\t-\tlogtest\tinfo\tStarting up, called as \u00e6\tfoo";
+        byte[] bytes = ("xx\n" + line + "\n").getBytes(StandardCharsets.UTF_8);
+        LogMessage fromBytes = LogMessage.parseNativeFormat(bytes, 3, bytes.length - 4);
+        LogMessage fromString = LogMessage.parseNativeFormat(line);
+
+        assertEquals(1096639280524L, fromBytes.getTime());
+        assertEquals("malfunction", fromBytes.getHost());
+        assertEquals("26851", fromBytes.getThreadProcess());
+        assertEquals("-", fromBytes.getService());
+        assertEquals("logtest", fromBytes.getComponent());
+        assertEquals(LogLevel.INFO, fromBytes.getLevel());
+        assertEquals("Starting up, called as \u00e6\tfoo", fromBytes.getPayload());
+        assertEquals(line + "\n", fromBytes.toString());
+        assertEquals(fromString.toString(), fromBytes.toString());
+    }
+
+    @Test
+    public void testInvalidMessages() {
+        assertInvalid("");
+        assertInvalid("1096639280.524133\tmalfunction\t26851\t-\tlogtest\tinfo");
+        assertInvalid("1096639280.524133\tmalfunction\t26851\t-\tlogtest\tinfo\t");
+        assertInvalid("1096639280.524133\tmalfunction\t\t-\tlogtest\tinfo\tpayload");
+        assertInvalid("x096639280.524133\tmalfunction\t26851\t-\tlogtest\tinfo\tpayload");
+        assertInvalid("1\tmalfunction\t26851\t-\tlogtest\tinfo\tpayload");
+        assertInvalid("1096639280.524133\tmalfunction\t26851\t-\tlogtest\tinfo\tpay\nload");
+    }
+
+    private static void assertInvalid(String line) {
+        try {
+            LogMessage.parseNativeFormat(line);
+            fail("Expected '" + line + "' to be invalid");
+        } catch (InvalidLogFormatException expected) {
+        }
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        try {
+            LogMessage.parseNativeFormat(bytes, 0, bytes.length);
+            fail("Expected '" + line + "' to be invalid");
+        } catch (InvalidLogFormatException expected) {
+        }
+    }
+
+}
@@ -135,6 +135,9 @@ public class MessageBus implements ConfigHandler, NetworkOwner, MessageHandler,
         // Attach and start network.
         this.net = net;
         net.attach(this);
+        if (net.getMetrics() != null) {
+            metrics.addMetric(net.getMetrics());
+        }
         if ( ! net.waitUntilReady(120))
             throw new IllegalStateException("Network failed to become ready in time.");
 
@@ -385,6 +385,16 @@ public final class SourceSession implements ReplyHandler, MessageBus.SendBlocked
         return pendingCount;
     }
 
+    /**
+     * <p>Returns the throttle policy of this session, or null if it has
+     * none.</p>
+     *
+     * @return The throttle policy.
+     */
+    public ThrottlePolicy getThrottlePolicy() {
+        return throttlePolicy;
+    }
+
     /**
      * <p>Sets the number of seconds a message can be attempted sent until it
      * times out.</p>
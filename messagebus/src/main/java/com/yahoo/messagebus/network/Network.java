@@ -3,6 +3,7 @@ package com.yahoo.messagebus.network;
 
 import com.yahoo.jrt.slobrok.api.IMirror;
 import com.yahoo.messagebus.Message;
+import com.yahoo.messagebus.metrics.MetricSet;
 import com.yahoo.messagebus.routing.RoutingNode;
 
 import java.util.List;
@@ -98,4 +99,11 @@ public interface Network {
      */
     IMirror getMirror();
 
+    /**
+     * Returns the metrics of this network, which are added to those of the message bus it is attached to.
+     *
+     * @return The metric set, or null if this network has no metrics.
+     */
+    default MetricSet getMetrics() { return null; }
+
 }
@@ -24,6 +24,7 @@ import com.yahoo.messagebus.ErrorCode;
 import com.yahoo.messagebus.Message;
 import com.yahoo.messagebus.Protocol;
 import com.yahoo.messagebus.Reply;
+import com.yahoo.messagebus.metrics.MetricSet;
 import com.yahoo.messagebus.network.Identity;
 import com.yahoo.messagebus.network.Network;
 import com.yahoo.messagebus.network.NetworkOwner;
@@ -65,7 +66,10 @@ public class RPCNetwork implements Network, MethodHandler {
     private final Register register;
     private final TreeMap<Version, RPCSendAdapter> sendAdapters = new TreeMap<>();
     private NetworkOwner owner;
+    private RPCSendBatch batchAdapter;
     private final SlobrokConfigSubscriber slobroksConfig;
+    private final double maxBatchDelaySecs;
+    private final int maxBatchBytes;
     private final LinkedHashMap<String, Route> lruRouteMap = new LinkedHashMap<>(10000, 0.5f, true);
     private final ExecutorService sendService =
             new ThreadPoolExecutor(Runtime.getRuntime().availableProcessors(), Runtime.getRuntime().availableProcessors(),
@@ -84,6 +88,8 @@ public class RPCNetwork implements Network, MethodHandler {
     public RPCNetwork(RPCNetworkParams params, SlobrokConfigSubscriber slobrokConfig) {
         this.slobroksConfig = slobrokConfig;
         identity = params.getIdentity();
+        maxBatchDelaySecs = params.getMaxBatchDelaySecs();
+        maxBatchBytes = params.getMaxBatchBytes();
         orb = new Supervisor(new Transport());
         orb.setMaxInputBufferSize(params.getMaxInputBufferSize());
         orb.setMaxOutputBufferSize(params.getMaxOutputBufferSize());
@@ -129,6 +135,16 @@ public class RPCNetwork implements Network, MethodHandler {
         targetPool.flushTargets(true);
     }
 
+    /**
+     * Returns the metrics of the churn of targets in the target pool of this network.
+     *
+     * @return The target pool metrics.
+     */
+    @Override
+    public MetricSet getMetrics() {
+        return targetPool.getMetrics();
+    }
+
     final Route getRoute(String routeString) {
         Route route = lruRouteMap.get(routeString);
         if (route == null) {
@@ -182,9 +198,15 @@ public class RPCNetwork implements Network, MethodHandler {
         this.owner = owner;
 
         RPCSendAdapter adapter1 = new RPCSendV1();
-        RPCSendAdapter adapter2 = new RPCSendV2();
+        RPCSendV2 adapter2 = new RPCSendV2();
+        batchAdapter = new RPCSendBatch(adapter2, maxBatchDelaySecs, maxBatchBytes);
         addSendAdapter(new Version(5), adapter1);
         addSendAdapter(new Version(6,149), adapter2);
+        if (maxBatchDelaySecs > 0) {
+            addSendAdapter(new Version(6,149), batchAdapter);
+        } else {
+            batchAdapter.attach(this); // receive batches even if we do not send them
+        }
     }
 
     @Override
@@ -270,6 +292,9 @@ public class RPCNetwork implements Network, MethodHandler {
      */
     public boolean destroy() {
         if (!destroyed.getAndSet(true)) {
+            if (batchAdapter != null) {
+                batchAdapter.destroy();
+            }
             if (slobroksConfig != null) {
                 slobroksConfig.shutdown();
             }
@@ -20,6 +20,8 @@ public class RPCNetworkParams {
     private int maxInputBufferSize = 256 * 1024;
     private int maxOutputBufferSize = 256 * 1024;
     private double connectionExpireSecs = 30;
+    private double maxBatchDelaySecs = 0;
+    private int maxBatchBytes = 64 * 1024;
 
     /**
      * Constructs a new instance of this class with reasonable default values.
@@ -42,6 +44,8 @@ public class RPCNetworkParams {
         connectionExpireSecs = params.connectionExpireSecs;
         maxInputBufferSize = params.maxInputBufferSize;
         maxOutputBufferSize = params.maxOutputBufferSize;
+        maxBatchDelaySecs = params.maxBatchDelaySecs;
+        maxBatchBytes = params.maxBatchBytes;
     }
 
     /**
@@ -207,4 +211,54 @@ public class RPCNetworkParams {
         this.maxOutputBufferSize = maxOutputBufferSize;
         return this;
     }
+
+    /**
+     * Returns the max number of seconds to wait for more messages to the same target before sending the messages
+     * to it in one request. Messages are sent individually if this is 0, which is the default.
+     *
+     * @return The number of seconds.
+     */
+    public double getMaxBatchDelaySecs() {
+        return maxBatchDelaySecs;
+    }
+
+    /**
+     * Sets the max number of seconds to wait for more messages to the same target before sending the messages to it
+     * in one request. Batching messages reduces the number of requests and the compression overhead of sending many
+     * small messages, at the cost of adding up to this delay to each message. There are two more trade-offs:
+     * <ul>
+     *     <li>The receiver returns the replies of a batch together, when all of its messages are replied to,
+     *     so a slow message delays the replies to all the other messages in the same batch.</li>
+     *     <li>The timeout of a batch request is the longest time remaining of its messages when the batch is sent,
+     *     so a message with less time remaining may wait for its reply past its own timeout. Messages which time out
+     *     while waiting for the batch to be sent are replied to with a timeout error, and are not sent.</li>
+     * </ul>
+     *
+     * @param secs The number of seconds, or 0 to send each message individually.
+     * @return This, to allow chaining.
+     */
+    public RPCNetworkParams setMaxBatchDelaySecs(double secs) {
+        this.maxBatchDelaySecs = secs;
+        return this;
+    }
+
+    /**
+     * Returns the number of message payload bytes at which a batch of messages is sent without waiting for more.
+     *
+     * @return The number of bytes.
+     */
+    public int getMaxBatchBytes() {
+        return maxBatchBytes;
+    }
+
+    /**
+     * Sets the number of message payload bytes at which a batch of messages is sent without waiting for more.
+     *
+     * @param maxBatchBytes The number of bytes.
+     * @return This, to allow chaining.
+     */
+    public RPCNetworkParams setMaxBatchBytes(int maxBatchBytes) {
+        this.maxBatchBytes = maxBatchBytes;
+        return this;
+    }
 }
@@ -61,12 +61,7 @@ public abstract class RPCSend implements MethodHandler, ReplyHandler, RequestWai
         Hop hop = route.removeHop(0);
 
         Request req = encodeRequest(version, route, address,msg, timeRemaining, payload, ctx.trace.getLevel());
-
-        if (ctx.trace.shouldTrace(TraceLevel.SEND_RECEIVE)) {
-            ctx.trace.trace(TraceLevel.SEND_RECEIVE,
-                    "Sending message (version " + version + ") from " + clientIdent + " to '" +
-                            address.getServiceName() + "' with " + ctx.timeout + " seconds timeout.");
-        }
+        traceSending(ctx, version, address, "");
 
         if (hop.getIgnoreResult()) {
             address.getTarget().getJRTTarget().invokeVoid(req);
@@ -84,6 +79,15 @@ public abstract class RPCSend implements MethodHandler, ReplyHandler, RequestWai
         req.discardParameters(); // allow garbage collection of request parameters
     }
 
+    /** Adds a trace of sending a message to the given recipient, with the given detail appended */
+    final void traceSending(SendContext ctx, Version version, RPCServiceAddress address, String detail) {
+        if (ctx.trace.shouldTrace(TraceLevel.SEND_RECEIVE)) {
+            ctx.trace.trace(TraceLevel.SEND_RECEIVE,
+                    "Sending message (version " + version + ") from " + clientIdent + " to '" +
+                            address.getServiceName() + "' with " + ctx.timeout + " seconds timeout" + detail + ".");
+        }
+    }
+
     protected final Object decode(Utf8Array protocolName, Version version, byte [] payload) {
         Protocol protocol = net.getOwner().getProtocol(protocolName);
         if (protocol != null) {
@@ -109,28 +113,31 @@ public abstract class RPCSend implements MethodHandler, ReplyHandler, RequestWai
     public final void handleRequestDone(Request req) {
         SendContext ctx = (SendContext)req.getContext();
         String serviceName = ((RPCServiceAddress)ctx.recipient.getServiceAddress()).getServiceName();
-        Reply reply = null;
-        Error error = null;
         if (!req.checkReturnTypes(getReturnSpec())) {
-            // Map all known JRT errors to the appropriate message bus error.
-            reply = new EmptyReply();
-            switch (req.errorCode()) {
-                case com.yahoo.jrt.ErrorCode.TIMEOUT:
-                    error = new Error(ErrorCode.TIMEOUT,
-                            "A timeout occured while waiting for '" + serviceName + "' (" +
-                                    ctx.timeout + " seconds expired); " + req.errorMessage());
-                    break;
-                case com.yahoo.jrt.ErrorCode.CONNECTION:
-                    error = new Error(ErrorCode.CONNECTION_ERROR,
-                            "A connection error occured for '" + serviceName + "'; " + req.errorMessage());
-                    break;
-                default:
-                    error = new Error(ErrorCode.NETWORK_ERROR,
-                            "A network error occured for '" + serviceName + "'; " + req.errorMessage());
-            }
+            deliverReply(new EmptyReply(), toError(req, serviceName, ctx.timeout), ctx);
         } else {
-            reply = createReply(req.returnValues(), serviceName, ctx.trace);
+            deliverReply(createReply(req.returnValues(), serviceName, ctx.trace), null, ctx);
+        }
+    }
+
+    /** Maps all known JRT errors of a failed request to the appropriate message bus error */
+    static Error toError(Request req, String serviceName, double timeout) {
+        switch (req.errorCode()) {
+            case com.yahoo.jrt.ErrorCode.TIMEOUT:
+                return new Error(ErrorCode.TIMEOUT,
+                        "A timeout occured while waiting for '" + serviceName + "' (" +
+                                timeout + " seconds expired); " + req.errorMessage());
+            case com.yahoo.jrt.ErrorCode.CONNECTION:
+                return new Error(ErrorCode.CONNECTION_ERROR,
+                        "A connection error occured for '" + serviceName + "'; " + req.errorMessage());
+            default:
+                return new Error(ErrorCode.NETWORK_ERROR,
+                        "A network error occured for '" + serviceName + "'; " + req.errorMessage());
         }
+    }
+
+    /** Delivers the reply to a message sent with the given context to the owner of the network */
+    final void deliverReply(Reply reply, Error error, SendContext ctx) {
         if (ctx.trace.shouldTrace(TraceLevel.SEND_RECEIVE)) {
             ctx.trace.trace(TraceLevel.SEND_RECEIVE,
                     "Reply (type " + reply.getType() + ") received at " + clientIdent + ".");
@@ -142,7 +149,7 @@ public abstract class RPCSend implements MethodHandler, ReplyHandler, RequestWai
         net.getOwner().deliverReply(reply, ctx.recipient);
     }
 
-    protected final class Params {
+    protected static final class Params {
         Version version;
         String route;
         String session;
@@ -161,23 +168,35 @@ public abstract class RPCSend implements MethodHandler, ReplyHandler, RequestWai
 
         request.discardParameters(); // allow garbage collection of request parameters
 
+        deliverMessage(p, this, new ReplyContext(request, p.version));
+    }
+
+    /**
+     * Decodes the message of the given parameters and delivers it to the owner of the network, or replies
+     * with an error if it can not be decoded.
+     *
+     * @param p            The received parameters.
+     * @param replyHandler The handler which should receive the reply to the message.
+     * @param replyContext The context to set in the reply to the message.
+     */
+    final void deliverMessage(Params p, ReplyHandler replyHandler, Object replyContext) {
         // Make sure that the owner understands the protocol.
         Protocol protocol = net.getOwner().getProtocol(p.protocolName);
         if (protocol == null) {
-            replyError(request, p.version, p.traceLevel,
+            replyError(replyHandler, replyContext, p.traceLevel,
                     new Error(ErrorCode.UNKNOWN_PROTOCOL,
                             "Protocol '" + p.protocolName + "' is not known by " + serverIdent + "."));
             return;
         }
         Routable routable = protocol.decode(p.version, p.payload);
         if (routable == null) {
-            replyError(request, p.version, p.traceLevel,
+            replyError(replyHandler, replyContext, p.traceLevel,
                     new Error(ErrorCode.DECODE_ERROR,
                             "Protocol '" + protocol.getName() + "' failed to decode routable."));
             return;
         }
         if (routable instanceof Reply) {
-            replyError(request, p.version, p.traceLevel,
+            replyError(replyHandler, replyContext, p.traceLevel,
                     new Error(ErrorCode.DECODE_ERROR,
                             "Payload decoded to a reply when expecting a message."));
             return;
@@ -186,8 +205,8 @@ public abstract class RPCSend implements MethodHandler, ReplyHandler, RequestWai
         if (p.route != null && p.route.length() > 0) {
             msg.setRoute(net.getRoute(p.route));
         }
-        msg.setContext(new ReplyContext(request, p.version));
-        msg.pushHandler(this);
+        msg.setContext(replyContext);
+        msg.pushHandler(replyHandler);
         msg.setRetryEnabled(p.retryEnabled);
         msg.setRetry(p.retry);
         msg.setTimeReceivedNow();
@@ -204,46 +223,57 @@ public abstract class RPCSend implements MethodHandler, ReplyHandler, RequestWai
     public final void handleReply(Reply reply) {
         ReplyContext ctx = (ReplyContext)reply.getContext();
         reply.setContext(null);
+        byte[] payload = encodeReply(reply, ctx.version);
+        createResponse(ctx.request.returnValues(), reply, ctx.version, payload);
+        ctx.request.returnRequest();
+    }
 
+    /**
+     * Encodes the given reply to a received message.
+     *
+     * @param reply   The reply to encode.
+     * @param version The version to serialize for.
+     * @return The serialized payload of the reply, which is empty if the reply has no payload.
+     */
+    final byte[] encodeReply(Reply reply, Version version) {
         // Add trace information.
         if (reply.getTrace().shouldTrace(TraceLevel.SEND_RECEIVE)) {
             reply.getTrace().trace(TraceLevel.SEND_RECEIVE,
-                    "Sending reply (version " + ctx.version + ") from " + serverIdent + ".");
+                    "Sending reply (version " + version + ") from " + serverIdent + ".");
         }
 
-        // Encode and return the reply through the RPC request.
+        // Encode the reply.
         byte[] payload = new byte[0];
         if (reply.getType() != 0) {
             Protocol protocol = net.getOwner().getProtocol(reply.getProtocol());
             if (protocol != null) {
-                payload = protocol.encode(ctx.version, reply);
+                payload = protocol.encode(version, reply);
             }
             if (payload == null || payload.length == 0) {
                 reply.addError(new Error(ErrorCode.ENCODE_ERROR,
                         "An error occured while encoding the reply."));
             }
         }
-        createResponse(ctx.request.returnValues(), reply, ctx.version, payload);
-        ctx.request.returnRequest();
+        return payload;
     }
 
     /**
-     * Send an error reply for a given request.
+     * Send an error reply for a given message.
      *
-     * @param request    The JRT request to reply to.
-     * @param version    The version to serialize for.
-     * @param traceLevel The trace level to set in the reply.
-     * @param err        The error to reply with.
+     * @param replyHandler The handler of the reply.
+     * @param replyContext The context to set in the reply.
+     * @param traceLevel   The trace level to set in the reply.
+     * @param err          The error to reply with.
      */
-    private void replyError(Request request, Version version, int traceLevel, Error err) {
+    private void replyError(ReplyHandler replyHandler, Object replyContext, int traceLevel, Error err) {
         Reply reply = new EmptyReply();
-        reply.setContext(new ReplyContext(request, version));
+        reply.setContext(replyContext);
         reply.getTrace().setLevel(traceLevel);
         reply.addError(err);
-        handleReply(reply);
+        replyHandler.handleReply(reply);
     }
 
-    private static class SendContext {
+    static class SendContext {
 
         final RoutingNode recipient;
         final Trace trace;
@@ -0,0 +1,404 @@
+// Copyright 2017 Yahoo Holdings. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.messagebus.network.rpc;
+
+import com.yahoo.component.Version;
+import com.yahoo.compress.CompressionType;
+import com.yahoo.compress.Compressor;
+import com.yahoo.jrt.DataValue;
+import com.yahoo.jrt.Int32Value;
+import com.yahoo.jrt.Int8Value;
+import com.yahoo.jrt.Method;
+import com.yahoo.jrt.MethodHandler;
+import com.yahoo.jrt.Request;
+import com.yahoo.jrt.RequestWaiter;
+import com.yahoo.jrt.Task;
+import com.yahoo.jrt.Values;
+import com.yahoo.messagebus.EmptyReply;
+import com.yahoo.messagebus.Error;
+import com.yahoo.messagebus.ErrorCode;
+import com.yahoo.messagebus.Message;
+import com.yahoo.messagebus.Reply;
+import com.yahoo.messagebus.ReplyHandler;
+import com.yahoo.messagebus.routing.Route;
+import com.yahoo.messagebus.routing.RoutingNode;
+import com.yahoo.slime.BinaryFormat;
+import com.yahoo.slime.Cursor;
+import com.yahoo.slime.Inspector;
+import com.yahoo.slime.Slime;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Implements the request adapter for method "mbus.slime.batch", which carries multiple messages in one request.
+ * <p>
+ * When sending, the messages sent to the same target within a short delay, or until a number of payload
+ * bytes is reached, are coalesced into one request. Its header holds the "mbus.slime" headers and payloads of all
+ * the messages in one slime array, compressed together. The replies are returned in the same order in a single
+ * response, and delivered to the sender of each message.
+ * <p>
+ * Messages which do not expect a reply, and messages to targets which do not know this method, are sent
+ * by the {@link RPCSendV2} adapter this wraps.
+ *
+ * @author agent
+ */
+public class RPCSendBatch implements RPCSendAdapter, MethodHandler, RequestWaiter, ReplyHandler {
+
+    private final static String METHOD_NAME = "mbus.slime.batch";
+    private final static String METHOD_PARAMS = "bix";
+    private final static String METHOD_RETURN = "bix";
+    private static final String MESSAGES_F = "messages";
+    private static final String REPLIES_F = "replies";
+
+    private final RPCSendV2 single;
+    private final double maxDelaySecs;
+    private final int maxBytes;
+    private final Compressor compressor = new Compressor(CompressionType.LZ4, 3, 0.90, 1024);
+
+    /** The batches currently being collected, by target. Synchronize on this when accessing it. */
+    private final Map<RPCTarget, Batch> batches = new HashMap<>();
+
+    /** Whether the network is destroyed, such that no more batches are collected. Synchronize on batches. */
+    private boolean destroyed = false;
+
+    /** The connection specs of the targets which do not support batches */
+    private final Set<String> unsupportingTargets = ConcurrentHashMap.newKeySet();
+
+    private RPCNetwork net = null;
+
+    /**
+     * Creates a batching send adapter.
+     *
+     * @param single       The attached adapter of method "mbus.slime" used to encode and decode each message.
+     * @param maxDelaySecs The max time to wait for more messages to the same target before sending a batch.
+     * @param maxBytes     The number of payload bytes at which a batch is sent without waiting for more messages.
+     */
+    public RPCSendBatch(RPCSendV2 single, double maxDelaySecs, int maxBytes) {
+        this.single = single;
+        this.maxDelaySecs = maxDelaySecs;
+        this.maxBytes = maxBytes;
+    }
+
+    @Override
+    public void attach(RPCNetwork net) {
+        this.net = net;
+        Method method = new Method(METHOD_NAME, METHOD_PARAMS, METHOD_RETURN, this);
+        method.methodDesc("Send multiple message bus requests and get their replies back.");
+        method.paramDesc(0, "encoding", "Encoding type of the messages.")
+                .paramDesc(1, "decoded_size", "Number of bytes after decoding the messages.")
+                .paramDesc(2, "payload", "Slime encoded array of message headers and payloads.");
+        method.returnDesc(0, "encoding", "Encoding type of the replies.")
+                .returnDesc(1, "decoded_size", "Number of bytes after decoding the replies.")
+                .returnDesc(2, "payload", "Slime encoded array of reply headers and payloads.");
+        net.getSupervisor().addMethod(method);
+    }
+
+    @Override
+    public void send(RoutingNode recipient, Version version, byte[] payload, long timeRemaining) {
+        RPCTarget target = ((RPCServiceAddress)recipient.getServiceAddress()).getTarget();
+        if (recipient.getRoute().getHop(0).getIgnoreResult() || unsupportingTargets.contains(target.getName())) {
+            single.send(recipient, version, payload, timeRemaining);
+            return;
+        }
+
+        Batch full = null;
+        synchronized (batches) {
+            if (destroyed) {
+                replyShutdown(new Entry(recipient, version, payload, timeRemaining));
+                return;
+            }
+            Batch batch = batches.get(target);
+            if (batch == null) {
+                batch = new Batch(target);
+                batches.put(target, batch);
+                batch.flushTask.schedule(maxDelaySecs);
+            }
+            batch.add(new Entry(recipient, version, payload, timeRemaining));
+            if (batch.bytes >= maxBytes) {
+                batches.remove(target);
+                full = batch;
+            }
+        }
+        if (full != null) {
+            full.flushTask.kill();
+            full.send();
+        }
+    }
+
+    /** Sends the given batch if it has not already been sent */
+    private void flush(Batch batch) {
+        synchronized (batches) {
+            if (batches.get(batch.target) != batch) return;
+            batches.remove(batch.target);
+        }
+        batch.send();
+    }
+
+    /**
+     * Replies to all the messages waiting to be sent in a batch with a network shutdown error, and replies to
+     * messages passed to this later in the same way. This is called when the network is destroyed, as the tasks
+     * which would send the batches are never run after that.
+     */
+    void destroy() {
+        List<Batch> unsent;
+        synchronized (batches) {
+            destroyed = true;
+            unsent = new ArrayList<>(batches.values());
+            batches.clear();
+        }
+        for (Batch batch : unsent) {
+            batch.flushTask.kill();
+            for (Entry entry : batch.entries)
+                replyShutdown(entry);
+        }
+    }
+
+    /** Returns the number of messages waiting to be sent in a batch */
+    int batchedMessageCount() {
+        synchronized (batches) {
+            return batches.values().stream().mapToInt(batch -> batch.entries.size()).sum();
+        }
+    }
+
+    private void replyShutdown(Entry entry) {
+        single.deliverReply(new EmptyReply(),
+                            new Error(ErrorCode.NETWORK_SHUTDOWN, "Network layer has performed shutdown."),
+                            entry.ctx);
+    }
+
+    @Override
+    public void handleRequestDone(Request req) {
+        Batch batch = (Batch)req.getContext();
+        if (!req.checkReturnTypes(METHOD_RETURN)) {
+            if (req.errorCode() == com.yahoo.jrt.ErrorCode.NO_SUCH_METHOD) {
+                // An older or non-Java target: Send to it one message at the time from now on
+                unsupportingTargets.add(batch.target.getName());
+                for (Entry entry : batch.entries) {
+                    single.send(entry.ctx.recipient, entry.version, entry.payload,
+                                entry.message().getTimeRemainingNow());
+                }
+                return;
+            }
+            for (Entry entry : batch.entries) {
+                single.deliverReply(new EmptyReply(), RPCSend.toError(req, entry.serviceName(), entry.ctx.timeout),
+                                    entry.ctx);
+            }
+            return;
+        }
+
+        Inspector replies;
+        try {
+            Values ret = req.returnValues();
+            byte[] slimeBytes = compressor.decompress(ret.get(2).asData(), CompressionType.valueOf(ret.get(0).asInt8()),
+                                                      ret.get(1).asInt32());
+            replies = BinaryFormat.decode(slimeBytes).get().field(REPLIES_F);
+        } catch (RuntimeException e) {
+            for (Entry entry : batch.entries) {
+                single.deliverReply(new EmptyReply(),
+                                    new Error(ErrorCode.DECODE_ERROR,
+                                              "Could not decode the replies to a batch of messages from '" +
+                                              entry.serviceName() + "': " + e.getMessage()),
+                                    entry.ctx);
+            }
+            return;
+        }
+        for (int i = 0; i < batch.entries.size(); i++) {
+            Entry entry = batch.entries.get(i);
+            if (i < replies.entries()) {
+                single.deliverReply(single.createReply(replies.entry(i), entry.serviceName(), entry.ctx.trace),
+                                    null, entry.ctx);
+            } else {
+                single.deliverReply(new EmptyReply(),
+                                    new Error(ErrorCode.NETWORK_ERROR,
+                                              "No reply to message " + i + " of a batch of " + batch.entries.size() +
+                                              " messages was received from '" + entry.serviceName() + "'."),
+                                    entry.ctx);
+            }
+        }
+    }
+
+    @Override
+    public void invoke(Request request) {
+        // Decode all the messages before detaching, such that a request which cannot be decoded is returned with an error
+        List<RPCSend.Params> params = new ArrayList<>();
+        try {
+            Values args = request.parameters();
+            byte[] slimeBytes = compressor.decompress(args.get(2).asData(), CompressionType.valueOf(args.get(0).asInt8()),
+                                                      args.get(1).asInt32());
+            Inspector messages = BinaryFormat.decode(slimeBytes).get().field(MESSAGES_F);
+            for (int i = 0; i < messages.entries(); i++)
+                params.add(RPCSendV2.toParams(messages.entry(i)));
+        } catch (RuntimeException e) {
+            request.setError(com.yahoo.jrt.ErrorCode.BAD_REQUEST, "Could not decode batch of messages: " + e.getMessage());
+            return;
+        }
+        request.discardParameters(); // allow garbage collection of request parameters
+        request.detach();
+
+        ReceivedBatch batch = new ReceivedBatch(request, params.size());
+        if (params.isEmpty()) {
+            batch.returnRequest();
+            return;
+        }
+        for (int i = 0; i < params.size(); i++) {
+            RPCSend.Params p = params.get(i);
+            single.deliverMessage(p, this, new ReplyContext(batch, i, p.version));
+        }
+    }
+
+    @Override
+    public void handleReply(Reply reply) {
+        ReplyContext ctx = (ReplyContext)reply.getContext();
+        reply.setContext(null);
+        ctx.batch.setReply(ctx.index, reply, ctx.version, single.encodeReply(reply, ctx.version));
+    }
+
+    /** A message waiting to be sent in a batch */
+    private static class Entry {
+
+        /** The context of this, which is replaced by one having the time remaining when the batch is sent */
+        RPCSend.SendContext ctx;
+        final Version version;
+        final byte[] payload;
+
+        Entry(RoutingNode recipient, Version version, byte[] payload, long timeRemaining) {
+            this.ctx = new RPCSend.SendContext(recipient, timeRemaining);
+            this.version = version;
+            this.payload = payload;
+        }
+
+        Message message() {
+            return ctx.recipient.getMessage();
+        }
+
+        RPCServiceAddress address() {
+            return (RPCServiceAddress)ctx.recipient.getServiceAddress();
+        }
+
+        String serviceName() {
+            return address().getServiceName();
+        }
+    }
+
+    /** The messages to send to one target in one request */
+    private class Batch implements Runnable {
+
+        final RPCTarget target;
+        final List<Entry> entries = new ArrayList<>();
+        final Task flushTask;
+        int bytes = 0;
+
+        Batch(RPCTarget target) {
+            this.target = target;
+            this.flushTask = net.getSupervisor().transport().createTask(this);
+        }
+
+        void add(Entry entry) {
+            entries.add(entry);
+            bytes += entry.payload.length;
+        }
+
+        @Override
+        public void run() {
+            flush(this);
+        }
+
+        void send() {
+            // Messages may have timed out while waiting for the batch to be sent
+            for (Entry entry : entries)
+                entry.ctx = new RPCSend.SendContext(entry.ctx.recipient, entry.message().getTimeRemainingNow());
+            for (Entry entry : entries) {
+                if (entry.ctx.timeout <= 0)
+                    single.deliverReply(new EmptyReply(),
+                                        new Error(ErrorCode.TIMEOUT, "Aborting transmission because zero time remains."),
+                                        entry.ctx);
+            }
+            entries.removeIf(entry -> entry.ctx.timeout <= 0);
+            if (entries.isEmpty()) return;
+
+            Slime slime = new Slime();
+            Cursor messages = slime.setObject().setArray(MESSAGES_F);
+            double timeout = 0;
+            for (Entry entry : entries) {
+                Route route = new Route(entry.ctx.recipient.getRoute());
+                route.removeHop(0);
+                RPCSendV2.encodeMessage(messages.addObject(), entry.version, route, entry.address(),
+                                        entry.message(), entry.payload, entry.ctx.trace.getLevel());
+                single.traceSending(entry.ctx, entry.version, entry.address(),
+                                    " in a batch of " + entries.size() + " messages");
+                timeout = Math.max(timeout, entry.ctx.timeout);
+            }
+            Compressor.Compression compressionResult = compressor.compress(BinaryFormat.encode(slime));
+
+            Request req = new Request(METHOD_NAME);
+            Values v = req.parameters();
+            v.add(new Int8Value(compressionResult.type().getCode()));
+            v.add(new Int32Value(compressionResult.uncompressedSize()));
+            v.add(new DataValue(compressionResult.data()));
+            req.setContext(this);
+            target.getJRTTarget().invokeAsync(req, timeout, RPCSendBatch.this);
+            req.discardParameters(); // allow garbage collection of request parameters
+        }
+    }
+
+    /** The replies to a received batch of messages, which is returned when all messages are replied to */
+    private class ReceivedBatch {
+
+        final Request request;
+        final Reply[] replies;
+        final Version[] versions;
+        final byte[][] payloads;
+        final AtomicInteger pending;
+
+        ReceivedBatch(Request request, int size) {
+            this.request = request;
+            this.replies = new Reply[size];
+            this.versions = new Version[size];
+            this.payloads = new byte[size][];
+            this.pending = new AtomicInteger(size);
+        }
+
+        void setReply(int index, Reply reply, Version version, byte[] payload) {
+            replies[index] = reply;
+            versions[index] = version;
+            payloads[index] = payload;
+            if (pending.decrementAndGet() == 0) {
+                returnRequest();
+            }
+        }
+
+        void returnRequest() {
+            Slime slime = new Slime();
+            Cursor array = slime.setObject().setArray(REPLIES_F);
+            for (int i = 0; i < replies.length; i++) {
+                RPCSendV2.encodeReply(array.addObject(), replies[i], versions[i], payloads[i]);
+            }
+            Compressor.Compression compressionResult = compressor.compress(BinaryFormat.encode(slime));
+
+            Values ret = request.returnValues();
+            ret.add(new Int8Value(compressionResult.type().getCode()));
+            ret.add(new Int32Value(compressionResult.uncompressedSize()));
+            ret.add(new DataValue(compressionResult.data()));
+            request.returnRequest();
+        }
+    }
+
+    private static class ReplyContext {
+
+        final ReceivedBatch batch;
+        final int index;
+        final Version version;
+
+        ReplyContext(ReceivedBatch batch, int index, Version version) {
+            this.batch = batch;
+            this.index = index;
+            this.version = version;
+        }
+    }
+
+}
@@ -86,8 +86,21 @@ public class RPCSendV2 extends RPCSend {
         v.add(new DataValue(new byte[0]));
 
         Slime slime = new Slime();
-        Cursor root = slime.setObject();
+        encodeMessage(slime.setObject(), version, route, address, msg, payload, traceLevel);
 
+        byte[] serializedSlime = BinaryFormat.encode(slime);
+        Compressor.Compression compressionResult = compressor.compress(serializedSlime);
+
+        v.add(new Int8Value(compressionResult.type().getCode()));
+        v.add(new Int32Value(compressionResult.uncompressedSize()));
+        v.add(new DataValue(compressionResult.data()));
+
+        return req;
+    }
+
+    /** Writes the header fields and payload of a message to the given slime object */
+    static void encodeMessage(Cursor root, Version version, Route route, RPCServiceAddress address, Message msg,
+                              byte[] payload, int traceLevel) {
         root.setString(VERSION_F, version.toString());
         root.setString(ROUTE_F, route.toString());
         root.setString(SESSION_F, address.getSessionName());
@@ -97,15 +110,6 @@ public class RPCSendV2 extends RPCSend {
         root.setLong(TIMEREMAINING_F, msg.getTimeRemaining());
         root.setLong(TRACELEVEL_F, traceLevel);
         root.setData(BLOB_F, payload);
-
-        byte[] serializedSlime = BinaryFormat.encode(slime);
-        Compressor.Compression compressionResult = compressor.compress(serializedSlime);
-
-        v.add(new Int8Value(compressionResult.type().getCode()));
-        v.add(new Int32Value(compressionResult.uncompressedSize()));
-        v.add(new DataValue(compressionResult.data()));
-
-        return req;
     }
 
     @Override
@@ -113,8 +117,11 @@ public class RPCSendV2 extends RPCSend {
         CompressionType compression = CompressionType.valueOf(ret.get(3).asInt8());
         byte[] slimeBytes = compressor.decompress(ret.get(5).asData(), compression, ret.get(4).asInt32());
         Slime slime = BinaryFormat.decode(slimeBytes);
-        Inspector root = slime.get();
+        return createReply(slime.get(), serviceName, trace);
+    }
 
+    /** Creates a reply from a slime object written by {@link #encodeReply(Cursor, Reply, Version, byte[])} */
+    final Reply createReply(Inspector root, String serviceName, Trace trace) {
         Version version = new Version(root.field(VERSION_F).asString());
         byte[] payload = root.field(BLOB_F).asData();
 
@@ -154,7 +161,11 @@ public class RPCSendV2 extends RPCSend {
         CompressionType compression = CompressionType.valueOf(args.get(3).asInt8());
         byte[] slimeBytes = compressor.decompress(args.get(5).asData(), compression, args.get(4).asInt32());
         Slime slime = BinaryFormat.decode(slimeBytes);
-        Inspector root = slime.get();
+        return toParams(slime.get());
+    }
+
+    /** Returns the parameters of a message from a slime object written by {@link #encodeMessage} */
+    static Params toParams(Inspector root) {
         Params p = new Params();
         p.version = new Version(root.field(VERSION_F).asString());
         p.route = root.field(ROUTE_F).asString();
@@ -175,8 +186,18 @@ public class RPCSendV2 extends RPCSend {
         ret.add(new DataValue(new byte[0]));
 
         Slime slime = new Slime();
-        Cursor root = slime.setObject();
+        encodeReply(slime.setObject(), reply, version, payload);
+
+        byte[] serializedSlime = BinaryFormat.encode(slime);
+        Compressor.Compression compressionResult = compressor.compress(serializedSlime);
+
+        ret.add(new Int8Value(compressionResult.type().getCode()));
+        ret.add(new Int32Value(compressionResult.uncompressedSize()));
+        ret.add(new DataValue(compressionResult.data()));
+    }
 
+    /** Writes the header fields and payload of a reply to the given slime object */
+    static void encodeReply(Cursor root, Reply reply, Version version, byte[] payload) {
         root.setString(VERSION_F, version.toString());
         root.setDouble(RETRYDELAY_F, reply.getRetryDelay());
         root.setString(PROTOCOL_F, reply.getProtocol().toString());
@@ -197,13 +218,6 @@ public class RPCSendV2 extends RPCSend {
                 }
             }
         }
-
-        byte[] serializedSlime = BinaryFormat.encode(slime);
-        Compressor.Compression compressionResult = compressor.compress(serializedSlime);
-
-        ret.add(new Int8Value(compressionResult.type().getCode()));
-        ret.add(new Int32Value(compressionResult.uncompressedSize()));
-        ret.add(new DataValue(compressionResult.data()));
     }
 
 }
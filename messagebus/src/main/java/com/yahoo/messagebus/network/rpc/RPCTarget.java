@@ -38,6 +38,15 @@ public class RPCTarget implements RequestWaiter {
         this.target = orb.connect(spec);
     }
 
+    /**
+     * <p>Returns the connection spec of this target.</p>
+     *
+     * @return The connection spec.
+     */
+    public String getName() {
+        return name;
+    }
+
     /**
      * <p>Returns the encapsulated JRT target.</p>
      *
@@ -58,6 +67,27 @@ public class RPCTarget implements RequestWaiter {
         ref.incrementAndGet();
     }
 
+    /**
+     * <p>Adds a reference to this target unless its last reference is already
+     * released, in which case the connection is closed and this must not be
+     * used. This allows a target to be handed out without holding a lock which
+     * is also held when it is released.</p>
+     *
+     * @return Whether a reference was added.
+     * @see #addRef()
+     */
+    public boolean tryAddRef() {
+        while (true) {
+            int current = ref.get();
+            if (current == 0) {
+                return false;
+            }
+            if (ref.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
     /**
      * <p>This method is used for explicit reference counting targets to allow
      * reusing open connections. When the reference count reaches 0, the
@@ -5,21 +5,29 @@ import com.yahoo.jrt.Spec;
 import com.yahoo.jrt.Supervisor;
 import com.yahoo.concurrent.SystemTimer;
 import com.yahoo.concurrent.Timer;
+import com.yahoo.messagebus.metrics.CountMetric;
+import com.yahoo.messagebus.metrics.MetricSet;
 
-import java.util.HashMap;
-import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Class used to reuse targets for the same address when sending messages over the rpc network.
+ * <p>
+ * Lookups do not lock: Targets are held in a concurrent map, and a target is only handed out if a reference to it
+ * can be taken before the pool releases it, see {@link RPCTarget#tryAddRef()}.
  *
  * @author <a href="mailto:havardpe@yahoo-inc.com">Haavard Pettersen</a>
  */
 public class RPCTargetPool {
 
-    private final Map<String, Entry> targets = new HashMap<String, Entry>();
+    private final Map<String, Entry> targets = new ConcurrentHashMap<>();
     private final Timer timer;
     private final long expireMillis;
+    private final MetricSet metrics = new MetricSet("targets");
+    private final CountMetric created = new CountMetric("created", metrics);
+    private final CountMetric expired = new CountMetric("expired", metrics);
+    private final CountMetric invalidated = new CountMetric("invalidated", metrics);
 
     /**
      * Constructs a new instance of this class, and registers the {@link SystemTimer} for detecting and closing
@@ -50,12 +58,11 @@ public class RPCTargetPool {
      *
      * @param force Whether or not to force flush.
      */
-    public synchronized void flushTargets(boolean force) {
-        Iterator<Entry> it = targets.values().iterator();
+    public void flushTargets(boolean force) {
         long currentTime = timer.milliTime();
         long expireTime = currentTime - expireMillis;
-        while (it.hasNext()) {
-            Entry entry = it.next();
+        for (Map.Entry<String, Entry> mapEntry : targets.entrySet()) {
+            Entry entry = mapEntry.getValue();
             RPCTarget target = entry.target;
             if (target.getJRTTarget().isValid()) {
                 if (target.getRefCount() > 1) {
@@ -68,8 +75,10 @@ public class RPCTargetPool {
                     }
                 }
             }
-            target.subRef();
-            it.remove();
+            if (targets.remove(mapEntry.getKey(), entry)) {
+                target.subRef();
+                expired.inc(1);
+            }
         }
     }
 
@@ -85,23 +94,28 @@ public class RPCTargetPool {
     public RPCTarget getTarget(Supervisor orb, RPCServiceAddress address) {
         Spec spec = address.getConnectionSpec();
         String key = spec.toString();
-        RPCTarget ret;
-        synchronized (this) {
+        while (true) {
             Entry entry = targets.get(key);
-            if (entry != null) {
-                if (entry.target.getJRTTarget().isValid()) {
-                    entry.target.addRef();
-                    entry.lastUse = timer.milliTime();
-                    return entry.target;
-                }
-                entry.target.subRef();
-                targets.remove(key);
+            if (entry == null) {
+                entry = targets.computeIfAbsent(key, k -> {
+                    created.inc(1);
+                    return new Entry(new RPCTarget(spec, orb), timer.milliTime());
+                });
+            }
+            RPCTarget target = entry.target;
+            boolean referenced = target.tryAddRef();
+            if (referenced && target.getJRTTarget().isValid()) {
+                entry.lastUse = timer.milliTime();
+                return target;
+            }
+            if (referenced) {
+                target.subRef();
+            }
+            if (targets.remove(key, entry)) { // released by us, or already being released by a flush
+                target.subRef();
+                invalidated.inc(1);
             }
-            ret = new RPCTarget(spec, orb);
-            targets.put(key, new Entry(ret, timer.milliTime()));
         }
-        ret.addRef();
-        return ret;
     }
 
 
@@ -110,10 +124,20 @@ public class RPCTargetPool {
      *
      * @return The size of the internal map.
      */
-    public synchronized int size() {
+    public int size() {
         return targets.size();
     }
 
+    /**
+     * Returns the metrics of this pool, which count the targets created, expired after being idle, and
+     * replaced because their connection became invalid.
+     *
+     * @return The metrics of this.
+     */
+    public MetricSet getMetrics() {
+        return metrics;
+    }
+
     /**
      * Implements a helper class holds the necessary reference and timestamp of a target. The lastUse member is updated
      * when a call to {@link RPCTargetPool#flushTargets(boolean)} iterates over an active target.
@@ -121,7 +145,7 @@ public class RPCTargetPool {
     private static class Entry {
 
         final RPCTarget target;
-        long lastUse = 0;
+        volatile long lastUse = 0;
 
         Entry(RPCTarget target, long lastUse) {
             this.target = target;
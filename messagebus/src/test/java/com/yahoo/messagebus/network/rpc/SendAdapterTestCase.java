@@ -18,7 +18,9 @@ import org.junit.Test;
 
 import java.net.UnknownHostException;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import static org.junit.Assert.*;
 
@@ -105,12 +107,120 @@ public class SendAdapterTestCase {
         }
     }
 
+    @Test
+    public void requireThatMessagesCanBeSentInBatches() throws ListenFailedException, UnknownHostException {
+        TestServer batchServer = new TestServer(
+                new MessageBusParams().addProtocol(new TestProtocol()),
+                new RPCNetworkParams().setSlobrokConfigId(TestServer.getSlobrokConfig(slobrok)).setMaxBatchDelaySecs(0.1));
+        SourceSession batchSession = batchServer.mb.createSourceSession(
+                new SourceSessionParams().setTimeout(600.0).setReplyHandler(new Receptor()));
+        try {
+            assertTrue(batchServer.waitSlobrok("*/session", 2));
+            assertTrue(batchServer.net.getSendAdapter(new Version(6,149)) instanceof RPCSendBatch);
+
+            assertMessagesAreSentAndReplied(batchSession, 5);
+        } finally {
+            batchSession.destroy();
+            batchServer.destroy();
+        }
+    }
+
+    @Test
+    public void requireThatMessagesAreSentIndividuallyToTargetsWhichDoNotSupportBatches() throws ListenFailedException, UnknownHostException {
+        dstServer.net.getSupervisor().removeMethod("mbus.slime.batch");
+        TestServer batchServer = new TestServer(
+                new MessageBusParams().addProtocol(new TestProtocol()),
+                new RPCNetworkParams().setSlobrokConfigId(TestServer.getSlobrokConfig(slobrok)).setMaxBatchDelaySecs(0.1));
+        SourceSession batchSession = batchServer.mb.createSourceSession(
+                new SourceSessionParams().setTimeout(600.0).setReplyHandler(new Receptor()));
+        try {
+            assertTrue(batchServer.waitSlobrok("*/session", 2));
+            assertMessagesAreSentAndReplied(batchSession, 5); // the batch is rejected and its messages resent
+            assertMessagesAreSentAndReplied(batchSession, 5); // the messages are sent individually right away
+        } finally {
+            batchSession.destroy();
+            batchServer.destroy();
+        }
+    }
+
+    @Test
+    public void requireThatBatchedMessagesAreRepliedToWhenTheNetworkIsDestroyed() throws ListenFailedException, UnknownHostException, InterruptedException {
+        TestServer batchServer = new TestServer(
+                new MessageBusParams().addProtocol(new TestProtocol()),
+                new RPCNetworkParams().setSlobrokConfigId(TestServer.getSlobrokConfig(slobrok)).setMaxBatchDelaySecs(600));
+        SourceSession batchSession = batchServer.mb.createSourceSession(
+                new SourceSessionParams().setTimeout(600.0).setReplyHandler(new Receptor()));
+        try {
+            assertTrue(batchServer.waitSlobrok("*/session", 2));
+            RPCSendBatch batchAdapter = (RPCSendBatch)batchServer.net.getSendAdapter(new Version(6,149));
+            for (int i = 0; i < 3; i++)
+                assertTrue(batchSession.send(new SimpleMessage("foo" + i), Route.parse("dst/session")).isAccepted());
+            for (int i = 0; i < 600 && batchAdapter.batchedMessageCount() < 3; i++)
+                Thread.sleep(100);
+            assertEquals(3, batchAdapter.batchedMessageCount());
+
+            batchServer.net.destroy();
+            assertEquals(0, batchAdapter.batchedMessageCount());
+            for (int i = 0; i < 3; i++) {
+                Reply reply = ((Receptor)batchSession.getReplyHandler()).getReply(60);
+                assertNotNull(reply);
+                assertEquals(ErrorCode.NETWORK_SHUTDOWN, reply.getError(0).getCode());
+            }
+        } finally {
+            batchSession.destroy();
+            batchServer.destroy();
+        }
+    }
+
+    @Test
+    public void requireThatBatchedMessagesWhichTimeOutBeforeTheBatchIsSentAreNotSent() throws ListenFailedException, UnknownHostException {
+        TestServer batchServer = new TestServer(
+                new MessageBusParams().addProtocol(new TestProtocol()),
+                new RPCNetworkParams().setSlobrokConfigId(TestServer.getSlobrokConfig(slobrok)).setMaxBatchDelaySecs(2));
+        SourceSession batchSession = batchServer.mb.createSourceSession(
+                new SourceSessionParams().setTimeout(0.5).setReplyHandler(new Receptor()));
+        try {
+            assertTrue(batchServer.waitSlobrok("*/session", 2));
+            assertTrue(batchSession.send(new SimpleMessage("foo"), Route.parse("dst/session")).isAccepted());
+            Reply reply = ((Receptor)batchSession.getReplyHandler()).getReply(60);
+            assertNotNull(reply);
+            assertEquals(ErrorCode.TIMEOUT, reply.getError(0).getCode());
+            assertNull(((Receptor)dstSession.getMessageHandler()).getMessage(0));
+        } finally {
+            batchSession.destroy();
+            batchServer.destroy();
+        }
+    }
+
     ////////////////////////////////////////////////////////////////////////////////
     //
     // Utilities
     //
     ////////////////////////////////////////////////////////////////////////////////
 
+    private void assertMessagesAreSentAndReplied(SourceSession session, int messageCount) {
+        Set<String> values = new HashSet<>();
+        for (int i = 0; i < messageCount; i++) {
+            values.add("foo" + i);
+            assertTrue(session.send(new SimpleMessage("foo" + i), Route.parse("dst/session")).isAccepted());
+        }
+        for (int i = 0; i < messageCount; i++) {
+            Message msg = ((Receptor)dstSession.getMessageHandler()).getMessage(300);
+            assertNotNull(msg);
+            Reply reply = new SimpleReply(((SimpleMessage)msg).getValue());
+            reply.swapState(msg);
+            dstSession.reply(reply);
+        }
+        Set<String> replies = new HashSet<>();
+        for (int i = 0; i < messageCount; i++) {
+            Reply reply = ((Receptor)session.getReplyHandler()).getReply(300);
+            assertNotNull(reply);
+            assertFalse(reply.hasErrors());
+            replies.add(((SimpleReply)reply).getValue());
+        }
+        assertEquals(values, replies);
+    }
+
     private void assertVersionedSend(Version srcVersion, Version itrVersion, Version dstVersion) {
         System.out.println("Sending from " + srcVersion + " through " + itrVersion + " to " + dstVersion + ":");
         srcServer.net.setVersion(srcVersion);
@@ -6,6 +6,8 @@ import com.yahoo.jrt.Supervisor;
 import com.yahoo.jrt.Transport;
 import com.yahoo.jrt.slobrok.server.Slobrok;
 import com.yahoo.concurrent.Timer;
+import com.yahoo.messagebus.metrics.CountMetric;
+import com.yahoo.messagebus.metrics.Metric;
 import com.yahoo.messagebus.network.rpc.test.TestServer;
 
 import java.net.UnknownHostException;
@@ -96,6 +98,70 @@ public class TargetPoolTestCase extends junit.framework.TestCase {
         assertEquals(0, pool.size());
     }
 
+    public void testTargetChurnMetrics() throws ListenFailedException, UnknownHostException {
+        RPCServiceAddress adr1 = registerServer();
+        RPCServiceAddress adr2 = registerServer();
+
+        PoolTimer timer = new PoolTimer();
+        RPCTargetPool pool = new RPCTargetPool(timer, 0.666);
+
+        RPCTarget target;
+        assertNotNull(target = pool.getTarget(orb, adr1)); target.subRef();
+        assertNotNull(target = pool.getTarget(orb, adr1)); target.subRef();
+        assertNotNull(target = pool.getTarget(orb, adr2)); target.subRef();
+        assertEquals(2, count(pool, "created"));
+        assertEquals(0, count(pool, "expired"));
+
+        timer.millis += 999;
+        pool.flushTargets(false);
+        assertEquals(0, pool.size());
+        assertEquals(2, count(pool, "expired"));
+
+        assertNotNull(target = pool.getTarget(orb, adr1)); target.subRef();
+        assertEquals(3, count(pool, "created"));
+        pool.flushTargets(true);
+        assertEquals(3, count(pool, "expired"));
+        assertEquals(0, count(pool, "invalidated"));
+    }
+
+    public void testInvalidatedTargetsAreCounted() throws ListenFailedException, UnknownHostException, InterruptedException {
+        RPCServiceAddress adr1 = registerServer();
+
+        PoolTimer timer = new PoolTimer();
+        RPCTargetPool pool = new RPCTargetPool(timer, 0.666);
+
+        RPCTarget target;
+        assertNotNull(target = pool.getTarget(orb, adr1)); target.subRef();
+        target.getJRTTarget().close();
+        for (int i = 0; i < 6000 && target.getJRTTarget().isValid(); i++)
+            Thread.sleep(10);
+        assertFalse(target.getJRTTarget().isValid());
+
+        RPCTarget replacement;
+        assertNotNull(replacement = pool.getTarget(orb, adr1)); replacement.subRef();
+        assertNotSame(target, replacement);
+        assertEquals(1, pool.size());
+        assertEquals(2, count(pool, "created"));
+        assertEquals(1, count(pool, "invalidated"));
+        assertEquals(0, count(pool, "expired"));
+    }
+
+    public void testTargetPoolMetricsAreReportedWithMessageBusMetrics() throws ListenFailedException, UnknownHostException {
+        registerServer();
+        TestServer server = servers.get(0);
+        assertTrue(server.mb.getMetrics().getMetrics().contains(server.net.getMetrics()));
+        assertEquals("targets", server.net.getMetrics().getName());
+    }
+
+    private static long count(RPCTargetPool pool, String name) {
+        for (Metric metric : pool.getMetrics().getMetrics()) {
+            if (metric.getName().equals(name)) {
+                return ((CountMetric)metric).get().get();
+            }
+        }
+        throw new IllegalArgumentException("No metric '" + name + "'");
+    }
+
     private RPCServiceAddress registerServer() throws ListenFailedException, UnknownHostException {
         servers.add(new TestServer("srv" + servers.size(), null, slobrok, null, null));
         return new RPCServiceAddress("foo/bar", servers.get(servers.size() - 1).mb.getConnectionSpec());
@@ -8,20 +8,26 @@ import com.yahoo.vespa.curator.Curator;
 import com.yahoo.vespa.curator.Lock;
 import com.yahoo.vespa.curator.recipes.CuratorCounter;
 import com.yahoo.vespa.curator.transaction.CuratorTransaction;
+import org.apache.zookeeper.data.Stat;
 
 import java.time.Duration;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
 
 /**
  * This encapsulated the curator database of the node repo.
  * It serves reads from an in-memory cache of the content which is invalidated when changed on another node
  * using a global, shared counter. The counter is updated on all write operations, ensured by wrapping write
  * operations in a 2pc transaction containing the counter update.
+ * Invalidation is per path: once the counter has moved, a cached path is only read again if the ZooKeeper stat
+ * of its node shows that it has changed. Values converted from the data, such as deserialized nodes, are cached
+ * with it.
  *
  * @author bratseth
  */
@@ -54,7 +60,7 @@ public class CuratorDatabase {
         this.useCache = useCache;
         this.curator = curator;
         changeGenerationCounter = new CuratorCounter(curator, root.append("changeCounter").getAbsolute());
-        cache.set(newCache(changeGenerationCounter.get()));
+        cache.set(newCache(changeGenerationCounter.get(), null));
     }
 
     /** Create a reentrant lock */
@@ -94,69 +100,110 @@ public class CuratorDatabase {
 
     public Optional<byte[]> getData(Path path) { return getCache().getData(path); }
 
+    /**
+     * Returns the data at this path converted by the given function.
+     * The converted value is cached together with the data, so the conversion is only done again
+     * when the data changes. The converter must therefore be a stateless function returning an immutable
+     * value, and callers should pass the same converter instance each time to benefit from caching.
+     */
+    public <T> Optional<T> getData(Path path, Function<byte[], T> converter) { return getCache().getData(path, converter); }
+
     private CuratorDatabaseCache getCache() {
         CuratorDatabaseCache cache = this.cache.get();
         long currentCuratorGeneration = changeGenerationCounter.get();
         if (currentCuratorGeneration != cache.generation()) { // current cache is invalid - start new
-            cache = newCache(currentCuratorGeneration);
+            cache = newCache(currentCuratorGeneration, cache);
             this.cache.set(cache);
         }
         return cache;
     }
 
     /** Caches must only be instantiated using this method */
-    private CuratorDatabaseCache newCache(long generation) {
-        return useCache ? new CuratorDatabaseCache(generation, curator) : new DeactivatedCache(generation, curator);
+    private CuratorDatabaseCache newCache(long generation, CuratorDatabaseCache previous) {
+        return useCache ? new CuratorDatabaseCache(generation, curator, previous)
+                        : new DeactivatedCache(generation, curator);
     }
 
     /**
      * A thread safe partial snapshot of the curator database content with a given generation.
-     * This is merely a recording of what Curator returned at various points in time when 
+     * This is merely a recording of what Curator returned at various points in time when
      * it had the counter at this generation.
      */
     private static class CuratorDatabaseCache {
 
         private final long generation;
-        
+
         /** The curator instance used to fetch missing data */
         protected final Curator curator;
 
         // The data of this partial state mirror. The amount of curator state mirrored in this may grow
         // over time by multiple threads. Growing is the only operation permitted by this.
         // The content of the map is immutable.
-        private final Map<Path, List<String>> children = new ConcurrentHashMap<>();
-        private final Map<Path, Optional<byte[]>> data = new ConcurrentHashMap<>();
+        private final Map<Path, CachedData<List<String>>> children = new ConcurrentHashMap<>();
+        private final Map<Path, CachedData<Optional<byte[]>>> data = new ConcurrentHashMap<>();
+
+        /**
+         * The content read at the previous generation. An entry of these is reused if the stat of its path
+         * shows that it has not changed since it was read.
+         */
+        private final Map<Path, CachedData<List<String>>> previousChildren;
+        private final Map<Path, CachedData<Optional<byte[]>>> previousData;
 
-        /** Create an empty snapshot at a given generation (as an empty snapshot is a valid partial snapshot) */
-        public CuratorDatabaseCache(long generation, Curator curator) {
+        /**
+         * Create an empty snapshot at a given generation (as an empty snapshot is a valid partial snapshot)
+         *
+         * @param previous the snapshot of the previous generation, or null if none
+         */
+        public CuratorDatabaseCache(long generation, Curator curator, CuratorDatabaseCache previous) {
             this.generation = generation;
             this.curator = curator;
+            this.previousChildren = previous == null ? Collections.emptyMap() : previous.children;
+            this.previousData = previous == null ? Collections.emptyMap() : previous.data;
         }
 
         public long generation() { return generation; }
 
-        /**
-         * Returns the children of this path, which may be empty.
-         * Returns null only if it is not present in this state mirror
-         */
-        public List<String> getChildren(Path path) { 
-            return children.computeIfAbsent(path, key -> ImmutableList.copyOf(curator.getChildren(path)));
+        /** Returns the children of this path, which may be empty */
+        public List<String> getChildren(Path path) {
+            return children.computeIfAbsent(path, key -> {
+                Optional<Stat> stat = curator.getStat(path);
+                if ( ! stat.isPresent()) return CachedData.absent(Collections.emptyList());
+
+                CachedData<List<String>> previous = previousChildren.get(path);
+                if (previous != null && previous.changeId() == stat.get().getPzxid()) return previous;
+                return new CachedData<>(ImmutableList.copyOf(curator.getChildren(path)), stat.get().getPzxid());
+            }).content();
         }
 
-        /**
-         * Returns the content of this child - which may be empty.
-         * Returns null only if it is not present in this state mirror
-         */
+        /** Returns the content of this child - which may be empty */
         public Optional<byte[]> getData(Path path) {
-            return data.computeIfAbsent(path, key -> curator.getData(path).map(data -> Arrays.copyOf(data, data.length)));
+            return getCachedData(path).content();
+        }
+
+        public <T> Optional<T> getData(Path path, Function<byte[], T> converter) {
+            CachedData<Optional<byte[]>> cached = getCachedData(path);
+            return cached.content().map(bytes -> cached.converted(converter, bytes));
+        }
+
+        private CachedData<Optional<byte[]>> getCachedData(Path path) {
+            return data.computeIfAbsent(path, key -> {
+                // The stat is read before the data, so data which changes in between is just read again next time
+                Optional<Stat> stat = curator.getStat(path);
+                if ( ! stat.isPresent()) return CachedData.absent(Optional.empty());
+
+                CachedData<Optional<byte[]>> previous = previousData.get(path);
+                if (previous != null && previous.changeId() == stat.get().getMzxid()) return previous;
+                Optional<byte[]> current = curator.getData(path).map(data -> Arrays.copyOf(data, data.length));
+                return new CachedData<>(current, stat.get().getMzxid());
+            });
         }
 
     }
 
     /** An implementation of the curator database cache which does no caching */
     private static class DeactivatedCache extends CuratorDatabaseCache {
-        
-        public DeactivatedCache(long generation, Curator curator) { super(generation, curator); }
+
+        public DeactivatedCache(long generation, Curator curator) { super(generation, curator, null); }
 
         @Override
         public List<String> getChildren(Path path) { return curator.getChildren(path); }
@@ -164,6 +211,45 @@ public class CuratorDatabase {
         @Override
         public Optional<byte[]> getData(Path path) { return curator.getData(path); }
 
+        @Override
+        public <T> Optional<T> getData(Path path, Function<byte[], T> converter) { return getData(path).map(converter); }
+
+    }
+
+    /**
+     * Some content read from a path, the id of the ZooKeeper change which last changed it at that time,
+     * and the values the content has been converted to.
+     */
+    private static class CachedData<CONTENT> {
+
+        /** The change id of content which was read from a path which did not exist */
+        private static final long absentChangeId = -1;
+
+        private final CONTENT content;
+        private final long changeId;
+
+        /** Converted values of the content, by converter */
+        private final Map<Function<byte[], ?>, Object> converted = new ConcurrentHashMap<>(1);
+
+        CachedData(CONTENT content, long changeId) {
+            this.content = content;
+            this.changeId = changeId;
+        }
+
+        static <CONTENT> CachedData<CONTENT> absent(CONTENT content) {
+            return new CachedData<>(content, absentChangeId);
+        }
+
+        CONTENT content() { return content; }
+
+        /** Returns the zxid of the change which last changed this content before it was read */
+        long changeId() { return changeId; }
+
+        @SuppressWarnings("unchecked")
+        <T> T converted(Function<byte[], T> converter, byte[] bytes) {
+            return (T)converted.computeIfAbsent(converter, key -> converter.apply(bytes));
+        }
+
     }
 
 }
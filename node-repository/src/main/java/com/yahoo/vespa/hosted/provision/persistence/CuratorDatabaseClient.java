@@ -24,11 +24,13 @@ import java.time.Clock;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
@@ -51,6 +53,8 @@ public class CuratorDatabaseClient {
     private static final Duration defaultLockTimeout = Duration.ofMinutes(1);
 
     private final NodeSerializer nodeSerializer;
+    /** Node deserializers by the state of the node, kept to allow reuse of cached deserialized nodes */
+    private final Map<Node.State, Function<byte[], Node>> nodeDeserializers = new EnumMap<>(Node.State.class);
     private final StringSetSerializer stringSetSerializer = new StringSetSerializer();
 
     private final CuratorDatabase curatorDatabase;
@@ -61,6 +65,8 @@ public class CuratorDatabaseClient {
 
     public CuratorDatabaseClient(NodeFlavors flavors, Curator curator, Clock clock, Zone zone) {
         this.nodeSerializer = new NodeSerializer(flavors);
+        for (Node.State state : Node.State.values())
+            nodeDeserializers.put(state, data -> nodeSerializer.fromJson(state, data));
         this.zone = zone;
         boolean useCache = zone.system().equals(SystemName.cd);
         this.curatorDatabase = new CuratorDatabase(curator, root, useCache);
@@ -259,9 +265,9 @@ public class CuratorDatabaseClient {
         if (states.length == 0)
             states = Node.State.values();
         for (Node.State state : states) {
-            Optional<byte[]> nodeData = curatorDatabase.getData(toPath(state, hostname));
-            if (nodeData.isPresent())
-                return nodeData.map((data) -> nodeSerializer.fromJson(state, data));
+            Optional<Node> node = curatorDatabase.getData(toPath(state, hostname), nodeDeserializers.get(state));
+            if (node.isPresent())
+                return node;
         }
         return Optional.empty();
     }
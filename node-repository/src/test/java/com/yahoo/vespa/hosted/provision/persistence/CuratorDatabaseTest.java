@@ -2,6 +2,7 @@
 package com.yahoo.vespa.hosted.provision.persistence;
 
 import com.yahoo.path.Path;
+import com.yahoo.text.Utf8;
 import com.yahoo.transaction.NestedTransaction;
 import com.yahoo.vespa.curator.mock.MockCurator;
 import com.yahoo.vespa.curator.transaction.CuratorOperations;
@@ -10,6 +11,7 @@ import org.junit.Test;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Function;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
@@ -47,11 +49,98 @@ public class CuratorDatabaseTest {
         commitCreate("/2/2", database);
         List<String> children1Call3 = database.getChildren(Path.fromString("/1"));
         assertEquals(2, database.getChildren(Path.fromString("/2")).size());
-        assertFalse("We do not reuse cached data in different parts of the tree when there are commits",
-                    children1Call3 == children1Call2);
+        assertTrue("We reuse cached data in unchanged parts of the tree when there are commits",
+                   children1Call3 == children1Call2);
         
     }
 
+    @Test
+    public void testOnlyPathsChangedSinceTheyWereReadAreReadAgain() throws Exception {
+        MockCurator curator = new MockCurator();
+        CuratorDatabase database = new CuratorDatabase(curator, Path.fromString("/"), true);
+        CuratorDatabase otherDatabase = new CuratorDatabase(curator, Path.fromString("/"), true);
+        Function<byte[], String> converter = data -> Utf8.toString(data);
+
+        NestedTransaction t = new NestedTransaction();
+        CuratorTransaction c = database.newCuratorTransactionIn(t);
+        c.add(CuratorOperations.create("/n"));
+        c.add(CuratorOperations.create("/n/1", Utf8.toBytes("foo")));
+        c.add(CuratorOperations.create("/n/2", Utf8.toBytes("bar")));
+        t.commit();
+        List<String> children = database.getChildren(Path.fromString("/n"));
+        String converted1 = database.getData(Path.fromString("/n/1"), converter).get();
+        String converted2 = database.getData(Path.fromString("/n/2"), converter).get();
+
+        t = new NestedTransaction();
+        otherDatabase.newCuratorTransactionIn(t).add(CuratorOperations.setData("/n/2", Utf8.toBytes("bar")));
+        t.commit();
+
+        assertTrue(children == database.getChildren(Path.fromString("/n")));
+        assertTrue(converted1 == database.getData(Path.fromString("/n/1"), converter).get());
+        assertEquals("bar", database.getData(Path.fromString("/n/2"), converter).get());
+        assertFalse("Data which has been written is read again, even if it is equal",
+                    converted2 == database.getData(Path.fromString("/n/2"), converter).get());
+
+        t = new NestedTransaction();
+        otherDatabase.newCuratorTransactionIn(t).add(CuratorOperations.delete("/n/1"));
+        t.commit();
+
+        assertEquals(1, database.getChildren(Path.fromString("/n")).size());
+        assertFalse(database.getData(Path.fromString("/n/1"), converter).isPresent());
+    }
+
+    @Test
+    public void testChangesMadeByOtherDatabasesAreReadImmediately() throws Exception {
+        MockCurator curator = new MockCurator();
+        CuratorDatabase database = new CuratorDatabase(curator, Path.fromString("/"), true);
+        CuratorDatabase otherDatabase = new CuratorDatabase(curator, Path.fromString("/"), true);
+        Function<byte[], String> converter = data -> Utf8.toString(data);
+
+        NestedTransaction t = new NestedTransaction();
+        CuratorTransaction c = database.newCuratorTransactionIn(t);
+        c.add(CuratorOperations.create("/n"));
+        c.add(CuratorOperations.create("/n/1", Utf8.toBytes("foo")));
+        c.add(CuratorOperations.create("/n/2", Utf8.toBytes("bar")));
+        t.commit();
+        String converted1 = database.getData(Path.fromString("/n/1"), converter).get();
+        String converted2 = database.getData(Path.fromString("/n/2"), converter).get();
+        assertEquals(2, database.getChildren(Path.fromString("/n")).size());
+
+        t = new NestedTransaction();
+        c = otherDatabase.newCuratorTransactionIn(t);
+        c.add(CuratorOperations.setData("/n/2", Utf8.toBytes("baz")));
+        c.add(CuratorOperations.create("/n/3"));
+        t.commit();
+
+        assertEquals("Changes are read without waiting for any notification",
+                     "baz", database.getData(Path.fromString("/n/2"), converter).get());
+        assertFalse(converted2 == database.getData(Path.fromString("/n/2"), converter).get());
+        assertEquals(3, database.getChildren(Path.fromString("/n")).size());
+        assertTrue("Values converted from unchanged data are reused",
+                   converted1 == database.getData(Path.fromString("/n/1"), converter).get());
+    }
+
+    @Test
+    public void testConvertedDataIsReusedUntilChanged() throws Exception {
+        MockCurator curator = new MockCurator();
+        CuratorDatabase database = new CuratorDatabase(curator, Path.fromString("/"), true);
+        Function<byte[], String> converter = data -> Utf8.toString(data);
+
+        NestedTransaction t = new NestedTransaction();
+        database.newCuratorTransactionIn(t).add(CuratorOperations.create("/1", Utf8.toBytes("foo")));
+        t.commit();
+
+        String converted = database.getData(Path.fromString("/1"), converter).get();
+        assertEquals("foo", converted);
+        assertTrue(converted == database.getData(Path.fromString("/1"), converter).get());
+
+        t = new NestedTransaction();
+        database.newCuratorTransactionIn(t).add(CuratorOperations.setData("/1", Utf8.toBytes("bar")));
+        t.commit();
+        assertEquals("bar", database.getData(Path.fromString("/1"), converter).get());
+        assertFalse(database.getData(Path.fromString("/2"), converter).isPresent());
+    }
+
     @Test
     public void testTransactionsWithDeactivatedCache() throws Exception {
         MockCurator curator = new MockCurator();
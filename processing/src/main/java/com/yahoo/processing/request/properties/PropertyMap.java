@@ -11,7 +11,8 @@ import java.util.Map;
  * A HashMap backing of Properties.
  * <p>
  * When this is cloned it will deep copy not only the model object map, but also each
- * clonable member inside the map.
+ * clonable member inside the map. If the map contains no clonable members it is instead shared
+ * with the clone until either of them is modified.
  * <p>
  * Subclassing is supported, a hook can be implemented to provide conditional inclusion in the map.
  * By default - all properties are accepted, so set is never propagated.
@@ -27,11 +28,25 @@ public class PropertyMap extends Properties {
      */
     private Map<CompoundName, Object> properties = new HashMap<>();
 
+    /** The number of cloneable values in the properties of this, which must be deep copied when this is cloned */
+    private int cloneableValues = 0;
+
+    /** Whether the properties of this are shared with a clone of this and must be copied before being modified */
+    private boolean shared = false;
+
     public void set(CompoundName name, Object value, Map<String, String> context) {
-        if (shouldSet(name, value))
-            properties.put(name, value);
-        else
+        if (shouldSet(name, value)) {
+            if (shared) {
+                properties = new HashMap<>(properties);
+                shared = false;
+            }
+            Object previous = properties.put(name, value);
+            if (value instanceof Cloneable) cloneableValues++;
+            if (previous instanceof Cloneable) cloneableValues--;
+        }
+        else {
             super.set(name, value, context);
+        }
     }
 
     /**
@@ -54,7 +69,14 @@ public class PropertyMap extends Properties {
     @Override
     PropertyMap clone() {
         PropertyMap clone = (PropertyMap) super.clone();
-        clone.properties = cloneMap(this.properties);
+        if (cloneableValues > 0) {
+            clone.properties = cloneMap(this.properties);
+            clone.shared = false;
+        }
+        else { // all values are immutable: Copy when modified
+            this.shared = true;
+            clone.shared = true;
+        }
         return clone;
     }
 
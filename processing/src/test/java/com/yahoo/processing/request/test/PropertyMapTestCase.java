@@ -10,7 +10,9 @@ import java.util.Collections;
 import java.util.List;
 
 import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -55,6 +57,31 @@ public class PropertyMapTestCase {
         assertTrue("Array was cloned", mapClone.get("byteArray") != byteArray);
     }
 
+    @Test
+    public void testCopyOnWriteCloning() {
+        PropertyMap map = new PropertyMap();
+        map.set("a", "a1");
+        map.set("b", "b1");
+
+        PropertyMap clone1 = map.clone();
+        PropertyMap clone2 = map.clone();
+        clone1.set("a", "a2");
+        map.set("b", "b2");
+        clone2.set("c", new ClonableObject()); // no longer shareable
+
+        assertEquals("a1", map.get("a"));
+        assertEquals("b2", map.get("b"));
+        assertNull(map.get("c"));
+        assertEquals("a2", clone1.get("a"));
+        assertEquals("b1", clone1.get("b"));
+        assertNull(clone1.get("c"));
+        assertEquals("a1", clone2.get("a"));
+        assertEquals("b1", clone2.get("b"));
+
+        PropertyMap clone2Clone = clone2.clone();
+        assertTrue(clone2.get("c") != clone2Clone.get("c"));
+    }
+
     private Object first(Object object) {
         if (object instanceof Object[])
             return ((Object[])object)[0];
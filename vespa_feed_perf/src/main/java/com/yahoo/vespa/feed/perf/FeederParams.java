@@ -21,6 +21,8 @@ public class FeederParams {
     private Route route = Route.parse("default");
     private String configId = "client";
     private boolean serialTransferEnabled = false;
+    private boolean jsonInput = false;
+    private double rate = 0;
 
     public InputStream getStdIn() {
         return stdIn;
@@ -76,12 +78,48 @@ public class FeederParams {
         return this;
     }
 
+    public boolean isJsonInput() {
+        return jsonInput;
+    }
+
+    public FeederParams setJsonInput(boolean jsonInput) {
+        this.jsonInput = jsonInput;
+        return this;
+    }
+
+    /**
+     * Returns the fixed number of operations to send per second, or 0 to send as fast as the
+     * throttle policy allows.
+     */
+    public double getRate() {
+        return rate;
+    }
+
+    public FeederParams setRate(double rate) {
+        if (rate < 0) {
+            throw new IllegalArgumentException("Rate must be non-negative, got " + rate);
+        }
+        this.rate = rate;
+        return this;
+    }
+
     public FeederParams parseArgs(String... args) throws ParseException {
         Options opts = new Options();
         opts.addOption("s", "serial", false, "use serial transfer mode, at most 1 pending operation");
+        opts.addOption("j", "json", false, "input is a JSON feed instead of an XML feed");
+        opts.addOption("r", "rate", true, "send this many operations per second regardless of how fast they are " +
+                                          "replied to, instead of as fast as possible");
 
         CommandLine cmd = new DefaultParser().parse(opts, args);
         serialTransferEnabled = cmd.hasOption("s");
+        jsonInput = cmd.hasOption("j");
+        if (cmd.hasOption("r")) {
+            try {
+                setRate(Double.parseDouble(cmd.getOptionValue("r")));
+            } catch (IllegalArgumentException e) {
+                throw new ParseException("Invalid rate '" + cmd.getOptionValue("r") + "': " + e.getMessage());
+            }
+        }
         route = newRoute(cmd.getArgs());
         return this;
     }
@@ -0,0 +1,70 @@
+// Copyright 2017 Yahoo Holdings. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.vespa.feed.perf;
+
+/**
+ * A histogram of latencies in nanoseconds with logarithmic buckets, which records in constant time and space
+ * and reports percentiles with a relative error of less than 2%.
+ *
+ * Values below 64 are counted exactly, and every larger power of two is divided into 64 linear sub-buckets.
+ * This class is thread safe.
+ *
+ * @author agent
+ */
+class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    private final long[] counts = new long[SUB_BUCKETS + (63 - SUB_BUCKET_BITS) * SUB_BUCKETS];
+    private long count = 0;
+    private long sum = 0;
+    private long min = Long.MAX_VALUE;
+    private long max = Long.MIN_VALUE;
+
+    public synchronized void record(long nanos) {
+        nanos = Math.max(0, nanos);
+        ++counts[indexOf(nanos)];
+        ++count;
+        sum += nanos;
+        min = Math.min(min, nanos);
+        max = Math.max(max, nanos);
+    }
+
+    public synchronized long count() { return count; }
+
+    public synchronized long min() { return count == 0 ? 0 : min; }
+
+    public synchronized long max() { return count == 0 ? 0 : max; }
+
+    public synchronized long average() { return count == 0 ? 0 : sum / count; }
+
+    /** Returns the latency which the given percentage (0-100) of the recorded latencies are below or equal to */
+    public synchronized long percentile(double percent) {
+        if (count == 0) return 0;
+        long rank = Math.max(1, (long)Math.ceil(percent / 100 * count));
+        if (rank >= count) return max;
+        long seen = 0;
+        for (int i = 0; i < counts.length; ++i) {
+            seen += counts[i];
+            if (seen >= rank)
+                return Math.max(min, Math.min(max, valueOf(i)));
+        }
+        return max;
+    }
+
+    private static int indexOf(long value) {
+        if (value < SUB_BUCKETS) return (int)value;
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int)(value >>> (exponent - SUB_BUCKET_BITS)) - SUB_BUCKETS;
+        return SUB_BUCKETS + (exponent - SUB_BUCKET_BITS) * SUB_BUCKETS + subBucket;
+    }
+
+    /** Returns the smallest value counted in the bucket at the given index */
+    private static long valueOf(int index) {
+        if (index < SUB_BUCKETS) return index;
+        int exponent = (index - SUB_BUCKETS) / SUB_BUCKETS + SUB_BUCKET_BITS;
+        int subBucket = (index - SUB_BUCKETS) % SUB_BUCKETS;
+        return (long)(SUB_BUCKETS + subBucket) << (exponent - SUB_BUCKET_BITS);
+    }
+
+}
@@ -1,8 +1,15 @@
 // Copyright 2017 Yahoo Holdings. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
 package com.yahoo.vespa.feed.perf;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.yahoo.concurrent.DaemonThreadFactory;
+import com.yahoo.document.DocumentId;
+import com.yahoo.document.DocumentOperation;
 import com.yahoo.document.DocumentPut;
+import com.yahoo.document.DocumentRemove;
 import com.yahoo.document.DocumentTypeManager;
+import com.yahoo.document.DocumentUpdate;
+import com.yahoo.document.json.ParallelJsonReader;
 import com.yahoo.documentapi.messagebus.protocol.*;
 import com.yahoo.messagebus.Error;
 import com.yahoo.messagebus.Message;
@@ -10,6 +17,7 @@ import com.yahoo.messagebus.MessageBusParams;
 import com.yahoo.messagebus.RPCMessageBus;
 import com.yahoo.messagebus.Reply;
 import com.yahoo.messagebus.ReplyHandler;
+import com.yahoo.messagebus.Result;
 import com.yahoo.messagebus.SourceSession;
 import com.yahoo.messagebus.SourceSessionParams;
 import com.yahoo.messagebus.StaticThrottlePolicy;
@@ -20,15 +28,35 @@ import com.yahoo.vespaxmlparser.VespaXMLFeedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.PrintStream;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
 
 /**
+ * A feeder which sends the operations of an XML or JSON feed through message bus and reports throughput and
+ * latency percentiles per operation type. Operations are parsed in a separate thread, and the documents of
+ * JSON feeds are created in parallel.
+ *
+ * By default operations are sent as fast as the throttle policy allows. If a rate is given, operations are
+ * instead sent at that fixed rate without throttling (open loop), and latency is measured from the time each
+ * operation should have been sent, such that a slow receiver cannot hide its latency by slowing down the sender.
+ *
+ * To benchmark the message bus path alone, route the operations to a dummy receiver, such as vespa-dummy-receiver.
+ *
  * @author <a href="mailto:simon@yahoo-inc.com">Simon Thoresen Hult</a>
  */
 public class SimpleFeeder implements ReplyHandler {
 
     private final static long REPORT_INTERVAL = TimeUnit.SECONDS.toMillis(10);
     private final static long HEADER_INTERVAL = REPORT_INTERVAL * 24;
+    private final static int QUEUE_SIZE = 1000;
+    private final static Message END_OF_FEED = new RemoveDocumentMessage(new DocumentId("id:feed:perf::end-of-feed"));
     private final DocumentTypeManager docTypeMgr = new DocumentTypeManager();
     private final InputStream in;
     private final PrintStream out;
@@ -36,15 +64,18 @@ public class SimpleFeeder implements ReplyHandler {
     private final RPCMessageBus mbus;
     private final Route route;
     private final SourceSession session;
+    private final boolean jsonInput;
+    private final double rate;
+    private final BlockingQueue<Message> queue = new ArrayBlockingQueue<>(QUEUE_SIZE);
+    private final Map<String, LatencyHistogram> latencies = new ConcurrentHashMap<>();
+    private final LatencyHistogram totalLatency = new LatencyHistogram();
     private final long startTime = System.currentTimeMillis();
     private volatile Throwable failure;
+    private volatile Throwable parseFailure;
     private volatile long numReplies = 0;
-    private long maxLatency = Long.MIN_VALUE;
-    private long minLatency = Long.MAX_VALUE;
     private long nextHeader = startTime + HEADER_INTERVAL;
     private long nextReport = startTime + REPORT_INTERVAL;
     private long numMessages = 0;
-    private long sumLatency = 0;
 
     public static void main(String[] args) throws Throwable {
         new SimpleFeeder(new FeederParams().parseArgs(args)).run().close();
@@ -55,39 +86,53 @@ public class SimpleFeeder implements ReplyHandler {
         this.out = params.getStdOut();
         this.err = params.getStdErr();
         this.route = params.getRoute();
+        this.jsonInput = params.isJsonInput();
+        this.rate = params.getRate();
         this.mbus = newMessageBus(docTypeMgr, params.getConfigId());
-        this.session = newSession(mbus, this, params.isSerialTransferEnabled());
+        this.session = newSession(mbus, this, params.isSerialTransferEnabled(), rate > 0);
         this.docTypeMgr.configure(params.getConfigId());
     }
 
     public SimpleFeeder run() throws Throwable {
-        VespaXMLFeedReader reader = new VespaXMLFeedReader(in, docTypeMgr);
-        VespaXMLFeedReader.Operation op = new VespaXMLFeedReader.Operation();
+        Thread parser = new Thread(this::parse, "feed-parser");
+        parser.setDaemon(true);
+        parser.start();
         printHeader();
+        long intervalNanos = rate > 0 ? (long)(TimeUnit.SECONDS.toNanos(1) / rate) : 0;
+        long nextSendTime = System.nanoTime();
         while (failure == null) {
-            reader.read(op);
-            if (op.getType() == VespaXMLFeedReader.OperationType.INVALID) {
+            Message msg = queue.take();
+            if (msg == END_OF_FEED) {
                 break;
             }
-            Message msg = newMessage(op);
-            if (msg == null) {
-                err.println("ignoring operation; " + op.getType());
-                continue; // ignore
-            }
-            msg.setContext(System.currentTimeMillis());
             msg.setRoute(route);
-            Error err = session.sendBlocking(msg).getError();
-            if (err != null) {
-                throw new IOException(err.toString());
+            if (rate > 0) {
+                nextSendTime += intervalNanos;
+                waitUntil(nextSendTime);
+                msg.setContext(new Context(msg, nextSendTime));
+                Result result = session.send(msg);
+                if ( ! result.isAccepted()) {
+                    throw new IOException(result.getError().toString());
+                }
+            } else {
+                msg.setContext(new Context(msg, System.nanoTime()));
+                Error err = session.sendBlocking(msg).getError();
+                if (err != null) {
+                    throw new IOException(err.toString());
+                }
             }
             ++numMessages;
         }
+        if (parseFailure != null) {
+            throw parseFailure;
+        }
         while (failure == null && numReplies < numMessages) {
             Thread.sleep(100);
         }
         if (failure != null) {
             throw failure;
         }
+        printLatencies();
         printReport();
         return this;
     }
@@ -97,6 +142,54 @@ public class SimpleFeeder implements ReplyHandler {
         mbus.destroy();
     }
 
+    /** Parses the input and adds the resulting messages to the queue, followed by END_OF_FEED */
+    private void parse() {
+        try {
+            if (jsonInput) {
+                ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+                                                                        new DaemonThreadFactory("feed-document-operations-"));
+                try {
+                    ParallelJsonReader reader = new ParallelJsonReader(docTypeMgr, in, new JsonFactory(),
+                                                                       executor, QUEUE_SIZE);
+                    for (DocumentOperation op; failure == null && (op = reader.next()) != null; ) {
+                        queue.put(newMessage(op));
+                    }
+                } finally {
+                    executor.shutdown();
+                }
+            } else {
+                VespaXMLFeedReader reader = new VespaXMLFeedReader(in, docTypeMgr);
+                while (failure == null) {
+                    VespaXMLFeedReader.Operation op = new VespaXMLFeedReader.Operation();
+                    reader.read(op);
+                    if (op.getType() == VespaXMLFeedReader.OperationType.INVALID) {
+                        break;
+                    }
+                    Message msg = newMessage(op);
+                    if (msg == null) {
+                        err.println("ignoring operation; " + op.getType());
+                        continue; // ignore
+                    }
+                    queue.put(msg);
+                }
+            }
+        } catch (Throwable t) {
+            parseFailure = t;
+        } finally {
+            try {
+                queue.put(END_OF_FEED);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static void waitUntil(long nanoTime) {
+        for (long remaining; (remaining = nanoTime - System.nanoTime()) > 0; ) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
     private Message newMessage(VespaXMLFeedReader.Operation op) {
         switch (op.getType()) {
         case DOCUMENT: {
@@ -119,6 +212,25 @@ public class SimpleFeeder implements ReplyHandler {
         }
     }
 
+    private static Message newMessage(DocumentOperation op) {
+        if (op instanceof DocumentPut) {
+            PutDocumentMessage message = new PutDocumentMessage((DocumentPut)op);
+            message.setCondition(op.getCondition());
+            return message;
+        }
+        if (op instanceof DocumentRemove) {
+            RemoveDocumentMessage message = new RemoveDocumentMessage((DocumentRemove)op);
+            message.setCondition(op.getCondition());
+            return message;
+        }
+        if (op instanceof DocumentUpdate) {
+            UpdateDocumentMessage message = new UpdateDocumentMessage((DocumentUpdate)op);
+            message.setCondition(op.getCondition());
+            return message;
+        }
+        throw new IllegalArgumentException("Unsupported operation " + op);
+    }
+
     @Override
     public void handleReply(Reply reply) {
         if (failure != null) {
@@ -128,12 +240,12 @@ public class SimpleFeeder implements ReplyHandler {
             failure = new IOException(formatErrors(reply));
             return;
         }
-        long now = System.currentTimeMillis();
-        long latency = now - (long)reply.getContext();
-        minLatency = Math.min(minLatency, latency);
-        maxLatency = Math.max(maxLatency, latency);
-        sumLatency += latency;
+        Context context = (Context)reply.getContext();
+        long latency = System.nanoTime() - context.sendTime;
+        totalLatency.record(latency);
+        latencies.computeIfAbsent(context.operation, key -> new LatencyHistogram()).record(latency);
         ++numReplies;
+        long now = System.currentTimeMillis();
         if (now > nextHeader) {
             printHeader();
             nextHeader += HEADER_INTERVAL;
@@ -145,12 +257,32 @@ public class SimpleFeeder implements ReplyHandler {
     }
 
     private void printHeader() {
-        out.println("total time, num messages, min latency, avg latency, max latency");
+        out.println("total time, num messages, min latency, avg latency, max latency, 99% latency");
     }
 
     private void printReport() {
-        out.format("%10d, %12d, %11d, %11d, %11d\n", System.currentTimeMillis() - startTime,
-                   numReplies, minLatency, sumLatency / numReplies, maxLatency);
+        out.format("%10d, %12d, %11d, %11d, %11d, %11d\n", System.currentTimeMillis() - startTime,
+                   numReplies, millis(totalLatency.min()), millis(totalLatency.average()), millis(totalLatency.max()),
+                   millis(totalLatency.percentile(99)));
+    }
+
+    private void printLatencies() {
+        out.println("operation, num messages, min latency, 50% latency, 90% latency, 99% latency, 99.9% latency, max latency");
+        for (Map.Entry<String, LatencyHistogram> entry : new TreeMap<>(latencies).entrySet()) {
+            LatencyHistogram histogram = entry.getValue();
+            out.format("%9s, %12d, %11.3f, %11.3f, %11.3f, %11.3f, %13.3f, %11.3f\n", entry.getKey(), histogram.count(),
+                       fractionalMillis(histogram.min()), fractionalMillis(histogram.percentile(50)),
+                       fractionalMillis(histogram.percentile(90)), fractionalMillis(histogram.percentile(99)),
+                       fractionalMillis(histogram.percentile(99.9)), fractionalMillis(histogram.max()));
+        }
+    }
+
+    private static long millis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    private static double fractionalMillis(long nanos) {
+        return nanos / 1e6;
     }
 
     private static String formatErrors(Reply reply) {
@@ -168,12 +300,36 @@ public class SimpleFeeder implements ReplyHandler {
                                  configId);
     }
 
-    private static SourceSession newSession(RPCMessageBus mbus, ReplyHandler replyHandler, boolean serial) {
+    private static SourceSession newSession(RPCMessageBus mbus, ReplyHandler replyHandler, boolean serial,
+                                            boolean fixedRate) {
         SourceSessionParams params = new SourceSessionParams();
         params.setReplyHandler(replyHandler);
-        if (serial) {
+        if (fixedRate) {
+            params.setThrottlePolicy(null); // the rate must not depend on the replies
+        } else if (serial) {
             params.setThrottlePolicy(new StaticThrottlePolicy().setMaxPendingCount(1));
         }
         return mbus.getMessageBus().createSourceSession(params);
     }
+
+    /** The context of a sent message */
+    private static class Context {
+
+        final String operation;
+        final long sendTime;
+
+        Context(Message message, long sendTime) {
+            this.operation = operationName(message);
+            this.sendTime = sendTime;
+        }
+
+        private static String operationName(Message message) {
+            if (message instanceof PutDocumentMessage) return "put";
+            if (message instanceof UpdateDocumentMessage) return "update";
+            if (message instanceof RemoveDocumentMessage) return "remove";
+            return message.getClass().getSimpleName();
+        }
+
+    }
+
 }
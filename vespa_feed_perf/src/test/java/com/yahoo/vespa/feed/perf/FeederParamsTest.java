@@ -48,6 +48,11 @@ public class FeederParamsTest {
         assertFalse(params.isSerialTransferEnabled());
         params.setSerialTransfer(true);
         assertTrue(params.isSerialTransferEnabled());
+        params.setJsonInput(true);
+        assertTrue(params.isJsonInput());
+
+        params.setRate(500);
+        assertEquals(500, params.getRate(), 0);
     }
 
     @Test
@@ -59,6 +64,8 @@ public class FeederParamsTest {
         assertEquals(Route.parse("default"), params.getRoute());
         assertEquals("client", params.getConfigId());
         assertFalse(params.isSerialTransferEnabled());
+        assertFalse(params.isJsonInput());
+        assertEquals(0, params.getRate(), 0);
     }
 
     @Test
@@ -71,6 +78,24 @@ public class FeederParamsTest {
         assertTrue(new FeederParams().parseArgs("--serial", "foo").isSerialTransferEnabled());
     }
 
+    @Test
+    public void requireThatJsonOptionIsParsed() throws ParseException {
+        assertTrue(new FeederParams().parseArgs("-j").isJsonInput());
+        assertTrue(new FeederParams().parseArgs("--json", "foo").isJsonInput());
+    }
+
+    @Test
+    public void requireThatRateOptionIsParsed() throws ParseException {
+        assertEquals(100, new FeederParams().parseArgs("-r", "100").getRate(), 0);
+        assertEquals(0.5, new FeederParams().parseArgs("--rate", "0.5", "foo").getRate(), 0);
+        assertEquals(Route.parse("foo"), new FeederParams().parseArgs("--rate", "0.5", "foo").getRoute());
+    }
+
+    @Test(expected = ParseException.class)
+    public void requireThatInvalidRateIsRejected() throws ParseException {
+        new FeederParams().parseArgs("--rate", "-1");
+    }
+
     @Test
     public void requireThatArgumentsAreParsedAsRoute() throws ParseException {
         assertEquals(Route.parse("foo bar"), new FeederParams().parseArgs("foo", "bar").getRoute());
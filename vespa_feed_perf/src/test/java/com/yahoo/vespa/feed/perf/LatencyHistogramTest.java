@@ -0,0 +1,64 @@
+// Copyright 2017 Yahoo Holdings. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.vespa.feed.perf;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author agent
+ */
+public class LatencyHistogramTest {
+
+    @Test
+    public void requireThatEmptyHistogramReportsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.count());
+        assertEquals(0, histogram.min());
+        assertEquals(0, histogram.max());
+        assertEquals(0, histogram.average());
+        assertEquals(0, histogram.percentile(99));
+    }
+
+    @Test
+    public void requireThatSmallValuesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 50; ++i) {
+            histogram.record(i);
+        }
+        assertEquals(50, histogram.count());
+        assertEquals(1, histogram.min());
+        assertEquals(50, histogram.max());
+        assertEquals(25, histogram.percentile(50));
+        assertEquals(50, histogram.percentile(100));
+    }
+
+    @Test
+    public void requireThatPercentilesAreAccurate() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        long millis = TimeUnit.MILLISECONDS.toNanos(1);
+        for (int i = 1; i <= 1000; ++i) {
+            histogram.record(i * millis);
+        }
+        assertEquals(1000, histogram.count());
+        assertEquals(millis, histogram.min());
+        assertEquals(1000 * millis, histogram.max());
+        assertEquals(500.5 * millis, histogram.average(), millis);
+        assertEquals(500 * millis, histogram.percentile(50), 500 * millis * 0.02);
+        assertEquals(990 * millis, histogram.percentile(99), 990 * millis * 0.02);
+        assertEquals(999 * millis, histogram.percentile(99.9), 999 * millis * 0.02);
+    }
+
+    @Test
+    public void requireThatExtremeValuesAreRecorded() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-1);
+        histogram.record(Long.MAX_VALUE);
+        assertEquals(0, histogram.min());
+        assertEquals(Long.MAX_VALUE, histogram.max());
+        assertEquals(Long.MAX_VALUE, histogram.percentile(100));
+    }
+
+}
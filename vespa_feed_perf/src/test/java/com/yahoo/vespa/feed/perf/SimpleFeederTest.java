@@ -25,6 +25,7 @@ import java.nio.charset.StandardCharsets;
 import java.util.regex.Pattern;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -60,6 +61,60 @@ public class SimpleFeederTest {
                    "\\s*\\d+,\\s*3,.+\n");
     }
 
+    @Test
+    public void requireThatJsonFeederWorks() throws Throwable {
+        assertFeed(new FeederParams().setJsonInput(true),
+                   "[" +
+                   "    { \"put\": \"id:scheme:simple::0\", \"fields\": { \"my_str\": \"foo\" } }," +
+                   "    { \"update\": \"id:scheme:simple::1\", \"fields\": { \"my_str\": { \"assign\": \"bar\" } } }," +
+                   "    { \"remove\": \"id:scheme:simple::2\" }" +
+                   "]",
+                   new MessageHandler() {
+
+                       @Override
+                       public void handleMessage(Message msg) {
+                           Reply reply = ((DocumentMessage)msg).createReply();
+                           reply.swapState(msg);
+                           reply.popHandler().handleReply(reply);
+                       }
+                   },
+                   "",
+                   "(.+\n)+" +
+                   "\\s*\\d+,\\s*3,.+\n");
+    }
+
+    @Test
+    public void requireThatFixedRateFeederWorks() throws Throwable {
+        assertFeed(new FeederParams().setRate(1000),
+                   "<vespafeed>" +
+                   "    <document documenttype='simple' documentid='doc:scheme:0'>" +
+                   "        <my_str>foo</my_str>" +
+                   "    </document>" +
+                   "    <remove documenttype='simple' documentid='doc:scheme:1'/>" +
+                   "</vespafeed>",
+                   new MessageHandler() {
+
+                       @Override
+                       public void handleMessage(Message msg) {
+                           Reply reply = ((DocumentMessage)msg).createReply();
+                           reply.swapState(msg);
+                           reply.popHandler().handleReply(reply);
+                       }
+                   },
+                   "",
+                   "(.+\n)+" +
+                   "\\s*put,\\s*1,.+\n" +
+                   "\\s*remove,\\s*1,.+\n" +
+                   "\\s*\\d+,\\s*2,.+\n");
+    }
+
+    @Test
+    public void requireThatFixedRateModeDisablesThrottling() throws Exception {
+        TestDriver driver = new TestDriver(new FeederParams().setRate(1000), "", null);
+        assertNull(getThrottlePolicy(driver));
+        assertTrue(driver.close());
+    }
+
     @Test
     public void requireThatParseFailuresThrowInMainThread() throws Throwable {
         TestDriver driver = new TestDriver(new FeederParams(),
@@ -155,7 +210,12 @@ public class SimpleFeederTest {
 
     private static void assertFeed(String in, MessageHandler validator, String expectedErr, String expectedOut)
             throws Throwable {
-        TestDriver driver = new TestDriver(new FeederParams(), in, validator);
+        assertFeed(new FeederParams(), in, validator, expectedErr, expectedOut);
+    }
+
+    private static void assertFeed(FeederParams params, String in, MessageHandler validator, String expectedErr,
+                                   String expectedOut) throws Throwable {
+        TestDriver driver = new TestDriver(params, in, validator);
         driver.run();
         assertMatches(expectedErr, new String(driver.err.toByteArray(), StandardCharsets.UTF_8));
         assertMatches(expectedOut, new String(driver.out.toByteArray(), StandardCharsets.UTF_8));
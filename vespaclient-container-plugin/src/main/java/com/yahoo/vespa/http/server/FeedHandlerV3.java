@@ -63,6 +63,9 @@ public class FeedHandlerV3 extends LoggingRequestHandler {
         cron = new ScheduledThreadPoolExecutor(1, ThreadFactoryFactory.getThreadFactory("feedhandlerv3.cron"));
         cron.scheduleWithFixedDelay(this::removeOldClients, 16, 11, TimeUnit.MINUTES);
         this.metric = metric;
+        if (sessionCache != null) {
+            cron.scheduleWithFixedDelay(this::reportSourceSessionMetrics, 10, 10, TimeUnit.SECONDS);
+        }
         // 40% of the threads can be blocking on feeding before we deny requests.
         if (threadpoolConfig != null) {
             threadsAvailableForFeeding = new AtomicInteger(Math.max((int) (0.4 * threadpoolConfig.maxthreads()), 1));
@@ -135,6 +138,27 @@ public class FeedHandlerV3 extends LoggingRequestHandler {
         destroyer.start();
     }
 
+    /**
+     * Reports the in-flight messages and throttle windows of the source sessions of the session cache, which
+     * are shared with the other users of the cache. Sessions without a window limit are left out of the window sum.
+     */
+    private void reportSourceSessionMetrics() {
+        int sessions = 0;
+        long pending = 0;
+        long pendingSize = 0;
+        long windowSize = 0;
+        for (SessionCache.SourceSessionMetrics session : sessionCache.sourceSessionMetrics()) {
+            ++sessions;
+            pending += session.pendingCount();
+            pendingSize += session.pendingSize();
+            windowSize += session.maxPendingCount();
+        }
+        metric.set(MetricNames.MBUS_SOURCE_SESSIONS, sessions, null);
+        metric.set(MetricNames.MBUS_PENDING, pending, null);
+        metric.set(MetricNames.MBUS_PENDING_SIZE, pendingSize, null);
+        metric.set(MetricNames.MBUS_WINDOW_SIZE, windowSize, null);
+    }
+
     private String clientId(HttpRequest request) {
         String clientDictatedId = request.getHeader(Headers.CLIENT_ID);
         if (clientDictatedId == null ||  clientDictatedId.isEmpty()) {
@@ -20,6 +20,10 @@ public final class MetricNames {
     public static final String FAILED = PREFIX + "failed";
     public static final String SUCCEEDED = PREFIX + "succeeded";
     public static final String PENDING = PREFIX + "pending";
+    public static final String MBUS_SOURCE_SESSIONS = PREFIX + "mbus_source_sessions";
+    public static final String MBUS_PENDING = PREFIX + "mbus_pending";
+    public static final String MBUS_PENDING_SIZE = PREFIX + "mbus_pending_size";
+    public static final String MBUS_WINDOW_SIZE = PREFIX + "mbus_window_size";
 
     private MetricNames() {
     }
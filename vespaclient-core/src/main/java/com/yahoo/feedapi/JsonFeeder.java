@@ -2,6 +2,7 @@
 package com.yahoo.feedapi;
 
 import java.io.InputStream;
+import java.util.concurrent.Executor;
 
 import com.yahoo.document.DocumentTypeManager;
 import com.yahoo.document.json.JsonFeedReader;
@@ -9,16 +10,31 @@ import com.yahoo.vespaxmlparser.FeedReader;
 
 /**
  * Unpack JSON document operations and push to a feed access point.
+ * If an executor is given, the document operations are created in parallel in its threads.
  *
  * @author steinar
  */
 public class JsonFeeder extends Feeder {
+
+    /** The executor creating the document operations, or null to create them in the calling thread */
+    private final Executor executor;
+
     public JsonFeeder(DocumentTypeManager docMan, SimpleFeedAccess sender, InputStream stream) {
+        this(docMan, sender, stream, null);
+    }
+
+    /**
+     * Creates a feeder which creates the document operations in the given executor, which is owned by the caller
+     */
+    public JsonFeeder(DocumentTypeManager docMan, SimpleFeedAccess sender, InputStream stream, Executor executor) {
         super(docMan, new VespaFeedSender(sender), stream);
+        this.executor = executor;
     }
 
     @Override
     protected FeedReader createReader() throws Exception {
-        return new JsonFeedReader(stream, docMan);
+        if (executor == null)
+            return new JsonFeedReader(stream, docMan);
+        return new JsonFeedReader(stream, docMan, executor);
     }
 }
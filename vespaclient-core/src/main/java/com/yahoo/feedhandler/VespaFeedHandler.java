@@ -5,6 +5,7 @@ import com.google.inject.Inject;
 import com.yahoo.clientmetrics.RouteMetricSet;
 import com.yahoo.cloud.config.ClusterListConfig;
 import com.yahoo.cloud.config.SlobroksConfig;
+import com.yahoo.concurrent.DaemonThreadFactory;
 import com.yahoo.container.jdisc.EmptyResponse;
 import com.yahoo.container.jdisc.HttpRequest;
 import com.yahoo.container.jdisc.HttpResponse;
@@ -21,6 +22,10 @@ import com.yahoo.vespa.config.content.LoadTypeConfig;
 import com.yahoo.vespaclient.config.FeederConfig;
 
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.Executor;
 import java.util.logging.Logger;
@@ -40,6 +45,12 @@ public final class VespaFeedHandler extends VespaFeedHandlerBase {
     private AtomicInteger busyThreads = new AtomicInteger(0);
     private final int maxBusyThreads;
 
+    /**
+     * Creates the document operations of JSON feeds. Each feed has a bounded number of operations pending,
+     * and the number of feeds is bounded by maxBusyThreads, so the queue of this is bounded as well.
+     */
+    private final ExecutorService documentOperationExecutor = createDocumentOperationExecutor();
+
 
     @Inject
     public VespaFeedHandler(FeederConfig feederConfig, 
@@ -117,13 +128,29 @@ public final class VespaFeedHandler extends VespaFeedHandlerBase {
         }
     }
 
+    @Override
+    protected void destroy() {
+        // Lets operations already submitted complete, as readers wait for them
+        documentOperationExecutor.shutdown();
+        super.destroy();
+    }
+
     private Feeder createFeeder(SingleSender sender, HttpRequest request) {
         String contentType = request.getHeader("Content-Type");
         if (Boolean.valueOf(request.getProperty(JSON_INPUT)) || (contentType != null && contentType.startsWith("application/json"))) {
-            return new JsonFeeder(getDocumentTypeManager(), sender, getRequestInputStream(request));
+            return new JsonFeeder(getDocumentTypeManager(), sender, getRequestInputStream(request), documentOperationExecutor);
         } else {
             return new XMLFeeder(getDocumentTypeManager(), sender, getRequestInputStream(request));
         }
     }
 
+    private static ExecutorService createDocumentOperationExecutor() {
+        int threads = Runtime.getRuntime().availableProcessors();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                                                             new LinkedBlockingQueue<>(),
+                                                             new DaemonThreadFactory("feed-document-operations-"));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
 }
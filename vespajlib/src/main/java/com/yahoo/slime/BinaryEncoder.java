@@ -1,6 +1,8 @@
 // Copyright 2017 Yahoo Holdings. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
 package com.yahoo.slime;
 
+import java.nio.ByteBuffer;
+
 import static com.yahoo.slime.BinaryFormat.*;
 
 final class BinaryEncoder implements
@@ -16,11 +18,26 @@ ArrayTraverser, ObjectSymbolTraverser
         out = new BufferedOutput();
     }
 
+    public BinaryEncoder(byte[] buf, int offset, int length) {
+        out = new BufferedOutput(buf, offset, length);
+    }
+
     public byte[] encode(Slime slime) {
+        write(slime);
+        return out.toArray();
+    }
+
+    public ByteBuffer encodeToByteBuffer(Slime slime) {
+        write(slime);
+        return out.toByteBuffer();
+    }
+
+    /** Encodes the slime into the output of this, and returns the number of bytes written */
+    public int write(Slime slime) {
         out.reset();
         encodeSymbolTable(slime);
         encodeValue(slime.get());
-        return out.toArray();
+        return out.size();
     }
 
     void encode_cmpr_long(long value) {
@@ -1,6 +1,9 @@
 // Copyright 2017 Yahoo Holdings. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
 package com.yahoo.slime;
 
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
 /**
  * Class for serializing Slime data into binary format, or deserializing
  * the binary format into a Slime object.
@@ -44,6 +47,46 @@ public class BinaryFormat {
         return encoder.encode(slime);
     }
 
+    /**
+     * Take a Slime object and serialize it into binary format,
+     * without copying the result into an array of the exact size.
+     * @param slime the object which is to be serialized.
+     * @return a buffer holding just the encoded slime, which is a view of the array it was encoded into.
+     **/
+    public static ByteBuffer encodeToByteBuffer(Slime slime) {
+        BinaryEncoder encoder = new BinaryEncoder();
+        return encoder.encodeToByteBuffer(slime);
+    }
+
+    /**
+     * Take a Slime object and serialize it into binary format in
+     * the given buffer, starting at its position. The position is
+     * advanced past the encoded slime. A buffer backed by an array
+     * is encoded into directly, so a pooled buffer may be reused
+     * for many objects without any further allocation.
+     *
+     * If the remaining space of the buffer is too small, the
+     * position is unchanged, while the remaining bytes may have
+     * been overwritten.
+     *
+     * @param slime the object which is to be serialized.
+     * @param target the buffer to serialize the object into.
+     * @return the number of bytes written.
+     * @throws BufferOverflowException if the encoded slime does not fit in the remaining space of the buffer.
+     **/
+    public static int encode(Slime slime, ByteBuffer target) {
+        if ( ! target.hasArray()) {
+            ByteBuffer encoded = encodeToByteBuffer(slime);
+            int size = encoded.remaining();
+            target.put(encoded);
+            return size;
+        }
+        BinaryEncoder encoder = new BinaryEncoder(target.array(), target.arrayOffset() + target.position(), target.remaining());
+        int size = encoder.write(slime);
+        target.position(target.position() + size);
+        return size;
+    }
+
     /**
      * Take binary data and deserialize it into a Slime object.
      * The data is assumed to be the binary representation
@@ -85,4 +128,33 @@ public class BinaryFormat {
         BinaryDecoder decoder = new BinaryDecoder();
         return decoder.decode(data, offset, length);
     }
+
+    /**
+     * Take binary data and deserialize it into a Slime object.
+     * The data is assumed to be the binary representation
+     * as if obtained by a call to the @ref encode() method.
+     *
+     * The remaining bytes of the buffer are decoded where they
+     * are, without copying them first, when the buffer is backed
+     * by an array. If the data is deserialized without problems,
+     * the position of the buffer is advanced past it, otherwise
+     * the position is unchanged, and the returned Slime object
+     * contains the fields described for @ref decode(byte[]).
+     *
+     * @param data the buffer containing the data to be deserialized.
+     * @return a new Slime object constructed from the data.
+     **/
+    public static Slime decode(ByteBuffer data) {
+        BinaryDecoder decoder = new BinaryDecoder();
+        Slime slime;
+        if (data.hasArray()) {
+            slime = decoder.decode(data.array(), data.arrayOffset() + data.position(), data.remaining());
+        } else {
+            byte[] copy = new byte[data.remaining()];
+            data.duplicate().get(copy);
+            slime = decoder.decode(copy);
+        }
+        data.position(data.position() + decoder.in.getConsumedSize());
+        return slime;
+    }
 }
@@ -1,6 +1,8 @@
 // Copyright 2017 Yahoo Holdings. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
 package com.yahoo.slime;
 
+import java.util.Arrays;
+
 final class BufferedInput {
 
     private final byte[] source;
@@ -74,10 +76,8 @@ final class BufferedInput {
             fail("underflow");
             return new byte[0];
         }
-        byte[] ret = new byte[size];
-        for (int i = 0; i < size; i++) {
-            ret[i] = source[position++];
-        }
+        byte[] ret = Arrays.copyOfRange(source, position, position + size);
+        position += size;
         return ret;
     }
 }
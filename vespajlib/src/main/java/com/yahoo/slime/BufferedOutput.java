@@ -1,15 +1,35 @@
 // Copyright 2017 Yahoo Holdings. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
 package com.yahoo.slime;
 
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
 final class BufferedOutput {
 
     private byte[] buf;
+    private final int start;
     private int capacity;
     private int pos;
+    private final boolean growable;
 
     public BufferedOutput(int cap) {
         capacity = (cap < 64) ? 64 : cap;
         buf = new byte[capacity];
+        start = 0;
+        pos = 0;
+        growable = true;
+    }
+
+    /**
+     * Writes into the given region of a caller supplied array. The array is never
+     * replaced, so writing past the region throws a BufferOverflowException.
+     **/
+    public BufferedOutput(byte[] buf, int offset, int length) {
+        this.buf = buf;
+        this.start = offset;
+        this.pos = offset;
+        this.capacity = offset + length;
+        this.growable = false;
     }
 
     public BufferedOutput() {
@@ -17,11 +37,14 @@ final class BufferedOutput {
     }
 
     public void reset() {
-        pos = 0;
+        pos = start;
     }
 
     private void reserve(int bytes) {
         if (pos + bytes > capacity) {
+            if ( ! growable) {
+                throw new BufferOverflowException();
+            }
             while (pos + bytes > capacity) {
                 capacity = capacity * 2;
             }
@@ -33,6 +56,8 @@ final class BufferedOutput {
 
     public int position() { return pos; }
 
+    public int size() { return pos - start; }
+
     final void put(byte b) {
         reserve(1);
         buf[pos++] = b;
@@ -44,14 +69,18 @@ final class BufferedOutput {
 
     final void put(byte[] bytes) {
         reserve(bytes.length);
-        for (byte b : bytes) {
-            buf[pos++] = b;
-        }
+        System.arraycopy(bytes, 0, buf, pos, bytes.length);
+        pos += bytes.length;
     }
 
     public byte[] toArray() {
-        byte[] ret = new byte[pos];
-        System.arraycopy(buf, 0, ret, 0, pos);
+        byte[] ret = new byte[pos - start];
+        System.arraycopy(buf, start, ret, 0, pos - start);
         return ret;
     }
+
+    /** Returns a view of the written bytes, which shares the backing array of this. */
+    public ByteBuffer toByteBuffer() {
+        return ByteBuffer.wrap(buf, start, pos - start).slice();
+    }
 }
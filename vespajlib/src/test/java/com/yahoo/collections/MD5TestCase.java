@@ -1,6 +1,10 @@
 // Copyright 2017 Yahoo Holdings. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
 package com.yahoo.collections;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.security.MessageDigest;
+
 /**
  * @author <a href="mailto:einarmr@yahoo-inc.com">Einar M R Rosenvinge</a>
  */
@@ -30,4 +34,32 @@ public class MD5TestCase extends junit.framework.TestCase {
         assertTrue((c & 0x0000FF00) != 0);
         assertTrue((c & 0x000000FF) != 0);
     }
+
+    public void testDigestLongEqualsMessageDigest() throws Exception {
+        MessageDigest digester = MessageDigest.getInstance("MD5");
+        byte[] data = new byte[300];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) (i * 31 + 7);
+        }
+        for (int length = 0; length < 200; length++) {
+            for (int offset : new int[] { 0, 3 }) {
+                digester.update(data, offset, length);
+                ByteBuffer expected = ByteBuffer.wrap(digester.digest()).order(ByteOrder.LITTLE_ENDIAN);
+                for (int digestOffset : new int[] { 0, 4, 8 }) {
+                    assertEquals("length " + length + ", offset " + offset + ", digest offset " + digestOffset,
+                                 expected.getLong(digestOffset),
+                                 MD5.digestLong(data, offset, length, digestOffset));
+                }
+            }
+        }
+    }
+
+    public void testDigestLongRequiresWordOffset() {
+        try {
+            MD5.digestLong(new byte[0], 0, 0, 2);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
 }
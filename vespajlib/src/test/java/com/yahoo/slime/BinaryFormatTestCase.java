@@ -3,9 +3,13 @@ package com.yahoo.slime;
 
 import org.junit.Test;
 
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
 import static org.hamcrest.CoreMatchers.*;
 
 import static com.yahoo.slime.BinaryFormat.*;
@@ -564,4 +568,60 @@ public class BinaryFormatTestCase {
         assertThat(c.field("f").asData(), is(expd));
         assertThat(c.entry(5).valid(), is(false)); // not ARRAY
     }
+
+    @Test
+    public void testByteBufferEncodingAndDecoding() {
+        System.out.println("test encoding and decoding slime in byte buffers");
+        Slime slime = new Slime();
+        Cursor c = slime.setObject();
+        c.setLong("a", 10);
+        c.setString("b", "foo");
+        c.setArray("c").addDouble(3.5);
+        byte[] expect = BinaryFormat.encode(slime);
+
+        ByteBuffer view = BinaryFormat.encodeToByteBuffer(slime);
+        assertThat(view.remaining(), is(expect.length));
+        byte[] actual = new byte[view.remaining()];
+        view.get(actual);
+        assertThat(actual, is(expect));
+
+        for (ByteBuffer buffer : new ByteBuffer[] { ByteBuffer.allocate(64), ByteBuffer.allocateDirect(64) }) {
+            buffer.put((byte)42);
+            assertThat(BinaryFormat.encode(slime, buffer), is(expect.length));
+            assertThat(BinaryFormat.encode(slime, buffer), is(expect.length));
+            assertThat(buffer.position(), is(1 + 2 * expect.length));
+            buffer.flip();
+            assertThat(buffer.get(), is((byte)42));
+            for (int i = 0; i < 2; ++i) {
+                Slime decoded = BinaryFormat.decode(buffer);
+                assertThat(decoded.get().field("a").asLong(), is(10L));
+                assertThat(decoded.get().field("b").asString(), is("foo"));
+                assertThat(decoded.get().field("c").entry(0).asDouble(), is(3.5));
+            }
+            assertThat(buffer.remaining(), is(0));
+        }
+    }
+
+    @Test
+    public void testEncodingIntoTooSmallBufferThrows() {
+        Slime slime = new Slime();
+        slime.setString("a string which does not fit");
+        ByteBuffer buffer = ByteBuffer.allocate(16);
+        buffer.position(1);
+        try {
+            BinaryFormat.encode(slime, buffer);
+            fail();
+        } catch (BufferOverflowException e) {
+            // expected
+        }
+        assertThat(buffer.position(), is(1));
+    }
+
+    @Test
+    public void testFailedByteBufferDecodingLeavesPosition() {
+        ByteBuffer buffer = ByteBuffer.wrap(new byte[] { 0, enc_t_and_sz(Type.STRING, 5), 'f', 'o' });
+        Slime slime = BinaryFormat.decode(buffer);
+        assertThat(slime.get().field("error_message").valid(), is(true));
+        assertThat(buffer.position(), is(0));
+    }
 }
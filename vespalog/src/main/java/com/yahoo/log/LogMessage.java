@@ -1,10 +1,9 @@
 // Copyright 2017 Yahoo Holdings. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
 package com.yahoo.log;
 
+import java.nio.charset.StandardCharsets;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import com.yahoo.log.event.Event;
 import com.yahoo.log.event.MalformedEventException;
@@ -21,15 +20,8 @@ public class LogMessage
 {
     private static Logger log = Logger.getLogger(LogMessage.class.getName());
 
-    private static Pattern nativeFormat =
-        Pattern.compile("^(\\d[^\t]+)\t" + // time
-                        "([^\t]+)\t"  + // host
-                        "([^\t]+)\t"  + // threadProcess
-                        "([^\t]+)\t"  + // service
-                        "([^\t]+)\t"  + // component
-                        "([^\t]+)\t"  + // level
-                        "(.+)$"         // payload
-                        );
+    /** The number of tab separated fields of the native format: time, host, threadProcess, service, component, level and payload */
+    private static final int nativeFields = 7;
 
     private long     time;
     private String   timeStr;
@@ -39,6 +31,7 @@ public class LogMessage
     private String   component;
     private Level    level;
     private String   payload;
+    private final byte[] payloadBytes;
     private Event    event;
 
     /**
@@ -57,6 +50,25 @@ public class LogMessage
         this.component = component;
         this.level = level;
         this.payload = payload;
+        this.payloadBytes = null;
+    }
+
+    /**
+     * Private constructor for messages which keep the UTF-8 encoded
+     * payload, and decode it the first time it is requested.
+     */
+    private LogMessage (String timeStr, Long time, String host, String threadProcess,
+                        String service, String component, Level level,
+                        byte[] payloadBytes)
+    {
+        this.timeStr = timeStr;
+        this.time = time;
+        this.host = host;
+        this.threadProcess = threadProcess;
+        this.service = service;
+        this.component = component;
+        this.level = level;
+        this.payloadBytes = payloadBytes;
     }
 
     public long     getTime ()          {return time;}
@@ -66,7 +78,15 @@ public class LogMessage
     public String   getService ()       {return service;}
     public String   getComponent ()     {return component;}
     public Level    getLevel ()         {return level;}
-    public String   getPayload ()       {return payload;}
+
+    public String getPayload () {
+        String payload = this.payload;
+        if (payload == null) {
+            payload = new String(payloadBytes, StandardCharsets.UTF_8);
+            this.payload = payload; // racy but benign, as with String.hashCode()
+        }
+        return payload;
+    }
 
     /**
      * Make a log message from the native format of the logging
@@ -79,17 +99,111 @@ public class LogMessage
      *    exception.
      */
     public static LogMessage parseNativeFormat(String msg) throws InvalidLogFormatException {
-        Matcher m = nativeFormat.matcher(msg);
-        if (! m.matches()) {
+        int[] tabs = new int[nativeFields - 1];
+        int fieldStart = 0;
+        for (int i = 0; i < tabs.length; i++) {
+            int tab = msg.indexOf('\t', fieldStart);
+            if (tab <= fieldStart) {
+                throw new InvalidLogFormatException(msg); // missing or empty field
+            }
+            tabs[i] = tab;
+            fieldStart = tab + 1;
+        }
+        if ( ! isValidTime(msg, tabs[0]) || ! isValidPayload(msg, tabs[5] + 1)) {
             throw new InvalidLogFormatException(msg);
         }
 
-        Level msgLevel = LogLevel.parse(m.group(6));
-        Long timestamp = parseTimestamp(m.group(1));
+        String timeStr = msg.substring(0, tabs[0]);
+        return new LogMessage(timeStr, parseTimestamp(timeStr),
+                              msg.substring(tabs[0] + 1, tabs[1]),
+                              msg.substring(tabs[1] + 1, tabs[2]),
+                              msg.substring(tabs[2] + 1, tabs[3]),
+                              msg.substring(tabs[3] + 1, tabs[4]),
+                              LogLevel.parse(msg.substring(tabs[4] + 1, tabs[5])),
+                              msg.substring(tabs[5] + 1));
+    }
+
+    /**
+     * Make a log message from the native format of the logging
+     * package, given as UTF-8 encoded bytes, without decoding the
+     * payload until it is requested.  The bytes are not retained,
+     * so the buffer may be reused after this returns.
+     *
+     * @param buffer The buffer holding the log message
+     * @param offset The index of the first byte of the log message
+     * @param length The number of bytes of the log message, not
+     *    including any line terminator
+     * @return Returns a LogMessage instance
+     * @throws InvalidLogFormatException if the log message
+     *    can not be parsed, ie. is invalid, we throw this
+     *    exception.
+     */
+    public static LogMessage parseNativeFormat(byte[] buffer, int offset, int length) throws InvalidLogFormatException {
+        int end = offset + length;
+        int[] tabs = new int[nativeFields - 1];
+        int found = 0;
+        for (int i = offset; i < end && found < tabs.length; i++) {
+            if (buffer[i] == '\t') {
+                if (i == (found == 0 ? offset : tabs[found - 1] + 1)) {
+                    throw invalid(buffer, offset, length); // empty field
+                }
+                tabs[found++] = i;
+            }
+        }
+        if (found < tabs.length || ! isValidTime(buffer, offset, tabs[0]) || ! isValidPayload(buffer, tabs[5] + 1, end)) {
+            throw invalid(buffer, offset, length);
+        }
+
+        String timeStr = ascii(buffer, offset, tabs[0]);
+        byte[] payloadBytes = new byte[end - tabs[5] - 1];
+        System.arraycopy(buffer, tabs[5] + 1, payloadBytes, 0, payloadBytes.length);
+        return new LogMessage(timeStr, parseTimestamp(timeStr),
+                              utf8(buffer, tabs[0] + 1, tabs[1]),
+                              utf8(buffer, tabs[1] + 1, tabs[2]),
+                              utf8(buffer, tabs[2] + 1, tabs[3]),
+                              utf8(buffer, tabs[3] + 1, tabs[4]),
+                              LogLevel.parse(ascii(buffer, tabs[4] + 1, tabs[5])),
+                              payloadBytes);
+    }
+
+    /** The time field must start with a digit and have at least two characters */
+    private static boolean isValidTime(String msg, int end) {
+        return end >= 2 && msg.charAt(0) >= '0' && msg.charAt(0) <= '9';
+    }
+
+    private static boolean isValidTime(byte[] buffer, int start, int end) {
+        return end - start >= 2 && buffer[start] >= '0' && buffer[start] <= '9';
+    }
+
+    /** The payload must be non-empty and be on a single line */
+    private static boolean isValidPayload(String msg, int start) {
+        if (start >= msg.length()) return false;
+        for (int i = start; i < msg.length(); i++) {
+            char c = msg.charAt(i);
+            if (c == '\n' || c == '\r') return false;
+        }
+        return true;
+    }
+
+    private static boolean isValidPayload(byte[] buffer, int start, int end) {
+        if (start >= end) return false;
+        for (int i = start; i < end; i++) {
+            if (buffer[i] == '\n' || buffer[i] == '\r') return false;
+        }
+        return true;
+    }
+
+    @SuppressWarnings("deprecation")
+    private static String ascii(byte[] buffer, int start, int end) {
+        return new String(buffer, 0, start, end - start);
+    }
+
+    private static String utf8(byte[] buffer, int start, int end) {
+        return new String(buffer, start, end - start, StandardCharsets.UTF_8);
+    }
 
-        return new LogMessage(m.group(1), timestamp, m.group(2), m.group(3),
-                              m.group(4), m.group(5), msgLevel,
-                              m.group(7));
+    private static InvalidLogFormatException invalid(byte[] buffer, int offset, int length) {
+        return new InvalidLogFormatException(utf8(buffer, offset, offset + length));
     }
 
     private static long parseTimestamp(String timeStr) throws InvalidLogFormatException {
@@ -131,6 +245,7 @@ public class LogMessage
      * Return valid representation of log message.
      */
     public String toString () {
+        String payload = getPayload();
         return new StringBuilder(timeStr.length()
                                 + host.length()
                                 + threadProcess.length()
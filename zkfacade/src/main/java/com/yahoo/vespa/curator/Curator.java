@@ -20,6 +20,7 @@ import org.apache.curator.framework.recipes.locks.InterProcessMutex;
 import org.apache.curator.framework.state.ConnectionState;
 import org.apache.curator.framework.state.ConnectionStateListener;
 import org.apache.curator.retry.ExponentialBackoffRetry;
+import org.apache.zookeeper.data.Stat;
 
 import java.io.Closeable;
 import java.time.Duration;
@@ -172,6 +173,19 @@ public class Curator implements AutoCloseable {
         }
     }
 
+    /**
+     * Returns the stat of the node at the given path, which tells when the node and its children were last changed.
+     * Empty is returned if the path does not exist.
+     */
+    public Optional<Stat> getStat(Path path) {
+        try {
+            return Optional.ofNullable(framework().checkExists().forPath(path.getAbsolute()));
+        }
+        catch (Exception e) {
+            throw new RuntimeException("Could not get stat of " + path.getAbsolute(), e);
+        }
+    }
+
     /**
      * A convenience method which sets some content at a path.
      * If the path and any of its parents does not exists they are created.
@@ -16,6 +16,7 @@ import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * A simple in-memory "file system" useful for Curator caching/mocking.
@@ -107,6 +108,9 @@ class MemoryFileSystem extends FileSystem {
      */
     public static class Node implements Cloneable {
 
+        /** The last id given to a change, mimicking the transaction ids (zxid) of ZooKeeper */
+        private static final AtomicLong lastChangeId = new AtomicLong();
+
         /** The parent of this node, or null if this is the root */
         private final Node parent;
 
@@ -118,6 +122,12 @@ class MemoryFileSystem extends FileSystem {
 
         private Map<String, Node> children = new LinkedHashMap<>();
 
+        /** The id of the change which created this or last set its content */
+        private long contentChangeId;
+
+        /** The id of the change which created this or last added or removed one of its children */
+        private long childrenChangeId;
+
         private Node(Node parent, String name) {
             this(parent, name, new byte[0]);
         }
@@ -126,13 +136,24 @@ class MemoryFileSystem extends FileSystem {
             this.parent = parent;
             this.name = name;
             this.content = Arrays.copyOf(content, content.length);
+            this.contentChangeId = lastChangeId.incrementAndGet();
+            this.childrenChangeId = contentChangeId;
         }
 
         /** Returns a copy of the content of this node */
         public byte[] getContent() { return Arrays.copyOf(content, content.length); }
 
         /** Replaces the content of this file */
-        public void setContent(byte[] content) { this.content = Arrays.copyOf(content, content.length); }
+        public void setContent(byte[] content) {
+            this.content = Arrays.copyOf(content, content.length);
+            contentChangeId = lastChangeId.incrementAndGet();
+        }
+
+        /** Returns the id of the change which created this or last set its content, like the mzxid of ZooKeeper */
+        public long contentChangeId() { return contentChangeId; }
+
+        /** Returns the id of the change which created this or last added or removed a child, like the pzxid of ZooKeeper */
+        public long childrenChangeId() { return childrenChangeId; }
 
         /**
          * Returns the node given by the path.
@@ -172,6 +193,7 @@ class MemoryFileSystem extends FileSystem {
 
             Node child = new Node(this, name);
             children.put(name, child);
+            childrenChangeId = lastChangeId.incrementAndGet();
             return child;
         }
 
@@ -181,6 +203,7 @@ class MemoryFileSystem extends FileSystem {
          * @return the node which was replaced by this, or null if none
          */
         public Node add(Node node) {
+            childrenChangeId = lastChangeId.incrementAndGet();
             return children.put(node.name(), node);
         }
 
@@ -191,7 +214,10 @@ class MemoryFileSystem extends FileSystem {
          * @return the removed node, or null if none
          */
         public Node remove(String name) {
-            return children.remove(name);
+            Node removed = children.remove(name);
+            if (removed != null)
+                childrenChangeId = lastChangeId.incrementAndGet();
+            return removed;
         }
 
         /** Returns an unmodifiable map of the immediate children of this indexed by their local name */
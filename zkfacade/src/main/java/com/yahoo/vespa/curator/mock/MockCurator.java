@@ -780,10 +780,15 @@ public class MockCurator extends Curator {
 
         @Override
         public Stat forPath(String path) throws Exception {
-            if (exists(path, fileSystem.root()))
-                return new Stat(); // A more accurate mock should set the stat fields
-            else
-                return null;
+            if ( ! exists(path, fileSystem.root())) return null;
+
+            Node node = getNode(path, fileSystem.root());
+            Stat stat = new Stat(); // Only the fields of Stat which are needed by users of this are set
+            stat.setMzxid(node.contentChangeId());
+            stat.setPzxid(node.childrenChangeId());
+            stat.setDataLength(node.getContent().length);
+            stat.setNumChildren(node.children().size());
+            return stat;
         }
 
         @Override